@@ -0,0 +1,62 @@
+# 批处理脚本 一行一个命令 base64 避免引号转义
+doStartArthasBatchScriptCommand() {
+  local batchFile="${HOME}/opt/arthas/arthasBatchScriptCommand.as"
+  createFile "${batchFile}"
+  local batchScript=$(echo "${arthasBatchScriptCommandBase64}" | base64 --decode)
+  # classloader hash value 在执行 sc 之后才知道
+  batchScript=${batchScript//'${CLASSLOADER_HASH_VALUE}'/${CLASSLOADER_HASH_VALUE}}
+  # 其他类的 classloader 需要单独获取
+  resolveClassLoaderHashValues "${batchScript}"
+  batchScript=${RESOLVED_BATCH_SCRIPT}
+  # maybe some get classloader is null sc -d java.lang.String
+  batchScript=${batchScript//-c null/ }
+  echo "${batchScript}" >"${batchFile}"
+  echo "arthas batch script ${batchFile}:"
+  cat "${batchFile}"
+  executeArthasBatchFile "${HOME}/opt/arthas/arthasBatchScriptCommand.out" "${batchFile}"
+  banner_simple "you can get execute result in ${HOME}/opt/arthas/arthasBatchScriptCommand.out"
+  uploadArthasResult "${HOME}/opt/arthas/arthasBatchScriptCommand.out"
+}
+
+main() {
+
+  banner_simple "arthas idea plugin  begin;start script path: $(pwd)/arthas-idea-plugin-batch-execution-script.sh"
+
+  check_permission
+
+  installArthas
+
+  if [ $? -ne 0 ]; then
+    exit_on_err 1 "arthas install as.sh script error"
+  fi
+  reset_for_env
+  if [ -z "${SELECT_VALUE}" ]; then
+    select_pid
+    SELECT_VALUE=${TARGET_PID}
+  fi
+
+  if [ -z "${SELECT_VALUE}" ]; then
+    exit_on_err 1 "select target process by classname or jar file name target pid is empty"
+  fi
+
+  if [ "${SC_COMMAND}" ]; then
+    banner_simple "first: get  classloader hash value"
+    getFirstClassLoaderHashValue
+    if [ -z "${CLASSLOADER_HASH_VALUE}" ]; then
+      exit_on_err 1 "not found classloader hash value,maybe class not load in jvm"
+    fi
+  fi
+
+  echo " "
+  banner_simple "last: execute arthas batch script"
+  scheduleTimeTunnelDeleteAll "${timeTunnelCleanupSeconds}"
+  saveJsonFormat
+  # 不管正常结束还是 Ctrl+C 都恢复 json-format
+  trap restoreJsonFormat EXIT
+  trap 'exit 130' INT
+  trap 'exit 143' TERM HUP
+  doStartArthasBatchScriptCommand
+
+}
+
+main "${@}"
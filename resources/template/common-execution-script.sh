@@ -6,6 +6,7 @@ doStartArthasCommonScriptCommand() {
   local scriptCommand=${ARTHAS_COMMON_SCRIPT_COMMAND//-c null/ }
   executeArthasCommand "${HOME}/opt/arthas/arthasCommonScriptCommand.out" "${scriptCommand}"
   banner_simple "you can get execute result in ${HOME}/opt/arthas/arthasCommonScriptCommand.out"
+  uploadArthasResult "${HOME}/opt/arthas/arthasCommonScriptCommand.out"
 }
 
 main() {
@@ -39,6 +40,12 @@ main() {
 
   echo " "
   banner_simple "last: execute arthas command"
+  scheduleTimeTunnelDeleteAll "${timeTunnelCleanupSeconds}"
+  saveJsonFormat
+  # 不管正常结束还是 Ctrl+C 都恢复 json-format
+  trap restoreJsonFormat EXIT
+  trap 'exit 130' INT
+  trap 'exit 143' TERM HUP
   doStartArthasCommonScriptCommand
 
 }
@@ -0,0 +1,158 @@
+# 增强命令限时执行 超时、命令结束、Ctrl+C 或者 kill 退出的时候都会清理增强 reset 增强的类 / retransform --deleteAll 并确认已经还原
+ENHANCE_GUARD_DIR="${HOME}/opt/arthas/enhanceGuard"
+ENHANCE_GUARD_SECONDS=${enhanceGuardSeconds}
+# reset: watch/trace/monitor/stack/tt -t 命令 retransform: 热更新
+ENHANCE_GUARD_MODE="${enhanceGuardMode}"
+ENHANCE_GUARD_COMMAND_BASE64="${enhanceGuardCommandBase64}"
+ENHANCE_GUARD_CLEANUP_BASE64="${enhanceGuardCleanupBase64}"
+ENHANCE_GUARD_CONFIRM_BASE64="${enhanceGuardConfirmBase64}"
+# retransform 确认的时候 retransform -l 中不能再出现的类 一行一个
+ENHANCE_GUARD_CLASS_NAMES_BASE64="${enhanceGuardClassNamesBase64}"
+# 热更新的类文件 base64|path
+ENHANCE_GUARD_BASE64_AND_PATH="${arthasIdeaPluginBase64AndPathCommand}"
+ENHANCE_GUARD_DELETE_CLASS_FILE="${deleteClassFile}"
+ENHANCE_GUARD_COMMAND_PID=
+ENHANCE_GUARD_WATCHDOG_PID=
+ENHANCE_GUARD_STARTED=
+
+# base64 的命令写入批处理文件 classloader hash value 在执行 sc 之后才知道
+# $1 : base64 command
+# $2 : batch file
+writeGuardBatchFile() {
+  createFile "${2}"
+  local batchScript=$(echo "${1}" | base64 --decode)
+  batchScript=${batchScript//'${CLASSLOADER_HASH_VALUE}'/${CLASSLOADER_HASH_VALUE}}
+  resolveClassLoaderHashValues "${batchScript}"
+  batchScript=${RESOLVED_BATCH_SCRIPT}
+  batchScript=${batchScript//-c null/ }
+  batchScript=${batchScript//'$HOME'/${HOME}}
+  echo "${batchScript}" >"${2}"
+}
+
+# 停止后台任务的整个进程组 arthas-boot | tee
+# $1 : pid
+stopGuardProcess() {
+  [ -z "${1}" ] && return 0
+  kill -0 "${1}" >/dev/null 2>&1 || return 0
+  kill -TERM -- "-${1}" >/dev/null 2>&1 || kill -TERM "${1}" >/dev/null 2>&1
+  wait "${1}" >/dev/null 2>&1
+}
+
+# reset 再执行一次 影响的类为 0;retransform -l 中不再有热更新的类
+confirmGuardCleanup() {
+  local confirmResult="${ENHANCE_GUARD_DIR}/confirm.out"
+  writeGuardBatchFile "${ENHANCE_GUARD_CONFIRM_BASE64}" "${ENHANCE_GUARD_DIR}/confirm.as"
+  executeArthasBatchFile "${confirmResult}" "${ENHANCE_GUARD_DIR}/confirm.as" >/dev/null
+  if [ "${ENHANCE_GUARD_MODE}" = "retransform" ]; then
+    echo "${ENHANCE_GUARD_CLASS_NAMES_BASE64}" | base64 --decode >"${ENHANCE_GUARD_DIR}/classNames.txt"
+    [ -s "${confirmResult}" ] && ! grep -q -F -f "${ENHANCE_GUARD_DIR}/classNames.txt" "${confirmResult}"
+  else
+    grep -q "class count: 0" "${confirmResult}" && ! grep -q -E "class count: [1-9]" "${confirmResult}"
+  fi
+}
+
+# trap EXIT 不管怎么退出都会执行
+enhanceGuardCleanup() {
+  local exitCode=$?
+  trap - EXIT INT TERM HUP USR1
+  stopGuardProcess "${ENHANCE_GUARD_WATCHDOG_PID}"
+  stopGuardProcess "${ENHANCE_GUARD_COMMAND_PID}"
+  [ -z "${ENHANCE_GUARD_STARTED}" ] && exit ${exitCode}
+  restoreJsonFormat
+  echo " "
+  banner_simple "enhance guard cleanup: ${ENHANCE_GUARD_MODE}"
+  writeGuardBatchFile "${ENHANCE_GUARD_CLEANUP_BASE64}" "${ENHANCE_GUARD_DIR}/cleanup.as"
+  cat "${ENHANCE_GUARD_DIR}/cleanup.as"
+  executeArthasBatchFile "${ENHANCE_GUARD_DIR}/cleanup.out" "${ENHANCE_GUARD_DIR}/cleanup.as"
+  if confirmGuardCleanup; then
+    banner_simple "enhance guard confirm: enhancement removed"
+  else
+    echo $(tput setaf 1)"[ERROR] enhance guard can not confirm enhancement removed, see ${ENHANCE_GUARD_DIR}/confirm.out and run manually:"$(tput sgr0)
+    cat "${ENHANCE_GUARD_DIR}/cleanup.as"
+    exitCode=1
+  fi
+  if [ -n "${ENHANCE_GUARD_DELETE_CLASS_FILE}" ]; then
+    rm -rf "$HOME/opt/arthas/hotSwap"
+  fi
+  uploadArthasResult "${ENHANCE_GUARD_DIR}/command.out"
+  exit ${exitCode}
+}
+
+# 后台执行命令 看门狗到时间发送 USR1 后台执行的时候 wait 可以被信号打断
+doStartEnhanceGuardCommand() {
+  writeGuardBatchFile "${ENHANCE_GUARD_COMMAND_BASE64}" "${ENHANCE_GUARD_DIR}/command.as"
+  echo "arthas enhance guard script ${ENHANCE_GUARD_DIR}/command.as:"
+  cat "${ENHANCE_GUARD_DIR}/command.as"
+  trap enhanceGuardCleanup EXIT
+  trap 'exit 130' INT
+  trap 'exit 143' TERM HUP
+  trap 'banner_simple "enhance guard timeout ${ENHANCE_GUARD_SECONDS}s"; exit 124' USR1
+  ENHANCE_GUARD_STARTED="started"
+  # 后台任务使用单独的进程组 停止的时候连同子进程一起停止
+  set -m
+  (
+    sleep "${ENHANCE_GUARD_SECONDS}" && kill -USR1 $$
+  ) &
+  ENHANCE_GUARD_WATCHDOG_PID=$!
+  executeArthasBatchFile "${ENHANCE_GUARD_DIR}/command.out" "${ENHANCE_GUARD_DIR}/command.as" &
+  ENHANCE_GUARD_COMMAND_PID=$!
+  set +m
+  wait "${ENHANCE_GUARD_COMMAND_PID}"
+  ENHANCE_GUARD_COMMAND_PID=
+  if [ "${ENHANCE_GUARD_MODE}" = "retransform" ]; then
+    if [ -z "$(grep -E "retransform success" "${ENHANCE_GUARD_DIR}/command.out")" ]; then
+      exit_on_err 1 "arthas idea plugin hot swap error"
+    fi
+    banner_simple "hot swap keep ${ENHANCE_GUARD_SECONDS}s then restore, Ctrl+C restore now"
+    wait "${ENHANCE_GUARD_WATCHDOG_PID}"
+  fi
+}
+
+main() {
+
+  banner_simple "arthas idea plugin enhance guard ${ENHANCE_GUARD_SECONDS}s;start script path: $(pwd)/arthas-idea-plugin-enhance-guard.sh"
+
+  check_permission
+
+  installArthas
+
+  if [ $? -ne 0 ]; then
+    exit_on_err 1 "arthas install as.sh script error"
+  fi
+  mkdir -p "${ENHANCE_GUARD_DIR}"
+  rm -f "${ENHANCE_GUARD_DIR}"/*.out
+  reset_for_env
+  if [ -z "${SELECT_VALUE}" ]; then
+    select_pid
+    SELECT_VALUE=${TARGET_PID}
+  fi
+
+  if [ -z "${SELECT_VALUE}" ]; then
+    exit_on_err 1 "select target process by classname or jar file name target pid is empty"
+  fi
+
+  if [ -n "${ENHANCE_GUARD_BASE64_AND_PATH}" ]; then
+    decodeBase64AndCreateFile "${ENHANCE_GUARD_BASE64_AND_PATH}"
+    if [ $? -ne 0 ]; then
+      exit_on_err 1 "arthas idea plugin decode base64 cLass error"
+    fi
+  fi
+
+  if [ "${SC_COMMAND}" ]; then
+    banner_simple "first: get  classloader hash value"
+    getFirstClassLoaderHashValue
+    if [ -z "${CLASSLOADER_HASH_VALUE}" ]; then
+      exit_on_err 1 "not found classloader hash value,maybe class not load in jvm"
+    fi
+  fi
+
+  echo " "
+  banner_simple "last: execute arthas command with enhance guard"
+  # reset 之后 tt 的记录还在 到时间后单独清理
+  scheduleTimeTunnelDeleteAll "${timeTunnelCleanupSeconds}"
+  saveJsonFormat
+  doStartEnhanceGuardCommand
+
+}
+
+main "${@}"
@@ -0,0 +1,91 @@
+# 一次 attach 执行 reset / retransform --deleteAll 清理工程中记录的所有增强 然后确认已经还原 每个目标进程分别执行
+ENHANCE_LEDGER_DIR="${HOME}/opt/arthas/enhanceLedger"
+# 一行一个目标进程 target|batchBase64|classNamesBase64|resetCount target 为空手动选择
+ENHANCE_LEDGER_TARGETS_BASE64="${enhanceLedgerTargetsBase64}"
+# 批处理中清理和确认的分隔
+ENHANCE_LEDGER_CONFIRM_MARKER="${enhanceLedgerConfirmMarker}"
+ENHANCE_LEDGER_SUCCESS="${enhanceLedgerSuccess}"
+
+# 分隔之后的输出 每个 reset 再执行一次影响的类为 0,retransform -l 中不再有热更新的类
+# $1 : 目标进程的执行结果
+# $2 : classNames base64
+# $3 : reset 命令的个数
+confirmEnhanceLedgerReset() {
+  local confirmResult="${1%.out}.confirm.out"
+  local classNamesFile="${1%.out}.classNames.txt"
+  # 只认 arthas echo 输出的分隔行 attach 失败、pid 不对、arthas 报错的时候没有分隔 不能确认
+  awk -v marker="${ENHANCE_LEDGER_CONFIRM_MARKER}" '{ sub(/\r$/, "") } $0 == marker { found = 1; section = ""; next } { section = section $0 "\n" } END { printf "%s", section; exit !found }' "${1}" >"${confirmResult}" || return 1
+  # 每个 reset 都要明确输出 Affect(class count: 0
+  local affectCount=$(grep -c -E "Affect\(class count: 0[^0-9]" "${confirmResult}")
+  [ "${affectCount}" -ge "${3}" ] || return 1
+  grep -q -E "class count: [1-9]" "${confirmResult}" && return 1
+  if [ -n "${2}" ]; then
+    echo "${2}" | base64 --decode >"${classNamesFile}"
+    [ -s "${confirmResult}" ] && ! grep -q -F -f "${classNamesFile}" "${confirmResult}" || return 1
+  fi
+  return 0
+}
+
+# $1 : 序号 确认成功后输出 SUCCESS 序号
+# $2 : target|batchBase64|classNamesBase64|resetCount
+doStartEnhanceLedgerReset() {
+  local target batchBase64 classNamesBase64 resetCount
+  IFS='|' read -r target batchBase64 classNamesBase64 resetCount <<<"${2}"
+  local batchFile="${ENHANCE_LEDGER_DIR}/reset-${1}.as"
+  local resetResult="${ENHANCE_LEDGER_DIR}/reset-${1}.out"
+  # 模板渲染会把 :- 当作模板默认值提前替换 这里不使用 shell 默认值语法
+  local targetName="${target}"
+  [ -z "${targetName}" ] && targetName="manual select pid"
+  banner_simple "enhance ledger reset target: ${targetName}"
+  SELECT_VALUE="${target}"
+  TARGET_PID=
+  if [ -z "${SELECT_VALUE}" ]; then
+    select_pid
+    SELECT_VALUE=${TARGET_PID}
+  fi
+  if [ -z "${SELECT_VALUE}" ]; then
+    echo $(tput setaf 1)"[ERROR] enhance ledger target pid is empty, skip"$(tput sgr0) | tee -a "${ENHANCE_LEDGER_DIR}/reset.out"
+    return 1
+  fi
+  [ -z "${target}" ] && targetName="${SELECT_VALUE}"
+  createFile "${batchFile}"
+  echo "${batchBase64}" | base64 --decode >"${batchFile}"
+  echo "arthas enhance ledger reset script ${batchFile}:"
+  cat "${batchFile}"
+  executeArthasBatchFile "${resetResult}" "${batchFile}"
+  cat "${resetResult}" >>"${ENHANCE_LEDGER_DIR}/reset.out"
+  if confirmEnhanceLedgerReset "${resetResult}" "${classNamesBase64}" "${resetCount}"; then
+    echo "${ENHANCE_LEDGER_SUCCESS} ${1}" >>"${ENHANCE_LEDGER_DIR}/reset.out"
+    banner_simple "enhance ledger confirm: all enhancement removed of ${targetName}"
+  else
+    echo $(tput setaf 1)"[ERROR] enhance ledger can not confirm enhancement removed of ${targetName}, see ${resetResult%.out}.confirm.out"$(tput sgr0)
+  fi
+}
+
+main() {
+
+  banner_simple "arthas idea plugin enhance ledger reset;start script path: $(pwd)/arthas-idea-plugin-enhance-ledger-reset.sh"
+
+  check_permission
+
+  installArthas
+
+  if [ $? -ne 0 ]; then
+    exit_on_err 1 "arthas install as.sh script error"
+  fi
+  mkdir -p "${ENHANCE_LEDGER_DIR}"
+  rm -f "${ENHANCE_LEDGER_DIR}"/*.out
+  createFile "${ENHANCE_LEDGER_DIR}/reset.out"
+  reset_for_env
+
+  # 不使用 while read 手动选择 pid 的时候需要读标准输入
+  local targets=()
+  mapfile -t targets < <(echo "${ENHANCE_LEDGER_TARGETS_BASE64}" | base64 --decode)
+  local i
+  for i in "${!targets[@]}"; do
+    [ -n "${targets[i]}" ] && doStartEnhanceLedgerReset "${i}" "${targets[i]}"
+  done
+  uploadArthasResult "${ENHANCE_LEDGER_DIR}/reset.out"
+}
+
+main "${@}"
@@ -0,0 +1,22 @@
+
+# plugin-common-function.sh install once on server, fetch again only when sha256 changed
+ARTHAS_IDEA_PLUGIN_LIB_HASH="${commonFunctionLibHash}"
+ARTHAS_IDEA_PLUGIN_LIB="$HOME/opt/arthas/lib/${ARTHAS_IDEA_PLUGIN_LIB_HASH}.sh"
+
+checkCommonFunctionLib() {
+  [ -f "${ARTHAS_IDEA_PLUGIN_LIB}" ] || return 1
+  local actualHash=$( (sha256sum "${ARTHAS_IDEA_PLUGIN_LIB}" 2>/dev/null || shasum -a 256 "${ARTHAS_IDEA_PLUGIN_LIB}") | awk '{print $1}')
+  [ "${actualHash}" = "${ARTHAS_IDEA_PLUGIN_LIB_HASH}" ]
+}
+
+if ! checkCommonFunctionLib; then
+  mkdir -p "$HOME/opt/arthas/lib" || exit 1
+  ${commonFunctionLibFetchCommand} | base64 --decode >"${ARTHAS_IDEA_PLUGIN_LIB}.tmp" && mv -f "${ARTHAS_IDEA_PLUGIN_LIB}.tmp" "${ARTHAS_IDEA_PLUGIN_LIB}"
+  if ! checkCommonFunctionLib; then
+    rm -f "${ARTHAS_IDEA_PLUGIN_LIB}" "${ARTHAS_IDEA_PLUGIN_LIB}.tmp"
+    echo "arthas idea plugin install ${ARTHAS_IDEA_PLUGIN_LIB} error, checksum mismatch" 1>&2
+    exit 1
+  fi
+  echo "arthas idea plugin install common function ${ARTHAS_IDEA_PLUGIN_LIB}"
+fi
+source "${ARTHAS_IDEA_PLUGIN_LIB}"
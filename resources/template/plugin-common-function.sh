@@ -1,16 +1,6 @@
 #!/usr/bin/env bash
-TARGET_PID=
-SELECT_VALUE=${arthasIdeaPluginApplicationName}
-
-#arthas package zip download url = https://arthas.aliyun.com/download/latest_version?mirror=aliyun
-ARTHAS_PACKAGE_ZIP_DOWNLOAD_URL="${arthasPackageZipDownloadUrl}"
-
-#执行中获取到的hash value的变量
-CLASSLOADER_HASH_VALUE=
-#sc -d 命令
-SC_COMMAND="${SC_COMMAND}"
-#base64 文件地址
-BASE64_TXT_AND_PATH=${BASE64_TXT_AND_PATH}
+# arthas idea plugin common function library
+# installed once on server: $HOME/opt/arthas/lib/<sha256>.sh, generated scripts define variables then source it
 
 # SYNOPSIS
 #   rreadlink <fileOrDirPath>
@@ -80,9 +70,72 @@ rreadlink() (# Execute the function in a *subshell* to localize variables and th
   fi
 )
 
+# java env cache file, JAVA_HOME JAVA_VERSION BOOT_CLASSPATH keyed by java binary path and mtime
+JAVA_ENV_CACHE_FILE="${HOME}/opt/arthas/java-env.cache"
+
+# extra arthas-boot options for executeArthasCommand/executeArthasBatchFile, e.g. (--http-port 8564)
+ARTHAS_BOOT_OPTS=()
+
+# print file modify time (linux/mac)
+# $1 : file path
+file_mtime() {
+  stat -L -c %Y "${1}" 2>/dev/null || stat -L -f %m "${1}" 2>/dev/null
+}
+
 # reset arthas work environment
 # reset some options for env
+# detection (ps aux/rreadlink/java -version) only run when cache miss
 reset_for_env() {
+  local INPUT_JAVA_HOME="${JAVA_HOME}"
+  if [ -z "${INPUT_JAVA_HOME}" ]; then
+    # empty JAVA_HOME: key the cache on the resolved java in PATH, switching java (alternatives, sdkman) invalidates it
+    local javaCommand=$(command -v java)
+    [ -n "${javaCommand}" ] && INPUT_JAVA_HOME="java:$(readlink -f "${javaCommand}" 2>/dev/null || rreadlink "${javaCommand}")"
+  fi
+  if ! load_java_env_cache "${INPUT_JAVA_HOME}"; then
+    detect_java_env
+    save_java_env_cache "${INPUT_JAVA_HOME}"
+  fi
+
+  echo "[INFO] JAVA_HOME: ${JAVA_HOME}"
+
+  # reset CHARSET for alibaba opts, we use GBK
+  [[ -x /opt/taobao/java ]] && JVM_OPTS="-Dinput.encoding=GBK ${JVM_OPTS} "
+}
+
+# load java env from cache, cache valid when the input JAVA_HOME is same and java binary not modified
+# $1 : input JAVA_HOME, or java:<resolved java in PATH> when JAVA_HOME is empty
+load_java_env_cache() {
+  [ -f "${JAVA_ENV_CACHE_FILE}" ] || return 1
+  local CACHED_INPUT_JAVA_HOME= CACHED_JAVA_BIN= CACHED_JAVA_BIN_MTIME= CACHED_JAVA_HOME= CACHED_JAVA_VERSION= CACHED_BOOT_CLASSPATH=
+  source "${JAVA_ENV_CACHE_FILE}" || return 1
+  [ "${CACHED_INPUT_JAVA_HOME}" = "${1}" ] || return 1
+  [ -x "${CACHED_JAVA_BIN}" ] || return 1
+  [ "$(file_mtime "${CACHED_JAVA_BIN}")" = "${CACHED_JAVA_BIN_MTIME}" ] || return 1
+  JAVA_HOME="${CACHED_JAVA_HOME}"
+  JAVA_VERSION="${CACHED_JAVA_VERSION}"
+  BOOT_CLASSPATH="${CACHED_BOOT_CLASSPATH}"
+  echo "[INFO] use java env cache ${JAVA_ENV_CACHE_FILE}"
+}
+
+# save java env cache
+# $1 : input JAVA_HOME, or java:<resolved java in PATH> when JAVA_HOME is empty
+save_java_env_cache() {
+  local javaBin="${JAVA_HOME}/bin/java"
+  [ -x "${javaBin}" ] || return 0
+  mkdir -p "$(dirname "${JAVA_ENV_CACHE_FILE}")" || return 0
+  {
+    printf 'CACHED_INPUT_JAVA_HOME=%q\n' "${1}"
+    printf 'CACHED_JAVA_BIN=%q\n' "${javaBin}"
+    printf 'CACHED_JAVA_BIN_MTIME=%q\n' "$(file_mtime "${javaBin}")"
+    printf 'CACHED_JAVA_HOME=%q\n' "${JAVA_HOME}"
+    printf 'CACHED_JAVA_VERSION=%q\n' "${JAVA_VERSION}"
+    printf 'CACHED_BOOT_CLASSPATH=%q\n' "${BOOT_CLASSPATH}"
+  } >"${JAVA_ENV_CACHE_FILE}.tmp" && mv -f "${JAVA_ENV_CACHE_FILE}.tmp" "${JAVA_ENV_CACHE_FILE}"
+}
+
+# detect JAVA_HOME JAVA_VERSION BOOT_CLASSPATH
+detect_java_env() {
   # if env define the JAVA_HOME, use it first
   # if is alibaba opts, use alibaba ops's default JAVA_HOME
   [ -z "${JAVA_HOME}" ] && [ -d /opt/taobao/java ] && JAVA_HOME=/opt/taobao/java
@@ -114,7 +167,7 @@ reset_for_env() {
   fi
 
   # maybe 1.8.0_162 , 11-ea
-  local JAVA_VERSION
+  JAVA_VERSION=
 
   local IFS=$'\n'
   # remove \r for Cygwin
@@ -146,36 +199,149 @@ reset_for_env() {
     done
     [ -z "${BOOT_CLASSPATH}" ] && exit_on_err 1 "tools.jar was not found, so arthas could not be launched!"
   fi
+}
 
-  echo "[INFO] JAVA_HOME: ${JAVA_HOME}"
+# list java process by /proc/<pid>/cmdline, fallback jps when /proc not exist (mac)
+# argv[0] basename java only bash builtin, others (custom launcher/renamed java) check libjvm loaded in /proc/<pid>/maps
+# result: PROCESS_PIDS PROCESS_MAINS(main class or jar, same as jps -l) PROCESS_CMDLINES PROCESS_START_TIMES
+list_java_process() {
+  PROCESS_PIDS=()
+  PROCESS_MAINS=()
+  PROCESS_CMDLINES=()
+  PROCESS_START_TIMES=()
+  if [ ! -r /proc/self/cmdline ]; then
+    list_java_process_by_jps
+    return
+  fi
+  local dir pid arg cmdline main next isJava statLine statFields
+  for dir in /proc/[0-9]*; do
+    pid=${dir#/proc/}
+    [ -r "${dir}/cmdline" ] || continue
+    # arthas attach need same user
+    [ "${EUID}" -eq 0 ] || [ -O "${dir}" ] || continue
+    cmdline=
+    main=
+    next=
+    isJava=
+    while IFS= read -r -d '' arg; do
+      if [ -z "${isJava}" ]; then
+        [ "${arg##*/}" = "java" ] || grep -qs 'libjvm\.' "${dir}/maps" || break
+        isJava=1
+        cmdline="${arg}"
+        continue
+      fi
+      cmdline="${cmdline} ${arg}"
+      [ -n "${main}" ] && continue
+      if [ -n "${next}" ]; then
+        [ "${next}" = "main" ] && main="${arg}"
+        next=
+        continue
+      fi
+      case "${arg}" in
+      -jar | -m | --module) next=main ;;
+      -cp | -classpath | --class-path | -p | --module-path | --upgrade-module-path | --add-modules | --add-opens | --add-exports | --add-reads | --patch-module | --limit-modules) next=skip ;;
+      -*) ;;
+      *) main="${arg}" ;;
+      esac
+    done <"${dir}/cmdline" 2>/dev/null
+    [ -n "${isJava}" ] || continue
+    case "${main}" in
+    *arthas-boot.jar | *sun.tools.jps.Jps) continue ;;
+    esac
+    statLine=
+    read -r statLine <"${dir}/stat" 2>/dev/null
+    # field 22 starttime, comm may contain space so split after ')'
+    statFields=(${statLine##*) })
+    PROCESS_PIDS+=("${pid}")
+    PROCESS_MAINS+=("${main}")
+    PROCESS_CMDLINES+=("${cmdline}")
+    PROCESS_START_TIMES+=("${statFields[19]:-0}")
+  done
+}
 
-  # reset CHARSET for alibaba opts, we use GBK
-  [[ -x /opt/taobao/java ]] && JVM_OPTS="-Dinput.encoding=GBK ${JVM_OPTS} "
+# fallback list java process by jps -l, pid as start time
+list_java_process_by_jps() {
+  local IFS=$'\n'
+  local line
+  for line in $(${JAVA_HOME}/bin/jps -l | grep -v sun.tools.jps.Jps); do
+    PROCESS_PIDS+=("${line%% *}")
+    PROCESS_MAINS+=("${line#* }")
+    PROCESS_CMDLINES+=("${line#* }")
+    PROCESS_START_TIMES+=("${line%% *}")
+  done
+}
+
+# resolve TARGET_PID once per script run
+# $1 : selector, main class or jar contains text (same as arthas --select) or re:regex match main and full command line
+#      suffix #newest or #oldest choose one when multiple process match
+# return 1 when not resolved, caller fallback arthas --select
+resolve_target_pid() {
+  [ -n "${TARGET_PID}" ] && return 0
+  local selector="${1}"
+  local tieBreak=
+  case "${selector}" in
+  *'#newest') tieBreak=newest selector="${selector%#newest}" ;;
+  *'#oldest') tieBreak=oldest selector="${selector%#oldest}" ;;
+  esac
+  [ -z "${selector}" ] && return 1
+  list_java_process
+  local matched=()
+  local i
+  for i in "${!PROCESS_PIDS[@]}"; do
+    if [[ "${selector}" == re:* ]]; then
+      [[ "${PROCESS_MAINS[i]} ${PROCESS_CMDLINES[i]}" =~ ${selector#re:} ]] && matched+=("${i}")
+    else
+      [[ "${PROCESS_MAINS[i]}" == *"${selector}"* ]] && matched+=("${i}")
+    fi
+  done
+  if [ ${#matched[@]} -eq 0 ]; then
+    [[ "${selector}" == re:* ]] && exit_on_err 1 "not found java process match ${1}"
+    echo "[INFO] not found java process match ${selector} by /proc, fallback arthas --select"
+    return 1
+  fi
+  if [ ${#matched[@]} -gt 1 ] && [ -z "${tieBreak}" ]; then
+    for i in "${matched[@]}"; do
+      echo "  ${PROCESS_PIDS[i]} ${PROCESS_MAINS[i]}"
+    done
+    [[ "${selector}" == re:* ]] && exit_on_err 1 "multiple java process match ${1}, add suffix #newest or #oldest to select one"
+    echo "[INFO] multiple java process match ${selector}, add suffix #newest or #oldest to select one, fallback arthas --select"
+    return 1
+  fi
+  local chosen=${matched[0]}
+  for i in "${matched[@]}"; do
+    if [ "${tieBreak}" = "newest" ]; then
+      [ "${PROCESS_START_TIMES[i]}" -gt "${PROCESS_START_TIMES[chosen]}" ] && chosen=${i}
+    elif [ "${tieBreak}" = "oldest" ]; then
+      [ "${PROCESS_START_TIMES[i]}" -lt "${PROCESS_START_TIMES[chosen]}" ] && chosen=${i}
+    fi
+  done
+  TARGET_PID=${PROCESS_PIDS[chosen]}
+  echo "[INFO] target process: ${TARGET_PID} ${PROCESS_MAINS[chosen]}"
 }
 
 select_pid() {
-  local IFS=$'\n'
-  CANDIDATES=($(${JAVA_HOME}/bin/jps -l | grep -v sun.tools.jps.Jps | awk '{print $0}'))
+  list_java_process
 
   index=0
   suggest=1
   # auto select tomcat/pandora-boot process
-  for process in "${CANDIDATES[@]}"; do
+  for i in "${!PROCESS_PIDS[@]}"; do
     index=$(($index + 1))
-    if [ $(echo ${process} | grep -c org.apache.catalina.startup.Bootstrap) -eq 1 ] ||
-      [ $(echo ${process} | grep -c com.taobao.pandora.boot.loader.SarLauncher) -eq 1 ]; then
+    case "${PROCESS_MAINS[i]}" in
+    *org.apache.catalina.startup.Bootstrap* | *com.taobao.pandora.boot.loader.SarLauncher*)
       suggest=${index}
       break
-    fi
+      ;;
+    esac
   done
 
   index=0
-  for process in "${CANDIDATES[@]}"; do
+  for i in "${!PROCESS_PIDS[@]}"; do
     index=$(($index + 1))
     if [ ${index} -eq ${suggest} ]; then
-      echo "* [$index]: ${process}"
+      echo "* [$index]: ${PROCESS_PIDS[i]} ${PROCESS_MAINS[i]}"
     else
-      echo "  [$index]: ${process}"
+      echo "  [$index]: ${PROCESS_PIDS[i]} ${PROCESS_MAINS[i]}"
     fi
   done
   echo " "
@@ -188,7 +354,7 @@ select_pid() {
     choice=${suggest}
   fi
 
-  TARGET_PID=$(echo ${CANDIDATES[$(($choice - 1))]} | cut -d ' ' -f 1)
+  TARGET_PID=${PROCESS_PIDS[$(($choice - 1))]}
 }
 
 # Usage: banner_simple "my title"
@@ -248,10 +414,82 @@ installArthas() {
 # $2 : command
 executeArthasCommand() {
   createFile "${1}"
+  resolve_arthas_target
   # " 里面的 " 要进行转义 \"
-  echo $(tput bold)"arthas start command :$JAVA_HOME/bin/java -jar $HOME/opt/arthas/arthas-boot.jar --height 100 --width 200 --select ${SELECT_VALUE}  -c \"${2}\"  | tee ${1}"$(tput sgr0)
+  echo $(tput bold)"arthas start command :$JAVA_HOME/bin/java -jar $HOME/opt/arthas/arthas-boot.jar --height 100 --width 200 ${ARTHAS_BOOT_OPTS[*]} ${ARTHAS_TARGET[*]}  -c \"${2}\"  | tee ${1}"$(tput sgr0)
   # --height 100 --width 200  the data displayed by automatic execution script is too ugly,to resolve classloaderhashvalue error
-  $JAVA_HOME/bin/java -jar $HOME/opt/arthas/arthas-boot.jar --height 100 --width 200 --select ${SELECT_VALUE} -c "${2}" | tee ${1}
+  $JAVA_HOME/bin/java -jar $HOME/opt/arthas/arthas-boot.jar --height 100 --width 200 "${ARTHAS_BOOT_OPTS[@]}" "${ARTHAS_TARGET[@]}" -c "${2}" | tee ${1}
+}
+
+# execute arthas batch script file,one command per line
+# $1 : resultFle
+# $2 : batch script file
+executeArthasBatchFile() {
+  createFile "${1}"
+  resolve_arthas_target
+  echo $(tput bold)"arthas start command :$JAVA_HOME/bin/java -jar $HOME/opt/arthas/arthas-boot.jar --height 100 --width 200 ${ARTHAS_BOOT_OPTS[*]} ${ARTHAS_TARGET[*]} -f ${2} | tee ${1}"$(tput sgr0)
+  $JAVA_HOME/bin/java -jar $HOME/opt/arthas/arthas-boot.jar --height 100 --width 200 "${ARTHAS_BOOT_OPTS[@]}" "${ARTHAS_TARGET[@]}" -f "${2}" | tee ${1}
+}
+
+# arthas-boot target: pid or --select, save in ARTHAS_TARGET array, select value may contain space
+resolve_arthas_target() {
+  # pid resolved by /proc, arthas-boot not need jps again
+  [ -z "${TARGET_PID}" ] && [ -n "${SELECT_VALUE}" ] && resolve_target_pid "${SELECT_VALUE}"
+  # #newest #oldest only for resolve_target_pid
+  local selectValue="${SELECT_VALUE%#newest}"
+  selectValue="${selectValue%#oldest}"
+  ARTHAS_TARGET=(--select "${selectValue}")
+  [ -n "${TARGET_PID}" ] && ARTHAS_TARGET=("${TARGET_PID}")
+}
+
+# upload arthas result back to idea: gzip + base64 then ARTHAS_RESULT_UPLOAD_COMMAND read it from stdin
+# $1 : resultFile
+uploadArthasResult() {
+  [ -z "${ARTHAS_RESULT_UPLOAD_COMMAND}" ] && return 0
+  [ -f "${1}" ] || return 0
+  if gzip -c "${1}" | base64 | tr -d '\n' | eval "${ARTHAS_RESULT_UPLOAD_COMMAND}" >/dev/null; then
+    banner_simple "upload result back to idea success, see Arthas Result tool window"
+  else
+    echo "[WARN] upload result back to idea error"
+  fi
+}
+
+# 结果回传需要 json 格式 执行前保存目标进程原来的 json-format,结束或者 Ctrl+C 之后 restoreJsonFormat 恢复
+saveJsonFormat() {
+  ARTHAS_JSON_FORMAT_ORIGIN=
+  [ -z "${ARTHAS_RESULT_UPLOAD_COMMAND}" ] && return 0
+  local optionsResult="${HOME}/opt/arthas/jsonFormatOptions.out"
+  executeArthasCommand "${optionsResult}" "options json-format" >/dev/null
+  # 去掉颜色后 NAME 列是 json-format 的行 VALUE 列
+  local esc=$(printf '\033')
+  ARTHAS_JSON_FORMAT_ORIGIN=$(sed "s/${esc}\[[0-9;]*m//g" "${optionsResult}" | awk '$3 == "json-format" && ($4 == "true" || $4 == "false") { print $4; exit }')
+  # 读取失败按照 arthas 的默认值恢复
+  ARTHAS_JSON_FORMAT_ORIGIN=${ARTHAS_JSON_FORMAT_ORIGIN:-false}
+  banner_simple "json-format origin value: ${ARTHAS_JSON_FORMAT_ORIGIN}"
+}
+
+# 恢复 saveJsonFormat 保存的 json-format 原来就是 true 不需要恢复,只执行一次
+restoreJsonFormat() {
+  local origin="${ARTHAS_JSON_FORMAT_ORIGIN}"
+  ARTHAS_JSON_FORMAT_ORIGIN=
+  if [ -z "${origin}" ] || [ "${origin}" = "true" ]; then
+    return 0
+  fi
+  executeArthasCommand "${HOME}/opt/arthas/jsonFormatRestore.out" "options json-format ${origin}" >/dev/null
+  banner_simple "json-format restored: ${origin}"
+}
+
+# tt -t 记录一直引用入参、返回值 后台到时间后 tt --delete-all,脚本退出或者终端断开也会执行
+# $1 : seconds 为空或者 0 不清理
+scheduleTimeTunnelDeleteAll() {
+  echo "${1}" | grep -q -E '^[1-9][0-9]*$' || return 0
+  local deleteAllResult="${HOME}/opt/arthas/timeTunnelDeleteAll.out"
+  (
+    trap '' HUP INT TERM
+    sleep "${1}"
+    executeArthasCommand "${deleteAllResult}" "tt --delete-all"
+  ) </dev/null >/dev/null 2>&1 &
+  banner_simple "tt --delete-all scheduled after ${1}s, result in ${deleteAllResult}"
 }
 
 # decode base64 text and create file
@@ -269,6 +507,30 @@ decodeBase64AndCreateFile() {
   done
 }
 
+# 批处理中其他类的 classloader -c ${CLASSLOADER_HASH_VALUE:className} 一次 attach sc -d 所有的类 替换为各自的 hash
+# $1 : batch script text,替换后的结果保存在 RESOLVED_BATCH_SCRIPT
+resolveClassLoaderHashValues() {
+  RESOLVED_BATCH_SCRIPT="${1}"
+  local classNames=$(echo "${1}" | grep -o -E '\$\{CLASSLOADER_HASH_VALUE:[^}]+\}' | sed -E 's/^\$\{CLASSLOADER_HASH_VALUE:(.*)\}$/\1/' | sort -u)
+  [ -z "${classNames}" ] && return 0
+  local scBatchFile="${HOME}/opt/arthas/classLoaderHashValues.as"
+  local scResult="${HOME}/opt/arthas/classLoaderHashValues.out"
+  createFile "${scBatchFile}"
+  local className
+  for className in ${classNames}; do
+    echo "sc -d ${className}"
+  done >"${scBatchFile}"
+  banner_simple "get classloader hash value of $(echo ${classNames})"
+  executeArthasBatchFile "${scResult}" "${scBatchFile}" >/dev/null
+  local hashValue
+  for className in ${classNames}; do
+    # sc -d 一个类一段 class-info 之后的第一个 classLoaderHash
+    hashValue=$(awk -v cls="${className}" '$1 == "class-info" { found = ($2 == cls) } found && $1 == "classLoaderHash" { print $2; exit }' "${scResult}")
+    [ -z "${hashValue}" ] && echo "[WARN] not found classloader hash value of ${className}, use default classloader"
+    RESOLVED_BATCH_SCRIPT=${RESOLVED_BATCH_SCRIPT//"\${CLASSLOADER_HASH_VALUE:${className}}"/${hashValue:-null}}
+  done
+}
+
 # 获取第一个classloader hash value
 getFirstClassLoaderHashValue() {
   local arthasClassLoaderHashValueResult="${HOME}/opt/arthas/classLoaderHashValue.out"
@@ -0,0 +1,16 @@
+#!/usr/bin/env bash
+TARGET_PID=
+#进程选择 base64 传递 re: 正则可能包含 | ( 空格
+SELECT_VALUE="$(echo "${arthasIdeaPluginApplicationNameBase64}" | base64 --decode)"
+
+#arthas package zip download url = https://arthas.aliyun.com/download/latest_version?mirror=aliyun
+ARTHAS_PACKAGE_ZIP_DOWNLOAD_URL="${arthasPackageZipDownloadUrl}"
+
+#执行中获取到的hash value的变量
+CLASSLOADER_HASH_VALUE=
+#sc -d 命令
+SC_COMMAND="${SC_COMMAND}"
+#base64 文件地址
+BASE64_TXT_AND_PATH=${BASE64_TXT_AND_PATH}
+#执行结果上传回 idea 的命令 从标准输入读取 为空不上传
+ARTHAS_RESULT_UPLOAD_COMMAND="${arthasResultUploadCommand}"
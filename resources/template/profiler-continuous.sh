@@ -0,0 +1,133 @@
+# 持续低频采样 每个周期采集一个短窗口 collapsed gzip 后写入环形目录 最多保留 ring size 个文件
+# start: 后台循环采样 stop: 停止循环 pull: 合并时间范围内的窗口 回传到 idea
+CONTINUOUS_PROFILER_DIR="${HOME}/opt/arthas/continuousProfiler"
+CONTINUOUS_PROFILER_RING_DIR="${CONTINUOUS_PROFILER_DIR}/ring"
+CONTINUOUS_PROFILER_PID_FILE="${CONTINUOUS_PROFILER_DIR}/loop.pid"
+CONTINUOUS_PROFILER_MODE="${continuousProfilerMode}"
+CONTINUOUS_PROFILER_START_COMMAND="${continuousProfilerStartCommand}"
+CONTINUOUS_PROFILER_WINDOW_SECONDS=${continuousProfilerWindowSeconds}
+CONTINUOUS_PROFILER_PERIOD_SECONDS=${continuousProfilerPeriodSeconds}
+CONTINUOUS_PROFILER_RING_SIZE=${continuousProfilerRingSize}
+CONTINUOUS_PROFILER_FROM=${continuousProfilerFrom}
+CONTINUOUS_PROFILER_TO=${continuousProfilerTo}
+# 循环中通过 http api 执行命令 不需要每次启动 arthas-boot
+# attach 的时候指定 --http-port 从 8563 开始找一个空闲端口,保存下来 stop 的时候使用同一个端口
+CONTINUOUS_PROFILER_HTTP_PORT_FILE="${CONTINUOUS_PROFILER_DIR}/http.port"
+CONTINUOUS_PROFILER_HTTP_PORT=
+
+# $1 : arthas command
+arthasHttpApi() {
+  [ -n "${CONTINUOUS_PROFILER_HTTP_PORT}" ] || return 1
+  curl -s -f -m 30 -X POST "http://127.0.0.1:${CONTINUOUS_PROFILER_HTTP_PORT}/api" -d "{\"action\":\"exec\",\"command\":\"${1}\"}" >/dev/null
+}
+
+# 上一次启动的 agent 还在 复用它的端口,否则 8563 开始第一个没有监听的端口
+chooseHttpPort() {
+  arthasHttpApi "profiler status" && return 0
+  local port
+  for port in $(seq 8563 8663); do
+    if ! (echo >"/dev/tcp/127.0.0.1/${port}") >/dev/null 2>&1; then
+      CONTINUOUS_PROFILER_HTTP_PORT=${port}
+      return 0
+    fi
+  done
+  exit_on_err 1 "no free arthas http port in 8563-8663"
+}
+
+# 上一次循环可能停在窗口中间 profiler 需要停止
+stopContinuousProfiler() {
+  [ -z "${CONTINUOUS_PROFILER_HTTP_PORT}" ] && [ -f "${CONTINUOUS_PROFILER_HTTP_PORT_FILE}" ] && CONTINUOUS_PROFILER_HTTP_PORT=$(cat "${CONTINUOUS_PROFILER_HTTP_PORT_FILE}")
+  if [ -f "${CONTINUOUS_PROFILER_PID_FILE}" ]; then
+    kill "$(cat "${CONTINUOUS_PROFILER_PID_FILE}")" >/dev/null 2>&1 && echo "stop continuous profiler loop $(cat "${CONTINUOUS_PROFILER_PID_FILE}")"
+    rm -f "${CONTINUOUS_PROFILER_PID_FILE}"
+  fi
+  arthasHttpApi "profiler stop --format collapsed --file ${CONTINUOUS_PROFILER_DIR}/discard.collapsed"
+  rm -f "${CONTINUOUS_PROFILER_DIR}/discard.collapsed"
+}
+
+continuousProfilerLoop() {
+  trap '' HUP
+  while true; do
+    local windowStart=$(date +%s)
+    local collapsedFile="${CONTINUOUS_PROFILER_RING_DIR}/${windowStart}.collapsed"
+    # agent 不在了(应用重启) 退出循环
+    arthasHttpApi "${CONTINUOUS_PROFILER_START_COMMAND}" || break
+    sleep "${CONTINUOUS_PROFILER_WINDOW_SECONDS}"
+    arthasHttpApi "profiler stop --format collapsed --file ${collapsedFile}" || break
+    [ -f "${collapsedFile}" ] && gzip -f "${collapsedFile}"
+    ls -1 "${CONTINUOUS_PROFILER_RING_DIR}" | grep '\.collapsed\.gz$' | sort -r | tail -n +$((CONTINUOUS_PROFILER_RING_SIZE + 1)) | while read -r expired; do
+      rm -f "${CONTINUOUS_PROFILER_RING_DIR}/${expired}"
+    done
+    local remain=$((windowStart + CONTINUOUS_PROFILER_PERIOD_SECONDS - $(date +%s)))
+    [ ${remain} -gt 0 ] && sleep ${remain}
+  done
+  echo "arthas http api 127.0.0.1:${CONTINUOUS_PROFILER_HTTP_PORT} not available, continuous profiler exit"
+  rm -f "${CONTINUOUS_PROFILER_PID_FILE}"
+}
+
+startContinuousProfiler() {
+  stopContinuousProfiler
+  # attach agent 同时在指定端口打开 http api
+  chooseHttpPort
+  ARTHAS_BOOT_OPTS=(--http-port "${CONTINUOUS_PROFILER_HTTP_PORT}")
+  executeArthasCommand "${CONTINUOUS_PROFILER_DIR}/attach.out" "profiler status"
+  ARTHAS_BOOT_OPTS=()
+  # 目标进程之前已经 attach 过 agent 不会使用新的 http 端口
+  arthasHttpApi "profiler status" || exit_on_err 1 "arthas http api 127.0.0.1:${CONTINUOUS_PROFILER_HTTP_PORT} not available, target may be attached with another http port, run arthas stop first"
+  echo "${CONTINUOUS_PROFILER_HTTP_PORT}" >"${CONTINUOUS_PROFILER_HTTP_PORT_FILE}"
+  continuousProfilerLoop </dev/null >"${CONTINUOUS_PROFILER_DIR}/loop.log" 2>&1 &
+  echo $! >"${CONTINUOUS_PROFILER_PID_FILE}"
+  banner_simple "continuous profiler loop $! started, ${CONTINUOUS_PROFILER_WINDOW_SECONDS}s of every ${CONTINUOUS_PROFILER_PERIOD_SECONDS}s, ring ${CONTINUOUS_PROFILER_RING_DIR}"
+}
+
+# 合并 [from,to] 开始的窗口 相同调用栈样本数相加
+pullContinuousProfiler() {
+  local mergedFile="${CONTINUOUS_PROFILER_DIR}/merged.collapsed"
+  local windows=()
+  local file
+  for file in "${CONTINUOUS_PROFILER_RING_DIR}"/*.collapsed.gz; do
+    [ -f "${file}" ] || continue
+    local windowStart=$(basename "${file}" .collapsed.gz)
+    [ "${windowStart}" -ge "${CONTINUOUS_PROFILER_FROM}" ] && [ "${windowStart}" -le "${CONTINUOUS_PROFILER_TO}" ] && windows+=("${file}")
+  done
+  [ ${#windows[@]} -eq 0 ] && exit_on_err 1 "no continuous profiler window found in time range"
+  gzip -dc "${windows[@]}" | awk '{ if (match($0, / [0-9]+$/)) samples[substr($0, 1, RSTART - 1)] += substr($0, RSTART + 1) } END { for (stack in samples) print stack " " samples[stack] }' >"${mergedFile}"
+  banner_simple "merge ${#windows[@]} windows to ${mergedFile}, open it with Open Flame Graph in idea"
+  uploadArthasResult "${mergedFile}"
+}
+
+main() {
+
+  banner_simple "arthas idea plugin continuous profiler ${CONTINUOUS_PROFILER_MODE};start script path: $(pwd)/arthas-idea-plugin-profiler-continuous.sh"
+
+  check_permission
+  mkdir -p "${CONTINUOUS_PROFILER_RING_DIR}"
+
+  if [ "${CONTINUOUS_PROFILER_MODE}" = "pull" ]; then
+    pullContinuousProfiler
+    return
+  fi
+  if [ "${CONTINUOUS_PROFILER_MODE}" = "stop" ]; then
+    stopContinuousProfiler
+    banner_simple "continuous profiler stopped"
+    return
+  fi
+
+  installArthas
+  if [ $? -ne 0 ]; then
+    exit_on_err 1 "arthas install arthas.zip error"
+  fi
+  reset_for_env
+  if [ -z "${SELECT_VALUE}" ]; then
+    select_pid
+    SELECT_VALUE=${TARGET_PID}
+  fi
+
+  if [ -z "${SELECT_VALUE}" ]; then
+    exit_on_err 1 "select target process by classname or jar file name target pid is empty"
+  fi
+
+  startContinuousProfiler
+}
+
+main "${@}"
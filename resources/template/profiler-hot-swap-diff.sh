@@ -0,0 +1,76 @@
+# 热更新前后各采集一个窗口的火焰图 合并为一个 collapsed 文件,根节点分别为 [baseline] [after] idea 中展示差分火焰图
+PROFILER_DIFF_DIR="${HOME}/opt/arthas/profilerDiff"
+PROFILER_DIFF_SECONDS=${profilerDiffSeconds}
+PROFILER_DIFF_START_COMMAND="${profilerDiffStartCommand}"
+PROFILER_DIFF_REDEFINE_COMMAND="${arthasIdeaPluginRedefineCommand}"
+PROFILER_DIFF_DELETE_CLASS_FILE="${deleteClassFile}"
+
+# 采集一个窗口
+# $1 : baseline / after
+profileWindow() {
+  local collapsedFile="${PROFILER_DIFF_DIR}/${1}.collapsed"
+  rm -f "${collapsedFile}"
+  banner_simple "profile ${1} window ${PROFILER_DIFF_SECONDS}s"
+  executeArthasCommand "${PROFILER_DIFF_DIR}/${1}-start.out" "${PROFILER_DIFF_START_COMMAND}"
+  sleep "${PROFILER_DIFF_SECONDS}"
+  executeArthasCommand "${PROFILER_DIFF_DIR}/${1}-stop.out" "profiler stop --format collapsed --file ${collapsedFile}"
+  [ -s "${collapsedFile}" ] || exit_on_err 1 "profiler ${1} window collapsed file not found ${collapsedFile}"
+}
+
+doHotSwap() {
+  local hotSwapResult="${PROFILER_DIFF_DIR}/hotSwapResult.out"
+  executeArthasCommand "${hotSwapResult}" "${PROFILER_DIFF_REDEFINE_COMMAND}"
+  if [ -z "$(grep -E "retransform success|redefine success" "${hotSwapResult}")" ]; then
+    exit_on_err 1 "arthas idea plugin hot swap error, skip after window"
+  fi
+  banner_simple "arthas idea plugin hot swap class success"
+  if [ -n "${PROFILER_DIFF_DELETE_CLASS_FILE}" ]; then
+    rm -rf "$HOME/opt/arthas/hotSwap"
+  fi
+}
+
+mergeWindows() {
+  local diffFile="${PROFILER_DIFF_DIR}/diff.collapsed"
+  sed 's/^/[baseline];/' "${PROFILER_DIFF_DIR}/baseline.collapsed" >"${diffFile}"
+  sed 's/^/[after];/' "${PROFILER_DIFF_DIR}/after.collapsed" >>"${diffFile}"
+  banner_simple "diff flame graph file ${diffFile}, open it with Open Flame Graph in idea"
+  uploadArthasResult "${diffFile}"
+}
+
+main() {
+
+  banner_simple "arthas idea plugin profiler diff begin;start script path: $(pwd)/arthas-idea-plugin-profiler-diff.sh"
+
+  check_permission
+
+  installArthas
+  if [ $? -ne 0 ]; then
+    exit_on_err 1 "arthas install arthas.zip error"
+  fi
+
+  mkdir -p "${PROFILER_DIFF_DIR}"
+  decodeBase64AndCreateFile "${arthasIdeaPluginBase64AndPathCommand}"
+  if [ $? -ne 0 ]; then
+    exit_on_err 1 "arthas idea plugin decode base64 cLass error"
+  fi
+
+  reset_for_env
+  if [ -z "${SELECT_VALUE}" ]; then
+    select_pid
+    SELECT_VALUE=${TARGET_PID}
+  fi
+
+  if [ -z "${SELECT_VALUE}" ]; then
+    exit_on_err 1 "select target process by classname or jar file name target pid is empty"
+  fi
+
+  profileWindow baseline
+
+  doHotSwap
+
+  profileWindow after
+
+  mergeWindows
+}
+
+main "${@}"
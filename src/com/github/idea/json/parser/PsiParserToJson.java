@@ -7,6 +7,7 @@ import com.github.idea.json.parser.typevalue.TypeDefaultValue;
 import com.github.idea.json.parser.typevalue.TypeValueAnalysisFactory;
 import com.github.idea.json.parser.typevalue.TypeValueContext;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.psi.*;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
@@ -50,6 +51,9 @@ public class PsiParserToJson {
                 return context.toJsonString(object);
             }
             return null;
+        } catch (ProcessCanceledException e) {
+            // 取消需要抛出 不能当成错误
+            throw e;
         } catch (Exception e) {
             LOG.error("to json error", e);
         }
@@ -57,6 +61,27 @@ public class PsiParserToJson {
     }
 
 
+    /**
+     * 解析为 map list 的结构 key 为 java 字段名称 用于生成 ognl 表达式
+     *
+     * @param psiType
+     * @return 对象为 Map 集合为 List 其他为默认值 无法解析返回 null
+     */
+    public Object toFieldTree(@NotNull final PsiType psiType) {
+        try {
+            JPsiTypeContext jPsiTypeContext = new JPsiTypeContext(psiType, true);
+            jPsiTypeContext.setJavaFieldName(true);
+            Object object = parseVariableValue(jPsiTypeContext);
+            return Objects.equals(TypeDefaultValue.DEFAULT_NULL, object) ? null : object;
+        } catch (ProcessCanceledException e) {
+            // 取消需要抛出 不能当成错误
+            throw e;
+        } catch (Exception e) {
+            LOG.error("to field tree error", e);
+        }
+        return null;
+    }
+
     public String toJSONString(@NotNull final PsiElement psiElement, ParserContext context) {
         if (psiElement instanceof PsiClass psiClass) {
             PsiType psiType = PsiToolkit.getPsiTypeByPisClazz(psiClass);
@@ -149,7 +174,7 @@ public class PsiParserToJson {
                     continue;
                 }
                 // key
-                String fieldKey = checkGetFieldName(field);
+                String fieldKey = context.isJavaFieldName() ? field.getName() : checkGetFieldName(field);
 
                 //region 字母常量的默认值
                 PsiExpression psiExpression = field.getInitializer();
@@ -168,6 +193,8 @@ public class PsiParserToJson {
                 if (!Objects.equals(TypeDefaultValue.DEFAULT_NULL, fieldValue)) {
                     linkedHashMap.put(fieldKey, fieldValue);
                 }
+            } catch (ProcessCanceledException e) {
+                throw e;
             } catch (Exception e) {
                 LOG.error("get file json error " + field.getName(), e);
             }
@@ -2,12 +2,15 @@ package com.github.idea.json.parser.action;
 
 import com.github.idea.json.parser.PsiParserToJson;
 import com.github.idea.json.parser.toolkit.ParserContext;
+import com.github.wangji92.arthas.plugin.common.command.DataContextFeature;
 import com.github.wangji92.arthas.plugin.utils.*;
 import com.intellij.notification.NotificationType;
 import com.intellij.openapi.actionSystem.*;
 import com.intellij.psi.*;
 import org.jetbrains.annotations.NotNull;
 
+import static com.github.wangji92.arthas.plugin.common.enums.PsiElementFeatureEnum.*;
+
 /**
  * json 为json
  *
@@ -19,42 +22,18 @@ public class CopyJsonAction extends AnAction {
     @Override
     public void update(@NotNull AnActionEvent e) {
         super.update(e);
-        DataContext dataContext = e.getDataContext();
-        //获取当前事件触发时，光标所在的元素
-
-        PsiElement psiElement = CommonDataKeys.PSI_ELEMENT.getData(dataContext);
-        boolean anonymousClass = OgnlPsUtils.isAnonymousClass(psiElement);
-        if (anonymousClass) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-
-        if (OgnlPsUtils.isPsiFieldOrMethodOrClass(psiElement)) {
-            e.getPresentation().setEnabled(true);
-            return;
-        }
-
-        if (psiElement instanceof PsiParameter) {
-            e.getPresentation().setEnabled(true);
-            return;
-        }
-        if (psiElement instanceof PsiLocalVariable) {
-            e.getPresentation().setEnabled(true);
-            return;
-        }
-        if (psiElement instanceof PsiNewExpression) {
-            e.getPresentation().setEnabled(true);
-            return;
-        }
-        if (psiElement instanceof PsiReferenceExpression) {
-            e.getPresentation().setEnabled(true);
-            return;
-        }
-        if (psiElement instanceof PsiJavaCodeReferenceElement) {
-            e.getPresentation().setEnabled(true);
-            return;
-        }
-        e.getPresentation().setEnabled(false);
+        DataContextFeature.update(e, feature -> {
+            PsiElement psiElement = feature.getPsiElement();
+            if (feature.getPsiElementFeature().has(ANONYMOUS_CLASS)) {
+                return false;
+            }
+            return feature.getPsiElementFeature().has(FIELD_METHOD_CLASS)
+                    || psiElement instanceof PsiParameter
+                    || psiElement instanceof PsiLocalVariable
+                    || psiElement instanceof PsiNewExpression
+                    || psiElement instanceof PsiReferenceExpression
+                    || psiElement instanceof PsiJavaCodeReferenceElement;
+        });
     }
 
     /**
@@ -41,6 +41,13 @@ public class JPsiTypeContext {
     @Getter
     public Map processCache = new HashMap<String, Object>();
 
+    /**
+     * 使用 java 字段名称 不处理 json 注解的别名 (生成 ognl 表达式)
+     */
+    @Getter
+    @Setter
+    private boolean javaFieldName = false;
+
 
     /**
      * 设置泛型
@@ -107,6 +114,7 @@ public class JPsiTypeContext {
     private JPsiTypeContext(JPsiTypeContext old, PsiType owner, boolean init) {
         this(owner, init);
         this.processCache = old.processCache;
+        this.javaFieldName = old.javaFieldName;
     }
 
     /**
@@ -0,0 +1,76 @@
+package com.github.wangji92.arthas.plugin.action.arthas;
+
+import com.github.wangji92.arthas.plugin.common.command.BatchCommandComposer;
+import com.github.wangji92.arthas.plugin.common.command.DataContextFeature;
+import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
+import com.github.wangji92.arthas.plugin.utils.CommonExecuteScriptUtils;
+import com.github.wangji92.arthas.plugin.utils.NotifyUtils;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.popup.JBPopupFactory;
+import com.intellij.ui.SimpleListCellRenderer;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.wangji92.arthas.plugin.common.enums.PsiElementFeatureEnum.FIELD_METHOD_CLASS;
+
+/**
+ * 多选的方法、字段 或者整个类 合并为一个 arthas 批处理脚本 一次 attach 执行
+ * watch/trace/monitor/stack -E 合并所有方法 ognl 合并所有静态字段
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class ArthasBatchCommandAction extends AnAction {
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        super.update(e);
+        DataContextFeature.update(e, feature -> feature.hasProject()
+                && (feature.getPsiElementFeature().has(FIELD_METHOD_CLASS) || feature.isJavaFileSelected()));
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent event) {
+        DataContext dataContext = event.getDataContext();
+        Project project = CommonDataKeys.PROJECT.getData(dataContext);
+        if (project == null) {
+            return;
+        }
+        BatchCommandComposer composer = BatchCommandComposer.collect(dataContext);
+        if (composer.isEmpty()) {
+            NotifyUtils.notifyMessage(project, "no method or static field found for batch command", NotificationType.WARNING);
+            return;
+        }
+        if (!composer.hasMethod()) {
+            this.execute(project, composer, null);
+            return;
+        }
+        List<BatchCommandComposer.MethodCommandEnum> methodCommands = Arrays.asList(BatchCommandComposer.MethodCommandEnum.values());
+        JBPopupFactory.getInstance().createPopupChooserBuilder(methodCommands)
+                .setTitle("Batch Command " + composer.describe())
+                .setRenderer(new SimpleListCellRenderer<BatchCommandComposer.MethodCommandEnum>() {
+                    @Override
+                    public void customize(@NotNull JList<? extends BatchCommandComposer.MethodCommandEnum> list, BatchCommandComposer.MethodCommandEnum value, int index, boolean selected, boolean hasFocus) {
+                        setText(value.name().toLowerCase() + " -E");
+                    }
+                })
+                .setItemChosenCallback(methodCommand -> this.execute(project, composer, methodCommand))
+                .createPopup()
+                .showInBestPositionFor(dataContext);
+    }
+
+    private void execute(Project project, BatchCommandComposer composer, BatchCommandComposer.MethodCommandEnum methodCommand) {
+        List<String> commands = composer.compose(methodCommand, AppSettingsState.getInstance(project));
+        CommonExecuteScriptUtils.executeBatchScript(project, composer.getScCommand(), commands, "<br/>batch " + composer.describe());
+    }
+}
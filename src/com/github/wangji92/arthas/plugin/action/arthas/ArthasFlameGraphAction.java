@@ -0,0 +1,73 @@
+package com.github.wangji92.arthas.plugin.action.arthas;
+
+import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
+import com.github.wangji92.arthas.plugin.utils.FlameGraphUtils;
+import com.github.wangji92.arthas.plugin.utils.StringUtils;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.fileChooser.FileChooser;
+import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.ui.popup.JBPopupFactory;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 打开 async-profiler 的 collapsed/jfr 结果 展示火焰图 支持本地文件和 oss/s3 中的文件
+ * profiler stop --format collapsed --file /tmp/xxx.collapsed 或者 --format jfr
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class ArthasFlameGraphAction extends AnAction implements DumbAware {
+
+    private static final String LOCAL_FILE = "Local File (collapsed / jfr)";
+
+    private static final String STORAGE_FILE = "OSS / S3 Object Key";
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent event) {
+        DataContext dataContext = event.getDataContext();
+        Project project = CommonDataKeys.PROJECT.getData(dataContext);
+        if (project == null) {
+            return;
+        }
+        if (!FlameGraphUtils.supportStorage(AppSettingsState.getInstance(project))) {
+            this.chooseLocalFile(project);
+            return;
+        }
+        List<String> sources = Arrays.asList(LOCAL_FILE, STORAGE_FILE);
+        JBPopupFactory.getInstance().createPopupChooserBuilder(sources)
+                .setTitle("Open Flame Graph")
+                .setItemChosenCallback(source -> {
+                    if (LOCAL_FILE.equals(source)) {
+                        this.chooseLocalFile(project);
+                    } else {
+                        this.inputStorageKey(project);
+                    }
+                })
+                .createPopup()
+                .showCenteredInCurrentWindow(project);
+    }
+
+    private void chooseLocalFile(Project project) {
+        FileChooser.chooseFile(FileChooserDescriptorFactory.createSingleFileDescriptor(), project, null,
+                virtualFile -> FlameGraphUtils.openLocalFile(project, VfsUtilCore.virtualToIoFile(virtualFile)));
+    }
+
+    private void inputStorageKey(Project project) {
+        String key = Messages.showInputDialog(project, "Object key, e.g. arthas/profiler/20261019-101010.jfr", "Open Flame Graph From Storage", null);
+        if (StringUtils.isNotBlank(key)) {
+            FlameGraphUtils.openStorageFile(project, key.trim());
+        }
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.wangji92.arthas.plugin.action.arthas;
 
+import com.github.wangji92.arthas.plugin.common.command.DataContextFeature;
 import com.github.wangji92.arthas.plugin.common.exception.CompilerFileNotFoundException;
 import com.github.wangji92.arthas.plugin.constants.ArthasCommandConstants;
 import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
@@ -15,6 +16,8 @@ import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.InputValidator;
+import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
@@ -50,27 +53,20 @@ public class ArthasHotRedefineCommandAction extends AnAction implements DumbAwar
 
     private static final String REDEFINE_NOTE = "【redefine 增强后 stop/rest 不影响,watch/jad/trace 等等增强后失效】【不能修改、添加、删除类的field和method】";
 
+    private static final String PROFILER_DIFF_NOTE = "【retransform 前后各采集一个窗口 cpu 火焰图,没有开启结果回传 服务器 ~/opt/arthas/profilerDiff/diff.collapsed 使用 Open Flame Graph 打开】";
+
+    /**
+     * 热更新前后的采样窗口 10ms 一次
+     */
+    private static final String PROFILER_DIFF_START_COMMAND = "profiler start --event cpu --interval 10000000";
+
+    private static final String PROFILER_DIFF_DEFAULT_SECONDS = "30";
+
     @Override
     public void update(@NotNull AnActionEvent e) {
         super.update(e);
-        DataContext dataContext = e.getDataContext();
-        Project project = CommonDataKeys.PROJECT.getData(dataContext);
-        if (project == null) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
         //右侧选择了一个或者多个文件
-        VirtualFile[] virtualFileFiles = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
-        if (virtualFileFiles == null) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        List<PsiFile> psiFileJavaFiles = Arrays.stream(virtualFileFiles).map(PsiManager.getInstance(project)::findFile).filter(psiFileElement -> psiFileElement instanceof PsiJavaFile).collect(Collectors.toList());
-        if (CollectionUtils.isNotEmpty(psiFileJavaFiles)) {
-            e.getPresentation().setEnabled(true);
-            return;
-        }
-        e.getPresentation().setEnabled(false);
+        DataContextFeature.update(e, feature -> feature.hasProject() && feature.isJavaFileSelected());
     }
 
     @Override
@@ -93,12 +89,32 @@ public class ArthasHotRedefineCommandAction extends AnAction implements DumbAwar
         if ("Redefine".equals(event.getPresentation().getDescription())) {
             hotCommand = "redefine";
         }
+        // retransform 前后火焰图对比
+        String profilerDiffSeconds = null;
+        if ("ProfileDiff".equals(event.getPresentation().getDescription())) {
+            profilerDiffSeconds = Messages.showInputDialog(project, "profile seconds before and after retransform", "Retransform With Profiler Diff",
+                    null, PROFILER_DIFF_DEFAULT_SECONDS, new InputValidator() {
+                        @Override
+                        public boolean checkInput(String inputString) {
+                            return StringUtils.isNumeric(inputString) && Integer.parseInt(inputString) > 0 && Integer.parseInt(inputString) <= 600;
+                        }
+
+                        @Override
+                        public boolean canClose(String inputString) {
+                            return checkInput(inputString);
+                        }
+                    });
+            if (profilerDiffSeconds == null) {
+                return;
+            }
+        }
 
         VirtualFile[] virtualFileFiles = CommonDataKeys.VIRTUAL_FILE_ARRAY.getData(dataContext);
         PsiElement psiElement = CommonDataKeys.PSI_ELEMENT.getData(dataContext);
         assert virtualFileFiles != null;
 
         String finalHotCommand = hotCommand;
+        String finalProfilerDiffSeconds = profilerDiffSeconds;
         Runnable runnable = () -> {
             List<String> fullClassPackagePaths = Lists.newArrayList();
             try {
@@ -163,8 +179,19 @@ public class ArthasHotRedefineCommandAction extends AnAction implements DumbAwar
                     NotifyUtils.notifyMessage(project, "必须配置才能使用 jps -l 查看名称,hot swap use project name select process and batch support; as.sh --select projectName -c 'redefine /tmp/test.class'", NotificationType.ERROR);
                     return;
                 }
+                String finalSelectProjectName = selectProjectName;
+                List<String> classNames = toClassNames(shellOutPaths);
                 String arthasIdeaPluginBase64AndPathCommand = String.join(",", bash64FileAndPathList);
                 String arthasIdeaPluginRedefineCommand = finalHotCommand + " " + String.join(" ", shellOutPaths);
+                if (finalProfilerDiffSeconds != null) {
+                    this.executeProfilerDiff(project, settings, selectProjectName, arthasIdeaPluginBase64AndPathCommand, arthasIdeaPluginRedefineCommand, deleteClassFile, finalProfilerDiffSeconds, classNames);
+                    return;
+                }
+                // redefine 不能还原 只有 retransform 支持限时
+                if ("retransform".equals(finalHotCommand) && EnhanceGuardUtils.getGuardSeconds(settings) > 0) {
+                    EnhanceGuardUtils.executeHotSwap(project, selectProjectName, arthasIdeaPluginBase64AndPathCommand, shellOutPaths, deleteClassFile);
+                    return;
+                }
                 Map<String, String> params = Maps.newHashMap();
                 params.put("arthasIdeaPluginBase64AndPathCommand", arthasIdeaPluginBase64AndPathCommand);
                 params.put("arthasIdeaPluginRedefineCommand", arthasIdeaPluginRedefineCommand);
@@ -172,8 +199,7 @@ public class ArthasHotRedefineCommandAction extends AnAction implements DumbAwar
                 params.put("deleteClassFile", deleteClassFile);
                 params.put("arthasPackageZipDownloadUrl", settings.arthasPackageZipDownloadUrl);
 
-
-                String redefineSh = StringUtils.stringSubstitutorFromFilePath("/template/arthas-idea-plugin-hot-swap.sh", params);
+                String redefineSh = DirectScriptUtils.buildScriptWithCommonFunction(project, settings, params, "/template/arthas-idea-plugin-hot-swap.sh");
 
                 String base64RedefineSh = BaseEncoding.base64().encode(redefineSh.getBytes(StandardCharsets.UTF_8));
                 DirectScriptUtils.buildDirectScript(project, settings, base64RedefineSh, "arthas-idea-plugin-hot-swap.sh", directScriptResult -> {
@@ -182,6 +208,7 @@ public class ArthasHotRedefineCommandAction extends AnAction implements DumbAwar
                             directScriptResult.getTip().append(REDEFINE_NOTE);
                         } else {
                             directScriptResult.getTip().append(RETRANSFORM_NOTE);
+                            EnhanceLedgerUtils.recordRetransform(project, finalSelectProjectName, classNames);
                         }
                         NotifyUtils.notifyMessage(project, directScriptResult.getTip().toString());
                     }
@@ -200,6 +227,57 @@ public class ArthasHotRedefineCommandAction extends AnAction implements DumbAwar
 
     }
 
+    /**
+     * 热更新前后各采集一个窗口 回传合并后的 collapsed 展示差分火焰图
+     *
+     * @param project
+     * @param settings
+     * @param selectProjectName
+     * @param base64AndPathCommand
+     * @param redefineCommand
+     * @param deleteClassFile
+     * @param profilerDiffSeconds
+     * @param classNames
+     */
+    private void executeProfilerDiff(Project project, AppSettingsState settings, String selectProjectName, String base64AndPathCommand,
+                                     String redefineCommand, String deleteClassFile, String profilerDiffSeconds, List<String> classNames) {
+        Map<String, String> params = Maps.newHashMap();
+        params.put("arthasIdeaPluginApplicationName", selectProjectName);
+        params.put("arthasPackageZipDownloadUrl", settings.arthasPackageZipDownloadUrl);
+        params.put("arthasIdeaPluginBase64AndPathCommand", base64AndPathCommand);
+        params.put("arthasIdeaPluginRedefineCommand", redefineCommand);
+        params.put("deleteClassFile", deleteClassFile);
+        params.put("profilerDiffSeconds", profilerDiffSeconds);
+        params.put("profilerDiffStartCommand", PROFILER_DIFF_START_COMMAND);
+        ResultRoundTripUtils.RoundTrip roundTrip = ResultRoundTripUtils.prepare(project, settings);
+        if (roundTrip != null) {
+            params.put("arthasResultUploadCommand", roundTrip.getUploadCommand());
+        }
+        String profilerDiffSh = DirectScriptUtils.buildScriptWithCommonFunction(project, settings, params, "/template/profiler-hot-swap-diff.sh");
+        String base64ProfilerDiffSh = BaseEncoding.base64().encode(profilerDiffSh.getBytes(StandardCharsets.UTF_8));
+        DirectScriptUtils.buildDirectScript(project, settings, base64ProfilerDiffSh, "arthas-idea-plugin-profiler-diff.sh", directScriptResult -> {
+            if (directScriptResult.getResult()) {
+                directScriptResult.getTip().append(PROFILER_DIFF_NOTE);
+                EnhanceLedgerUtils.recordRetransform(project, selectProjectName, classNames);
+                NotifyUtils.notifyMessage(project, directScriptResult.getTip().toString());
+                if (roundTrip != null) {
+                    ResultRoundTripUtils.fetchInBackground(project, roundTrip, "profiler diff",
+                            collapsed -> FlameGraphUtils.parseCollapsedAndShow(project, collapsed, redefineCommand));
+                }
+            }
+        });
+    }
+
+    /**
+     * 服务器上的类文件路径转换为类名
+     *
+     * @param shellOutPaths $ 已经转义为 \$
+     * @return
+     */
+    private List<String> toClassNames(List<String> shellOutPaths) {
+        return shellOutPaths.stream().map(path -> EnhanceGuardUtils.toHotSwapClassName(path.replace("\\$", "$"))).collect(Collectors.toList());
+    }
+
     /**
      * 后台执行任务
      *
@@ -3,6 +3,7 @@ package com.github.wangji92.arthas.plugin.action.arthas;
 import com.github.wangji92.arthas.plugin.common.command.CommandContext;
 import com.github.wangji92.arthas.plugin.common.enums.ShellScriptCommandEnum;
 import com.github.wangji92.arthas.plugin.utils.ClipboardUtils;
+import com.github.wangji92.arthas.plugin.utils.CommandCopyHookUtils;
 import com.github.wangji92.arthas.plugin.utils.NotifyUtils;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiElement;
@@ -24,6 +25,7 @@ public class ArthasMonitorCommandAction extends BaseArthasPluginAction {
         CommandContext commandContext = new CommandContext(project, psiElement);
         String command = ShellScriptCommandEnum.MONITOR.getArthasCommand(commandContext);
         ClipboardUtils.setClipboardString(command);
+        CommandCopyHookUtils.afterCopy(project, command);
         NotifyUtils.notifyMessageDefault(project);
     }
 }
@@ -1,5 +1,6 @@
 package com.github.wangji92.arthas.plugin.action.arthas;
 
+import com.github.wangji92.arthas.plugin.common.command.DataContextFeature;
 import com.github.wangji92.arthas.plugin.constants.ArthasCommandConstants;
 import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
 import com.github.wangji92.arthas.plugin.utils.*;
@@ -12,17 +13,10 @@ import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiManager;
-import com.intellij.psi.xml.XmlFile;
-import org.apache.commons.collections.CollectionUtils;
 import org.jetbrains.annotations.NotNull;
 
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * 重新加载 mapper xml 文件
@@ -42,24 +36,8 @@ public class ArthasMybatisMapperReloadAction extends AnAction implements DumbAwa
     @Override
     public void update(@NotNull AnActionEvent e) {
         super.update(e);
-        DataContext dataContext = e.getDataContext();
-        Project project = CommonDataKeys.PROJECT.getData(dataContext);
-        if (project == null) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        //右侧选择了一个或者多个文件
-        VirtualFile[] virtualFileFiles = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
-        if (virtualFileFiles == null) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        List<PsiFile> psiXmlFiles = Arrays.stream(virtualFileFiles).map(PsiManager.getInstance(project)::findFile).filter(psiFileElement -> psiFileElement instanceof XmlFile).collect(Collectors.toList());
-        if (CollectionUtils.isNotEmpty(psiXmlFiles) && psiXmlFiles.size() == 1) {
-            e.getPresentation().setEnabled(true);
-            return;
-        }
-        e.getPresentation().setEnabled(false);
+        //右侧选择了一个xml文件
+        DataContextFeature.update(e, feature -> feature.hasProject() && feature.isSingleXmlFileSelected());
     }
 
     @Override
@@ -113,9 +91,7 @@ public class ArthasMybatisMapperReloadAction extends AnAction implements DumbAwa
             params.put("arthasIdeaPluginMybatisMapperXmlReloadCommand", arthasIdeaPluginMybatisMapperXmlReloadCommand);
             params.put("BASE64_TXT_AND_PATH", arthasIdeaPluginBase64MapperXmlAndPath);
             params.put("SC_COMMAND", springContextScCommand);
-            String commonFunctionSh = StringUtils.stringSubstitutorFromFilePath("/template/plugin-common-function.sh", params);
-            String mybatisMapperReloadSh = StringUtils.stringSubstitutorFromFilePath("/template/mybatis-mapper-xml-reload.sh", params);
-            mybatisMapperReloadSh = commonFunctionSh + "\n" + mybatisMapperReloadSh;
+            String mybatisMapperReloadSh = DirectScriptUtils.buildScriptWithCommonFunction(project, settings, params, "/template/mybatis-mapper-xml-reload.sh");
             String base64MybatisMapperReloadSh = BaseEncoding.base64().encode(mybatisMapperReloadSh.getBytes(StandardCharsets.UTF_8));
             DirectScriptUtils.buildDirectScript(project, settings, base64MybatisMapperReloadSh, "arthas-idea-plugin-mybatis-mapper-xml-reload.sh", directScriptResult -> {
                 if (directScriptResult.getResult()) {
@@ -1,10 +1,11 @@
 package com.github.wangji92.arthas.plugin.action.arthas;
 
+import com.github.wangji92.arthas.plugin.common.command.DataContextFeature;
+import com.github.wangji92.arthas.plugin.common.command.PsiElementFeature;
 import com.github.wangji92.arthas.plugin.ui.ArthasOgnlEnumActionDialog;
 import com.github.wangji92.arthas.plugin.ui.ArthasOgnlEnumActionDialog.OgnlEnumCommandRequest;
 import com.github.wangji92.arthas.plugin.utils.OgnlPsUtils;
 import com.intellij.openapi.actionSystem.*;
-import com.intellij.openapi.project.Project;
 import com.intellij.psi.*;
 import com.intellij.psi.impl.source.PsiEnumConstantImpl;
 import org.jetbrains.annotations.NotNull;
@@ -12,6 +13,8 @@ import org.jetbrains.annotations.NotNull;
 import javax.swing.*;
 import java.util.Arrays;
 
+import static com.github.wangji92.arthas.plugin.common.enums.PsiElementFeatureEnum.*;
+
 /**
  * 为了枚举特殊订正
  *
@@ -23,22 +26,10 @@ public class ArthasOgnlEnumAction extends AnAction {
     @Override
     public void update(@NotNull AnActionEvent e) {
         super.update(e);
-        DataContext dataContext = e.getDataContext();
-        Project project = CommonDataKeys.PROJECT.getData(dataContext);
-        if (project == null) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        PsiElement psiElement = CommonDataKeys.PSI_ELEMENT.getData(dataContext);
-        if (!OgnlPsUtils.isPsiFieldOrMethodOrClass(psiElement)) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        if (OgnlPsUtils.psiElementInEnum(psiElement)) {
-            e.getPresentation().setEnabled(true);
-            return;
-        }
-        e.getPresentation().setEnabled(false);
+        DataContextFeature.update(e, feature -> {
+            PsiElementFeature psiElementFeature = feature.getPsiElementFeature();
+            return feature.hasProject() && psiElementFeature.has(FIELD_METHOD_CLASS) && psiElementFeature.has(IN_ENUM);
+        });
     }
 
     @Override
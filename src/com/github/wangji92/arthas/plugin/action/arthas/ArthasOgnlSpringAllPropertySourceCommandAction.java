@@ -40,6 +40,7 @@ public class ArthasOgnlSpringAllPropertySourceCommandAction extends AnAction {
             return;
         }
 
+        SpringStaticContextUtils.awaitStaticSpringContext(project);
         if (!SpringStaticContextUtils.booleanConfigStaticSpringContext(project)) {
             //if you not set static spring context,you can use vmtool
             CommandContext commandContext = new CommandContext(e);
@@ -1,5 +1,7 @@
 package com.github.wangji92.arthas.plugin.action.arthas;
 
+import com.github.wangji92.arthas.plugin.common.command.DataContextFeature;
+import com.github.wangji92.arthas.plugin.common.command.PsiElementFeature;
 import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
 import com.github.wangji92.arthas.plugin.ui.ArthasActionStaticDialog;
 import com.github.wangji92.arthas.plugin.utils.NotifyUtils;
@@ -15,6 +17,8 @@ import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
 
+import static com.github.wangji92.arthas.plugin.common.enums.PsiElementFeatureEnum.*;
+
 /**
  * 通过ognl 调用获取spring context 然后调用方法、field处理
  * 通过获取静态的的spring context 然后进行获取到Bean的信息进行处理
@@ -34,37 +38,12 @@ public class ArthasOgnlSpringContextInvokeMethodAction extends AnAction {
     @Override
     public void update(@NotNull AnActionEvent e) {
         super.update(e);
-        DataContext dataContext = e.getDataContext();
-        Editor editor = CommonDataKeys.EDITOR.getData(dataContext);
-        if (editor == null) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        //获取当前事件触发时，光标所在的元素
-        PsiElement psiElement = CommonDataKeys.PSI_ELEMENT.getData(dataContext);
-        if (!OgnlPsUtils.isPsiFieldOrMethodOrClass(psiElement)) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        if (OgnlPsUtils.isConstructor(psiElement)) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        if (OgnlPsUtils.psiElementInEnum(psiElement)) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        boolean staticField = OgnlPsUtils.isStaticField(psiElement);
-        if (staticField) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        boolean anonymousClass = OgnlPsUtils.isAnonymousClass(psiElement);
-        if (anonymousClass) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        e.getPresentation().setEnabled(true);
+        DataContextFeature.update(e, feature -> {
+            PsiElementFeature psiElementFeature = feature.getPsiElementFeature();
+            // 构造方法 枚举 静态字段不支持
+            return feature.hasEditor() && psiElementFeature.has(FIELD_METHOD_CLASS) && !psiElementFeature.has(CONSTRUCTOR)
+                    && !psiElementFeature.has(IN_ENUM) && !psiElementFeature.has(STATIC_FIELD) && !psiElementFeature.has(ANONYMOUS_CLASS);
+        });
     }
 
     @Override
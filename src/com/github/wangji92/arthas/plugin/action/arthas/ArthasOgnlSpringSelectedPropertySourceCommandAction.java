@@ -1,5 +1,6 @@
 package com.github.wangji92.arthas.plugin.action.arthas;
 
+import com.github.wangji92.arthas.plugin.common.command.DataContextFeature;
 import com.github.wangji92.arthas.plugin.common.command.CommandContext;
 import com.github.wangji92.arthas.plugin.common.enums.ShellScriptCommandEnum;
 import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
@@ -40,6 +41,7 @@ public class ArthasOgnlSpringSelectedPropertySourceCommandAction extends AnActio
             return;
         }
 
+        SpringStaticContextUtils.awaitStaticSpringContext(project);
         if (!SpringStaticContextUtils.booleanConfigStaticSpringContext(project)) {
             //if you not set static spring context,you can use vmtool
             CommandContext commandContext = new CommandContext(e);
@@ -92,11 +94,7 @@ public class ArthasOgnlSpringSelectedPropertySourceCommandAction extends AnActio
     @Override
     public void update(@NotNull AnActionEvent e) {
         super.update(e);
-        DataContext dataContext = e.getDataContext();
-        Editor editor = CommonDataKeys.EDITOR.getData(dataContext);
-        if (editor == null) {
-            e.getPresentation().setEnabled(false);
-        }
+        DataContextFeature.update(e, feature -> feature.hasEditor());
     }
 
     @Override
@@ -1,18 +1,20 @@
 package com.github.wangji92.arthas.plugin.action.arthas;
 
+import com.github.wangji92.arthas.plugin.common.command.DataContextFeature;
+import com.github.wangji92.arthas.plugin.common.command.PsiElementFeature;
 import com.github.wangji92.arthas.plugin.common.command.CommandContext;
 import com.github.wangji92.arthas.plugin.common.enums.ShellScriptCommandEnum;
 import com.github.wangji92.arthas.plugin.common.enums.ShellScriptVariableEnum;
 import com.github.wangji92.arthas.plugin.ui.ArthasActionStaticDialog;
-import com.github.wangji92.arthas.plugin.utils.OgnlPsUtils;
 import com.intellij.openapi.actionSystem.*;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.project.Project;
-import com.intellij.psi.PsiElement;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
 
+import static com.github.wangji92.arthas.plugin.common.enums.PsiElementFeatureEnum.*;
+
 /**
  * static 方法处理
  *
@@ -24,18 +26,10 @@ public class ArthasOgnlStaticCommandAction extends AnAction {
     @Override
     public void update(@NotNull AnActionEvent e) {
         super.update(e);
-        DataContext dataContext = e.getDataContext();
-        PsiElement psiElement = CommonDataKeys.PSI_ELEMENT.getData(dataContext);
-        boolean anonymousClass = OgnlPsUtils.isAnonymousClass(psiElement);
-        if (anonymousClass) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        if (OgnlPsUtils.isStaticMethodOrField(psiElement)) {
-            e.getPresentation().setEnabled(true);
-            return;
-        }
-        e.getPresentation().setEnabled(false);
+        DataContextFeature.update(e, feature -> {
+            PsiElementFeature psiElementFeature = feature.getPsiElementFeature();
+            return !psiElementFeature.has(ANONYMOUS_CLASS) && psiElementFeature.isStaticMethodOrField();
+        });
     }
 
     @Override
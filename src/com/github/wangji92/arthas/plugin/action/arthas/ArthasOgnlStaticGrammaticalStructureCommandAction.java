@@ -1,5 +1,7 @@
 package com.github.wangji92.arthas.plugin.action.arthas;
 
+import com.github.wangji92.arthas.plugin.common.command.DataContextFeature;
+import com.github.wangji92.arthas.plugin.common.command.PsiElementFeature;
 import com.github.wangji92.arthas.plugin.utils.ClipboardUtils;
 import com.github.wangji92.arthas.plugin.utils.NotifyUtils;
 import com.github.wangji92.arthas.plugin.utils.OgnlPsUtils;
@@ -8,6 +10,8 @@ import com.intellij.openapi.project.Project;
 import com.intellij.psi.*;
 import org.jetbrains.annotations.NotNull;
 
+import static com.github.wangji92.arthas.plugin.common.enums.PsiElementFeatureEnum.*;
+
 /**
  * ognl 语法构造 方便在watch 参数中直接利用哦 ~
  * https://github.com/WangJi92/arthas-idea-plugin/issues/5
@@ -22,24 +26,10 @@ public class ArthasOgnlStaticGrammaticalStructureCommandAction extends AnAction
     @Override
     public void update(@NotNull AnActionEvent e) {
         super.update(e);
-        DataContext dataContext = e.getDataContext();
-        Project project = CommonDataKeys.PROJECT.getData(dataContext);
-        if (project == null) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        //获取当前事件触发时，光标所在的元素
-        PsiElement psiElement = CommonDataKeys.PSI_ELEMENT.getData(dataContext);
-        boolean anonymousClass = OgnlPsUtils.isAnonymousClass(psiElement);
-        if (anonymousClass) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        if (OgnlPsUtils.isPsiFieldOrMethodOrClass(psiElement)) {
-            e.getPresentation().setEnabled(true);
-            return;
-        }
-        e.getPresentation().setEnabled(false);
+        DataContextFeature.update(e, feature -> {
+            PsiElementFeature psiElementFeature = feature.getPsiElementFeature();
+            return feature.hasProject() && !psiElementFeature.has(ANONYMOUS_CLASS) && psiElementFeature.has(FIELD_METHOD_CLASS);
+        });
     }
 
     @Override
@@ -1,9 +1,9 @@
 package com.github.wangji92.arthas.plugin.action.arthas;
 
+import com.github.wangji92.arthas.plugin.common.command.DataContextFeature;
 import com.github.wangji92.arthas.plugin.ui.ArthasShellScriptCommandDialog;
+import com.github.wangji92.arthas.plugin.utils.SpringStaticContextUtils;
 import com.intellij.openapi.actionSystem.*;
-import com.intellij.openapi.project.Project;
-import com.intellij.openapi.vfs.VirtualFile;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
@@ -18,26 +18,18 @@ public class ArthasShellScriptCommandAction extends AnAction {
     @Override
     public void update(@NotNull AnActionEvent e) {
         super.update(e);
-        DataContext dataContext = e.getDataContext();
-        //获取当前事件触发时，光标所在的元素
-        Project project = CommonDataKeys.PROJECT.getData(dataContext);
-        if (project == null) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        VirtualFile[] virtualFileFiles = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
-        if (virtualFileFiles == null) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        if (virtualFileFiles.length >= 2) {
-            e.getPresentation().setEnabled(false);
-        }
+        DataContextFeature.update(e, feature -> {
+            int virtualFileCount = feature.getVirtualFileCount();
+            return feature.hasProject() && virtualFileCount >= 0 && virtualFileCount < 2;
+        });
     }
 
     @Override
     public void actionPerformed(@NotNull AnActionEvent event) {
-
+        if (event.getProject() != null) {
+            // 对话框按照 static spring context 过滤可用命令
+            SpringStaticContextUtils.awaitStaticSpringContext(event.getProject());
+        }
         SwingUtilities.invokeLater(() -> {
             ArthasShellScriptCommandDialog dialog = new ArthasShellScriptCommandDialog(event);
             dialog.open("Quickly Get Available Command(shell command or common command)");
@@ -1,5 +1,6 @@
 package com.github.wangji92.arthas.plugin.action.arthas;
 
+import com.github.wangji92.arthas.plugin.common.command.DataContextFeature;
 import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
 import com.github.wangji92.arthas.plugin.utils.ClipboardUtils;
 import com.github.wangji92.arthas.plugin.utils.NotifyUtils;
@@ -12,6 +13,8 @@ import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiModifier;
 import org.jetbrains.annotations.NotNull;
 
+import static com.github.wangji92.arthas.plugin.common.enums.PsiElementFeatureEnum.*;
+
 /**
  * https://arthas.aliyun.com/doc/getstatic.html 简单的版本的获取静态变量
  *
@@ -23,31 +26,8 @@ public class ArthasSimpleGetStaticCommandAction extends AnAction {
     @Override
     public void update(@NotNull AnActionEvent e) {
         super.update(e);
-        DataContext dataContext = e.getDataContext();
-        Editor editor = CommonDataKeys.EDITOR.getData(dataContext);
-        if (editor == null) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        //获取当前事件触发时，光标所在的元素
-        PsiElement psiElement = CommonDataKeys.PSI_ELEMENT.getData(dataContext);
-        if (psiElement == null) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        if (psiElement instanceof PsiField) {
-            PsiField psiField = (PsiField) psiElement;
-            if (!psiField.hasModifierProperty(PsiModifier.STATIC)) {
-                e.getPresentation().setEnabled(false);
-                return;
-            } else {
-                //只支持static field
-                e.getPresentation().setEnabled(true);
-            }
-            return;
-        }
-
-        e.getPresentation().setEnabled(false);
+        //只支持static field
+        DataContextFeature.update(e, feature -> feature.hasEditor() && feature.getPsiElementFeature().has(STATIC_FIELD));
     }
 
     @Override
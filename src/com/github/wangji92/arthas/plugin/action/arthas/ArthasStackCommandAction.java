@@ -3,6 +3,7 @@ package com.github.wangji92.arthas.plugin.action.arthas;
 import com.github.wangji92.arthas.plugin.common.command.CommandContext;
 import com.github.wangji92.arthas.plugin.common.enums.ShellScriptCommandEnum;
 import com.github.wangji92.arthas.plugin.utils.ClipboardUtils;
+import com.github.wangji92.arthas.plugin.utils.CommandCopyHookUtils;
 import com.github.wangji92.arthas.plugin.utils.NotifyUtils;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiElement;
@@ -26,6 +27,7 @@ public class ArthasStackCommandAction extends BaseArthasPluginAction {
         CommandContext commandContext = new CommandContext(project, psiElement);
         String command = ShellScriptCommandEnum.STACK.getArthasCommand(commandContext);
         ClipboardUtils.setClipboardString(command);
+        CommandCopyHookUtils.afterCopy(project, command);
         NotifyUtils.notifyMessage(project, NotifyUtils.COMMAND_COPIED + "(Source code analysis, view method call stack is very convenient)");
     }
 
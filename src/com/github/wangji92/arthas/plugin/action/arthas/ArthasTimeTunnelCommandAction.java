@@ -3,8 +3,11 @@ package com.github.wangji92.arthas.plugin.action.arthas;
 import com.github.wangji92.arthas.plugin.constants.ArthasCommandConstants;
 import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
 import com.github.wangji92.arthas.plugin.ui.ArthasTimeTunnelDialog;
+import com.github.wangji92.arthas.plugin.utils.TimeTunnelUtils;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiMethod;
 
 import javax.swing.*;
 
@@ -22,11 +25,27 @@ public class ArthasTimeTunnelCommandAction extends BaseArthasPluginAction {
     @Override
     public void doCommand(String className, String methodName, Project project, PsiElement psiElement) {
         AppSettingsState instance = AppSettingsState.getInstance(project);
-        String invokeCount = instance.invokeCount;
+        // 每条记录都强引用入参、返回值 次数必须有限
+        int recordCount = TimeTunnelUtils.getRecordCount(instance.invokeCount);
         String conditionExpressDisplay = instance.conditionExpressDisplay ? ArthasCommandConstants.DEFAULT_CONDITION_EXPRESS : "";
-        String command = String.join(" ", "tt -t", className, methodName, "-n", invokeCount, conditionExpressDisplay);
+        String command = String.join(" ", "tt -t", className, methodName, "-n", String.valueOf(recordCount), conditionExpressDisplay);
+        String title = "arthas time tunnel use";
+        if (psiElement instanceof PsiMethod) {
+            TimeTunnelUtils.RecordEstimate estimate = TimeTunnelUtils.estimate((PsiMethod) psiElement);
+            if (estimate.isRisky(recordCount)) {
+                String message = String.format("tt -t keeps params and return objects of every record in the target heap until tt --delete-all.%n"
+                                + "estimated %s%s%ncleanup after %ds (0 means never), continue?", estimate.format(recordCount),
+                        estimate.getUnboundedTypes().isEmpty() ? "" : ", size depends on runtime data: " + String.join(", ", estimate.getUnboundedTypes()),
+                        TimeTunnelUtils.getCleanupSeconds(instance));
+                if (Messages.showOkCancelDialog(project, message, "Time Tunnel Memory", "Continue", "Cancel", Messages.getWarningIcon()) != Messages.OK) {
+                    return;
+                }
+            }
+            title = title + " " + estimate.format(recordCount);
+        }
+        String finalTitle = title;
         SwingUtilities.invokeLater(() -> {
-            new ArthasTimeTunnelDialog(project, command).open("arthas time tunnel use");
+            new ArthasTimeTunnelDialog(project, command).open(finalTitle);
         });
     }
 }
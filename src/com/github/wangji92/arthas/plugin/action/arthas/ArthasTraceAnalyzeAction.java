@@ -0,0 +1,48 @@
+package com.github.wangji92.arthas.plugin.action.arthas;
+
+import com.github.wangji92.arthas.plugin.utils.ClipboardUtils;
+import com.github.wangji92.arthas.plugin.utils.StringUtils;
+import com.github.wangji92.arthas.plugin.utils.TraceAnalyzeUtils;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 粘贴 trace -n 的输出 合并相同的调用路径 计算每个节点的 p50/p95/p99/max
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class ArthasTraceAnalyzeAction extends AnAction implements DumbAware {
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent event) {
+        DataContext dataContext = event.getDataContext();
+        Project project = CommonDataKeys.PROJECT.getData(dataContext);
+        if (project == null) {
+            return;
+        }
+        String clipboard = ClipboardUtils.getClipboardString();
+        String initial = StringUtils.contains(clipboard, "---ts=") ? clipboard : "";
+        String output = Messages.showMultilineInputDialog(project, "Paste trace output (text or json-format)", "Analyze Trace Output", initial, null, null);
+        if (StringUtils.isBlank(output)) {
+            return;
+        }
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Analyze trace output", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                TraceAnalyzeUtils.analyze(project, "trace", output, true);
+            }
+        });
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.wangji92.arthas.plugin.action.arthas;
+
+import com.github.wangji92.arthas.plugin.common.command.DataContextFeature;
+import com.github.wangji92.arthas.plugin.common.trace.TraceCallGraph;
+import com.github.wangji92.arthas.plugin.ui.ArthasTraceMultipleCommandDialog;
+import com.github.wangji92.arthas.plugin.utils.NotifyUtils;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiMethod;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.github.wangji92.arthas.plugin.common.enums.PsiElementFeatureEnum.*;
+
+/**
+ * 根据静态调用图 选中方法和最可能是热点的 n 个工程方法 生成一个 trace -E 一次增强
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class ArthasTraceCallGraphCommandAction extends BaseArthasPluginAction {
+
+    /**
+     * trace -E 最多包含的被调用方法
+     */
+    private static final int TOP_CALLEES = 10;
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        DataContextFeature.update(e, feature -> feature.hasProject()
+                && (feature.getPsiElementFeature().has(STATIC_METHOD) || feature.getPsiElementFeature().has(NON_STATIC_METHOD))
+                && !feature.getPsiElementFeature().has(CONSTRUCTOR));
+    }
+
+    @Override
+    public void doCommand(String className, String methodName, Project project, PsiElement psiElement) {
+        if (!(psiElement instanceof PsiMethod)) {
+            return;
+        }
+        PsiMethod psiMethod = (PsiMethod) psiElement;
+        ReadAction.nonBlocking(() -> TraceCallGraph.getTopCallees(psiMethod, TOP_CALLEES))
+                .inSmartMode(project)
+                .expireWith(project)
+                .finishOnUiThread(ModalityState.defaultModalityState(), callees -> showDialog(project, className, methodName, callees))
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    private static void showDialog(Project project, String className, String methodName, List<TraceCallGraph.Callee> callees) {
+        // -E 为 class 和 method 的笛卡尔积 不同类的同名方法也会被增强
+        Set<String> classNames = new LinkedHashSet<>();
+        Set<String> methodNames = new LinkedHashSet<>();
+        classNames.add(className);
+        methodNames.add(methodName);
+        for (TraceCallGraph.Callee callee : callees) {
+            classNames.add(callee.getClassName());
+            methodNames.add(callee.getMethodName());
+        }
+        if (callees.isEmpty()) {
+            NotifyUtils.notifyMessage(project, "no project method called by " + methodName + " found, trace the selected method only", NotificationType.WARNING);
+        } else {
+            NotifyUtils.notifyMessage(project, "trace -E callees ranked by call depth and loop: <br>"
+                    + callees.stream().map(TraceCallGraph.Callee::toString).collect(Collectors.joining("<br>")));
+        }
+        ArthasTraceMultipleCommandDialog dialog = new ArthasTraceMultipleCommandDialog(project);
+        dialog.replaceTrace(classNames, methodNames);
+        dialog.showDialog();
+    }
+}
@@ -1,8 +1,11 @@
 package com.github.wangji92.arthas.plugin.action.arthas;
 
+import com.github.wangji92.arthas.plugin.common.command.BatchCommandComposer;
 import com.github.wangji92.arthas.plugin.common.command.CommandContext;
 import com.github.wangji92.arthas.plugin.common.enums.ShellScriptCommandEnum;
+import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
 import com.github.wangji92.arthas.plugin.utils.ClipboardUtils;
+import com.github.wangji92.arthas.plugin.utils.CommandCopyHookUtils;
 import com.github.wangji92.arthas.plugin.utils.NotifyUtils;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiElement;
@@ -22,8 +25,11 @@ public class ArthasTraceCommandAction extends BaseArthasPluginAction {
     @Override
     public void doCommand(String className, String methodName, Project project, PsiElement psiElement) {
         CommandContext commandContext = new CommandContext(project, psiElement);
+        // 选中类的时候跳过 getter setter 等简单方法
+        BatchCommandComposer.overrideClassPattern(commandContext, BatchCommandComposer.MethodCommandEnum.TRACE, AppSettingsState.getInstance(project));
         String command = ShellScriptCommandEnum.TRACE.getArthasCommand(commandContext);
         ClipboardUtils.setClipboardString(command);
+        CommandCopyHookUtils.afterCopy(project, command);
         NotifyUtils.notifyMessageDefault(project);
 
     }
@@ -1,8 +1,11 @@
 package com.github.wangji92.arthas.plugin.action.arthas;
 
+import com.github.wangji92.arthas.plugin.common.command.BatchCommandComposer;
 import com.github.wangji92.arthas.plugin.common.command.CommandContext;
 import com.github.wangji92.arthas.plugin.common.enums.ShellScriptCommandEnum;
+import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
 import com.github.wangji92.arthas.plugin.utils.ClipboardUtils;
+import com.github.wangji92.arthas.plugin.utils.CommandCopyHookUtils;
 import com.github.wangji92.arthas.plugin.utils.NotifyUtils;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiElement;
@@ -32,8 +35,13 @@ public class ArthasWatchCommandAction extends BaseArthasPluginAction {
             // 具体可以参考 src/main/java/com/taobao/arthas/core/advisor/ArthasMethod.java
             scriptCommandEnum = ShellScriptCommandEnum.WATCH_NON_STATIC_FILED;
         }
+        if (scriptCommandEnum == ShellScriptCommandEnum.WATCH) {
+            // 选中类的时候跳过 getter setter 等简单方法
+            BatchCommandComposer.overrideClassPattern(commandContext, BatchCommandComposer.MethodCommandEnum.WATCH, AppSettingsState.getInstance(project));
+        }
         String command = scriptCommandEnum.getArthasCommand(commandContext);
         ClipboardUtils.setClipboardString(command);
+        CommandCopyHookUtils.afterCopy(project, command);
         NotifyUtils.notifyMessageDefault(project);
     }
 }
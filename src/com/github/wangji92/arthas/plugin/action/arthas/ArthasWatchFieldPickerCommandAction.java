@@ -0,0 +1,66 @@
+package com.github.wangji92.arthas.plugin.action.arthas;
+
+import com.github.wangji92.arthas.plugin.common.command.CommandContext;
+import com.github.wangji92.arthas.plugin.common.command.DataContextFeature;
+import com.github.wangji92.arthas.plugin.common.command.WatchProjection;
+import com.github.wangji92.arthas.plugin.common.enums.ShellScriptCommandEnum;
+import com.github.wangji92.arthas.plugin.common.enums.ShellScriptVariableEnum;
+import com.github.wangji92.arthas.plugin.constants.ArthasCommandConstants;
+import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
+import com.github.wangji92.arthas.plugin.ui.WatchFieldPickerDialog;
+import com.github.wangji92.arthas.plugin.utils.ClipboardUtils;
+import com.github.wangji92.arthas.plugin.utils.CommandCopyHookUtils;
+import com.github.wangji92.arthas.plugin.utils.NotifyUtils;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiMethod;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+import static com.github.wangji92.arthas.plugin.common.enums.PsiElementFeatureEnum.*;
+
+/**
+ * watch 勾选需要观察的字段 只计算和输出选中的字段 大对象不用整个展开
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class ArthasWatchFieldPickerCommandAction extends BaseArthasPluginAction {
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        DataContextFeature.update(e, feature -> feature.hasProject()
+                && (feature.getPsiElementFeature().has(STATIC_METHOD) || feature.getPsiElementFeature().has(NON_STATIC_METHOD)));
+    }
+
+    @Override
+    public void doCommand(String className, String methodName, Project project, PsiElement psiElement) {
+        if (!(psiElement instanceof PsiMethod)) {
+            return;
+        }
+        PsiMethod psiMethod = (PsiMethod) psiElement;
+        ReadAction.nonBlocking(() -> WatchProjection.build(psiMethod))
+                .inSmartMode(project)
+                .expireWith(project)
+                .finishOnUiThread(ModalityState.defaultModalityState(), roots -> {
+                    List<WatchProjection.Field> fields = WatchFieldPickerDialog.show(project, "Watch " + methodName + " Fields", roots);
+                    if (fields.isEmpty()) {
+                        return;
+                    }
+                    AppSettingsState settings = AppSettingsState.getInstance(project);
+                    CommandContext commandContext = new CommandContext(project, psiElement);
+                    commandContext.override(ShellScriptVariableEnum.PROPERTY_DEPTH, WatchProjection.toDepth(fields, settings.depthPrintProperty));
+                    String command = ShellScriptCommandEnum.WATCH.getArthasCommand(commandContext)
+                            .replace(ArthasCommandConstants.DEFAULT_WATCH_EXPRESS, WatchProjection.toWatchExpress(fields));
+                    ClipboardUtils.setClipboardString(command);
+                    CommandCopyHookUtils.afterCopy(project, command);
+                    NotifyUtils.notifyMessageDefault(project);
+                })
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+}
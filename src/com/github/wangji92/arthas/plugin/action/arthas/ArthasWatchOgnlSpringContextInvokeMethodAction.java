@@ -1,5 +1,7 @@
 package com.github.wangji92.arthas.plugin.action.arthas;
 
+import com.github.wangji92.arthas.plugin.common.command.DataContextFeature;
+import com.github.wangji92.arthas.plugin.common.command.PsiElementFeature;
 import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
 import com.github.wangji92.arthas.plugin.ui.ArthasActionWatchSpringContextDialog;
 import com.github.wangji92.arthas.plugin.utils.OgnlPsUtils;
@@ -14,6 +16,8 @@ import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
 
+import static com.github.wangji92.arthas.plugin.common.enums.PsiElementFeatureEnum.*;
+
 /**
  * @author 汪小哥
  * @date 22-03-2020
@@ -33,37 +37,12 @@ public class ArthasWatchOgnlSpringContextInvokeMethodAction extends AnAction {
     @Override
     public void update(@NotNull AnActionEvent e) {
         super.update(e);
-        DataContext dataContext = e.getDataContext();
-        Editor editor = CommonDataKeys.EDITOR.getData(dataContext);
-        if (editor == null) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        //获取当前事件触发时，光标所在的元素
-        PsiElement psiElement = CommonDataKeys.PSI_ELEMENT.getData(dataContext);
-        if (!OgnlPsUtils.isPsiFieldOrMethodOrClass(psiElement)) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        boolean anonymousClass = OgnlPsUtils.isAnonymousClass(psiElement);
-        if (anonymousClass) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        // 构造方法不支持
-        if (OgnlPsUtils.isConstructor(psiElement)) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        if (OgnlPsUtils.psiElementInEnum(psiElement)) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        if (OgnlPsUtils.isNonStaticMethodOrField(psiElement)) {
-            e.getPresentation().setEnabled(true);
-            return;
-        }
-        e.getPresentation().setEnabled(false);
+        DataContextFeature.update(e, feature -> {
+            PsiElementFeature psiElementFeature = feature.getPsiElementFeature();
+            // 构造方法 枚举不支持
+            return feature.hasEditor() && psiElementFeature.has(FIELD_METHOD_CLASS) && !psiElementFeature.has(ANONYMOUS_CLASS)
+                    && !psiElementFeature.has(CONSTRUCTOR) && !psiElementFeature.has(IN_ENUM) && psiElementFeature.isNonStaticMethodOrField();
+        });
     }
 
     @Override
@@ -0,0 +1,17 @@
+package com.github.wangji92.arthas.plugin.action.arthas;
+
+import com.github.wangji92.arthas.plugin.common.enums.ShellScriptCommandEnum;
+
+/**
+ * 采样的 watch 只有部分调用满足条件 -n 的结果分散到更长的时间里
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class ArthasWatchSampledCommandAction extends BaseArthasSampledCommandAction {
+
+    @Override
+    protected ShellScriptCommandEnum getCommandEnum() {
+        return ShellScriptCommandEnum.WATCH;
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.wangji92.arthas.plugin.action.arthas;
 
+import com.github.wangji92.arthas.plugin.common.command.DataContextFeature;
 import com.github.wangji92.arthas.plugin.utils.OgnlPsUtils;
 import com.intellij.openapi.actionSystem.*;
 import com.intellij.openapi.project.Project;
@@ -31,23 +32,8 @@ public abstract class BaseArthasPluginAction extends AnAction {
     @Override
     public void update(@NotNull AnActionEvent e) {
         super.update(e);
-        DataContext dataContext = e.getDataContext();
-        Project project = CommonDataKeys.PROJECT.getData(dataContext);
-        if (project == null) {
-            e.getPresentation().setEnabled(false);
-            return;
-        }
-        PsiElement psiElement = CommonDataKeys.PSI_ELEMENT.getData(dataContext);
-        if (OgnlPsUtils.isPsiFieldOrMethodOrClass(psiElement)) {
-//            final boolean psiElementInEnum = OgnlPsUtils.psiElementInEnum(psiElement);
-//            if(Boolean.FALSE.equals(getSupportEnum()) && psiElementInEnum){
-//                e.getPresentation().setEnabled(false);
-//                return;
-//            }
-            e.getPresentation().setEnabled(true);
-            return;
-        }
-        e.getPresentation().setEnabled(false);
+        // 只做简单的类型判断 完整的特征在 actionPerformed 之后用到的时候才计算
+        DataContextFeature.update(e, feature -> feature.hasProject() && OgnlPsUtils.isPsiFieldOrMethodOrClass(feature.getPsiElement()));
     }
 
     @Override
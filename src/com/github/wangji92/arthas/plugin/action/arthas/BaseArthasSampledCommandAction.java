@@ -0,0 +1,61 @@
+package com.github.wangji92.arthas.plugin.action.arthas;
+
+import com.github.wangji92.arthas.plugin.common.command.BatchCommandComposer;
+import com.github.wangji92.arthas.plugin.common.command.CommandContext;
+import com.github.wangji92.arthas.plugin.common.command.DataContextFeature;
+import com.github.wangji92.arthas.plugin.common.command.SamplingCondition;
+import com.github.wangji92.arthas.plugin.common.enums.ShellScriptCommandEnum;
+import com.github.wangji92.arthas.plugin.common.enums.ShellScriptVariableEnum;
+import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
+import com.github.wangji92.arthas.plugin.ui.SamplingConditionDialog;
+import com.github.wangji92.arthas.plugin.utils.ClipboardUtils;
+import com.github.wangji92.arthas.plugin.utils.CommandCopyHookUtils;
+import com.github.wangji92.arthas.plugin.utils.NotifyUtils;
+import com.github.wangji92.arthas.plugin.utils.StringUtils;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import org.jetbrains.annotations.NotNull;
+
+import static com.github.wangji92.arthas.plugin.common.enums.PsiElementFeatureEnum.*;
+
+/**
+ * 采样的 watch/trace 条件表达式为随机采样和时间窗口 代替默认的 1==1
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public abstract class BaseArthasSampledCommandAction extends BaseArthasPluginAction {
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        DataContextFeature.update(e, feature -> feature.hasProject() && feature.getPsiElementFeature().has(FIELD_METHOD_CLASS)
+                && !feature.getPsiElementFeature().has(STATIC_FIELD) && !feature.getPsiElementFeature().has(NON_STATIC_FIELD));
+    }
+
+    @Override
+    public void doCommand(String className, String methodName, Project project, PsiElement psiElement) {
+        AppSettingsState settings = AppSettingsState.getInstance(project);
+        boolean trace = getCommandEnum() == ShellScriptCommandEnum.TRACE;
+        int depth = StringUtils.isNumeric(settings.depthPrintProperty) ? Integer.parseInt(settings.depthPrintProperty) : 1;
+        int invokeCount = StringUtils.isNumeric(settings.invokeCount) ? Integer.parseInt(settings.invokeCount) : 1;
+        SamplingCondition condition = SamplingConditionDialog.show(project, trace, depth, invokeCount);
+        if (condition == null) {
+            return;
+        }
+        CommandContext commandContext = new CommandContext(project, psiElement);
+        commandContext.override(ShellScriptVariableEnum.CONDITION_EXPRESS_DEFAULT, condition.toConditionExpress(System.currentTimeMillis()));
+        BatchCommandComposer.overrideClassPattern(commandContext, trace ? BatchCommandComposer.MethodCommandEnum.TRACE : BatchCommandComposer.MethodCommandEnum.WATCH, settings);
+        String command = getCommandEnum().getArthasCommand(commandContext);
+        ClipboardUtils.setClipboardString(command);
+        CommandCopyHookUtils.afterCopy(project, command);
+        NotifyUtils.notifyMessage(project, NotifyUtils.COMMAND_COPIED + "<br>" + condition.estimate(trace, depth, invokeCount));
+    }
+
+    /**
+     * watch 或者 trace
+     *
+     * @return
+     */
+    protected abstract ShellScriptCommandEnum getCommandEnum();
+}
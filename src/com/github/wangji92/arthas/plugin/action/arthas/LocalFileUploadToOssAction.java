@@ -2,9 +2,11 @@ package com.github.wangji92.arthas.plugin.action.arthas;
 
 import com.aliyun.oss.OSS;
 import com.amazonaws.services.s3.AmazonS3;
+import com.github.wangji92.arthas.plugin.common.command.DataContextFeature;
 import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
 import com.github.wangji92.arthas.plugin.utils.AliyunOssUtils;
 import com.github.wangji92.arthas.plugin.utils.ClipboardUtils;
+import com.github.wangji92.arthas.plugin.utils.MultipartUploadUtils;
 import com.github.wangji92.arthas.plugin.utils.NotifyUtils;
 import com.github.wangji92.arthas.plugin.utils.OsS3Utils;
 import com.intellij.notification.NotificationType;
@@ -16,15 +18,17 @@ import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.progress.Task.Backgroundable;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
 import org.jetbrains.annotations.NotNull;
 
-import javax.swing.*;
+import java.io.File;
+import java.io.InputStream;
 import java.util.Date;
 import java.util.UUID;
 
 /**
- * 本地文件上传到oss
+ * 本地文件上传到oss 大文件分片并发上传 支持断点续传
  *
  * @author 汪小哥
  * @date 20-08-2020
@@ -38,13 +42,7 @@ public class LocalFileUploadToOssAction extends AnAction {
     @Override
     public void update(@NotNull AnActionEvent event) {
         super.update(event);
-        DataContext dataContext = event.getDataContext();
-        Project project = CommonDataKeys.PROJECT.getData(dataContext);
-        if (project == null) {
-            event.getPresentation().setEnabled(false);
-            return;
-        }
-        event.getPresentation().setEnabled(true);
+        DataContextFeature.update(event, feature -> feature.hasProject());
     }
 
     @Override
@@ -78,60 +76,79 @@ public class LocalFileUploadToOssAction extends AnAction {
             return;
         }
 
-        Runnable runnable = () -> {
-            OSS oss = null;
-            AmazonS3 aw3 = null;
-            String presignedUrl = "";
-            try {
-                if (settings.aliYunOss) {
-                    oss = AliyunOssUtils.buildOssClient(project);
-                    String filePathKey = settings.directoryPrefix + UUID.randomUUID().toString();
-                    String urlEncodeKeyPath = AliyunOssUtils.putFile(oss, settings.bucketName, filePathKey, selectVirtualFile.getInputStream());
-                    presignedUrl = AliyunOssUtils.generatePresignedUrl(oss, settings.bucketName, urlEncodeKeyPath, new Date(System.currentTimeMillis() + 24 * 365 * 3600L * 1000));
-                } else if (settings.awsS3) {
-                    aw3 = OsS3Utils.buildS3Client(project);
-                    String filePathKey = settings.s3DirectoryPrefix + UUID.randomUUID().toString();
-                    String urlEncodeKeyPath = OsS3Utils.putFile(aw3, settings.s3BucketName, filePathKey, selectVirtualFile.getInputStream());
-                    presignedUrl = OsS3Utils.generatePresignedUrl(aw3, settings.s3BucketName, urlEncodeKeyPath, new Date(System.currentTimeMillis() + 24 * 6 * 3600L * 1000));
-                }
-                String command = String.format(OSS_UP_LOAD_FILE, presignedUrl, selectVirtualFile.getName());
-                ClipboardUtils.setClipboardString(command);
-                NotifyUtils.notifyMessage(project, "linux shell command has been copied to the clipboard Go to the server and paste it");
-            } catch (Exception e) {
-                LOG.info("upload to object stage error", e);
-                NotifyUtils.notifyMessage(project, "Object Storage" + e.getMessage());
-                return;
-            } finally {
-                if (oss != null) {
-                    oss.shutdown();
-                }
-                if (aw3 != null) {
-                    aw3.shutdown();
-                }
-            }
-        };
-
         // https://stackoverflow.com/questions/18725340/create-a-background-task-in-intellij-plugin
-        ProgressManager.getInstance().run(new Backgroundable(project, "Upload To object storage") {
+        ProgressManager.getInstance().run(new Backgroundable(project, "Upload To object storage", true) {
             @Override
             public void run(@NotNull ProgressIndicator progressIndicator) {
-                // Set the progress bar percentage and text
-                try {
-                    progressIndicator.setFraction(0.30);
-                    progressIndicator.setText("70% to finish");
-                    runnable.run();
+                progressIndicator.setIndeterminate(true);
+                progressIndicator.setText("Upload " + selectVirtualFile.getName());
+                if (upload(project, settings, selectVirtualFile, progressIndicator)) {
                     // Finished
                     progressIndicator.setFraction(1.0);
                     progressIndicator.setText("Finished");
-                } catch (Exception e) {
-                    try {
-                        SwingUtilities.invokeAndWait(runnable::run);
-                    } catch (Exception ex) {
-                    }
                 }
             }
         });
 
 
     }
+
+    /**
+     * 上传文件 本地大文件分片并发上传(断点续传) 小文件直接上传
+     *
+     * @param project
+     * @param settings
+     * @param selectVirtualFile
+     * @param progressIndicator
+     * @return
+     */
+    private boolean upload(Project project, AppSettingsState settings, VirtualFile selectVirtualFile, ProgressIndicator progressIndicator) {
+        File localFile = selectVirtualFile.isInLocalFileSystem() ? VfsUtilCore.virtualToIoFile(selectVirtualFile) : null;
+        boolean multipart = MultipartUploadUtils.needMultipart(localFile, settings.multipartUploadPartSize);
+        OSS oss = null;
+        AmazonS3 aw3 = null;
+        String presignedUrl = "";
+        try {
+            if (settings.aliYunOss) {
+                oss = AliyunOssUtils.buildOssClient(project);
+                String urlEncodeKeyPath;
+                if (multipart) {
+                    urlEncodeKeyPath = AliyunOssUtils.multipartUploadFile(oss, settings.bucketName, settings.directoryPrefix, localFile, settings, progressIndicator);
+                } else {
+                    String filePathKey = settings.directoryPrefix + UUID.randomUUID().toString();
+                    try (InputStream inputStream = selectVirtualFile.getInputStream()) {
+                        urlEncodeKeyPath = AliyunOssUtils.putFile(oss, settings.bucketName, filePathKey, inputStream);
+                    }
+                }
+                presignedUrl = AliyunOssUtils.generatePresignedUrl(oss, settings.bucketName, urlEncodeKeyPath, new Date(System.currentTimeMillis() + 24 * 365 * 3600L * 1000));
+            } else if (settings.awsS3) {
+                aw3 = OsS3Utils.buildS3Client(project);
+                String urlEncodeKeyPath;
+                if (multipart) {
+                    urlEncodeKeyPath = OsS3Utils.multipartUploadFile(aw3, settings.s3BucketName, settings.s3DirectoryPrefix, localFile, settings, progressIndicator);
+                } else {
+                    String filePathKey = settings.s3DirectoryPrefix + UUID.randomUUID().toString();
+                    try (InputStream inputStream = selectVirtualFile.getInputStream()) {
+                        urlEncodeKeyPath = OsS3Utils.putFile(aw3, settings.s3BucketName, filePathKey, inputStream);
+                    }
+                }
+                presignedUrl = OsS3Utils.generatePresignedUrl(aw3, settings.s3BucketName, urlEncodeKeyPath, new Date(System.currentTimeMillis() + 24 * 6 * 3600L * 1000));
+            }
+            String command = String.format(OSS_UP_LOAD_FILE, presignedUrl, selectVirtualFile.getName());
+            ClipboardUtils.setClipboardString(command);
+            NotifyUtils.notifyMessage(project, "linux shell command has been copied to the clipboard Go to the server and paste it");
+            return true;
+        } catch (Exception e) {
+            LOG.info("upload to object stage error", e);
+            NotifyUtils.notifyMessage(project, "Object Storage" + e.getMessage(), NotificationType.ERROR);
+            return false;
+        } finally {
+            if (oss != null) {
+                oss.shutdown();
+            }
+            if (aw3 != null) {
+                aw3.shutdown();
+            }
+        }
+    }
 }
@@ -0,0 +1,184 @@
+package com.github.wangji92.arthas.plugin.common.command;
+
+import com.github.wangji92.arthas.plugin.utils.StringUtils;
+
+import java.util.*;
+
+/**
+ * 解析 arthas 命令行 命令名称、选项、位置参数
+ * <p>
+ * 多行或者 ; 分割的多个命令分别解析 引号中的空格和 ; 不分割
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class ArthasCommandLine {
+
+    /**
+     * 需要值的选项
+     */
+    private static final Set<String> VALUE_OPTIONS = new HashSet<>(Arrays.asList("-n", "-x", "-c", "-m", "-i", "-w", "--cycle", "--classloader",
+            "--classLoaderClass", "--exclude-class-pattern", "--skipJDKMethod", "--listenerId", "--limits", "--replay-times", "--replay-interval"));
+
+    /**
+     * 增强字节码的命令 结束后增强的代码还在 需要 reset
+     */
+    private static final Set<String> ENHANCE_COMMANDS = new HashSet<>(Arrays.asList("watch", "trace", "monitor", "stack", "tt"));
+
+    /**
+     * 原始的命令
+     */
+    private final String text;
+
+    private final String name;
+
+    private final Set<String> flags = new HashSet<>(4);
+
+    private final Map<String, String> options = new HashMap<>(4);
+
+    private final List<String> positions = new ArrayList<>(4);
+
+    private ArthasCommandLine(String text, List<String> words) {
+        this.text = text;
+        this.name = words.get(0);
+        for (int i = 1; i < words.size(); i++) {
+            String word = words.get(i);
+            if (VALUE_OPTIONS.contains(word)) {
+                options.put(word, i + 1 < words.size() ? words.get(i + 1) : null);
+                i++;
+            } else if (word.startsWith("-")) {
+                flags.add(word);
+            } else {
+                positions.add(word);
+            }
+        }
+    }
+
+    /**
+     * 解析命令 空行忽略
+     *
+     * @param commands 一行一个或者 ; 分割
+     * @return
+     */
+    public static List<ArthasCommandLine> parse(String commands) {
+        List<ArthasCommandLine> commandLines = new ArrayList<>();
+        if (StringUtils.isBlank(commands)) {
+            return commandLines;
+        }
+        for (String text : splitCommands(commands)) {
+            List<String> words = splitWords(text);
+            if (!words.isEmpty()) {
+                commandLines.add(new ArthasCommandLine(text, words));
+            }
+        }
+        return commandLines;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean hasFlag(String flag) {
+        return flags.contains(flag);
+    }
+
+    /**
+     * 需要值的选项 例如 -n 5
+     *
+     * @param option
+     * @return 不存在返回 null
+     */
+    public String getOption(String option) {
+        return options.get(option);
+    }
+
+    /**
+     * 第 index 个位置参数
+     *
+     * @param index
+     * @return 不存在返回 null
+     */
+    public String getPosition(int index) {
+        return index < positions.size() ? positions.get(index) : null;
+    }
+
+    /**
+     * 是否增强字节码 tt 只有 -t 记录的时候才增强方法
+     *
+     * @return
+     */
+    public boolean isEnhance() {
+        return ENHANCE_COMMANDS.contains(name) && (!"tt".equals(name) || hasFlag("-t")) && getPosition(0) != null;
+    }
+
+    /**
+     * 增强的类 -E 的时候是正则
+     *
+     * @return
+     */
+    public String getClassPattern() {
+        return getPosition(0);
+    }
+
+    /**
+     * 按换行和 ; 分割命令 引号中的不分割
+     */
+    private static List<String> splitCommands(String commands) {
+        List<String> texts = new ArrayList<>();
+        char quote = 0;
+        int from = 0;
+        for (int i = 0; i < commands.length(); i++) {
+            char c = commands.charAt(i);
+            if (quote != 0) {
+                quote = c == quote ? 0 : quote;
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '\n' || c == ';') {
+                texts.add(commands.substring(from, i).trim());
+                from = i + 1;
+            }
+        }
+        texts.add(commands.substring(from).trim());
+        return texts;
+    }
+
+    /**
+     * 按空格分割单词 单引号双引号中的不分割 去掉外层引号
+     */
+    private static List<String> splitWords(String text) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        char quote = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else {
+                    word.append(c);
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+                inWord = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inWord) {
+                    words.add(word.toString());
+                    word.setLength(0);
+                    inWord = false;
+                }
+            } else {
+                word.append(c);
+                inWord = true;
+            }
+        }
+        if (inWord) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+}
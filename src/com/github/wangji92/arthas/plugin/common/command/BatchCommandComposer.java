@@ -0,0 +1,298 @@
+package com.github.wangji92.arthas.plugin.common.command;
+
+import com.github.wangji92.arthas.plugin.common.enums.ShellScriptVariableEnum;
+import com.github.wangji92.arthas.plugin.constants.ArthasCommandConstants;
+import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
+import com.github.wangji92.arthas.plugin.utils.OgnlPsUtils;
+import com.github.wangji92.arthas.plugin.utils.TrivialMethodUtils;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.actionSystem.DataContext;
+import com.intellij.openapi.actionSystem.LangDataKeys;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.SelectionModel;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.*;
+import com.intellij.psi.util.PsiTreeUtil;
+
+import java.util.*;
+
+/**
+ * 多个方法、字段一次生成一个 arthas 批处理脚本 (arthas-boot -f)
+ * <p>
+ * 1. 所有方法合并为一个 watch/trace/monitor/stack -E 'classA|classB' 'methodA|methodB'
+ * 2. 同一个类的静态字段合并为一个 ognl '#{"A.a":@A@a,"A.b":@A@b}' 每个类使用自己的 classloader
+ * <p>
+ * -E 为 class 和 method 的笛卡尔积,不同 class 的同名方法也会被增强
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class BatchCommandComposer {
+
+    /**
+     * 方法合并的命令
+     */
+    public enum MethodCommandEnum {
+        /**
+         * watch -E
+         */
+        WATCH("watch -E %s %s " + ArthasCommandConstants.DEFAULT_WATCH_EXPRESS + " %s -n %s -x %s %s"),
+        /**
+         * trace -E
+         */
+        TRACE("trace -E %s %s %s -n %s %s %s"),
+        /**
+         * monitor -E
+         */
+        MONITOR("monitor -E %s %s %s -n %s --cycle %s %s"),
+        /**
+         * stack -E
+         */
+        STACK("stack -E %s %s %s -n %s %s");
+
+        private final String format;
+
+        MethodCommandEnum(String format) {
+            this.format = format;
+        }
+
+        private String build(String classPattern, String methodPattern, AppSettingsState settings) {
+            String verbose = settings.printConditionExpress ? "-v" : "";
+            String condition = settings.conditionExpressDisplay ? ArthasCommandConstants.DEFAULT_CONDITION_EXPRESS : "";
+            String command;
+            switch (this) {
+                case WATCH:
+                    command = String.format(format, classPattern, methodPattern, verbose, settings.invokeCount, settings.depthPrintProperty, condition);
+                    break;
+                case TRACE:
+                    command = String.format(format, classPattern, methodPattern, verbose, settings.invokeCount, settings.traceSkipJdk ? "" : ArthasCommandConstants.DEFAULT_SKIP_JDK_FALSE, condition);
+                    break;
+                case MONITOR:
+                    command = String.format(format, classPattern, methodPattern, verbose, settings.invokeMonitorCount, settings.invokeMonitorInterval, condition);
+                    break;
+                default:
+                    command = String.format(format, classPattern, methodPattern, verbose, settings.invokeCount, condition);
+            }
+            return command.replaceAll(" {2,}", " ").trim();
+        }
+
+        /**
+         * trace/watch 增强的每个方法都有开销 可以跳过简单方法
+         */
+        private boolean skipTrivial(AppSettingsState settings) {
+            return settings.skipTrivialMethod && (this == TRACE || this == WATCH);
+        }
+    }
+
+    /**
+     * class 正则 有序去重
+     */
+    private final Set<String> classPatterns = new LinkedHashSet<>();
+
+    private final Set<String> methodNames = new LinkedHashSet<>();
+
+    /**
+     * 类展开得到的简单方法 getter setter 等 trace/watch 的时候可以跳过
+     */
+    private final Set<String> trivialClassPatterns = new LinkedHashSet<>();
+
+    private final Set<String> trivialMethodNames = new LinkedHashSet<>();
+
+    /**
+     * 其他类的 classloader 脚本中一次 sc -d 获取后替换
+     */
+    private static final String CLASSLOADER_HASH_VALUE_OF = "${CLASSLOADER_HASH_VALUE:%s}";
+
+    /**
+     * class -> (展示名称 -> @class@field)
+     */
+    private final Map<String, Map<String, String>> staticFields = new LinkedHashMap<>();
+
+    /**
+     * 第一个静态字段的 class 使用 sc 命令获取 classloader
+     */
+    private String staticFieldClassName;
+
+    /**
+     * 从右键上下文中收集: 多选的元素、选中的类或文件的所有方法、编辑器选中区域内的方法和字段
+     *
+     * @param dataContext
+     * @return
+     */
+    public static BatchCommandComposer collect(DataContext dataContext) {
+        BatchCommandComposer composer = new BatchCommandComposer();
+        PsiElement[] psiElements = LangDataKeys.PSI_ELEMENT_ARRAY.getData(dataContext);
+        if (psiElements != null && psiElements.length > 1) {
+            Arrays.stream(psiElements).forEach(composer::add);
+            return composer;
+        }
+        Editor editor = CommonDataKeys.EDITOR.getData(dataContext);
+        PsiFile psiFile = CommonDataKeys.PSI_FILE.getData(dataContext);
+        if (editor != null && psiFile != null && editor.getSelectionModel().hasSelection()) {
+            SelectionModel selectionModel = editor.getSelectionModel();
+            TextRange selection = new TextRange(selectionModel.getSelectionStart(), selectionModel.getSelectionEnd());
+            for (PsiMember psiMember : PsiTreeUtil.findChildrenOfAnyType(psiFile, PsiMethod.class, PsiField.class)) {
+                if (selection.intersects(psiMember.getTextRange())) {
+                    composer.add(psiMember);
+                }
+            }
+            if (!composer.isEmpty()) {
+                return composer;
+            }
+        }
+        composer.add(CommonDataKeys.PSI_ELEMENT.getData(dataContext));
+        return composer;
+    }
+
+    /**
+     * 选中类的时候 trace/watch class * 改为跳过简单方法的 -E
+     * 只覆盖上下文中的 CLASS_NAME、METHOD_NAME 命令还是由 {@link com.github.wangji92.arthas.plugin.common.enums.ShellScriptCommandEnum} 的模板生成
+     *
+     * @param context
+     * @param methodCommand
+     * @param settings
+     * @return 没有可以跳过的方法返回 false 上下文不变
+     */
+    public static boolean overrideClassPattern(CommandContext context, MethodCommandEnum methodCommand, AppSettingsState settings) {
+        if (!(context.getPsiElement() instanceof PsiClass) || !methodCommand.skipTrivial(settings)) {
+            return false;
+        }
+        BatchCommandComposer composer = new BatchCommandComposer();
+        composer.add(context.getPsiElement());
+        if (!composer.hasTrivialMethod()) {
+            return false;
+        }
+        context.override(ShellScriptVariableEnum.CLASS_NAME, "-E '" + String.join("|", composer.classPatterns) + "'");
+        context.override(ShellScriptVariableEnum.METHOD_NAME, "'" + String.join("|", composer.methodNames) + "'");
+        return true;
+    }
+
+    /**
+     * 添加元素 类和 java 文件添加所有的方法和静态字段
+     *
+     * @param psiElement
+     */
+    public void add(PsiElement psiElement) {
+        if (psiElement instanceof PsiJavaFile) {
+            for (PsiClass psiClass : ((PsiJavaFile) psiElement).getClasses()) {
+                this.add(psiClass);
+            }
+        } else if (psiElement instanceof PsiClass) {
+            PsiClass psiClass = (PsiClass) psiElement;
+            if (psiClass.isInterface() || psiClass.isAnnotationType()) {
+                return;
+            }
+            for (PsiMethod psiMethod : psiClass.getMethods()) {
+                if (psiMethod.isConstructor() || psiMethod.hasModifierProperty(PsiModifier.ABSTRACT)) {
+                    continue;
+                }
+                if (TrivialMethodUtils.isTrivial(psiMethod)) {
+                    trivialClassPatterns.add(toClassPattern(OgnlPsUtils.getCommonOrInnerOrAnonymousClassName(psiMethod)));
+                    trivialMethodNames.add(psiMethod.getName());
+                } else {
+                    this.add(psiMethod);
+                }
+            }
+            for (PsiField psiField : psiClass.getFields()) {
+                this.add(psiField);
+            }
+        } else if (psiElement instanceof PsiMethod) {
+            PsiMethod psiMethod = (PsiMethod) psiElement;
+            if (psiMethod.getContainingClass() == null || psiMethod.hasModifierProperty(PsiModifier.ABSTRACT)) {
+                return;
+            }
+            classPatterns.add(toClassPattern(OgnlPsUtils.getCommonOrInnerOrAnonymousClassName(psiMethod)));
+            methodNames.add(psiMethod.isConstructor() ? "<init>" : psiMethod.getName());
+        } else if (psiElement instanceof PsiField) {
+            PsiField psiField = (PsiField) psiElement;
+            PsiClass containingClass = psiField.getContainingClass();
+            // 非静态字段需要实例 不在批量处理的范围内
+            if (containingClass == null || containingClass instanceof PsiAnonymousClass
+                    || !psiField.hasModifierProperty(PsiModifier.STATIC) || psiField instanceof PsiEnumConstant) {
+                return;
+            }
+            String className = OgnlPsUtils.getCommonOrInnerOrAnonymousClassName(psiField);
+            if (staticFieldClassName == null) {
+                staticFieldClassName = className;
+            }
+            staticFields.computeIfAbsent(className, key -> new LinkedHashMap<>())
+                    .putIfAbsent(containingClass.getName() + "." + psiField.getName(), "@" + className + "@" + psiField.getName());
+        }
+    }
+
+    /**
+     * 通配符的 class 名称转为 -E 的正则 . $ 在正则中有含义 trace -E 对话框也使用
+     *
+     * @param className
+     * @return
+     */
+    public static String toClassPattern(String className) {
+        return className.replace(".", "[.]").replace("$", "[$]").replace("*", ".*");
+    }
+
+    public boolean isEmpty() {
+        return !hasMethod() && staticFields.isEmpty();
+    }
+
+    public boolean hasMethod() {
+        return !methodNames.isEmpty() || !trivialMethodNames.isEmpty();
+    }
+
+    /**
+     * 类展开的时候是否有简单方法可以跳过
+     *
+     * @return
+     */
+    public boolean hasTrivialMethod() {
+        return !methodNames.isEmpty() && !trivialMethodNames.isEmpty();
+    }
+
+    /**
+     * 获取 classloader 的命令 没有静态字段不需要
+     *
+     * @return
+     */
+    public String getScCommand() {
+        return staticFieldClassName == null ? null : String.join(" ", "sc", "-d", staticFieldClassName);
+    }
+
+    /**
+     * 合并之后的命令 一行一个
+     *
+     * @param methodCommand 没有方法的时候可以为 null
+     * @param settings
+     * @return
+     */
+    public List<String> compose(MethodCommandEnum methodCommand, AppSettingsState settings) {
+        List<String> commands = new ArrayList<>(2);
+        if (methodCommand != null && hasMethod()) {
+            Set<String> classes = new LinkedHashSet<>(classPatterns);
+            Set<String> methods = new LinkedHashSet<>(methodNames);
+            // 全部都是简单方法的时候不跳过
+            if (!methodCommand.skipTrivial(settings) || methodNames.isEmpty()) {
+                classes.addAll(trivialClassPatterns);
+                methods.addAll(trivialMethodNames);
+            }
+            String classPattern = "'" + String.join("|", classes) + "'";
+            String methodPattern = "'" + String.join("|", methods) + "'";
+            commands.add(methodCommand.build(classPattern, methodPattern, settings));
+        }
+        staticFields.forEach((className, fields) -> {
+            StringJoiner ognl = new StringJoiner(",", "#{", "}");
+            fields.forEach((name, expression) -> ognl.add("\"" + name + "\":" + expression));
+            String classLoaderHash = className.equals(staticFieldClassName) ? ShellScriptVariableEnum.CLASSLOADER_HASH_VALUE.getCode() : String.format(CLASSLOADER_HASH_VALUE_OF, className);
+            commands.add(String.join(" ", "ognl", "-x", settings.depthPrintProperty, "'" + ognl + "'", "-c", classLoaderHash));
+        });
+        return commands;
+    }
+
+    /**
+     * 简要描述 用于通知
+     *
+     * @return
+     */
+    public String describe() {
+        return String.format("%d class %d method %d trivial method %d static field", classPatterns.size(), methodNames.size(), trivialMethodNames.size(),
+                staticFields.values().stream().mapToInt(Map::size).sum());
+    }
+}
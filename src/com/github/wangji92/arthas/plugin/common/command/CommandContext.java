@@ -5,7 +5,9 @@ import com.github.wangji92.arthas.plugin.common.enums.ShellScriptVariableEnum;
 import com.github.wangji92.arthas.plugin.constants.ArthasCommandConstants;
 import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
 import com.github.wangji92.arthas.plugin.utils.OgnlPsUtils;
+import com.github.wangji92.arthas.plugin.utils.SpringStaticContextUtils;
 import com.github.wangji92.arthas.plugin.utils.StringUtils;
+import com.google.common.base.Suppliers;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.actionSystem.CommonDataKeys;
 import com.intellij.openapi.actionSystem.DataContext;
@@ -13,8 +15,12 @@ import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiElement;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * 命令上下文
@@ -24,9 +30,25 @@ import java.util.Map;
  */
 public class CommandContext {
     /**
-     * 上下文
+     * 变量名称 -> 变量
      */
-    private Map<String, String> params = new HashMap<>();
+    private static final Map<String, ShellScriptVariableEnum> VARIABLE_MAP = Arrays.stream(ShellScriptVariableEnum.values())
+            .collect(Collectors.toMap(ShellScriptVariableEnum::getEnumMsg, Function.identity()));
+
+    /**
+     * 默认的编辑器选中文字
+     */
+    private static final String DEFAULT_EDITOR_SELECT_TEXT = "spring.profiles.active";
+
+    /**
+     * 上下文 变量按需计算 只计算一次 大部分命令只用到其中两三个
+     */
+    private final Map<ShellScriptVariableEnum, Supplier<String>> params = new EnumMap<>(ShellScriptVariableEnum.class);
+
+    /**
+     * 选中元素的特征 support 判断共用
+     */
+    private final Supplier<PsiElementFeature> psiElementFeature = Suppliers.memoize(() -> PsiElementFeature.classify(this.project, this.psiElement));
 
     private Project project;
 
@@ -41,11 +63,13 @@ public class CommandContext {
         this.project = CommonDataKeys.PROJECT.getData(dataContext);
         this.editor = CommonDataKeys.EDITOR.getData(dataContext);
         this.psiElement = CommonDataKeys.PSI_ELEMENT.getData(dataContext);
+        this.initContextParam();
     }
 
     public CommandContext(Project project, PsiElement psiElement) {
         this.project = project;
         this.psiElement = psiElement;
+        this.initContextParam();
     }
 
     /**
@@ -58,65 +82,85 @@ public class CommandContext {
         if (variableEnum == null) {
             return "";
         }
-        if (this.params.isEmpty()) {
-            this.initContextParam();
-        }
-        return this.params.get(variableEnum.getEnumMsg());
+        Supplier<String> supplier = this.params.get(variableEnum);
+        return supplier == null ? null : supplier.get();
     }
 
     /**
-     * 初始化上下文信息
+     * 初始化上下文信息 只注册计算方式 使用时才会计算
      */
-    private synchronized void initContextParam() {
-        if (!params.isEmpty()) {
-            return;
-        }
-        AppSettingsState instance = AppSettingsState.getInstance(project);
-        String methodName = OgnlPsUtils.getMethodName(this.psiElement);
-        String className = OgnlPsUtils.getCommonOrInnerOrAnonymousClassName(this.psiElement);
-        String fieldName = OgnlPsUtils.getFieldName(this.psiElement);
-        String executeInfo = OgnlPsUtils.getExecuteInfo(this.psiElement);
-        params.put(ShellScriptVariableEnum.PROPERTY_DEPTH.getEnumMsg(), instance.depthPrintProperty);
-        params.put(ShellScriptVariableEnum.CLASS_NAME.getEnumMsg(), className);
-        params.put(ShellScriptVariableEnum.METHOD_NAME.getEnumMsg(), methodName);
-        params.put(ShellScriptVariableEnum.EXECUTE_INFO.getEnumMsg(), executeInfo);
-        params.put(ShellScriptVariableEnum.FIELD_NAME.getEnumMsg(), fieldName);
-        params.put(ShellScriptVariableEnum.SPRING_CONTEXT.getEnumMsg(), instance.staticSpringContextOgnl);
-        params.put(ShellScriptVariableEnum.INVOKE_COUNT.getEnumMsg(), instance.invokeCount);
-        params.put(ShellScriptVariableEnum.INVOKE_MONITOR_COUNT.getEnumMsg(), instance.invokeMonitorCount);
-        params.put(ShellScriptVariableEnum.INVOKE_MONITOR_INTERVAL.getEnumMsg(), instance.invokeMonitorInterval);
-        String skpJdkMethodCommand = instance.traceSkipJdk ? "" : ArthasCommandConstants.DEFAULT_SKIP_JDK_FALSE;
-        params.put(ShellScriptVariableEnum.SKIP_JDK_METHOD.getEnumMsg(), skpJdkMethodCommand);
-        String printConditionExpress = instance.printConditionExpress ? "-v" : "";
-        params.put(ShellScriptVariableEnum.PRINT_CONDITION_RESULT.getEnumMsg(), printConditionExpress);
-        params.put(ShellScriptVariableEnum.CLASSLOADER_HASH_VALUE.getEnumMsg(), "${CLASSLOADER_HASH_VALUE}");
-        String methodNameNotStar = "*".equals(methodName) ? "" : methodName;
-        params.put(ShellScriptVariableEnum.METHOD_NAME_NOT_STAR.getEnumMsg(), methodNameNotStar);
-        String conditionExpressDisplay = instance.conditionExpressDisplay ? ArthasCommandConstants.DEFAULT_CONDITION_EXPRESS : "";
-        params.put(ShellScriptVariableEnum.CONDITION_EXPRESS_DEFAULT.getEnumMsg(), conditionExpressDisplay);
-        String beanName = OgnlPsUtils.getSpringBeanName(this.psiElement);
-        params.put(ShellScriptVariableEnum.SPRING_BEAN_NAME.getEnumMsg(), beanName);
-        params.put(ShellScriptVariableEnum.DEFAULT_FIELD_VALUE.getEnumMsg(), OgnlPsUtils.getFieldDefaultValue(this.psiElement));
-        if (StringUtils.isNotBlank(fieldName)) {
-            String capitalizeFieldName = StringUtils.capitalize(fieldName);
-            params.put(ShellScriptVariableEnum.CAPITALIZE_FIELD_VALUE.getEnumMsg(), capitalizeFieldName);
+    private void initContextParam() {
+        Supplier<AppSettingsState> setting = Suppliers.memoize(() -> AppSettingsState.getInstance(project));
+        Supplier<String> methodName = register(ShellScriptVariableEnum.METHOD_NAME, () -> OgnlPsUtils.getMethodName(this.psiElement));
+        Supplier<String> fieldName = register(ShellScriptVariableEnum.FIELD_NAME, () -> OgnlPsUtils.getFieldName(this.psiElement));
+        register(ShellScriptVariableEnum.CLASS_NAME, () -> OgnlPsUtils.getCommonOrInnerOrAnonymousClassName(this.psiElement));
+        register(ShellScriptVariableEnum.EXECUTE_INFO, () -> OgnlPsUtils.getExecuteInfo(this.psiElement));
+        register(ShellScriptVariableEnum.PROPERTY_DEPTH, () -> setting.get().depthPrintProperty);
+        register(ShellScriptVariableEnum.SPRING_CONTEXT, () -> {
+            SpringStaticContextUtils.discoverStaticSpringContext(project);
+            return SpringStaticContextUtils.getEffectiveStaticSpringContextOgnl(project);
+        });
+        register(ShellScriptVariableEnum.INVOKE_COUNT, () -> setting.get().invokeCount);
+        register(ShellScriptVariableEnum.INVOKE_MONITOR_COUNT, () -> setting.get().invokeMonitorCount);
+        register(ShellScriptVariableEnum.INVOKE_MONITOR_INTERVAL, () -> setting.get().invokeMonitorInterval);
+        register(ShellScriptVariableEnum.SKIP_JDK_METHOD, () -> setting.get().traceSkipJdk ? "" : ArthasCommandConstants.DEFAULT_SKIP_JDK_FALSE);
+        register(ShellScriptVariableEnum.PRINT_CONDITION_RESULT, () -> setting.get().printConditionExpress ? "-v" : "");
+        register(ShellScriptVariableEnum.CLASSLOADER_HASH_VALUE, () -> "${CLASSLOADER_HASH_VALUE}");
+        register(ShellScriptVariableEnum.METHOD_NAME_NOT_STAR, () -> "*".equals(methodName.get()) ? "" : methodName.get());
+        register(ShellScriptVariableEnum.CONDITION_EXPRESS_DEFAULT, () -> setting.get().conditionExpressDisplay ? ArthasCommandConstants.DEFAULT_CONDITION_EXPRESS : "");
+        register(ShellScriptVariableEnum.SPRING_BEAN_NAME, () -> OgnlPsUtils.getSpringBeanName(this.psiElement));
+        // 会生成 json 代价比较大
+        register(ShellScriptVariableEnum.DEFAULT_FIELD_VALUE, () -> OgnlPsUtils.getFieldDefaultValue(this.psiElement));
+        // 没有字段名称的时候保留占位符
+        register(ShellScriptVariableEnum.CAPITALIZE_FIELD_VALUE, () -> StringUtils.isNotBlank(fieldName.get()) ? StringUtils.capitalize(fieldName.get()) : null);
+        register(ShellScriptVariableEnum.EDITOR_SELECT_TEXT, this::getEditorSelectText);
+    }
+
+    /**
+     * 覆盖上下文中变量的值 例如采样的条件表达式替换默认的 1==1
+     *
+     * @param variableEnum
+     * @param value
+     */
+    public void override(ShellScriptVariableEnum variableEnum, String value) {
+        this.params.put(variableEnum, () -> value);
+    }
+
+    /**
+     * 注册变量的计算方式 memoize 保证只计算一次
+     *
+     * @param variableEnum
+     * @param supplier
+     * @return
+     */
+    private Supplier<String> register(ShellScriptVariableEnum variableEnum, Supplier<String> supplier) {
+        Supplier<String> memoize = Suppliers.memoize(supplier::get);
+        this.params.put(variableEnum, memoize);
+        return memoize;
+    }
+
+    /**
+     * 编辑器选中的文字
+     *
+     * @return
+     */
+    private String getEditorSelectText() {
+        if (editor == null) {
+            return DEFAULT_EDITOR_SELECT_TEXT;
         }
-        if (editor != null) {
-            try {
-                String selectedText = editor.getSelectionModel().getSelectedText();
-                if (StringUtils.isNotBlank(selectedText)) {
-                    //去掉多余的空格
-                    selectedText = selectedText.trim();
-                }
-                if (StringUtils.isBlank(selectedText)) {
-                    selectedText = "spring.profiles.active";
-                }
-                params.put(ShellScriptVariableEnum.EDITOR_SELECT_TEXT.getEnumMsg(), selectedText);
-            } catch (Exception e) {
-                //ignore
+        try {
+            String selectedText = editor.getSelectionModel().getSelectedText();
+            if (StringUtils.isNotBlank(selectedText)) {
+                //去掉多余的空格
+                selectedText = selectedText.trim();
             }
-        } else {
-            params.put(ShellScriptVariableEnum.EDITOR_SELECT_TEXT.getEnumMsg(), "spring.profiles.active");
+            if (StringUtils.isBlank(selectedText)) {
+                selectedText = DEFAULT_EDITOR_SELECT_TEXT;
+            }
+            return selectedText;
+        } catch (Exception e) {
+            //ignore
+            return null;
         }
     }
 
@@ -130,24 +174,30 @@ public class CommandContext {
         if (commandEnum == null) {
             return "";
         }
-        String codeValue = commandEnum.getCode();
-        if (this.params.isEmpty()) {
-            this.initContextParam();
-        }
-        return StringUtils.stringSubstitutorFromText(codeValue, this.params);
+        return this.getCommandCode(commandEnum.getCode());
     }
 
     /**
-     * 或取代码
+     * 或取代码 只计算模板中出现的变量
      *
      * @param commandCode
      * @return
      */
     public String getCommandCode(String commandCode) {
-        if (this.params.isEmpty()) {
-            this.initContextParam();
-        }
-        return StringUtils.stringSubstitutorFromText(commandCode, this.params);
+        return StringUtils.stringSubstitutorFromText(commandCode, variableName -> {
+            ShellScriptVariableEnum variableEnum = VARIABLE_MAP.get(variableName);
+            // 非上下文的变量 保留原始占位符
+            return variableEnum == null ? null : this.getKeyValue(variableEnum);
+        });
+    }
+
+    /**
+     * 选中元素的特征 只计算一次
+     *
+     * @return
+     */
+    public PsiElementFeature getPsiElementFeature() {
+        return psiElementFeature.get();
     }
 
     public Project getProject() {
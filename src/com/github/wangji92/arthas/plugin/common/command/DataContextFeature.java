@@ -0,0 +1,179 @@
+package com.github.wangji92.arthas.plugin.common.command;
+
+import com.google.common.base.Suppliers;
+import com.intellij.ide.DataManager;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.actionSystem.DataContext;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.xml.XmlFile;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 一次右键菜单(同一个 DataContext) 所有 action update 共用的元素分类,只计算一次
+ * 同时统计一次菜单中所有 action update 的总耗时 debug 日志输出
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public final class DataContextFeature {
+
+    private static final Logger LOG = Logger.getInstance(DataContextFeature.class);
+
+    private static final Key<DataContextFeature> DATA_CONTEXT_FEATURE_KEY = Key.create("arthas.idea.plugin.data.context.feature");
+
+    /**
+     * 上一次菜单的统计 新菜单出现的时候输出 只保存文本,不持有 project、psi
+     */
+    private static final AtomicReference<String> LAST_SUMMARY = new AtomicReference<>();
+
+    private final Project project;
+
+    private final PsiElement psiElement;
+
+    private final boolean editorPresent;
+
+    private final VirtualFile[] virtualFiles;
+
+    private final Supplier<PsiElementFeature> psiElementFeature;
+
+    private final Supplier<Boolean> javaFileSelected;
+
+    private final Supplier<Boolean> singleXmlFileSelected;
+
+    private final AtomicLong updateNanos = new AtomicLong();
+
+    private final AtomicInteger updateCount = new AtomicInteger();
+
+    private DataContextFeature(DataContext dataContext) {
+        this.project = CommonDataKeys.PROJECT.getData(dataContext);
+        this.psiElement = CommonDataKeys.PSI_ELEMENT.getData(dataContext);
+        this.editorPresent = CommonDataKeys.EDITOR.getData(dataContext) != null;
+        this.virtualFiles = CommonDataKeys.VIRTUAL_FILE_ARRAY.getData(dataContext);
+        this.psiElementFeature = Suppliers.memoize(() -> PsiElementFeature.classify(project, psiElement));
+        this.javaFileSelected = Suppliers.memoize(() -> countSelectedPsiFile(PsiJavaFile.class::isInstance, 1) > 0);
+        this.singleXmlFileSelected = Suppliers.memoize(() -> countSelectedPsiFile(XmlFile.class::isInstance, 2) == 1);
+    }
+
+    /**
+     * 获取当前菜单的分类 同一个 DataContext 只创建一次
+     *
+     * @param event
+     * @return
+     */
+    public static DataContextFeature of(AnActionEvent event) {
+        DataContext dataContext = event.getDataContext();
+        DataContextFeature feature = DataManager.getInstance().loadFromDataContext(dataContext, DATA_CONTEXT_FEATURE_KEY);
+        if (feature != null) {
+            return feature;
+        }
+        feature = new DataContextFeature(dataContext);
+        DataManager.getInstance().saveInDataContext(dataContext, DATA_CONTEXT_FEATURE_KEY, feature);
+        String lastSummary = LAST_SUMMARY.getAndSet(null);
+        if (lastSummary != null) {
+            LOG.debug(lastSummary);
+        }
+        return feature;
+    }
+
+    /**
+     * action update 统一处理 计算是否可用并统计耗时
+     *
+     * @param event
+     * @param enabled
+     */
+    public static void update(AnActionEvent event, Predicate<DataContextFeature> enabled) {
+        long start = System.nanoTime();
+        DataContextFeature feature = DataContextFeature.of(event);
+        try {
+            event.getPresentation().setEnabled(enabled.test(feature));
+        } finally {
+            long nanos = feature.updateNanos.addAndGet(System.nanoTime() - start);
+            int count = feature.updateCount.incrementAndGet();
+            if (LOG.isDebugEnabled()) {
+                LAST_SUMMARY.set(String.format("[arthas] action update count:%d cost:%dms", count, TimeUnit.NANOSECONDS.toMillis(nanos)));
+            }
+        }
+    }
+
+    /**
+     * 选中的文件中满足条件的 psi file 数量 达到 limit 就不再继续查找
+     */
+    private int countSelectedPsiFile(Predicate<PsiFile> predicate, int limit) {
+        if (project == null || virtualFiles == null) {
+            return 0;
+        }
+        PsiManager psiManager = PsiManager.getInstance(project);
+        int count = 0;
+        for (VirtualFile virtualFile : virtualFiles) {
+            if (virtualFile == null || !virtualFile.isValid()) {
+                continue;
+            }
+            if (predicate.test(psiManager.findFile(virtualFile)) && ++count >= limit) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    public boolean hasProject() {
+        return project != null;
+    }
+
+    public boolean hasEditor() {
+        return editorPresent;
+    }
+
+    public PsiElement getPsiElement() {
+        return psiElement;
+    }
+
+    /**
+     * 选中元素的特征
+     *
+     * @return
+     */
+    public PsiElementFeature getPsiElementFeature() {
+        return psiElementFeature.get();
+    }
+
+    /**
+     * 选中的文件数量 没有选中文件返回 -1
+     *
+     * @return
+     */
+    public int getVirtualFileCount() {
+        return virtualFiles == null ? -1 : virtualFiles.length;
+    }
+
+    /**
+     * 选中的文件中有 java 文件
+     *
+     * @return
+     */
+    public boolean isJavaFileSelected() {
+        return javaFileSelected.get();
+    }
+
+    /**
+     * 选中的文件中有且只有一个 xml 文件
+     *
+     * @return
+     */
+    public boolean isSingleXmlFileSelected() {
+        return singleXmlFileSelected.get();
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.wangji92.arthas.plugin.common.command;
+
+import com.github.wangji92.arthas.plugin.common.enums.PsiElementFeatureEnum;
+import com.github.wangji92.arthas.plugin.utils.OgnlPsUtils;
+import com.github.wangji92.arthas.plugin.utils.SpringStaticContextUtils;
+import com.github.wangji92.arthas.plugin.utils.StringUtils;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+
+import static com.github.wangji92.arthas.plugin.common.enums.PsiElementFeatureEnum.*;
+
+/**
+ * 选中元素的特征 一次性计算 ShellScriptCommandEnum#support 只需要位运算判断
+ * 避免打开一次对话框同样的 psi 判断重复执行几十次
+ * <p>
+ * setter 查找、spring bean 名称、static spring context 开销大 第一次用到的时候才计算,菜单 update 不会触发
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public final class PsiElementFeature {
+
+    private static final Logger LOG = Logger.getInstance(PsiElementFeature.class);
+
+    /**
+     * 第一次用到才计算的特征
+     */
+    private static final int LAZY_FEATURES = FIELD_HAVE_SET_METHOD.getMask() | STATIC_SPRING_CONTEXT.getMask() | SPRING_BEAN_NAME.getMask();
+
+    private final Project project;
+
+    private final PsiElement psiElement;
+
+    private volatile int features;
+
+    /**
+     * 已经计算过的延迟特征
+     */
+    private volatile int computedFeatures;
+
+    private PsiElementFeature(Project project, PsiElement psiElement, int features) {
+        this.project = project;
+        this.psiElement = psiElement;
+        this.features = features;
+    }
+
+    /**
+     * 是否包含这个特征
+     *
+     * @param featureEnum
+     * @return
+     */
+    public boolean has(PsiElementFeatureEnum featureEnum) {
+        int mask = featureEnum.getMask();
+        if ((mask & LAZY_FEATURES) != 0) {
+            computeLazy(featureEnum);
+        }
+        return (features & mask) != 0;
+    }
+
+    /**
+     * 静态方法或者字段
+     *
+     * @return
+     */
+    public boolean isStaticMethodOrField() {
+        return (features & (STATIC_METHOD.getMask() | STATIC_FIELD.getMask())) != 0;
+    }
+
+    /**
+     * 非静态方法或者字段
+     *
+     * @return
+     */
+    public boolean isNonStaticMethodOrField() {
+        return (features & (NON_STATIC_METHOD.getMask() | NON_STATIC_FIELD.getMask())) != 0;
+    }
+
+    /**
+     * 计算选中元素的特征
+     *
+     * @param project
+     * @param psiElement
+     * @return
+     */
+    public static PsiElementFeature classify(Project project, PsiElement psiElement) {
+        if (!OgnlPsUtils.isPsiFieldOrMethodOrClass(psiElement)) {
+            // 延迟特征都依赖选中 field、method、class 直接标记为已计算
+            PsiElementFeature feature = new PsiElementFeature(project, psiElement, 0);
+            feature.computedFeatures = LAZY_FEATURES;
+            return feature;
+        }
+        int features = FIELD_METHOD_CLASS.getMask();
+        features |= bit(ANONYMOUS_CLASS, OgnlPsUtils.isAnonymousClass(psiElement));
+        features |= bit(STATIC_METHOD, OgnlPsUtils.isStaticMethod(psiElement));
+        features |= bit(STATIC_FIELD, OgnlPsUtils.isStaticField(psiElement));
+        features |= bit(NON_STATIC_METHOD, OgnlPsUtils.isNonStaticMethod(psiElement));
+        features |= bit(NON_STATIC_FIELD, OgnlPsUtils.isNonStaticField(psiElement));
+        features |= bit(FINAL_FIELD, OgnlPsUtils.isFinalField(psiElement));
+        features |= bit(CONSTRUCTOR, OgnlPsUtils.isConstructor(psiElement));
+        features |= bit(IN_ENUM, OgnlPsUtils.psiElementInEnum(psiElement));
+        features |= bit(JAVA_PACKAGE_CLASS, OgnlPsUtils.getCommonOrInnerOrAnonymousClassName(psiElement).startsWith("java."));
+        return new PsiElementFeature(project, psiElement, features);
+    }
+
+    private synchronized void computeLazy(PsiElementFeatureEnum featureEnum) {
+        int mask = featureEnum.getMask();
+        if ((computedFeatures & mask) != 0) {
+            return;
+        }
+        computedFeatures |= mask;
+        if (featureEnum == FIELD_HAVE_SET_METHOD) {
+            features |= bit(FIELD_HAVE_SET_METHOD, OgnlPsUtils.fieldHaveSetMethod(psiElement));
+        } else if (featureEnum == STATIC_SPRING_CONTEXT) {
+            features |= bit(STATIC_SPRING_CONTEXT, project != null && SpringStaticContextUtils.booleanConfigStaticSpringContext(project));
+        } else if (featureEnum == SPRING_BEAN_NAME) {
+            try {
+                String springBeanName = OgnlPsUtils.getSpringBeanName(psiElement);
+                features |= bit(SPRING_BEAN_NAME, StringUtils.isNotBlank(springBeanName) && !"errorBeanName".equals(springBeanName));
+            } catch (Exception e) {
+                LOG.info("[arthas] get spring bean name error", e);
+            }
+        }
+    }
+
+    private static int bit(PsiElementFeatureEnum featureEnum, boolean value) {
+        return value ? featureEnum.getMask() : 0;
+    }
+}
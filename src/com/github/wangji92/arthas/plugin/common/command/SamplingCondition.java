@@ -0,0 +1,160 @@
+package com.github.wangji92.arthas.plugin.common.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * watch/trace 采样的条件表达式 和开销估算
+ * <p>
+ * 条件表达式每次调用都会计算 只有命中的调用才会计算 watch 的观察表达式、输出 trace 的调用树,-n 的结果分散到更长的时间里 避开预热的异常值
+ * <p>
+ * 开销是粗略估算 只用来比较不同采样率和 -x 深度的量级
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class SamplingCondition {
+
+    /**
+     * 采样的基数 千分之 k
+     */
+    public static final int SAMPLE_BASE = 1000;
+
+    /**
+     * 目标进程中记录第一次调用时间的 System property
+     */
+    private static final String START_KEY_PREFIX = "arthas.idea.plugin.sampling.start.";
+
+    /**
+     * 增强之后每次调用 advice 的开销
+     */
+    private static final double ADVICE_MICROS = 1;
+
+    /**
+     * 每次调用 ognl 条件表达式的开销
+     */
+    private static final double CONDITION_MICROS = 2;
+
+    /**
+     * trace 每次调用都要记录内部方法调用的耗时
+     */
+    private static final double TRACE_INVOCATION_MICROS = 3;
+
+    /**
+     * trace 命中一次 输出调用树
+     */
+    private static final double TRACE_HIT_MICROS = 50;
+
+    /**
+     * watch 命中一次 -x 1 的观察表达式和输出 深度每加一层对象展开大约乘 4
+     */
+    private static final double WATCH_HIT_MICROS = 20;
+
+    private static final double WATCH_DEPTH_FACTOR = 4;
+
+    /**
+     * 千分之 k 被采样 1000 表示不采样
+     */
+    private final int samplePerMille;
+
+    /**
+     * 第一次调用之后跳过的秒数 避开刚开始的预热调用
+     */
+    private final int warmUpSeconds;
+
+    /**
+     * 采样的时间窗口秒数 0 不限制
+     */
+    private final int windowSeconds;
+
+    /**
+     * 方法的调用 qps 只用于估算
+     */
+    private final int qps;
+
+    public SamplingCondition(int samplePerMille, int warmUpSeconds, int windowSeconds, int qps) {
+        if (samplePerMille < 1 || samplePerMille > SAMPLE_BASE) {
+            throw new IllegalArgumentException("sample rate must be between 1 and " + SAMPLE_BASE);
+        }
+        if (warmUpSeconds < 0 || windowSeconds < 0 || qps < 0) {
+            throw new IllegalArgumentException("warm up seconds, window seconds and qps must not be negative");
+        }
+        this.samplePerMille = samplePerMille;
+        this.warmUpSeconds = warmUpSeconds;
+        this.windowSeconds = windowSeconds;
+        this.qps = qps;
+    }
+
+    /**
+     * 条件表达式 时间窗口在目标进程中计算 从增强后第一次调用开始计时,不依赖 IDE 和服务器的时钟一致
+     * <p>
+     * 第一次调用的时间记录在目标进程的 System properties 中,ognl 的 # 变量每次调用都是新的
+     *
+     * @param commandMillis 命令生成的时间 只用于区分不同命令的 key
+     * @return 带单引号的表达式
+     */
+    public String toConditionExpress(long commandMillis) {
+        List<String> conditions = new ArrayList<>(4);
+        if (warmUpSeconds > 0 || windowSeconds > 0) {
+            // 先 get 没有的时候才 putIfAbsent,putIfAbsent 有锁 不在每次调用都执行
+            String key = START_KEY_PREFIX + commandMillis;
+            conditions.add(String.format("(#now=@java.lang.System@currentTimeMillis(),#props=@java.lang.System@getProperties(),"
+                    + "#props.get(\"%1$s\") == null ? #props.putIfAbsent(\"%1$s\", #now) : null,#start=#props.get(\"%1$s\"),true)", key));
+        }
+        // 时间判断放在前面 窗口外直接短路
+        if (warmUpSeconds > 0) {
+            conditions.add(String.format("#now >= #start + %dL", warmUpSeconds * 1000L));
+        }
+        if (windowSeconds > 0) {
+            conditions.add(String.format("#now < #start + %dL", (warmUpSeconds + windowSeconds) * 1000L));
+        }
+        if (samplePerMille < SAMPLE_BASE) {
+            conditions.add(String.format("@java.util.concurrent.ThreadLocalRandom@current().nextInt(%d) < %d", SAMPLE_BASE, samplePerMille));
+        }
+        return conditions.isEmpty() ? "'1==1'" : "'" + String.join(" && ", conditions) + "'";
+    }
+
+    /**
+     * 估算开销
+     *
+     * @param trace       trace 或者 watch
+     * @param depth       watch -x 的深度
+     * @param invokeCount -n
+     * @return
+     */
+    public String estimate(boolean trace, int depth, int invokeCount) {
+        double rate = (double) samplePerMille / SAMPLE_BASE;
+        double hitsPerSecond = qps * rate;
+        double perCallMicros = ADVICE_MICROS + CONDITION_MICROS + (trace ? TRACE_INVOCATION_MICROS : 0);
+        double hitMicros = trace ? TRACE_HIT_MICROS : WATCH_HIT_MICROS * Math.pow(WATCH_DEPTH_FACTOR, Math.max(depth, 1) - 1);
+        double cpuMicrosPerSecond = qps * perCallMicros + hitsPerSecond * hitMicros;
+        double corePercent = cpuMicrosPerSecond / 10_000;
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("sample %.1f%%, %.1f hits/s, ", rate * 100, hitsPerSecond));
+        if (hitsPerSecond > 0) {
+            double collectSeconds = invokeCount / hitsPerSecond;
+            builder.append(String.format("-n %d collected in ~%.2fs", invokeCount, collectSeconds));
+            if (windowSeconds > 0 && collectSeconds > windowSeconds) {
+                builder.append(String.format(" (longer than the %ds window)", windowSeconds));
+            }
+        }
+        builder.append(String.format(", overhead ~%.1f%% of one core while enhanced (%.1fus per hit, %.1fus per call)", corePercent, hitMicros, perCallMicros));
+        return builder.toString();
+    }
+
+    public int getSamplePerMille() {
+        return samplePerMille;
+    }
+
+    public int getWarmUpSeconds() {
+        return warmUpSeconds;
+    }
+
+    public int getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public int getQps() {
+        return qps;
+    }
+}
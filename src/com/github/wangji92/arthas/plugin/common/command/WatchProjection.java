@@ -0,0 +1,183 @@
+package com.github.wangji92.arthas.plugin.common.command;
+
+import com.github.idea.json.parser.PsiParserToJson;
+import com.github.idea.json.parser.typevalue.TypeDefaultValue;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * watch 只观察选中的字段 {params[0].order.id, returnObj.status} 代替 {params,returnObj,throwExp} 展开整个对象
+ * <p>
+ * 字段结构复用 PsiParserToJson 的解析 集合元素的字段使用投影 params[0].items.{id}
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class WatchProjection {
+
+    /**
+     * 字段树最大的深度
+     */
+    private static final int MAX_DEPTH = 6;
+
+    /**
+     * 字段树中的一个节点
+     */
+    public static class Field {
+
+        private final Field parent;
+
+        /**
+         * 表达式中的名称 params[0] returnObj order
+         */
+        private final String name;
+
+        private final String label;
+
+        /**
+         * 集合或者 map 的元素 表达式使用投影
+         */
+        private final boolean element;
+
+        /**
+         * map 的元素 先取 values()
+         */
+        private final boolean mapValue;
+
+        private final List<Field> children = new ArrayList<>();
+
+        private Field(Field parent, String name, String label, boolean element, boolean mapValue) {
+            this.parent = parent;
+            this.name = name;
+            this.label = label;
+            this.element = element;
+            this.mapValue = mapValue;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public List<Field> getChildren() {
+            return children;
+        }
+
+        public boolean isLeaf() {
+            return children.isEmpty();
+        }
+
+        /**
+         * ognl 表达式
+         *
+         * @return
+         */
+        public String toExpress() {
+            List<Field> path = new ArrayList<>();
+            for (Field field = this; field != null; field = field.parent) {
+                path.add(0, field);
+            }
+            return toExpress(path, 0);
+        }
+
+        private static String toExpress(List<Field> path, int from) {
+            StringBuilder express = new StringBuilder();
+            for (int i = from; i < path.size(); i++) {
+                Field field = path.get(i);
+                if (field.element) {
+                    // 投影中的表达式以元素为根
+                    if (express.length() == 0) {
+                        express.append("#this");
+                    }
+                    if (field.mapValue) {
+                        express.append(".values()");
+                    }
+                    String rest = toExpress(path, i + 1);
+                    return rest.isEmpty() ? express.toString() : express.append(".{").append(rest).append("}").toString();
+                }
+                express.append(express.length() == 0 ? "" : ".").append(field.name);
+            }
+            return express.toString();
+        }
+    }
+
+    /**
+     * 方法参数和返回值的字段树 需要在 read action 中调用
+     *
+     * @param psiMethod
+     * @return
+     */
+    public static List<Field> build(PsiMethod psiMethod) {
+        List<Field> roots = new ArrayList<>();
+        PsiParameter[] parameters = psiMethod.getParameterList().getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            PsiType type = parameters[i].getType();
+            String name = "params[" + i + "]";
+            roots.add(build(name, name + " " + parameters[i].getName() + " : " + type.getPresentableText(), type));
+        }
+        PsiType returnType = psiMethod.getReturnType();
+        if (returnType != null && !PsiType.VOID.equals(returnType)) {
+            roots.add(build("returnObj", "returnObj : " + returnType.getPresentableText(), returnType));
+        }
+        roots.add(new Field(null, "throwExp", "throwExp", false, false));
+        return roots;
+    }
+
+    private static Field build(String name, String label, PsiType type) {
+        Field root = new Field(null, name, label, false, false);
+        addChildren(root, PsiParserToJson.getInstance().toFieldTree(type), 1);
+        return root;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addChildren(Field parent, Object value, int depth) {
+        if (depth > MAX_DEPTH) {
+            return;
+        }
+        if (value instanceof Map) {
+            Map<String, Object> map = (Map<String, Object>) value;
+            if (map.size() == 1 && map.containsKey(TypeDefaultValue.DEFAULT_MAP_KEY)) {
+                Field values = new Field(parent, "values()", "values()", true, true);
+                parent.children.add(values);
+                addChildren(values, map.get(TypeDefaultValue.DEFAULT_MAP_KEY), depth + 1);
+                return;
+            }
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                Field field = new Field(parent, entry.getKey(), entry.getKey(), false, false);
+                parent.children.add(field);
+                addChildren(field, entry.getValue(), depth + 1);
+            }
+        } else if (value instanceof Collection && !((Collection<?>) value).isEmpty()) {
+            Field element = new Field(parent, "[*]", "[*] each element", true, false);
+            parent.children.add(element);
+            addChildren(element, ((Collection<?>) value).iterator().next(), depth + 1);
+        }
+    }
+
+    /**
+     * 选中的字段生成 watch 的观察表达式
+     *
+     * @param fields
+     * @return 带单引号
+     */
+    public static String toWatchExpress(List<Field> fields) {
+        return fields.stream().map(Field::toExpress).collect(Collectors.joining(",", "'{", "}'"));
+    }
+
+    /**
+     * 选中的都是基本类型 -x 1 就够了 否则使用配置的深度
+     *
+     * @param fields
+     * @param depthPrintProperty
+     * @return
+     */
+    public static String toDepth(List<Field> fields, String depthPrintProperty) {
+        return fields.stream().allMatch(Field::isLeaf) ? "1" : depthPrintProperty;
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.wangji92.arthas.plugin.common.enums;
+
+/**
+ * 选中的 psi 元素的特征 每个特征占用一个 bit
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public enum PsiElementFeatureEnum {
+    /**
+     * field method class java file
+     */
+    FIELD_METHOD_CLASS,
+    /**
+     * 匿名类
+     */
+    ANONYMOUS_CLASS,
+    /**
+     * 静态方法
+     */
+    STATIC_METHOD,
+    /**
+     * 静态字段
+     */
+    STATIC_FIELD,
+    /**
+     * 非静态方法
+     */
+    NON_STATIC_METHOD,
+    /**
+     * 非静态字段
+     */
+    NON_STATIC_FIELD,
+    /**
+     * final 字段
+     */
+    FINAL_FIELD,
+    /**
+     * 构造方法
+     */
+    CONSTRUCTOR,
+    /**
+     * 字段有 setXxx 方法
+     */
+    FIELD_HAVE_SET_METHOD,
+    /**
+     * 枚举中的元素
+     */
+    IN_ENUM,
+    /**
+     * java.** 下的类
+     */
+    JAVA_PACKAGE_CLASS,
+    /**
+     * 可以获取到 spring bean 名称
+     */
+    SPRING_BEAN_NAME,
+    /**
+     * 配置了 static spring context
+     */
+    STATIC_SPRING_CONTEXT,
+    ;
+
+    private final int mask = 1 << ordinal();
+
+    public int getMask() {
+        return mask;
+    }
+}
@@ -1,14 +1,13 @@
 package com.github.wangji92.arthas.plugin.common.enums;
 
 import com.github.wangji92.arthas.plugin.common.command.CommandContext;
+import com.github.wangji92.arthas.plugin.common.command.PsiElementFeature;
 import com.github.wangji92.arthas.plugin.common.enums.base.EnumCodeMsg;
 import com.github.wangji92.arthas.plugin.utils.OgnlPsUtils;
 import com.github.wangji92.arthas.plugin.utils.SpringStaticContextUtils;
-import com.github.wangji92.arthas.plugin.utils.StringUtils;
-import com.intellij.psi.PsiClass;
-import com.intellij.psi.PsiField;
-import com.intellij.psi.PsiMethod;
 
+import static com.github.wangji92.arthas.plugin.common.enums.PsiElementFeatureEnum.*;
+import static com.github.wangji92.arthas.plugin.constants.ArthasCommandConstants.DEFAULT_WATCH_EXPRESS;
 import static com.github.wangji92.arthas.plugin.constants.ArthasCommandConstants.SPRING_ALL_MAP_PROPERTY;
 
 /**
@@ -29,11 +28,8 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/ognl.html#%E4%BD%BF%E7%94%A8%E5%8F%82%E8%80%83") {
         @Override
         public boolean support(CommandContext context) {
-
-            if (OgnlPsUtils.isAnonymousClass(context.getPsiElement())) {
-                return false;
-            }
-            return OgnlPsUtils.isStaticMethodOrField(context.getPsiElement());
+            PsiElementFeature feature = context.getPsiElementFeature();
+            return !feature.has(ANONYMOUS_CLASS) && feature.isStaticMethodOrField();
         }
 
         @Override
@@ -58,10 +54,8 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/getstatic.html#%E4%BD%BF%E7%94%A8%E5%8F%82%E8%80%83") {
         @Override
         public boolean support(CommandContext context) {
-            if (OgnlPsUtils.isAnonymousClass(context.getPsiElement())) {
-                return false;
-            }
-            return OgnlPsUtils.isStaticField(context.getPsiElement());
+            PsiElementFeature feature = context.getPsiElementFeature();
+            return !feature.has(ANONYMOUS_CLASS) && feature.has(STATIC_FIELD);
         }
 
         @Override
@@ -90,10 +84,8 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/watch.html#%E8%8E%B7%E5%8F%96%E7%B1%BB%E7%9A%84%E9%9D%99%E6%80%81%E5%AD%97%E6%AE%B5%E3%80%81%E8%B0%83%E7%94%A8%E7%B1%BB%E7%9A%84%E9%9D%99%E6%80%81%E5%87%BD%E6%95%B0%E7%9A%84%E4%BE%8B%E5%AD%90") {
         @Override
         public boolean support(CommandContext context) {
-            if (OgnlPsUtils.isAnonymousClass(context.getPsiElement())) {
-                return false;
-            }
-            return OgnlPsUtils.isStaticField(context.getPsiElement());
+            PsiElementFeature feature = context.getPsiElementFeature();
+            return !feature.has(ANONYMOUS_CLASS) && feature.has(STATIC_FIELD);
         }
 
         @Override
@@ -122,7 +114,7 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/watch.html#%E8%A7%82%E5%AF%9F%E5%BD%93%E5%89%8D%E5%AF%B9%E8%B1%A1%E4%B8%AD%E7%9A%84%E5%B1%9E%E6%80%A7") {
         @Override
         public boolean support(CommandContext context) {
-            return OgnlPsUtils.isNonStaticField(context.getPsiElement());
+            return context.getPsiElementFeature().has(NON_STATIC_FIELD);
         }
 
         @Override
@@ -141,7 +133,7 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
     WATCH("watch "
             + ShellScriptVariableEnum.CLASS_NAME.getCode() + " "
             + ShellScriptVariableEnum.METHOD_NAME.getCode() + " "
-            + "'{params,returnObj,throwExp}' "
+            + DEFAULT_WATCH_EXPRESS + " "
             + ShellScriptVariableEnum.PRINT_CONDITION_RESULT.getCode() + " -n "
             + ShellScriptVariableEnum.INVOKE_COUNT.getCode() + " "
             + " -x "
@@ -151,7 +143,7 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/watch.html#%E5%90%8C%E6%97%B6%E8%A7%82%E5%AF%9F%E5%87%BD%E6%95%B0%E8%B0%83%E7%94%A8%E5%89%8D%E5%92%8C%E5%87%BD%E6%95%B0%E8%BF%94%E5%9B%9E%E5%90%8E") {
         @Override
         public boolean support(CommandContext context) {
-            return OgnlPsUtils.isPsiFieldOrMethodOrClass(context.getPsiElement());
+            return context.getPsiElementFeature().has(FIELD_METHOD_CLASS);
         }
 
         @Override
@@ -177,7 +169,7 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://mp.weixin.qq.com/s/8ezzcBEdfmsAdcnlLWlq4w") {
         @Override
         public boolean support(CommandContext context) {
-            return OgnlPsUtils.isPsiFieldOrMethodOrClass(context.getPsiElement());
+            return context.getPsiElementFeature().has(FIELD_METHOD_CLASS);
         }
 
         @Override
@@ -205,7 +197,7 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/trace.html") {
         @Override
         public boolean support(CommandContext context) {
-            return OgnlPsUtils.isPsiFieldOrMethodOrClass(context.getPsiElement());
+            return context.getPsiElementFeature().has(FIELD_METHOD_CLASS);
         }
 
         @Override
@@ -232,14 +224,9 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/vmtool.html#%E6%89%A7%E8%A1%8C%E8%A1%A8%E8%BE%BE%E5%BC%8F") {
         @Override
         public boolean support(CommandContext context) {
-            if (OgnlPsUtils.isAnonymousClass(context.getPsiElement())) {
-                return false;
-            }
+            PsiElementFeature feature = context.getPsiElementFeature();
             // 构造方法不支持
-            if (OgnlPsUtils.isConstructor(context.getPsiElement())) {
-                return false;
-            }
-            return OgnlPsUtils.isNonStaticMethodOrField(context.getPsiElement());
+            return !feature.has(ANONYMOUS_CLASS) && !feature.has(CONSTRUCTOR) && feature.isNonStaticMethodOrField();
         }
 
         @Override
@@ -262,17 +249,10 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/vmtool.html#%E6%89%A7%E8%A1%8C%E8%A1%A8%E8%BE%BE%E5%BC%8F") {
         @Override
         public boolean support(CommandContext context) {
-            if (OgnlPsUtils.isAnonymousClass(context.getPsiElement())) {
-                return false;
-            }
+            PsiElementFeature feature = context.getPsiElementFeature();
             // 构造方法不支持
-            if (OgnlPsUtils.isConstructor(context.getPsiElement())) {
-                return false;
-            }
-            if (OgnlPsUtils.isNonStaticField(context.getPsiElement()) && !OgnlPsUtils.isFinalField(context.getPsiElement()) && OgnlPsUtils.fieldHaveSetMethod(context.getPsiElement())) {
-                return true;
-            }
-            return false;
+            return !feature.has(ANONYMOUS_CLASS) && !feature.has(CONSTRUCTOR)
+                    && feature.has(NON_STATIC_FIELD) && !feature.has(FINAL_FIELD) && feature.has(FIELD_HAVE_SET_METHOD);
         }
 
         @Override
@@ -301,14 +281,10 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/vmtool.html#%E6%89%A7%E8%A1%8C%E8%A1%A8%E8%BE%BE%E5%BC%8F") {
         @Override
         public boolean support(CommandContext context) {
-            if (OgnlPsUtils.isAnonymousClass(context.getPsiElement())) {
-                return false;
-            }
+            PsiElementFeature feature = context.getPsiElementFeature();
             // 构造方法不支持
-            if (OgnlPsUtils.isConstructor(context.getPsiElement())) {
-                return false;
-            }
-            return OgnlPsUtils.isNonStaticField(context.getPsiElement()) && !OgnlPsUtils.isFinalField(context.getPsiElement());
+            return !feature.has(ANONYMOUS_CLASS) && !feature.has(CONSTRUCTOR)
+                    && feature.has(NON_STATIC_FIELD) && !feature.has(FINAL_FIELD);
         }
 
         @Override
@@ -337,14 +313,10 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/vmtool.html#%E6%89%A7%E8%A1%8C%E8%A1%A8%E8%BE%BE%E5%BC%8F") {
         @Override
         public boolean support(CommandContext context) {
-            if (OgnlPsUtils.isAnonymousClass(context.getPsiElement())) {
-                return false;
-            }
+            PsiElementFeature feature = context.getPsiElementFeature();
             // 构造方法不支持
-            if (OgnlPsUtils.isConstructor(context.getPsiElement())) {
-                return false;
-            }
-            return OgnlPsUtils.isNonStaticField(context.getPsiElement()) && OgnlPsUtils.isFinalField(context.getPsiElement());
+            return !feature.has(ANONYMOUS_CLASS) && !feature.has(CONSTRUCTOR)
+                    && feature.has(NON_STATIC_FIELD) && feature.has(FINAL_FIELD);
         }
 
         @Override
@@ -409,10 +381,8 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/vmtool.html#%E8%8E%B7%E5%8F%96%E5%AF%B9%E8%B1%A1") {
         @Override
         public boolean support(CommandContext context) {
-            if (OgnlPsUtils.isAnonymousClass(context.getPsiElement())) {
-                return false;
-            }
-            return OgnlPsUtils.isPsiFieldOrMethodOrClass(context.getPsiElement());
+            PsiElementFeature feature = context.getPsiElementFeature();
+            return !feature.has(ANONYMOUS_CLASS) && feature.has(FIELD_METHOD_CLASS);
         }
 
         @Override
@@ -439,32 +409,13 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
         //todo link
         @Override
         public boolean support(CommandContext context) {
+            PsiElementFeature feature = context.getPsiElementFeature();
             //todo 判断是否为spring bean
-            if (OgnlPsUtils.isAnonymousClass(context.getPsiElement())) {
-                return false;
-            }
-            // 必须要配置spring static context
-            if (!SpringStaticContextUtils.booleanConfigStaticSpringContext(context.getProject())) {
-                return false;
-            }
-            // 构造方法不支持
-            if (OgnlPsUtils.isConstructor(context.getPsiElement())) {
-                return false;
-            }
-            // spring bean 的名称
-            String springBeanName = OgnlPsUtils.getSpringBeanName(context.getPsiElement());
-            if (StringUtils.isBlank(springBeanName) || "errorBeanName".equals(springBeanName)) {
-                return false;
-            }
-            String className = OgnlPsUtils.getCommonOrInnerOrAnonymousClassName(context.getPsiElement());
-            // 非 java.**
-            if (className.startsWith("java.")) {
-                return false;
-            }
-            if (OgnlPsUtils.psiElementInEnum(context.getPsiElement())) {
-                return false;
-            }
-            return OgnlPsUtils.isNonStaticMethodOrField(context.getPsiElement());
+            // 必须要配置spring static context 构造方法不支持 非 java.** 非枚举
+            return !feature.has(ANONYMOUS_CLASS) && feature.has(STATIC_SPRING_CONTEXT)
+                    && !feature.has(CONSTRUCTOR) && feature.has(SPRING_BEAN_NAME)
+                    && !feature.has(JAVA_PACKAGE_CLASS) && !feature.has(IN_ENUM)
+                    && feature.isNonStaticMethodOrField();
         }
 
         @Override
@@ -490,49 +441,15 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
         //todo help link
         @Override
         public boolean support(CommandContext context) {
+            PsiElementFeature feature = context.getPsiElementFeature();
             //todo 判断是否为spring bean
-            if (OgnlPsUtils.isAnonymousClass(context.getPsiElement())) {
-                return false;
-            }
-            // 必须要配置spring static context
-            if (!SpringStaticContextUtils.booleanConfigStaticSpringContext(context.getProject())) {
-                return false;
-            }
-            // 构造方法不支持
-            if (OgnlPsUtils.isConstructor(context.getPsiElement())) {
-                return false;
-            }
-            // spring bean 的名称
-            String springBeanName = OgnlPsUtils.getSpringBeanName(context.getPsiElement());
-            if (StringUtils.isBlank(springBeanName) || "errorBeanName".equals(springBeanName)) {
-                return false;
-            }
-            String className = OgnlPsUtils.getCommonOrInnerOrAnonymousClassName(context.getPsiElement());
-            // 非 java.**
-            if (className.startsWith("java.")) {
-                return false;
-            }
-            if (!OgnlPsUtils.isNonStaticMethodOrField(context.getPsiElement())) {
-                return false;
-            }
-            if (OgnlPsUtils.psiElementInEnum(context.getPsiElement())) {
-                return false;
-            }
-            // 含有set 字段的方法
-            if (context.getPsiElement() instanceof PsiField) {
-                PsiField psiField = (PsiField) context.getPsiElement();
-                String fieldName = OgnlPsUtils.getFieldName(context.getPsiElement());
-                String capitalizeFieldName = StringUtils.capitalize(fieldName);
-                PsiClass containingClass = psiField.getContainingClass();
-                if (containingClass != null) {
-                    for (PsiMethod method : containingClass.getMethods()) {
-                        if (method.getName().equals("set" + capitalizeFieldName)) {
-                            return true;
-                        }
-                    }
-                }
-            }
-            return false;
+            // 必须要配置spring static context 构造方法不支持 非 java.** 非枚举
+            return !feature.has(ANONYMOUS_CLASS) && feature.has(STATIC_SPRING_CONTEXT)
+                    && !feature.has(CONSTRUCTOR) && feature.has(SPRING_BEAN_NAME)
+                    && !feature.has(JAVA_PACKAGE_CLASS) && !feature.has(IN_ENUM)
+                    && feature.isNonStaticMethodOrField()
+                    // 含有set 字段的方法
+                    && feature.has(FIELD_HAVE_SET_METHOD);
         }
 
         @Override
@@ -560,8 +477,7 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/stack.html") {
         @Override
         public boolean support(CommandContext context) {
-
-            return OgnlPsUtils.isPsiFieldOrMethodOrClass(context.getPsiElement());
+            return context.getPsiElementFeature().has(FIELD_METHOD_CLASS);
         }
 
         @Override
@@ -588,7 +504,7 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/monitor.html") {
         @Override
         public boolean support(CommandContext context) {
-            return OgnlPsUtils.isPsiFieldOrMethodOrClass(context.getPsiElement());
+            return context.getPsiElementFeature().has(FIELD_METHOD_CLASS);
         }
 
         @Override
@@ -611,13 +527,8 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/jad.html") {
         @Override
         public boolean support(CommandContext context) {
-            if (OgnlPsUtils.isAnonymousClass(context.getPsiElement())) {
-                return false;
-            }
-            if (OgnlPsUtils.getCommonOrInnerOrAnonymousClassName(context.getPsiElement()).startsWith("java.")) {
-                return false;
-            }
-            return OgnlPsUtils.isPsiFieldOrMethodOrClass(context.getPsiElement());
+            PsiElementFeature feature = context.getPsiElementFeature();
+            return !feature.has(ANONYMOUS_CLASS) && !feature.has(JAVA_PACKAGE_CLASS) && feature.has(FIELD_METHOD_CLASS);
         }
 
         @Override
@@ -641,13 +552,8 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/jad.html") {
         @Override
         public boolean support(CommandContext context) {
-            if (!OgnlPsUtils.getCommonOrInnerOrAnonymousClassName(context.getPsiElement()).startsWith("java.")) {
-                return false;
-            }
-            if (OgnlPsUtils.isAnonymousClass(context.getPsiElement())) {
-                return false;
-            }
-            return OgnlPsUtils.isPsiFieldOrMethodOrClass(context.getPsiElement());
+            PsiElementFeature feature = context.getPsiElementFeature();
+            return feature.has(JAVA_PACKAGE_CLASS) && !feature.has(ANONYMOUS_CLASS) && feature.has(FIELD_METHOD_CLASS);
         }
 
         @Override
@@ -669,7 +575,7 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/sc.html") {
         @Override
         public boolean support(CommandContext context) {
-            return OgnlPsUtils.isPsiFieldOrMethodOrClass(context.getPsiElement());
+            return context.getPsiElementFeature().has(FIELD_METHOD_CLASS);
         }
 
         @Override
@@ -692,7 +598,7 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/sc.html") {
         @Override
         public boolean support(CommandContext context) {
-            return OgnlPsUtils.isPsiFieldOrMethodOrClass(context.getPsiElement());
+            return context.getPsiElementFeature().has(FIELD_METHOD_CLASS);
         }
 
         @Override
@@ -717,10 +623,8 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://github.com/WangJi92/arthas-idea-plugin/issues/1") {
         @Override
         public boolean support(CommandContext context) {
-            if (OgnlPsUtils.isAnonymousClass(context.getPsiElement())) {
-                return false;
-            }
-            return OgnlPsUtils.isStaticField(context.getPsiElement()) && !OgnlPsUtils.isFinalField(context.getPsiElement());
+            PsiElementFeature feature = context.getPsiElementFeature();
+            return !feature.has(ANONYMOUS_CLASS) && feature.has(STATIC_FIELD) && !feature.has(FINAL_FIELD);
         }
 
         @Override
@@ -746,10 +650,8 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://github.com/WangJi92/arthas-idea-plugin/issues/1") {
         @Override
         public boolean support(CommandContext context) {
-            if (OgnlPsUtils.isAnonymousClass(context.getPsiElement())) {
-                return false;
-            }
-            return OgnlPsUtils.isStaticField(context.getPsiElement()) && OgnlPsUtils.isFinalField(context.getPsiElement());
+            PsiElementFeature feature = context.getPsiElementFeature();
+            return !feature.has(ANONYMOUS_CLASS) && feature.has(STATIC_FIELD) && feature.has(FINAL_FIELD);
         }
 
         @Override
@@ -779,10 +681,8 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/watch.html#%E8%8E%B7%E5%8F%96%E7%B1%BB%E7%9A%84%E9%9D%99%E6%80%81%E5%AD%97%E6%AE%B5%E3%80%81%E8%B0%83%E7%94%A8%E7%B1%BB%E7%9A%84%E9%9D%99%E6%80%81%E5%87%BD%E6%95%B0%E7%9A%84%E4%BE%8B%E5%AD%90") {
         @Override
         public boolean support(CommandContext context) {
-            if (OgnlPsUtils.isAnonymousClass(context.getPsiElement())) {
-                return false;
-            }
-            return OgnlPsUtils.isStaticMethod(context.getPsiElement());
+            PsiElementFeature feature = context.getPsiElementFeature();
+            return !feature.has(ANONYMOUS_CLASS) && feature.has(STATIC_METHOD);
         }
 
         @Override
@@ -811,11 +711,8 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/watch.html#%E8%8E%B7%E5%8F%96%E7%B1%BB%E7%9A%84%E9%9D%99%E6%80%81%E5%AD%97%E6%AE%B5%E3%80%81%E8%B0%83%E7%94%A8%E7%B1%BB%E7%9A%84%E9%9D%99%E6%80%81%E5%87%BD%E6%95%B0%E7%9A%84%E4%BE%8B%E5%AD%90") {
         @Override
         public boolean support(CommandContext context) {
-            if (OgnlPsUtils.isConstructor(context.getPsiElement())) {
-                return false;
-            }
-
-            return OgnlPsUtils.isNonStaticMethod(context.getPsiElement());
+            PsiElementFeature feature = context.getPsiElementFeature();
+            return !feature.has(CONSTRUCTOR) && feature.has(NON_STATIC_METHOD);
         }
 
         @Override
@@ -838,10 +735,8 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/logger.html#%E6%9B%B4%E6%96%B0-logger-level") {
         @Override
         public boolean support(CommandContext context) {
-            if (OgnlPsUtils.isAnonymousClass(context.getPsiElement())) {
-                return false;
-            }
-            return OgnlPsUtils.isPsiFieldOrMethodOrClass(context.getPsiElement());
+            PsiElementFeature feature = context.getPsiElementFeature();
+            return !feature.has(ANONYMOUS_CLASS) && feature.has(FIELD_METHOD_CLASS);
         }
 
         @Override
@@ -867,10 +762,8 @@ public enum ShellScriptCommandEnum implements EnumCodeMsg<String> {
             "https://arthas.aliyun.com/doc/dump.html") {
         @Override
         public boolean support(CommandContext context) {
-            if (OgnlPsUtils.isAnonymousClass(context.getPsiElement())) {
-                return false;
-            }
-            return OgnlPsUtils.isPsiFieldOrMethodOrClass(context.getPsiElement());
+            PsiElementFeature feature = context.getPsiElementFeature();
+            return !feature.has(ANONYMOUS_CLASS) && feature.has(FIELD_METHOD_CLASS);
         }
 
         @Override
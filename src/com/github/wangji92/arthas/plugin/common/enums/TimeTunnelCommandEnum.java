@@ -30,7 +30,7 @@ public enum TimeTunnelCommandEnum implements EnumCodeMsg<String> {
     /**
      * 参考链接 https://github.com/alibaba/arthas/issues/482
      */
-    GET_CONTEXT_BEGIN("tt -t org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter invokeHandlerMethod", "调用一次Spring Mvc接口,获取spring context"),
+    GET_CONTEXT_BEGIN("tt -t org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter invokeHandlerMethod -n 1", "调用一次Spring Mvc接口,获取spring context"),
     GET_CONTEXT_END("tt -w 'target.getApplicationContext()' -x 3 -i 1000", "通过tt 获取spring context,然后getBean 为所欲为"),
     GET_ALL_TIME("tt -l", "List all the time fragments"),
     DELETE_ALL("tt --delete-all", "Delete all time fragments");
@@ -0,0 +1,318 @@
+package com.github.wangji92.arthas.plugin.common.index;
+
+import com.github.wangji92.arthas.plugin.utils.StringUtils;
+import com.google.common.collect.Sets;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.ide.highlighter.XmlFileType;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.IndexNotReadyException;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * spring bean 索引 class 全限定名 -> bean 名称
+ * <p>
+ * 1. @Component @Service @Controller @RestController @Repository @Configuration 注解的类
+ * 2. @Bean 方法的返回值类型
+ * 3. xml 中的 &lt;bean id="" class=""/&gt;
+ * <p>
+ * 索引只依赖当前文件的内容,注解、类型通过 import 判断,不做 resolve,文件修改后增量更新
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class SpringBeanIndex extends FileBasedIndexExtension<String, List<String>> {
+
+    private static final Logger LOG = Logger.getInstance(SpringBeanIndex.class);
+
+    public static final ID<String, List<String>> NAME = ID.create("arthas.idea.plugin.spring.bean");
+
+    private static final String STEREOTYPE_PACKAGE = "org.springframework.stereotype.";
+
+    private static final Set<String> STEREOTYPE_ANNOTATIONS = Sets.newHashSet(
+            "org.springframework.stereotype.Component",
+            "org.springframework.stereotype.Service",
+            "org.springframework.stereotype.Controller",
+            "org.springframework.stereotype.Repository",
+            "org.springframework.web.bind.annotation.RestController",
+            "org.springframework.context.annotation.Configuration");
+
+    private static final String BEAN_ANNOTATION = "org.springframework.context.annotation.Bean";
+
+    private static final DataExternalizer<List<String>> BEAN_NAMES_EXTERNALIZER = new DataExternalizer<List<String>>() {
+        @Override
+        public void save(@NotNull DataOutput out, List<String> value) throws IOException {
+            DataInputOutputUtil.writeINT(out, value.size());
+            for (String beanName : value) {
+                IOUtil.writeUTF(out, beanName);
+            }
+        }
+
+        @Override
+        public List<String> read(@NotNull DataInput in) throws IOException {
+            int size = DataInputOutputUtil.readINT(in);
+            List<String> beanNames = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                beanNames.add(IOUtil.readUTF(in));
+            }
+            return beanNames;
+        }
+    };
+
+    @Override
+    public @NotNull ID<String, List<String>> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, List<String>, FileContent> getIndexer() {
+        return fileContent -> {
+            PsiFile psiFile = fileContent.getPsiFile();
+            Map<String, List<String>> result = new HashMap<>(8);
+            try {
+                if (psiFile instanceof PsiJavaFile) {
+                    indexJavaFile((PsiJavaFile) psiFile, result);
+                } else if (psiFile instanceof XmlFile) {
+                    indexXmlFile((XmlFile) psiFile, result);
+                }
+            } catch (Exception e) {
+                LOG.info("[arthas] index spring bean error " + fileContent.getFileName(), e);
+            }
+            return result;
+        };
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<List<String>> getValueExternalizer() {
+        return BEAN_NAMES_EXTERNALIZER;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public FileBasedIndex.@NotNull InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE, XmlFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * 获取 class 对应的 spring bean 名称 索引没有准备好返回 null
+     *
+     * @param project
+     * @param className class 全限定名
+     * @return
+     */
+    public static List<String> getBeanNames(Project project, String className) {
+        if (project == null || StringUtils.isBlank(className) || DumbService.isDumb(project)) {
+            return null;
+        }
+        try {
+            List<List<String>> values = FileBasedIndex.getInstance().getValues(NAME, className, GlobalSearchScope.allScope(project));
+            List<String> beanNames = new ArrayList<>();
+            for (List<String> value : values) {
+                for (String beanName : value) {
+                    if (!beanNames.contains(beanName)) {
+                        beanNames.add(beanName);
+                    }
+                }
+            }
+            return beanNames;
+        } catch (IndexNotReadyException e) {
+            return null;
+        }
+    }
+
+    private static void indexJavaFile(PsiJavaFile psiJavaFile, Map<String, List<String>> result) {
+        if (!psiJavaFile.getText().contains("org.springframework")) {
+            return;
+        }
+        for (PsiClass psiClass : PsiTreeUtil.findChildrenOfType(psiJavaFile, PsiClass.class)) {
+            String className = psiClass.getQualifiedName();
+            if (className == null || psiClass instanceof PsiAnonymousClass) {
+                continue;
+            }
+            for (PsiAnnotation annotation : psiClass.getAnnotations()) {
+                String annotationName = getAnnotationName(psiJavaFile, annotation);
+                if (STEREOTYPE_ANNOTATIONS.contains(annotationName)) {
+                    List<String> beanNames = getAnnotationValues(annotation, "value");
+                    addBeanName(result, getJvmClassName(psiClass), beanNames.isEmpty() ? StringUtils.uncapitalize(psiClass.getName()) : beanNames.get(0));
+                    break;
+                }
+            }
+            for (PsiMethod method : psiClass.getMethods()) {
+                PsiAnnotation beanAnnotation = null;
+                for (PsiAnnotation annotation : method.getAnnotations()) {
+                    if (BEAN_ANNOTATION.equals(getAnnotationName(psiJavaFile, annotation))) {
+                        beanAnnotation = annotation;
+                        break;
+                    }
+                }
+                PsiTypeElement returnTypeElement = method.getReturnTypeElement();
+                if (beanAnnotation == null || returnTypeElement == null) {
+                    continue;
+                }
+                String returnClassName = getTypeName(psiJavaFile, returnTypeElement);
+                if (StringUtils.isBlank(returnClassName)) {
+                    continue;
+                }
+                List<String> beanNames = getAnnotationValues(beanAnnotation, "name");
+                if (beanNames.isEmpty()) {
+                    beanNames = getAnnotationValues(beanAnnotation, "value");
+                }
+                if (beanNames.isEmpty()) {
+                    beanNames = Collections.singletonList(method.getName());
+                }
+                beanNames.forEach(beanName -> addBeanName(result, returnClassName, beanName));
+            }
+        }
+    }
+
+    private static void indexXmlFile(XmlFile xmlFile, Map<String, List<String>> result) {
+        XmlTag rootTag = xmlFile.getRootTag();
+        if (rootTag == null || !"beans".equals(rootTag.getLocalName())) {
+            return;
+        }
+        Deque<XmlTag> tags = new ArrayDeque<>();
+        tags.push(rootTag);
+        while (!tags.isEmpty()) {
+            XmlTag tag = tags.pop();
+            for (XmlTag subTag : tag.getSubTags()) {
+                tags.push(subTag);
+            }
+            String className = tag.getAttributeValue("class");
+            if (!"bean".equals(tag.getLocalName()) || StringUtils.isBlank(className)) {
+                continue;
+            }
+            String beanName = tag.getAttributeValue("id");
+            if (StringUtils.isBlank(beanName)) {
+                beanName = StringUtils.substringBefore(StringUtils.defaultString(tag.getAttributeValue("name")), ",").trim();
+            }
+            if (StringUtils.isNotBlank(beanName)) {
+                addBeanName(result, className.trim(), beanName);
+            }
+        }
+    }
+
+    private static void addBeanName(Map<String, List<String>> result, String className, String beanName) {
+        List<String> beanNames = result.computeIfAbsent(className, key -> new ArrayList<>(1));
+        if (!beanNames.contains(beanName)) {
+            beanNames.add(beanName);
+        }
+    }
+
+    /**
+     * 内部类使用 $ 和 class.getName() 一致
+     */
+    private static String getJvmClassName(PsiClass psiClass) {
+        PsiClass containingClass = psiClass.getContainingClass();
+        if (containingClass == null) {
+            return psiClass.getQualifiedName();
+        }
+        return getJvmClassName(containingClass) + "$" + psiClass.getName();
+    }
+
+    /**
+     * 注解的全限定名 只根据 import 推断 不 resolve
+     */
+    private static String getAnnotationName(PsiJavaFile psiJavaFile, PsiAnnotation annotation) {
+        PsiJavaCodeReferenceElement referenceElement = annotation.getNameReferenceElement();
+        if (referenceElement == null) {
+            return null;
+        }
+        return resolveByImport(psiJavaFile, referenceElement.getText());
+    }
+
+    /**
+     * 类型的全限定名 只根据 import 推断 不 resolve
+     */
+    private static String getTypeName(PsiJavaFile psiJavaFile, PsiTypeElement typeElement) {
+        PsiJavaCodeReferenceElement referenceElement = typeElement.getInnermostComponentReferenceElement();
+        if (referenceElement == null) {
+            return null;
+        }
+        String typeText = referenceElement.getText();
+        int genericIndex = typeText.indexOf('<');
+        if (genericIndex > 0) {
+            typeText = typeText.substring(0, genericIndex);
+        }
+        return resolveByImport(psiJavaFile, typeText.trim());
+    }
+
+    private static String resolveByImport(PsiJavaFile psiJavaFile, String referenceText) {
+        if (referenceText.contains(".")) {
+            return referenceText;
+        }
+        PsiImportList importList = psiJavaFile.getImportList();
+        if (importList != null) {
+            for (PsiImportStatement importStatement : importList.getImportStatements()) {
+                String importName = importStatement.getQualifiedName();
+                if (importName == null) {
+                    continue;
+                }
+                if (!importStatement.isOnDemand() && importName.endsWith("." + referenceText)) {
+                    return importName;
+                }
+                if (importStatement.isOnDemand() && (importName + ".").equals(STEREOTYPE_PACKAGE)
+                        && STEREOTYPE_ANNOTATIONS.contains(STEREOTYPE_PACKAGE + referenceText)) {
+                    return STEREOTYPE_PACKAGE + referenceText;
+                }
+            }
+        }
+        String packageName = psiJavaFile.getPackageName();
+        return StringUtils.isBlank(packageName) ? referenceText : packageName + "." + referenceText;
+    }
+
+    /**
+     * 注解中的字符串值 支持数组
+     */
+    private static List<String> getAnnotationValues(PsiAnnotation annotation, String attribute) {
+        PsiAnnotationMemberValue memberValue = annotation.findDeclaredAttributeValue(attribute);
+        List<String> values = new ArrayList<>(1);
+        if (memberValue instanceof PsiArrayInitializerMemberValue) {
+            for (PsiAnnotationMemberValue initializer : ((PsiArrayInitializerMemberValue) memberValue).getInitializers()) {
+                addLiteralValue(initializer, values);
+            }
+        } else {
+            addLiteralValue(memberValue, values);
+        }
+        return values;
+    }
+
+    private static void addLiteralValue(PsiAnnotationMemberValue memberValue, List<String> values) {
+        if (memberValue instanceof PsiLiteralExpression && ((PsiLiteralExpression) memberValue).getValue() instanceof String) {
+            String value = (String) ((PsiLiteralExpression) memberValue).getValue();
+            if (StringUtils.isNotBlank(value)) {
+                values.add(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.github.wangji92.arthas.plugin.common.index;
+
+import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
+import com.intellij.lang.java.JavaLanguage;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.searches.ClassInheritorsSearch;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.ClassUtil;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.concurrency.CancellablePromise;
+
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 后台自动发现 static spring context 持有类 例如 @com.xxx.ApplicationContextProvider@context
+ * <p>
+ * 1. 实现 ApplicationContextAware 的类中 ApplicationContext 类型的静态字段
+ * 2. 工程中其他 ApplicationContext 类型的静态字段
+ * <p>
+ * 结果保存到配置中,工程打开索引完成后发现一次,之后生成命令、打开配置的时候按需发现 java 结构变化后才重新查找,菜单 update 只读取上一次的结果
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class SpringStaticContextDiscoveryService {
+
+    private static final Logger LOG = Logger.getInstance(SpringStaticContextDiscoveryService.class);
+
+    private static final String APPLICATION_CONTEXT_AWARE = "org.springframework.context.ApplicationContextAware";
+
+    private static final String APPLICATION_CONTEXT = "org.springframework.context.ApplicationContext";
+
+    private final Project project;
+
+    /**
+     * 两次发现的最小间隔 连续编辑的时候不重复查找
+     */
+    private static final long DEBOUNCE_MILLIS = 30_000;
+
+    /**
+     * 使用 spring context 的命令等待发现结果的最长时间
+     */
+    private static final long AWAIT_MILLIS = 10_000;
+
+    private final AtomicBoolean discovering = new AtomicBoolean(false);
+
+    /**
+     * 上一次发现时 java 结构的修改次数 -1 还没有发现过
+     */
+    private volatile long discoveredModificationCount = -1;
+
+    /**
+     * 上一次开始发现的时间
+     */
+    private volatile long discoverStartMillis;
+
+    /**
+     * 正在进行的发现
+     */
+    private volatile CancellablePromise<DiscoveryResult> discoveryPromise;
+
+    public SpringStaticContextDiscoveryService(Project project) {
+        this.project = project;
+    }
+
+    public static SpringStaticContextDiscoveryService getInstance(Project project) {
+        return project.getService(SpringStaticContextDiscoveryService.class);
+    }
+
+    /**
+     * 获取上一次自动发现的 static spring context 没有返回 null 不会触发查找
+     *
+     * @return
+     */
+    public String getDiscoveredStaticSpringContext() {
+        AppSettingsState settings = AppSettingsState.getInstance(project);
+        if (!settings.staticSpringContextAutoDiscovery) {
+            return null;
+        }
+        return settings.discoveredStaticSpringContextOgnl;
+    }
+
+    /**
+     * 按需发现 java 结构有变化并且距离上一次超过 {@link #DEBOUNCE_MILLIS} 才后台重新查找
+     * 不要在 action update 中调用
+     */
+    public void requestDiscovery() {
+        if (project.isDisposed() || !AppSettingsState.getInstance(project).staticSpringContextAutoDiscovery) {
+            return;
+        }
+        if (discoveredModificationCount == getJavaModificationCount()) {
+            return;
+        }
+        if (discoveredModificationCount != -1 && System.currentTimeMillis() - discoverStartMillis < DEBOUNCE_MILLIS) {
+            return;
+        }
+        this.discover();
+    }
+
+    /**
+     * 等待正在进行的发现完成 最多 {@link #AWAIT_MILLIS},EDT 中显示可以取消的进度
+     * 第一次使用 spring context 的命令不会因为发现还没有结束而失败
+     */
+    public void awaitDiscovery() {
+        CancellablePromise<DiscoveryResult> promise = discoveryPromise;
+        if (promise == null || promise.isDone()) {
+            return;
+        }
+        Runnable await = () -> {
+            long deadline = System.currentTimeMillis() + AWAIT_MILLIS;
+            while (!promise.isDone() && System.currentTimeMillis() < deadline) {
+                ProgressManager.checkCanceled();
+                try {
+                    this.applyResult(promise.blockingGet(100, TimeUnit.MILLISECONDS));
+                } catch (TimeoutException ignored) {
+                    // 继续等待
+                } catch (ExecutionException e) {
+                    return;
+                }
+            }
+        };
+        if (ApplicationManager.getApplication().isDispatchThread()) {
+            ProgressManager.getInstance().runProcessWithProgressSynchronously(await, "Discovering Static Spring Context", true, project);
+        } else {
+            await.run();
+        }
+    }
+
+    private long getJavaModificationCount() {
+        return PsiModificationTracker.getInstance(project).forLanguage(JavaLanguage.INSTANCE).getModificationCount();
+    }
+
+    /**
+     * 后台 smart mode 下发现 同一时间只有一个任务
+     */
+    private void discover() {
+        if (!discovering.compareAndSet(false, true)) {
+            return;
+        }
+        discoverStartMillis = System.currentTimeMillis();
+        discoveryPromise = ReadAction.nonBlocking(() -> new DiscoveryResult(getJavaModificationCount(), this.findStaticSpringContext()))
+                .inSmartMode(project)
+                .expireWith(project)
+                .submit(AppExecutorUtil.getAppExecutorService());
+        discoveryPromise.onSuccess(this::applyResult)
+                .onError(e -> LOG.info("[arthas] discover static spring context error", e))
+                .onProcessed(result -> discovering.set(false));
+    }
+
+    /**
+     * 保存发现结果 回调和等待的地方都会调用,重复调用没有影响
+     *
+     * @param result
+     */
+    private void applyResult(DiscoveryResult result) {
+        if (result == null) {
+            return;
+        }
+        discoveredModificationCount = result.modificationCount;
+        AppSettingsState settings = AppSettingsState.getInstance(project);
+        if (!Objects.equals(settings.discoveredStaticSpringContextOgnl, result.staticSpringContext)) {
+            LOG.info("[arthas] discovered static spring context " + result.staticSpringContext);
+            settings.discoveredStaticSpringContextOgnl = result.staticSpringContext;
+        }
+    }
+
+    /**
+     * 查找 static spring context 的 ognl 表达式
+     *
+     * @return
+     */
+    private String findStaticSpringContext() {
+        JavaPsiFacade javaPsiFacade = JavaPsiFacade.getInstance(project);
+        PsiClass applicationContextClass = javaPsiFacade.findClass(APPLICATION_CONTEXT, GlobalSearchScope.allScope(project));
+        if (applicationContextClass == null) {
+            return null;
+        }
+        GlobalSearchScope projectScope = GlobalSearchScope.projectScope(project);
+        // 排序保证每次结果一致
+        TreeSet<String> candidates = new TreeSet<>();
+        PsiClass awareClass = javaPsiFacade.findClass(APPLICATION_CONTEXT_AWARE, GlobalSearchScope.allScope(project));
+        if (awareClass != null) {
+            for (PsiClass psiClass : ClassInheritorsSearch.search(awareClass, projectScope, true).findAll()) {
+                for (PsiField psiField : psiClass.getFields()) {
+                    addCandidate(candidates, psiField, applicationContextClass);
+                }
+            }
+            if (!candidates.isEmpty()) {
+                return candidates.first();
+            }
+        }
+        for (PsiReference reference : ReferencesSearch.search(applicationContextClass, projectScope).findAll()) {
+            PsiField psiField = PsiTreeUtil.getParentOfType(reference.getElement(), PsiField.class);
+            if (psiField != null && psiField.getTypeElement() != null && PsiTreeUtil.isAncestor(psiField.getTypeElement(), reference.getElement(), false)) {
+                addCandidate(candidates, psiField, applicationContextClass);
+            }
+        }
+        return candidates.isEmpty() ? null : candidates.first();
+    }
+
+    private static void addCandidate(TreeSet<String> candidates, PsiField psiField, PsiClass applicationContextClass) {
+        if (!psiField.hasModifierProperty(PsiModifier.STATIC)) {
+            return;
+        }
+        PsiClass containingClass = psiField.getContainingClass();
+        if (containingClass == null || containingClass instanceof PsiAnonymousClass || containingClass.getQualifiedName() == null) {
+            return;
+        }
+        PsiType fieldType = psiField.getType();
+        if (!(fieldType instanceof PsiClassType)) {
+            return;
+        }
+        PsiClass fieldClass = ((PsiClassType) fieldType).resolve();
+        if (fieldClass == null || !InheritanceUtil.isInheritorOrSelf(fieldClass, applicationContextClass, true)) {
+            return;
+        }
+        candidates.add("@" + ClassUtil.getJVMClassName(containingClass) + "@" + psiField.getName());
+    }
+
+    private static class DiscoveryResult {
+
+        private final long modificationCount;
+
+        private final String staticSpringContext;
+
+        private DiscoveryResult(long modificationCount, String staticSpringContext) {
+            this.modificationCount = modificationCount;
+            this.staticSpringContext = staticSpringContext;
+        }
+    }
+}
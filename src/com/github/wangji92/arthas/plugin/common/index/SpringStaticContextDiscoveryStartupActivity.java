@@ -0,0 +1,25 @@
+package com.github.wangji92.arthas.plugin.common.index;
+
+import com.github.wangji92.arthas.plugin.utils.SpringStaticContextUtils;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 工程打开 索引完成之后后台发现一次 static spring context,第一次使用 spring context 的命令不用等待
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class SpringStaticContextDiscoveryStartupActivity implements StartupActivity.DumbAware {
+
+    @Override
+    public void runActivity(@NotNull Project project) {
+        DumbService.getInstance(project).runWhenSmart(() -> {
+            if (!project.isDisposed()) {
+                SpringStaticContextUtils.discoverStaticSpringContext(project);
+            }
+        });
+    }
+}
@@ -0,0 +1,224 @@
+package com.github.wangji92.arthas.plugin.common.ognl;
+
+import com.github.wangji92.arthas.plugin.common.command.ArthasCommandLine;
+import com.github.wangji92.arthas.plugin.common.ognl.OgnlNode.Kind;
+import com.github.wangji92.arthas.plugin.constants.ArthasCommandConstants;
+import com.github.wangji92.arthas.plugin.utils.StringUtils;
+
+import java.util.*;
+
+/**
+ * ognl 表达式开销分析
+ * <p>
+ * watch/trace/monitor/stack/tt -t 的条件表达式每次调用都会计算 反射、创建对象、字符串拼接、很深的属性链都会放大到每一次调用
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class OgnlCostAnalyzer {
+
+    /**
+     * 属性链超过这个长度认为比较深 每一段都是一次反射查找 getter
+     */
+    private static final int DEEP_CHAIN_SEGMENTS = 4;
+
+    /**
+     * 插件生成的命令默认的条件表达式 占位用 不提示
+     */
+    private static final String DEFAULT_CONDITION = StringUtils.strip(ArthasCommandConstants.DEFAULT_CONDITION_EXPRESS, "'");
+
+    private static final Set<String> REFLECTION_METHODS = new HashSet<>(Arrays.asList("getDeclaredField", "getDeclaredFields", "getDeclaredMethod",
+            "getDeclaredMethods", "getField", "getFields", "getMethod", "getMethods", "getDeclaredConstructor", "getDeclaredConstructors",
+            "getConstructor", "getConstructors", "setAccessible", "forName", "newInstance", "invoke"));
+
+    /**
+     * java.lang.reflect 下只做位运算的工具类 插件生成的条件 @java.lang.reflect.Modifier@isStatic(...) 不算反射
+     */
+    private static final Set<String> CHEAP_REFLECT_CLASSES = new HashSet<>(Collections.singletonList("java.lang.reflect.Modifier"));
+
+    private static final Set<String> STRING_METHODS = new HashSet<>(Arrays.asList("toString", "concat", "format", "valueOf", "toJSONString", "toJson"));
+
+    /**
+     * 每次调用都计算条件表达式的命令 condition 在第几个位置参数
+     */
+    private static final Map<String, Integer> CONDITION_POSITION = new HashMap<>(8);
+
+    static {
+        CONDITION_POSITION.put("watch", 3);
+        CONDITION_POSITION.put("trace", 2);
+        CONDITION_POSITION.put("monitor", 2);
+        CONDITION_POSITION.put("stack", 2);
+        CONDITION_POSITION.put("tt", 2);
+    }
+
+    public enum CostKind {
+        REFLECTION("reflection", "resolves members and checks access on every call; arthas ognl reads private fields directly, e.g. target.field or #this.field"),
+        ALLOCATION("allocation", "allocates on every call; compare the values directly, or move the collection into the watch express which only runs for hits"),
+        STRING_CONCAT("string building", "builds a string on every call; compare the parts directly, e.g. params[0].equals(\"a\") && params[1] == 1"),
+        DEEP_CHAIN("deep property chain", "each property is a reflective getter lookup; condition on a shallower value and raise -x to look deeper"),
+        VERBOSE("-v", "-v prints the condition result of every invocation; remove -v on hot methods"),
+        ALWAYS_TRUE("always true", "the condition is always true and still evaluated on every call; remove it");
+
+        private final String label;
+
+        private final String suggestion;
+
+        CostKind(String label, String suggestion) {
+            this.label = label;
+            this.suggestion = suggestion;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public String getSuggestion() {
+            return suggestion;
+        }
+    }
+
+    /**
+     * 分析结果
+     */
+    public static class Finding {
+
+        private final CostKind kind;
+
+        private final String snippet;
+
+        private Finding(CostKind kind, String snippet) {
+            this.kind = kind;
+            this.snippet = snippet;
+        }
+
+        public CostKind getKind() {
+            return kind;
+        }
+
+        public String getSnippet() {
+            return snippet;
+        }
+
+        @Override
+        public String toString() {
+            return kind.getLabel() + " `" + snippet + "`: " + kind.getSuggestion();
+        }
+    }
+
+    /**
+     * 分析表达式 不能解析的返回空
+     *
+     * @param expression 不带外层引号
+     * @return 同一类问题只保留第一个
+     */
+    public static List<Finding> analyze(String expression) {
+        OgnlNode root;
+        try {
+            root = OgnlParser.parse(expression);
+        } catch (RuntimeException e) {
+            // 不能解析的表达式不提示
+            return Collections.emptyList();
+        }
+        Map<CostKind, Finding> findings = new EnumMap<>(CostKind.class);
+        if (!DEFAULT_CONDITION.equals(expression.trim()) && isAlwaysTrue(root)) {
+            findings.put(CostKind.ALWAYS_TRUE, new Finding(CostKind.ALWAYS_TRUE, expression));
+        }
+        visit(root, expression, findings);
+        return new ArrayList<>(findings.values());
+    }
+
+    /**
+     * 分析命令中每次调用都会计算的条件表达式 多行的批处理逐行分析
+     *
+     * @param commands
+     * @return 每一个问题一行
+     */
+    public static List<String> lintCommands(String commands) {
+        List<String> warnings = new ArrayList<>();
+        if (StringUtils.isBlank(commands)) {
+            return warnings;
+        }
+        for (ArthasCommandLine commandLine : ArthasCommandLine.parse(commands)) {
+            String name = commandLine.getName();
+            // tt 只有 -t 记录的时候才增强方法
+            if (!CONDITION_POSITION.containsKey(name) || !commandLine.isEnhance()) {
+                continue;
+            }
+            String condition = commandLine.getPosition(CONDITION_POSITION.get(name));
+            if (condition == null) {
+                continue;
+            }
+            if (commandLine.hasFlag("-v")) {
+                warnings.add(name + " condition " + new Finding(CostKind.VERBOSE, "-v"));
+            }
+            for (Finding finding : analyze(condition)) {
+                warnings.add(name + " condition " + finding);
+            }
+        }
+        return warnings;
+    }
+
+    private static void visit(OgnlNode node, String expression, Map<CostKind, Finding> findings) {
+        CostKind kind = classify(node);
+        if (kind != null) {
+            findings.putIfAbsent(kind, new Finding(kind, snippet(expression, node)));
+        }
+        for (OgnlNode child : node.getChildren()) {
+            visit(child, expression, findings);
+        }
+    }
+
+    private static CostKind classify(OgnlNode node) {
+        switch (node.getKind()) {
+            case METHOD:
+                if (REFLECTION_METHODS.contains(node.getText())) {
+                    return CostKind.REFLECTION;
+                }
+                return STRING_METHODS.contains(node.getText()) ? CostKind.STRING_CONCAT : null;
+            case STATIC_METHOD:
+                String className = StringUtils.substringBefore(node.getText(), "@");
+                String methodName = StringUtils.substringAfter(node.getText(), "@");
+                if ("java.lang.Class".equals(className) || (className.startsWith("java.lang.reflect.") && !CHEAP_REFLECT_CLASSES.contains(className)) || className.endsWith("ReflectionUtils")) {
+                    return CostKind.REFLECTION;
+                }
+                if (STRING_METHODS.contains(methodName)) {
+                    return CostKind.STRING_CONCAT;
+                }
+                return "java.util.Arrays".equals(className) ? CostKind.ALLOCATION : null;
+            case NEW:
+            case LIST:
+            case MAP:
+            case PROJECTION:
+            case SELECTION:
+            case LAMBDA:
+                return CostKind.ALLOCATION;
+            case BINARY:
+                return "+".equals(node.getText()) && node.getChildren().stream().anyMatch(child -> child.getKind() == Kind.STRING) ? CostKind.STRING_CONCAT : null;
+            case CHAIN:
+                long segments = node.getChildren().stream().skip(1).filter(child -> child.getKind() == Kind.PROPERTY || child.getKind() == Kind.METHOD).count();
+                return segments >= DEEP_CHAIN_SEGMENTS ? CostKind.DEEP_CHAIN : null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 1==1 true 这种恒为真的条件
+     */
+    private static boolean isAlwaysTrue(OgnlNode node) {
+        if (node.getKind() == Kind.LITERAL) {
+            return "true".equals(node.getText());
+        }
+        if (node.getKind() != Kind.BINARY || !("==".equals(node.getText()) || "eq".equals(node.getText()))) {
+            return false;
+        }
+        OgnlNode left = node.getChildren().get(0);
+        OgnlNode right = node.getChildren().get(1);
+        return left.getKind() == Kind.LITERAL && right.getKind() == Kind.LITERAL && left.getText().equals(right.getText());
+    }
+
+    private static String snippet(String expression, OgnlNode node) {
+        String text = expression.substring(node.getStart(), Math.min(node.getEnd(), expression.length()));
+        return StringUtils.abbreviate(text, 60);
+    }
+}
@@ -0,0 +1,148 @@
+package com.github.wangji92.arthas.plugin.common.ognl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ognl 表达式的语法树节点 只保留开销分析需要的结构
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class OgnlNode {
+
+    public enum Kind {
+        /**
+         * a, b
+         */
+        SEQUENCE,
+        /**
+         * #a = b
+         */
+        ASSIGN,
+        /**
+         * a ? b : c
+         */
+        TERNARY,
+        /**
+         * a + b text 为操作符
+         */
+        BINARY,
+        /**
+         * !a text 为操作符
+         */
+        UNARY,
+        /**
+         * new java.util.ArrayList()
+         */
+        NEW,
+        /**
+         * a.b.c() 第一个子节点为起点 后面的为每一段
+         */
+        CHAIN,
+        /**
+         * 属性 text 为属性名
+         */
+        PROPERTY,
+        /**
+         * 方法调用 text 为方法名 子节点为参数
+         */
+        METHOD,
+        /**
+         * #isProxy(#this) 调用 lambda 子节点为参数
+         */
+        CALL,
+        /**
+         * [0]
+         */
+        INDEX,
+        /**
+         * @java.lang.System@out text 为 class@member
+         */
+        STATIC_FIELD,
+        /**
+         * @java.lang.System@currentTimeMillis() text 为 class@member
+         */
+        STATIC_METHOD,
+        /**
+         * #this #root #a
+         */
+        VARIABLE,
+        STRING,
+        /**
+         * 数字 true false null
+         */
+        LITERAL,
+        /**
+         * {a,b}
+         */
+        LIST,
+        /**
+         * #{a:b}
+         */
+        MAP,
+        /**
+         * .{a}
+         */
+        PROJECTION,
+        /**
+         * .{? a}
+         */
+        SELECTION,
+        /**
+         * :[ a ]
+         */
+        LAMBDA
+    }
+
+    private final Kind kind;
+
+    private final String text;
+
+    private final int start;
+
+    private int end;
+
+    private final List<OgnlNode> children = new ArrayList<>(2);
+
+    OgnlNode(Kind kind, String text, int start) {
+        this.kind = kind;
+        this.text = text;
+        this.start = start;
+        this.end = start;
+    }
+
+    OgnlNode add(OgnlNode child) {
+        children.add(child);
+        return this;
+    }
+
+    OgnlNode end(int end) {
+        this.end = end;
+        return this;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public List<OgnlNode> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * 在表达式中的位置 [start, end)
+     */
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+}
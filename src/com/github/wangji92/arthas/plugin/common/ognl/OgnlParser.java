@@ -0,0 +1,412 @@
+package com.github.wangji92.arthas.plugin.common.ognl;
+
+import com.github.wangji92.arthas.plugin.common.ognl.OgnlNode.Kind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 简化的 ognl 解析器 覆盖插件生成和 arthas 文档中常见的写法
+ * <p>
+ * 不支持的写法抛出 IllegalArgumentException
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class OgnlParser {
+
+    private enum TokenType {
+        STRING, NUMBER, IDENT, VARIABLE, STATIC, OPERATOR, EOF
+    }
+
+    private static class Token {
+
+        private final TokenType type;
+
+        private final String text;
+
+        private final int start;
+
+        private final int end;
+
+        private Token(TokenType type, String text, int start, int end) {
+            this.type = type;
+            this.text = text;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * 多字符的操作符 长的在前
+     */
+    private static final List<String> OPERATORS = Arrays.asList(".{?", ".{^", ".{$", ">>>", "#{", ".{", ":[", "==", "!=", "<=", ">=", "&&", "||", "<<", ">>",
+            ".", ",", "(", ")", "[", "]", "{", "}", "?", ":", "=", "+", "-", "*", "/", "%", "!", "<", ">", "&", "|", "^", "~");
+
+    private static final Set<String> WORD_OPERATORS = new HashSet<>(Arrays.asList("and", "or", "not", "eq", "neq", "lt", "gt", "lte", "gte",
+            "instanceof", "in", "bor", "xor", "band", "shl", "shr", "ushr"));
+
+    private static final Set<String> LITERALS = new HashSet<>(Arrays.asList("true", "false", "null"));
+
+    private final String expression;
+
+    private final List<Token> tokens;
+
+    private int position;
+
+    private OgnlParser(String expression) {
+        this.expression = expression;
+        this.tokens = tokenize(expression);
+    }
+
+    /**
+     * 解析表达式
+     *
+     * @param expression 不带外层引号
+     * @return
+     */
+    public static OgnlNode parse(String expression) {
+        OgnlParser parser = new OgnlParser(expression);
+        OgnlNode node = parser.sequence();
+        if (parser.peek().type != TokenType.EOF) {
+            throw parser.error("unexpected " + parser.peek().text);
+        }
+        return node;
+    }
+
+    private static List<Token> tokenize(String expression) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        int length = expression.length();
+        while (i < length) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '\'' || c == '"') {
+                int end = i + 1;
+                while (end < length && expression.charAt(end) != c) {
+                    end += expression.charAt(end) == '\\' ? 2 : 1;
+                }
+                if (end >= length) {
+                    throw new IllegalArgumentException("unclosed string at " + i);
+                }
+                tokens.add(new Token(TokenType.STRING, expression.substring(i, end + 1), i, end + 1));
+                i = end + 1;
+            } else if (Character.isDigit(c)) {
+                int end = i;
+                while (end < length && (Character.isLetterOrDigit(expression.charAt(end)) || expression.charAt(end) == '.')) {
+                    end++;
+                }
+                tokens.add(new Token(TokenType.NUMBER, expression.substring(i, end), i, end));
+                i = end;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int end = identifierEnd(expression, i);
+                String word = expression.substring(i, end);
+                tokens.add(new Token(WORD_OPERATORS.contains(word) ? TokenType.OPERATOR : TokenType.IDENT, word, i, end));
+                i = end;
+            } else if (c == '#' && i + 1 < length && Character.isJavaIdentifierStart(expression.charAt(i + 1))) {
+                int end = identifierEnd(expression, i + 1);
+                tokens.add(new Token(TokenType.VARIABLE, expression.substring(i, end), i, end));
+                i = end;
+            } else if (c == '@') {
+                // @java.lang.System@currentTimeMillis
+                int classEnd = expression.indexOf('@', i + 1);
+                if (classEnd < 0) {
+                    throw new IllegalArgumentException("unclosed static reference at " + i);
+                }
+                int end = identifierEnd(expression, classEnd + 1);
+                tokens.add(new Token(TokenType.STATIC, expression.substring(i + 1, end), i, end));
+                i = end;
+            } else {
+                int start = i;
+                String operator = OPERATORS.stream().filter(op -> expression.startsWith(op, start)).findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("unexpected character " + c + " at " + start));
+                tokens.add(new Token(TokenType.OPERATOR, operator, i, i + operator.length()));
+                i += operator.length();
+            }
+        }
+        tokens.add(new Token(TokenType.EOF, "<end>", length, length));
+        return tokens;
+    }
+
+    private static int identifierEnd(String expression, int start) {
+        int end = start;
+        while (end < expression.length() && Character.isJavaIdentifierPart(expression.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    private Token peek() {
+        return tokens.get(position);
+    }
+
+    /**
+     * 停在 EOF 不越界 截断的表达式在 peek 的时候报错
+     */
+    private Token next() {
+        Token token = tokens.get(position);
+        if (token.type != TokenType.EOF) {
+            position++;
+        }
+        return token;
+    }
+
+    private boolean isOperator(String... operators) {
+        Token token = peek();
+        return token.type == TokenType.OPERATOR && Arrays.asList(operators).contains(token.text);
+    }
+
+    private Token expect(String operator) {
+        if (!isOperator(operator)) {
+            throw error("expect " + operator + " but " + peek().text);
+        }
+        return next();
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at " + peek().start + " of " + expression);
+    }
+
+    private int lastEnd() {
+        return tokens.get(position - 1).end;
+    }
+
+    private OgnlNode sequence() {
+        OgnlNode first = assign();
+        if (!isOperator(",")) {
+            return first;
+        }
+        OgnlNode sequence = new OgnlNode(Kind.SEQUENCE, ",", first.getStart()).add(first);
+        while (isOperator(",")) {
+            next();
+            sequence.add(assign());
+        }
+        return sequence.end(lastEnd());
+    }
+
+    private OgnlNode assign() {
+        OgnlNode left = ternary();
+        if (!isOperator("=")) {
+            return left;
+        }
+        next();
+        return new OgnlNode(Kind.ASSIGN, "=", left.getStart()).add(left).add(assign()).end(lastEnd());
+    }
+
+    private OgnlNode ternary() {
+        OgnlNode condition = binary(0);
+        if (!isOperator("?")) {
+            return condition;
+        }
+        next();
+        OgnlNode whenTrue = assign();
+        expect(":");
+        OgnlNode whenFalse = assign();
+        return new OgnlNode(Kind.TERNARY, "?", condition.getStart()).add(condition).add(whenTrue).add(whenFalse).end(lastEnd());
+    }
+
+    /**
+     * 二元操作符 按优先级从低到高
+     */
+    private static final List<List<String>> BINARY_LEVELS = Arrays.asList(
+            Arrays.asList("||", "or"),
+            Arrays.asList("&&", "and"),
+            Arrays.asList("|", "bor", "^", "xor", "&", "band"),
+            Arrays.asList("==", "!=", "eq", "neq"),
+            Arrays.asList("<", ">", "<=", ">=", "lt", "gt", "lte", "gte", "instanceof", "in", "not"),
+            Arrays.asList("<<", ">>", ">>>", "shl", "shr", "ushr"),
+            Arrays.asList("+", "-"),
+            Arrays.asList("*", "/", "%"));
+
+    private OgnlNode binary(int level) {
+        if (level >= BINARY_LEVELS.size()) {
+            return unary();
+        }
+        List<String> operators = BINARY_LEVELS.get(level);
+        OgnlNode left = binary(level + 1);
+        while (isOperator(operators.toArray(new String[0]))) {
+            String operator = next().text;
+            if ("not".equals(operator)) {
+                // not in
+                expect("in");
+                operator = "not in";
+            }
+            if ("instanceof".equals(operator)) {
+                left = new OgnlNode(Kind.BINARY, operator, left.getStart()).add(left).add(className()).end(lastEnd());
+                continue;
+            }
+            left = new OgnlNode(Kind.BINARY, operator, left.getStart()).add(left).add(binary(level + 1)).end(lastEnd());
+        }
+        return left;
+    }
+
+    private OgnlNode unary() {
+        if (isOperator("!", "-", "~", "not", "+")) {
+            Token operator = next();
+            return new OgnlNode(Kind.UNARY, operator.text, operator.start).add(unary()).end(lastEnd());
+        }
+        return chain();
+    }
+
+    private OgnlNode chain() {
+        OgnlNode base = primary();
+        OgnlNode chain = null;
+        while (true) {
+            OgnlNode segment;
+            if (isOperator(".")) {
+                next();
+                Token name = next();
+                if (name.type != TokenType.IDENT) {
+                    throw error("expect property name but " + name.text);
+                }
+                segment = isOperator("(") ? arguments(new OgnlNode(Kind.METHOD, name.text, name.start)) : new OgnlNode(Kind.PROPERTY, name.text, name.start).end(name.end);
+            } else if (isOperator(".{")) {
+                Token open = next();
+                segment = new OgnlNode(Kind.PROJECTION, open.text, open.start).add(sequence());
+                expect("}");
+                segment.end(lastEnd());
+            } else if (isOperator(".{?", ".{^", ".{$")) {
+                Token open = next();
+                segment = new OgnlNode(Kind.SELECTION, open.text, open.start).add(sequence());
+                expect("}");
+                segment.end(lastEnd());
+            } else if (isOperator("[")) {
+                Token open = next();
+                segment = new OgnlNode(Kind.INDEX, "[]", open.start).add(sequence());
+                expect("]");
+                segment.end(lastEnd());
+            } else if (isOperator("(") && base.getKind() == Kind.VARIABLE) {
+                segment = arguments(new OgnlNode(Kind.CALL, base.getText(), peek().start));
+            } else {
+                break;
+            }
+            if (chain == null) {
+                chain = new OgnlNode(Kind.CHAIN, ".", base.getStart()).add(base);
+            }
+            chain.add(segment).end(segment.getEnd());
+        }
+        return chain == null ? base : chain;
+    }
+
+    private OgnlNode arguments(OgnlNode call) {
+        expect("(");
+        if (!isOperator(")")) {
+            call.add(assign());
+            while (isOperator(",")) {
+                next();
+                call.add(assign());
+            }
+        }
+        expect(")");
+        return call.end(lastEnd());
+    }
+
+    private OgnlNode primary() {
+        Token token = next();
+        switch (token.type) {
+            case STRING:
+                return new OgnlNode(Kind.STRING, token.text, token.start).end(token.end);
+            case NUMBER:
+                return new OgnlNode(Kind.LITERAL, token.text, token.start).end(token.end);
+            case VARIABLE:
+                return new OgnlNode(Kind.VARIABLE, token.text, token.start).end(token.end);
+            case STATIC:
+                return isOperator("(") ? arguments(new OgnlNode(Kind.STATIC_METHOD, token.text, token.start))
+                        : new OgnlNode(Kind.STATIC_FIELD, token.text, token.start).end(token.end);
+            case IDENT:
+                if (LITERALS.contains(token.text)) {
+                    return new OgnlNode(Kind.LITERAL, token.text, token.start).end(token.end);
+                }
+                if ("new".equals(token.text)) {
+                    return newExpression(token);
+                }
+                return isOperator("(") ? arguments(new OgnlNode(Kind.METHOD, token.text, token.start))
+                        : new OgnlNode(Kind.PROPERTY, token.text, token.start).end(token.end);
+            case OPERATOR:
+                return collectionOrGroup(token);
+            default:
+                throw error("unexpected end");
+        }
+    }
+
+    private OgnlNode collectionOrGroup(Token token) {
+        switch (token.text) {
+            case "(": {
+                OgnlNode inner = sequence();
+                expect(")");
+                return inner;
+            }
+            case "{": {
+                OgnlNode list = new OgnlNode(Kind.LIST, "{}", token.start);
+                if (!isOperator("}")) {
+                    list.add(assign());
+                    while (isOperator(",")) {
+                        next();
+                        list.add(assign());
+                    }
+                }
+                expect("}");
+                return list.end(lastEnd());
+            }
+            case "#{": {
+                OgnlNode map = new OgnlNode(Kind.MAP, "#{}", token.start);
+                while (!isOperator("}")) {
+                    map.add(binary(0));
+                    expect(":");
+                    map.add(assign());
+                    if (isOperator(",")) {
+                        next();
+                    }
+                }
+                expect("}");
+                return map.end(lastEnd());
+            }
+            case ":[": {
+                OgnlNode lambda = new OgnlNode(Kind.LAMBDA, ":[]", token.start).add(sequence());
+                expect("]");
+                return lambda.end(lastEnd());
+            }
+            case "[": {
+                OgnlNode index = new OgnlNode(Kind.INDEX, "[]", token.start).add(sequence());
+                expect("]");
+                return index.end(lastEnd());
+            }
+            default:
+                throw new IllegalArgumentException("unexpected " + token.text + " at " + token.start + " of " + expression);
+        }
+    }
+
+    private OgnlNode newExpression(Token token) {
+        OgnlNode node = new OgnlNode(Kind.NEW, className().getText(), token.start);
+        if (isOperator("[")) {
+            // new int[3] 或者 new int[] {1, 2}
+            next();
+            if (!isOperator("]")) {
+                node.add(sequence());
+            }
+            expect("]");
+            if (isOperator("{")) {
+                node.add(collectionOrGroup(next()));
+            }
+            return node.end(lastEnd());
+        }
+        return arguments(node);
+    }
+
+    private OgnlNode className() {
+        Token first = next();
+        if (first.type != TokenType.IDENT) {
+            throw error("expect class name but " + first.text);
+        }
+        StringBuilder name = new StringBuilder(first.text);
+        while (isOperator(".") && tokens.get(position + 1).type == TokenType.IDENT) {
+            next();
+            name.append('.').append(next().text);
+        }
+        return new OgnlNode(Kind.PROPERTY, name.toString(), first.start).end(lastEnd());
+    }
+}
@@ -0,0 +1,222 @@
+package com.github.wangji92.arthas.plugin.common.profile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 差分火焰图 热更新前后两个窗口的调用栈合并在一个 {@link FrameTree} 中,根节点的子节点分别为 [baseline] [after]
+ * <p>
+ * 以 after 的调用树为形状,按照相同调用路径匹配 baseline 的节点;两个窗口的样本总数不一样,baseline 按照
+ * after 的样本总数等比缩放后再比较,排行按照栈帧的 self 占比变化排序
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public final class FlameGraphDiff {
+
+    public static final String BASELINE_FRAME = "[baseline]";
+
+    public static final String AFTER_FRAME = "[after]";
+
+    /**
+     * 排行展示的栈帧数量
+     */
+    private static final int RANKING_LIMIT = 200;
+
+    private final FrameTree tree;
+
+    private final int baselineRoot;
+
+    private final int afterRoot;
+
+    /**
+     * after 节点对应的 baseline 节点的样本数(未缩放) 不在 after 中为 -1
+     */
+    private final long[] baselineTotals;
+
+    /**
+     * baseline 缩放到 after 的比例
+     */
+    private final double scale;
+
+    private final double maxDelta;
+
+    private final List<FrameDelta> ranking;
+
+    /**
+     * 一个栈帧的 self 占比变化
+     */
+    public static class FrameDelta {
+
+        private final String frameName;
+
+        private final double baselinePercent;
+
+        private final double afterPercent;
+
+        FrameDelta(String frameName, double baselinePercent, double afterPercent) {
+            this.frameName = frameName;
+            this.baselinePercent = baselinePercent;
+            this.afterPercent = afterPercent;
+        }
+
+        public String getFrameName() {
+            return frameName;
+        }
+
+        public double getBaselinePercent() {
+            return baselinePercent;
+        }
+
+        public double getAfterPercent() {
+            return afterPercent;
+        }
+
+        /**
+         * 正数为 after 增加的 cpu 占比
+         */
+        public double getDeltaPercent() {
+            return afterPercent - baselinePercent;
+        }
+    }
+
+    /**
+     * 不是两个窗口合并的调用树返回 null
+     *
+     * @param tree
+     * @return
+     */
+    public static FlameGraphDiff of(FrameTree tree) {
+        int baselineRoot = -1;
+        int afterRoot = -1;
+        for (int child = tree.getFirstChild(FrameTree.ROOT); child != -1; child = tree.getNextSibling(child)) {
+            String name = tree.getNodeName(child);
+            if (BASELINE_FRAME.equals(name)) {
+                baselineRoot = child;
+            } else if (AFTER_FRAME.equals(name)) {
+                afterRoot = child;
+            } else {
+                return null;
+            }
+        }
+        if (baselineRoot < 0 || afterRoot < 0 || tree.getTotal(baselineRoot) == 0 || tree.getTotal(afterRoot) == 0) {
+            return null;
+        }
+        return new FlameGraphDiff(tree, baselineRoot, afterRoot);
+    }
+
+    private FlameGraphDiff(FrameTree tree, int baselineRoot, int afterRoot) {
+        this.tree = tree;
+        this.baselineRoot = baselineRoot;
+        this.afterRoot = afterRoot;
+        this.scale = (double) tree.getTotal(afterRoot) / tree.getTotal(baselineRoot);
+        int nodeCount = tree.getNodeCount();
+        // 子节点 id 一定大于父节点 按 id 顺序遍历即可
+        byte[] windows = new byte[nodeCount];
+        Map<Long, Integer> baselineChildren = new HashMap<>(nodeCount);
+        for (int node = 1; node < nodeCount; node++) {
+            int parent = tree.getParent(node);
+            windows[node] = parent == FrameTree.ROOT ? (node == afterRoot ? (byte) 2 : (byte) 1) : windows[parent];
+            if (windows[node] == 1) {
+                baselineChildren.put(childKey(parent, tree.getFrame(node)), node);
+            }
+        }
+        this.baselineTotals = new long[nodeCount];
+        Arrays.fill(baselineTotals, -1L);
+        int[] baselineMatch = new int[nodeCount];
+        baselineMatch[afterRoot] = baselineRoot;
+        baselineTotals[afterRoot] = tree.getTotal(baselineRoot);
+        long[] baselineSelf = new long[tree.getFrameCount()];
+        long[] afterSelf = new long[tree.getFrameCount()];
+        double maxDelta = 0;
+        for (int node = 1; node < nodeCount; node++) {
+            if (windows[node] == 1) {
+                baselineSelf[tree.getFrame(node)] += tree.getSelf(node);
+                continue;
+            }
+            afterSelf[tree.getFrame(node)] += tree.getSelf(node);
+            if (node == afterRoot) {
+                continue;
+            }
+            int parentMatch = baselineMatch[tree.getParent(node)];
+            Integer match = parentMatch < 0 ? null : baselineChildren.get(childKey(parentMatch, tree.getFrame(node)));
+            baselineMatch[node] = match == null ? -1 : match;
+            baselineTotals[node] = match == null ? 0 : tree.getTotal(match);
+            maxDelta = Math.max(maxDelta, Math.abs(this.getDelta(node)));
+        }
+        this.maxDelta = maxDelta;
+        this.ranking = this.buildRanking(baselineSelf, afterSelf);
+    }
+
+    private static long childKey(int parent, int frame) {
+        return ((long) parent << 32) | (frame & 0xFFFFFFFFL);
+    }
+
+    private List<FrameDelta> buildRanking(long[] baselineSelf, long[] afterSelf) {
+        double baselineTotal = tree.getTotal(baselineRoot);
+        double afterTotal = tree.getTotal(afterRoot);
+        List<FrameDelta> deltas = new ArrayList<>();
+        for (int frame = 0; frame < baselineSelf.length; frame++) {
+            if (baselineSelf[frame] == 0 && afterSelf[frame] == 0) {
+                continue;
+            }
+            deltas.add(new FrameDelta(tree.getFrameName(frame), baselineSelf[frame] * 100 / baselineTotal, afterSelf[frame] * 100 / afterTotal));
+        }
+        deltas.sort(Comparator.comparingDouble((FrameDelta delta) -> Math.abs(delta.getDeltaPercent())).reversed());
+        return deltas.size() > RANKING_LIMIT ? new ArrayList<>(deltas.subList(0, RANKING_LIMIT)) : deltas;
+    }
+
+    public FrameTree getTree() {
+        return tree;
+    }
+
+    public int getAfterRoot() {
+        return afterRoot;
+    }
+
+    /**
+     * 节点是否在 after 窗口中
+     */
+    public boolean isAfterNode(int node) {
+        return baselineTotals[node] >= 0;
+    }
+
+    /**
+     * 缩放后的 baseline 样本数
+     */
+    public double getNormalizedBaseline(int node) {
+        return baselineTotals[node] * scale;
+    }
+
+    /**
+     * after 样本数 - 缩放后的 baseline 样本数
+     */
+    public double getDelta(int node) {
+        return tree.getTotal(node) - this.getNormalizedBaseline(node);
+    }
+
+    /**
+     * 颜色深浅 按照最大的变化归一化到 [-1,1]
+     */
+    public double getIntensity(int node) {
+        return maxDelta == 0 ? 0 : this.getDelta(node) / maxDelta;
+    }
+
+    /**
+     * 变化占 after 窗口样本总数的百分比
+     */
+    public double getDeltaPercent(int node) {
+        return this.getDelta(node) * 100 / tree.getTotal(afterRoot);
+    }
+
+    /**
+     * self 占比变化最大的栈帧 按照变化的绝对值倒序
+     */
+    public List<FrameDelta> getRanking() {
+        return ranking;
+    }
+}
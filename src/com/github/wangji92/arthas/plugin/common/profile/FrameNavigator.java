@@ -0,0 +1,106 @@
+package com.github.wangji92.arthas.plugin.common.profile;
+
+import com.github.wangji92.arthas.plugin.utils.StringUtils;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.ClassUtil;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 火焰图栈帧 -> psi 方法
+ * <p>
+ * async-profiler 的栈帧格式 com/foo/Bar.method_[j] 或者 com.foo.Bar.method,jfr 为 com.foo.Bar.method
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class FrameNavigator {
+
+    /**
+     * jdk 等非工程的类 不需要查找
+     */
+    private static final String[] SKIP_PREFIXES = {"java.", "javax.", "jdk.", "sun.", "com.sun.", "kotlin.", "scala."};
+
+    /**
+     * 解析栈帧 返回 [className, methodName] 不是 java 方法返回 null
+     *
+     * @param frameName
+     * @return
+     */
+    public static String[] parseFrame(String frameName) {
+        String name = frameName;
+        // _[j] _[i] _[k] _[0] 等 async-profiler 注解
+        int annotationIndex = name.lastIndexOf("_[");
+        if (annotationIndex > 0 && name.endsWith("]")) {
+            name = name.substring(0, annotationIndex);
+        }
+        int paramIndex = name.indexOf('(');
+        if (paramIndex > 0) {
+            name = name.substring(0, paramIndex);
+        }
+        name = name.replace('/', '.');
+        int methodIndex = name.lastIndexOf('.');
+        if (methodIndex <= 0 || methodIndex == name.length() - 1 || name.indexOf(' ') >= 0) {
+            return null;
+        }
+        return new String[]{name.substring(0, methodIndex), name.substring(methodIndex + 1)};
+    }
+
+    /**
+     * 工程中的栈帧 需要在 read action 中调用
+     *
+     * @param project
+     * @param tree
+     * @return frame id 的集合
+     */
+    public static BitSet findProjectFrames(Project project, FrameTree tree) {
+        PsiManager psiManager = PsiManager.getInstance(project);
+        GlobalSearchScope projectScope = GlobalSearchScope.projectScope(project);
+        Map<String, Boolean> projectClasses = new HashMap<>(256);
+        BitSet projectFrames = new BitSet(tree.getFrameCount());
+        for (int frame = 0; frame < tree.getFrameCount(); frame++) {
+            ProgressManager.checkCanceled();
+            String[] classAndMethod = parseFrame(tree.getFrameName(frame));
+            if (classAndMethod == null || StringUtils.startsWithAny(classAndMethod[0], SKIP_PREFIXES)) {
+                continue;
+            }
+            boolean projectClass = projectClasses.computeIfAbsent(classAndMethod[0],
+                    className -> ClassUtil.findPsiClass(psiManager, className, null, true, projectScope) != null);
+            if (projectClass) {
+                projectFrames.set(frame);
+            }
+        }
+        return projectFrames;
+    }
+
+    /**
+     * 查找栈帧对应的方法 重载的方法取第一个 找不到方法(例如 lambda$xxx$0)返回类 需要在 read action 中调用
+     *
+     * @param project
+     * @param frameName
+     * @return
+     */
+    public static PsiElement findNavigationElement(Project project, String frameName) {
+        String[] classAndMethod = parseFrame(frameName);
+        if (classAndMethod == null) {
+            return null;
+        }
+        // lambda 之类的生成类 取外部类
+        String className = StringUtils.substringBefore(classAndMethod[0], "$$");
+        PsiClass psiClass = ClassUtil.findPsiClass(PsiManager.getInstance(project), className, null, true, GlobalSearchScope.allScope(project));
+        if (psiClass == null) {
+            return null;
+        }
+        String methodName = classAndMethod[1];
+        PsiMethod[] methods = "<init>".equals(methodName) ? psiClass.getConstructors() : psiClass.findMethodsByName(methodName, false);
+        return methods.length == 0 ? psiClass : methods[0];
+    }
+}
@@ -0,0 +1,255 @@
+package com.github.wangji92.arthas.plugin.common.profile;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 火焰图调用树 栈帧名称 intern 为 int id,节点全部使用基本类型数组保存
+ * <p>
+ * 相同调用路径的样本合并到同一个节点,内存只和不同的调用路径数量有关,和样本数量无关
+ * 节点 0 为 root
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public final class FrameTree {
+
+    public static final int ROOT = 0;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Map<String, Integer> frameIds = new HashMap<>(INITIAL_CAPACITY);
+
+    private String[] frameNames = new String[INITIAL_CAPACITY];
+
+    private int frameCount;
+
+    private int[] nodeFrame = new int[INITIAL_CAPACITY];
+
+    private int[] nodeParent = new int[INITIAL_CAPACITY];
+
+    private int[] nodeDepth = new int[INITIAL_CAPACITY];
+
+    private int[] firstChild = new int[INITIAL_CAPACITY];
+
+    private int[] nextSibling = new int[INITIAL_CAPACITY];
+
+    private long[] total = new long[INITIAL_CAPACITY];
+
+    private long[] self = new long[INITIAL_CAPACITY];
+
+    private int nodeCount;
+
+    private int maxDepth;
+
+    /**
+     * (parent << 32 | frame) -> child node 开放寻址
+     */
+    private long[] childKeys = new long[INITIAL_CAPACITY * 2];
+
+    private int[] childValues = new int[INITIAL_CAPACITY * 2];
+
+    private int childSize;
+
+    private boolean completed;
+
+    public FrameTree() {
+        Arrays.fill(childKeys, -1L);
+        int rootFrame = this.intern("all");
+        this.newNode(-1, rootFrame, 0);
+    }
+
+    /**
+     * 栈帧名称 -> id
+     *
+     * @param frameName
+     * @return
+     */
+    public int intern(String frameName) {
+        Integer frameId = frameIds.get(frameName);
+        if (frameId != null) {
+            return frameId;
+        }
+        if (frameCount == frameNames.length) {
+            frameNames = Arrays.copyOf(frameNames, frameCount * 2);
+        }
+        frameNames[frameCount] = frameName;
+        frameIds.put(frameName, frameCount);
+        return frameCount++;
+    }
+
+    /**
+     * 添加一个调用栈
+     *
+     * @param frames  root -> leaf 的栈帧 id
+     * @param length  有效长度
+     * @param samples 样本数量
+     */
+    public void addStack(int[] frames, int length, long samples) {
+        if (completed) {
+            throw new IllegalStateException("frame tree completed");
+        }
+        int node = ROOT;
+        total[ROOT] += samples;
+        for (int i = 0; i < length; i++) {
+            node = this.getOrCreateChild(node, frames[i]);
+            total[node] += samples;
+        }
+        self[node] += samples;
+    }
+
+    private int getOrCreateChild(int parent, int frame) {
+        long key = ((long) parent << 32) | (frame & 0xFFFFFFFFL);
+        int mask = childKeys.length - 1;
+        int slot = mix(key) & mask;
+        while (childKeys[slot] != -1L) {
+            if (childKeys[slot] == key) {
+                return childValues[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        int child = this.newNode(parent, frame, nodeDepth[parent] + 1);
+        childKeys[slot] = key;
+        childValues[slot] = child;
+        if (++childSize * 2 > childKeys.length) {
+            this.rehash();
+        }
+        return child;
+    }
+
+    private int newNode(int parent, int frame, int depth) {
+        if (nodeCount == nodeFrame.length) {
+            int capacity = nodeCount * 2;
+            nodeFrame = Arrays.copyOf(nodeFrame, capacity);
+            nodeParent = Arrays.copyOf(nodeParent, capacity);
+            nodeDepth = Arrays.copyOf(nodeDepth, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            total = Arrays.copyOf(total, capacity);
+            self = Arrays.copyOf(self, capacity);
+        }
+        int node = nodeCount++;
+        nodeFrame[node] = frame;
+        nodeParent[node] = parent;
+        nodeDepth[node] = depth;
+        firstChild[node] = -1;
+        nextSibling[node] = -1;
+        if (parent >= 0) {
+            nextSibling[node] = firstChild[parent];
+            firstChild[parent] = node;
+        }
+        maxDepth = Math.max(maxDepth, depth);
+        return node;
+    }
+
+    private void rehash() {
+        long[] oldKeys = childKeys;
+        int[] oldValues = childValues;
+        childKeys = new long[oldKeys.length * 2];
+        childValues = new int[oldValues.length * 2];
+        Arrays.fill(childKeys, -1L);
+        int mask = childKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == -1L) {
+                continue;
+            }
+            int slot = mix(oldKeys[i]) & mask;
+            while (childKeys[slot] != -1L) {
+                slot = (slot + 1) & mask;
+            }
+            childKeys[slot] = oldKeys[i];
+            childValues[slot] = oldValues[i];
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * 构建完成: 子节点按名称排序(和 async-profiler 一致),释放子节点索引,之后只读
+     */
+    public void complete() {
+        if (completed) {
+            return;
+        }
+        completed = true;
+        childKeys = new long[0];
+        childValues = new int[0];
+        childSize = 0;
+        Integer[] children = new Integer[16];
+        for (int node = 0; node < nodeCount; node++) {
+            int count = 0;
+            for (int child = firstChild[node]; child != -1; child = nextSibling[child]) {
+                if (count == children.length) {
+                    children = Arrays.copyOf(children, count * 2);
+                }
+                children[count++] = child;
+            }
+            if (count < 2) {
+                continue;
+            }
+            Arrays.sort(children, 0, count, (a, b) -> frameNames[nodeFrame[a]].compareTo(frameNames[nodeFrame[b]]));
+            firstChild[node] = children[0];
+            for (int i = 0; i < count; i++) {
+                nextSibling[children[i]] = i + 1 < count ? children[i + 1] : -1;
+            }
+        }
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public int getFrame(int node) {
+        return nodeFrame[node];
+    }
+
+    public String getFrameName(int frame) {
+        return frameNames[frame];
+    }
+
+    public String getNodeName(int node) {
+        return frameNames[nodeFrame[node]];
+    }
+
+    public int getParent(int node) {
+        return nodeParent[node];
+    }
+
+    public int getDepth(int node) {
+        return nodeDepth[node];
+    }
+
+    /**
+     * 第一个子节点 没有返回 -1
+     */
+    public int getFirstChild(int node) {
+        return firstChild[node];
+    }
+
+    /**
+     * 下一个兄弟节点 没有返回 -1
+     */
+    public int getNextSibling(int node) {
+        return nextSibling[node];
+    }
+
+    public long getTotal(int node) {
+        return total[node];
+    }
+
+    public long getSelf(int node) {
+        return self[node];
+    }
+}
@@ -0,0 +1,186 @@
+package com.github.wangji92.arthas.plugin.common.profile;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * async-profiler 输出解析为 {@link FrameTree}
+ * <p>
+ * 1. collapsed: frame1;frame2;frame3 count 一行一个调用栈
+ * 2. jfr: 使用 jdk.jfr.consumer 读取带有调用栈的事件,按事件类型分别聚合,优先 jdk.ExecutionSample 没有则取样本最多的类型
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class StackParser {
+
+    /**
+     * jfr 文件头
+     */
+    private static final byte[] JFR_MAGIC = {'F', 'L', 'R', 0};
+
+    /**
+     * cpu/wall 采样事件 存在的时候优先展示
+     */
+    private static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+
+    /**
+     * 每隔多少行检查一次取消
+     */
+    private static final int CHECK_CANCELED_INTERVAL = 4096;
+
+    /**
+     * 根据文件头判断格式
+     *
+     * @param file
+     * @param indicator
+     * @return
+     */
+    public static FrameTree parse(File file, ProgressIndicator indicator) {
+        try {
+            if (isJfr(file)) {
+                return parseJfr(file, indicator);
+            }
+            try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                return parseCollapsed(reader, file.length(), indicator);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("read profiler file error " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean isJfr(File file) throws IOException {
+        byte[] magic = new byte[JFR_MAGIC.length];
+        try (InputStream inputStream = new FileInputStream(file)) {
+            return inputStream.read(magic) == magic.length && Arrays.equals(magic, JFR_MAGIC);
+        }
+    }
+
+    /**
+     * collapsed 格式 最后一个空格之后为样本数
+     *
+     * @param reader
+     * @param length    用于进度 未知传 0
+     * @param indicator
+     * @return
+     * @throws IOException
+     */
+    public static FrameTree parseCollapsed(Reader reader, long length, ProgressIndicator indicator) throws IOException {
+        FrameTree tree = new FrameTree();
+        BufferedReader bufferedReader = new BufferedReader(reader, 1 << 16);
+        int[] stack = new int[256];
+        long readChars = 0;
+        int lineNumber = 0;
+        String line;
+        while ((line = bufferedReader.readLine()) != null) {
+            readChars += line.length() + 1;
+            if (++lineNumber % CHECK_CANCELED_INTERVAL == 0 && indicator != null) {
+                indicator.checkCanceled();
+                if (length > 0) {
+                    indicator.setFraction(Math.min(1.0, (double) readChars / length));
+                }
+            }
+            int countIndex = line.lastIndexOf(' ');
+            if (countIndex <= 0) {
+                continue;
+            }
+            long samples;
+            try {
+                samples = Long.parseLong(line.substring(countIndex + 1).trim());
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            int depth = 0;
+            int start = 0;
+            while (start < countIndex) {
+                int end = line.indexOf(';', start);
+                if (end < 0 || end > countIndex) {
+                    end = countIndex;
+                }
+                if (end > start) {
+                    if (depth == stack.length) {
+                        stack = Arrays.copyOf(stack, depth * 2);
+                    }
+                    stack[depth++] = tree.intern(line.substring(start, end));
+                }
+                start = end + 1;
+            }
+            tree.addStack(stack, depth, samples);
+        }
+        tree.complete();
+        return tree;
+    }
+
+    /**
+     * jfr 格式 idea 运行在 jbr 17 上 自带 jdk.jfr
+     *
+     * @param file
+     * @param indicator
+     * @return
+     * @throws IOException
+     */
+    public static FrameTree parseJfr(File file, ProgressIndicator indicator) throws IOException {
+        Map<String, FrameTree> trees = new HashMap<>(8);
+        Map<String, Long> eventCounts = new HashMap<>(8);
+        int[] stack = new int[256];
+        int eventCount = 0;
+        try (RecordingFile recordingFile = new RecordingFile(file.toPath())) {
+            while (recordingFile.hasMoreEvents()) {
+                RecordedEvent event = recordingFile.readEvent();
+                if (++eventCount % CHECK_CANCELED_INTERVAL == 0 && indicator != null) {
+                    indicator.checkCanceled();
+                    indicator.setText2(eventCount + " events");
+                }
+                RecordedStackTrace stackTrace = event.getStackTrace();
+                if (stackTrace == null) {
+                    continue;
+                }
+                String eventType = event.getEventType().getName();
+                FrameTree tree = trees.computeIfAbsent(eventType, key -> new FrameTree());
+                List<RecordedFrame> frames = stackTrace.getFrames();
+                if (frames.size() > stack.length) {
+                    stack = new int[frames.size() * 2];
+                }
+                // jfr 中栈顶在前 需要反转为 root -> leaf
+                int depth = 0;
+                for (int i = frames.size() - 1; i >= 0; i--) {
+                    stack[depth++] = tree.intern(frameName(frames.get(i)));
+                }
+                tree.addStack(stack, depth, 1);
+                eventCounts.merge(eventType, 1L, Long::sum);
+            }
+        } catch (NoClassDefFoundError e) {
+            throw new IllegalArgumentException("jdk.jfr not found in idea runtime, use --format collapsed", e);
+        }
+        String eventType = eventCounts.containsKey(EXECUTION_SAMPLE) ? EXECUTION_SAMPLE
+                : eventCounts.entrySet().stream().max(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse(null);
+        if (eventType == null) {
+            throw new IllegalArgumentException("no stack trace event found in " + file.getName());
+        }
+        FrameTree tree = trees.get(eventType);
+        tree.complete();
+        return tree;
+    }
+
+    private static String frameName(RecordedFrame frame) {
+        RecordedMethod method = frame.getMethod();
+        if (method == null) {
+            return "unknown";
+        }
+        if (method.getType() == null) {
+            return method.getName();
+        }
+        return method.getType().getName() + "." + method.getName();
+    }
+}
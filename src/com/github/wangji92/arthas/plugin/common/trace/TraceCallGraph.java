@@ -0,0 +1,272 @@
+package com.github.wangji92.arthas.plugin.common.trace;
+
+import com.github.wangji92.arthas.plugin.utils.OgnlPsUtils;
+import com.github.wangji92.arthas.plugin.utils.TrivialMethodUtils;
+import com.google.common.collect.Sets;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.searches.OverridingMethodsSearch;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 从选中的方法出发 通过 psi 解析方法调用得到静态调用图 只保留工程中的方法
+ * <p>
+ * 接口和抽象方法解析为工程中的实现; 被调用方法按深度和循环/集合遍历中的调用打分,分数越高越可能是热点 getter setter 等简单方法不参与排序
+ * <p>
+ * 调用图按方法缓存 psi 修改后失效
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class TraceCallGraph {
+
+    /**
+     * 最大调用深度
+     */
+    private static final int MAX_DEPTH = 3;
+
+    /**
+     * 接口方法最多取几个实现
+     */
+    private static final int MAX_IMPLEMENTATIONS = 5;
+
+    /**
+     * 最多访问的方法数量 避免大工程中卡顿
+     */
+    private static final int MAX_VISITED = 300;
+
+    /**
+     * 循环中的调用 权重倍数 嵌套循环累乘
+     */
+    private static final double LOOP_WEIGHT = 4;
+
+    /**
+     * 参数为 lambda 或者方法引用的时候 视为循环的集合方法
+     */
+    private static final Set<String> COLLECTION_METHODS = Sets.newHashSet("forEach", "forEachOrdered", "map", "flatMap", "filter", "peek",
+            "reduce", "collect", "anyMatch", "allMatch", "noneMatch", "mapToInt", "mapToLong", "mapToDouble", "mapToObj",
+            "removeIf", "replaceAll", "sort", "computeIfAbsent", "computeIfPresent", "compute", "merge");
+
+    /**
+     * 被调用的方法
+     */
+    public static class Callee {
+
+        private final String className;
+
+        private final String methodName;
+
+        private final int depth;
+
+        private double score;
+
+        private boolean inLoop;
+
+        private Callee(String className, String methodName, int depth) {
+            this.className = className;
+            this.methodName = methodName;
+            this.depth = depth;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getMethodName() {
+            return methodName;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public boolean isInLoop() {
+            return inLoop;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s.%s depth %d score %.2f%s", className, methodName, depth, score, inLoop ? " loop" : "");
+        }
+    }
+
+    private static class Visit {
+
+        private final PsiMethod method;
+
+        private final int depth;
+
+        private final double weight;
+
+        private Visit(PsiMethod method, int depth, double weight) {
+            this.method = method;
+            this.depth = depth;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * 分数最高的 n 个被调用方法 需要在 read action 中调用
+     *
+     * @param method
+     * @param n
+     * @return
+     */
+    public static List<Callee> getTopCallees(PsiMethod method, int n) {
+        return getCallees(method).stream().limit(n).collect(Collectors.toList());
+    }
+
+    /**
+     * 按分数倒序的被调用方法 结果按方法缓存 psi 修改后重新计算
+     *
+     * @param method
+     * @return
+     */
+    public static List<Callee> getCallees(PsiMethod method) {
+        return CachedValuesManager.getCachedValue(method, () -> CachedValueProvider.Result.create(compute(method),
+                PsiModificationTracker.getInstance(method.getProject())));
+    }
+
+    private static List<Callee> compute(PsiMethod root) {
+        Project project = root.getProject();
+        ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+        GlobalSearchScope projectScope = GlobalSearchScope.projectScope(project);
+        Map<String, Callee> callees = new LinkedHashMap<>(32);
+        Set<PsiMethod> visited = new HashSet<>();
+        Deque<Visit> queue = new ArrayDeque<>();
+        visited.add(root);
+        queue.add(new Visit(root, 0, 1));
+        while (!queue.isEmpty() && visited.size() < MAX_VISITED) {
+            Visit visit = queue.poll();
+            if (visit.depth >= MAX_DEPTH || visit.method.getBody() == null) {
+                continue;
+            }
+            int depth = visit.depth + 1;
+            visit.method.getBody().accept(new JavaRecursiveElementWalkingVisitor() {
+                @Override
+                public void visitMethodCallExpression(PsiMethodCallExpression expression) {
+                    super.visitMethodCallExpression(expression);
+                    addCallee(expression.resolveMethod(), expression);
+                }
+
+                @Override
+                public void visitMethodReferenceExpression(PsiMethodReferenceExpression expression) {
+                    super.visitMethodReferenceExpression(expression);
+                    PsiElement resolved = expression.resolve();
+                    if (resolved instanceof PsiMethod) {
+                        addCallee((PsiMethod) resolved, expression);
+                    }
+                }
+
+                @Override
+                public void visitClass(PsiClass aClass) {
+                    // 匿名类 局部类中的方法不是当前方法的调用
+                }
+
+                private void addCallee(PsiMethod method, PsiElement callSite) {
+                    ProgressManager.checkCanceled();
+                    if (method == null || method.isConstructor()) {
+                        return;
+                    }
+                    int loops = loopNesting(callSite, visit.method);
+                    double weight = visit.weight * Math.pow(LOOP_WEIGHT, loops);
+                    for (PsiMethod target : resolveImplementations(method, projectScope)) {
+                        if (target == root || !isProjectSource(target, fileIndex)) {
+                            continue;
+                        }
+                        // 简单方法不作为热点 继续往下找 开启配置之后一行委托也继续往下找
+                        if (!TrivialMethodUtils.isTrivial(target)) {
+                            String className = OgnlPsUtils.getCommonOrInnerOrAnonymousClassName(target);
+                            Callee callee = callees.computeIfAbsent(className + "#" + target.getName(), key -> new Callee(className, target.getName(), depth));
+                            callee.score = Math.max(callee.score, weight / depth);
+                            callee.inLoop |= loops > 0;
+                        }
+                        if (visited.add(target)) {
+                            queue.add(new Visit(target, depth, weight));
+                        }
+                    }
+                }
+            });
+        }
+        return callees.values().stream()
+                .sorted(Comparator.comparingDouble(Callee::getScore).reversed().thenComparingInt(Callee::getDepth))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 接口和抽象方法解析为工程中的实现
+     */
+    private static Collection<PsiMethod> resolveImplementations(PsiMethod method, GlobalSearchScope projectScope) {
+        PsiClass containingClass = method.getContainingClass();
+        boolean isAbstract = method.hasModifierProperty(PsiModifier.ABSTRACT) || (containingClass != null && containingClass.isInterface() && method.getBody() == null);
+        VirtualFile virtualFile = method.getContainingFile() == null ? null : method.getContainingFile().getVirtualFile();
+        if (!isAbstract || virtualFile == null || !projectScope.contains(virtualFile)) {
+            return Collections.singletonList(method);
+        }
+        List<PsiMethod> implementations = new ArrayList<>(MAX_IMPLEMENTATIONS);
+        OverridingMethodsSearch.search(method, projectScope, true).forEach(implementation -> {
+            if (!implementation.hasModifierProperty(PsiModifier.ABSTRACT)) {
+                implementations.add(implementation);
+            }
+            return implementations.size() < MAX_IMPLEMENTATIONS;
+        });
+        return implementations;
+    }
+
+    private static boolean isProjectSource(PsiMethod method, ProjectFileIndex fileIndex) {
+        PsiFile psiFile = method.getContainingFile();
+        VirtualFile virtualFile = psiFile == null ? null : psiFile.getVirtualFile();
+        return virtualFile != null && fileIndex.isInSourceContent(virtualFile) && !fileIndex.isInTestSourceContent(virtualFile);
+    }
+
+    /**
+     * 调用所在的循环层数 循环语句和集合方法的 lambda/方法引用 都算一层
+     */
+    private static int loopNesting(PsiElement callSite, PsiMethod method) {
+        int loops = 0;
+        PsiElement child = callSite;
+        PsiElement parent = callSite.getParent();
+        while (parent != null && parent != method) {
+            if (parent instanceof PsiLoopStatement) {
+                loops += isLoopHeader(parent, child) ? 0 : 1;
+            } else if ((child instanceof PsiLambdaExpression || child instanceof PsiMethodReferenceExpression) && isCollectionArgument(child)) {
+                loops++;
+            }
+            child = parent;
+            parent = parent.getParent();
+        }
+        return loops;
+    }
+
+    /**
+     * for each 的集合表达式 for 的初始化语句只执行一次 循环条件和循环体每次都执行
+     */
+    private static boolean isLoopHeader(PsiElement loop, PsiElement child) {
+        if (loop instanceof PsiForeachStatement) {
+            return child == ((PsiForeachStatement) loop).getIteratedValue();
+        }
+        return loop instanceof PsiForStatement && child == ((PsiForStatement) loop).getInitialization();
+    }
+
+    private static boolean isCollectionArgument(PsiElement functional) {
+        PsiElement argumentList = functional.getParent();
+        if (!(argumentList instanceof PsiExpressionList) || !(argumentList.getParent() instanceof PsiMethodCallExpression)) {
+            return false;
+        }
+        String name = ((PsiMethodCallExpression) argumentList.getParent()).getMethodExpression().getReferenceName();
+        return COLLECTION_METHODS.contains(name);
+    }
+}
@@ -0,0 +1,152 @@
+package com.github.wangji92.arthas.plugin.common.trace;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.Segment;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.ClassUtil;
+
+import java.util.*;
+
+/**
+ * trace 分析结果对应到工程中的方法 在方法声明的行尾展示耗时
+ * <p>
+ * 同一个方法在多个调用路径中出现时 取总耗时最多的节点;只保留最近一次分析的结果
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class TraceLatencyHints {
+
+    private static final Key<TraceLatencyHints> HINTS_KEY = Key.create("arthas.trace.latency.hints");
+
+    private final TraceNode root;
+
+    private final Map<VirtualFile, List<Hint>> fileHints;
+
+    private static class Hint {
+
+        private final SmartPsiElementPointer<PsiElement> pointer;
+
+        private final String text;
+
+        private Hint(SmartPsiElementPointer<PsiElement> pointer, String text) {
+            this.pointer = pointer;
+            this.text = text;
+        }
+    }
+
+    private TraceLatencyHints(TraceNode root, Map<VirtualFile, List<Hint>> fileHints) {
+        this.root = root;
+        this.fileHints = fileHints;
+    }
+
+    /**
+     * 查找 trace 节点对应的工程方法 需要在 read action 中调用
+     *
+     * @param project
+     * @param root
+     * @return
+     */
+    public static TraceLatencyHints build(Project project, TraceNode root) {
+        Map<String, TraceNode> methodNodes = new LinkedHashMap<>();
+        collectMethodNodes(root, methodNodes);
+        PsiManager psiManager = PsiManager.getInstance(project);
+        GlobalSearchScope projectScope = GlobalSearchScope.projectScope(project);
+        SmartPointerManager pointerManager = SmartPointerManager.getInstance(project);
+        Map<VirtualFile, List<Hint>> fileHints = new HashMap<>(16);
+        for (TraceNode node : methodNodes.values()) {
+            ProgressManager.checkCanceled();
+            PsiClass psiClass = ClassUtil.findPsiClass(psiManager, node.getClassName(), null, true, projectScope);
+            if (psiClass == null) {
+                continue;
+            }
+            PsiMethod[] methods = "<init>".equals(node.getMethodName()) ? psiClass.getConstructors() : psiClass.findMethodsByName(node.getMethodName(), false);
+            for (PsiMethod method : methods) {
+                PsiElement nameIdentifier = method.getNameIdentifier();
+                PsiFile psiFile = method.getContainingFile();
+                if (nameIdentifier == null || psiFile == null || psiFile.getVirtualFile() == null) {
+                    continue;
+                }
+                fileHints.computeIfAbsent(psiFile.getVirtualFile(), file -> new ArrayList<>())
+                        .add(new Hint(pointerManager.createSmartPsiElementPointer(nameIdentifier), formatHint(node, root.getInvocations())));
+            }
+        }
+        return new TraceLatencyHints(root, fileHints);
+    }
+
+    private static void collectMethodNodes(TraceNode parent, Map<String, TraceNode> methodNodes) {
+        for (TraceNode child : parent.getChildren()) {
+            methodNodes.merge(child.getClassName() + "#" + child.getMethodName(), child,
+                    (exist, current) -> current.getTotalCost() > exist.getTotalCost() ? current : exist);
+            collectMethodNodes(child, methodNodes);
+        }
+    }
+
+    /**
+     * p50 p95 p99 max 出现次数
+     *
+     * @param node
+     * @param invocations trace 结果的数量
+     * @return
+     */
+    public static String formatHint(TraceNode node, int invocations) {
+        return String.format("p50 %.2fms  p95 %.2fms  p99 %.2fms  max %.2fms  calls %d  hit %d/%d",
+                node.getPercentile(50), node.getPercentile(95), node.getPercentile(99), node.getMaxCost(), node.getCalls(), node.getInvocations(), invocations);
+    }
+
+    /**
+     * 保存为工程当前的耗时提示
+     *
+     * @param project
+     * @param hints
+     */
+    public static void install(Project project, TraceLatencyHints hints) {
+        project.putUserData(HINTS_KEY, hints);
+    }
+
+    /**
+     * 清除 root 对应的提示 已经被新的分析结果替换的不处理
+     *
+     * @param project
+     * @param root
+     */
+    public static void uninstall(Project project, TraceNode root) {
+        TraceLatencyHints hints = project.getUserData(HINTS_KEY);
+        if (hints != null && hints.root == root) {
+            project.putUserData(HINTS_KEY, null);
+        }
+    }
+
+    /**
+     * 文件某一行的耗时提示
+     *
+     * @param project
+     * @param file
+     * @param lineNumber 0 开始
+     * @return
+     */
+    public static List<String> getHints(Project project, VirtualFile file, int lineNumber) {
+        TraceLatencyHints hints = project.getUserData(HINTS_KEY);
+        if (hints == null || !hints.fileHints.containsKey(file)) {
+            return Collections.emptyList();
+        }
+        Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+        if (document == null) {
+            return Collections.emptyList();
+        }
+        List<String> lineHints = new ArrayList<>(1);
+        for (Hint hint : hints.fileHints.get(file)) {
+            Segment range = hint.pointer.getRange();
+            if (range != null && range.getStartOffset() <= document.getTextLength() && document.getLineNumber(range.getStartOffset()) == lineNumber) {
+                lineHints.add(hint.text);
+            }
+        }
+        return lineHints;
+    }
+}
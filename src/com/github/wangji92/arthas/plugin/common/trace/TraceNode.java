@@ -0,0 +1,167 @@
+package com.github.wangji92.arthas.plugin.common.trace;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 多次 trace 结果合并后的调用树节点 相同调用路径(类、方法、调用行号)合并为一个节点
+ * <p>
+ * 每一次调用(trace 的一次输出)记录一个耗时,循环中多次调用的取总耗时,用于计算分位数
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class TraceNode {
+
+    private final String className;
+
+    private final String methodName;
+
+    /**
+     * 调用所在的行号 没有为 -1
+     */
+    private final int lineNumber;
+
+    private final Map<String, TraceNode> children = new LinkedHashMap<>();
+
+    /**
+     * 每次调用的耗时 ms
+     */
+    private double[] costs = new double[16];
+
+    private int invocations;
+
+    private long calls;
+
+    private double maxCost;
+
+    private double totalCost;
+
+    private boolean dominant;
+
+    private double[] sortedCosts;
+
+    TraceNode(String className, String methodName, int lineNumber) {
+        this.className = className;
+        this.methodName = methodName;
+        this.lineNumber = lineNumber;
+    }
+
+    TraceNode getOrCreateChild(String className, String methodName, int lineNumber) {
+        return children.computeIfAbsent(className + ":" + methodName + "#" + lineNumber, key -> new TraceNode(className, methodName, lineNumber));
+    }
+
+    /**
+     * 一次调用的耗时
+     *
+     * @param cost    总耗时 ms
+     * @param count   循环中调用的次数
+     * @param maxCost 单次最大耗时 ms
+     */
+    void addCost(double cost, long count, double maxCost) {
+        if (invocations == costs.length) {
+            costs = Arrays.copyOf(costs, invocations * 2);
+        }
+        costs[invocations++] = cost;
+        calls += count;
+        totalCost += cost;
+        this.maxCost = Math.max(this.maxCost, maxCost);
+        sortedCosts = null;
+    }
+
+    /**
+     * 最近一次调用的耗时
+     */
+    double getLastCost() {
+        return invocations == 0 ? 0 : costs[invocations - 1];
+    }
+
+    /**
+     * 标记每一层耗时最多的子节点
+     */
+    void complete() {
+        TraceNode dominantChild = null;
+        for (TraceNode child : children.values()) {
+            child.complete();
+            if (dominantChild == null || child.totalCost > dominantChild.totalCost) {
+                dominantChild = child;
+            }
+        }
+        if (dominantChild != null && dominantChild.totalCost > 0) {
+            dominantChild.dominant = true;
+        }
+    }
+
+    /**
+     * 分位数 nearest-rank
+     *
+     * @param percentile 0-100
+     * @return
+     */
+    public double getPercentile(double percentile) {
+        if (invocations == 0) {
+            return 0;
+        }
+        if (sortedCosts == null) {
+            sortedCosts = Arrays.copyOf(costs, invocations);
+            Arrays.sort(sortedCosts);
+        }
+        int rank = (int) Math.ceil(percentile / 100 * invocations);
+        return sortedCosts[Math.max(0, Math.min(invocations, rank) - 1)];
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public Collection<TraceNode> getChildren() {
+        return children.values();
+    }
+
+    /**
+     * 出现在多少次 trace 结果中
+     */
+    public int getInvocations() {
+        return invocations;
+    }
+
+    /**
+     * 总调用次数 包含循环
+     */
+    public long getCalls() {
+        return calls;
+    }
+
+    /**
+     * 单次调用的最大耗时 ms
+     */
+    public double getMaxCost() {
+        return maxCost;
+    }
+
+    public double getTotalCost() {
+        return totalCost;
+    }
+
+    /**
+     * 是否为父节点中耗时最多的子节点
+     */
+    public boolean isDominant() {
+        return dominant;
+    }
+
+    @Override
+    public String toString() {
+        return className + ":" + methodName + "()" + (lineNumber >= 0 ? " #" + lineNumber : "");
+    }
+}
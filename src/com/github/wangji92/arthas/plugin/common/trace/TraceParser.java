@@ -0,0 +1,195 @@
+package com.github.wangji92.arthas.plugin.common.trace;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 解析 trace 的输出 多次调用的结果合并为一棵调用树
+ * <p>
+ * 1. 文本: `---ts=... 开始一次调用,`---[1.38ms] demo.MathGame:run() #24 按照缩进确定层级
+ * 耗时支持 [1.38ms] [41.06% 1.38ms ] [min=0.001ms,max=0.002ms,total=0.005ms,count=3] 三种格式
+ * 2. json-format: {"type":"trace","root":{"children":[{"type":"method","totalCost":纳秒...}]}} 一行一个结果
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class TraceParser {
+
+    /**
+     * 树形前缀 每一层 4 个字符
+     */
+    private static final Pattern TREE_LINE = Pattern.compile("^([ |]*)[`+]---(.*)$");
+
+    private static final Pattern TOTAL_COST = Pattern.compile("total=([\\d.]+)ms");
+
+    private static final Pattern MAX_COST = Pattern.compile("max=([\\d.]+)ms");
+
+    private static final Pattern COUNT = Pattern.compile("count=(\\d+)");
+
+    private static final Pattern COST = Pattern.compile("([\\d.]+)ms");
+
+    private static final Pattern LINE_NUMBER = Pattern.compile("\\s#(\\d+)$");
+
+    private static final double NANOS_PER_MILLI = 1_000_000D;
+
+    /**
+     * 解析 trace 输出 不是 trace 的行忽略
+     *
+     * @param output
+     * @return 根节点 子节点为 trace 的方法,没有 trace 结果 root 的 invocations 为 0
+     */
+    public static TraceNode parse(String output) {
+        TraceNode root = new TraceNode("", "all", -1);
+        List<TraceNode> stack = new ArrayList<>();
+        double invocationCost = -1;
+        for (String line : output.split("\r?\n")) {
+            String trimLine = line.trim();
+            if (trimLine.startsWith("{") && trimLine.contains("\"trace\"")) {
+                parseJson(root, trimLine);
+                continue;
+            }
+            Matcher treeLine = TREE_LINE.matcher(line);
+            if (!treeLine.matches()) {
+                continue;
+            }
+            int depth = treeLine.group(1).length() / 4;
+            String content = treeLine.group(2);
+            if (content.startsWith("ts=")) {
+                // 一次新的调用
+                if (invocationCost >= 0) {
+                    root.addCost(invocationCost, 1, invocationCost);
+                }
+                invocationCost = 0;
+                stack.clear();
+                stack.add(root);
+                continue;
+            }
+            if (!content.startsWith("[") || depth < 1 || depth > stack.size() || invocationCost < 0) {
+                continue;
+            }
+            int costEnd = content.indexOf(']');
+            if (costEnd < 0) {
+                continue;
+            }
+            TraceNode node = parseMethodNode(stack.get(depth - 1), content.substring(1, costEnd), content.substring(costEnd + 1).trim());
+            if (node == null) {
+                continue;
+            }
+            if (depth == 1) {
+                invocationCost += node.getLastCost();
+            }
+            while (stack.size() > depth) {
+                stack.remove(stack.size() - 1);
+            }
+            stack.add(node);
+        }
+        if (invocationCost >= 0) {
+            root.addCost(invocationCost, 1, invocationCost);
+        }
+        root.complete();
+        return root;
+    }
+
+    private static TraceNode parseMethodNode(TraceNode parent, String costText, String methodText) {
+        // [throws Exception] 之类的后缀
+        int suffixIndex = methodText.indexOf(" [");
+        if (suffixIndex > 0) {
+            methodText = methodText.substring(0, suffixIndex);
+        }
+        int lineNumber = -1;
+        Matcher lineMatcher = LINE_NUMBER.matcher(methodText);
+        if (lineMatcher.find()) {
+            lineNumber = Integer.parseInt(lineMatcher.group(1));
+            methodText = methodText.substring(0, lineMatcher.start());
+        }
+        int paramIndex = methodText.indexOf('(');
+        String signature = paramIndex > 0 ? methodText.substring(0, paramIndex) : methodText;
+        int methodIndex = signature.lastIndexOf(':');
+        if (methodIndex <= 0) {
+            return null;
+        }
+        Double cost = find(TOTAL_COST, costText);
+        if (cost == null) {
+            cost = find(COST, costText);
+        }
+        if (cost == null) {
+            return null;
+        }
+        Double count = find(COUNT, costText);
+        Double maxCost = find(MAX_COST, costText);
+        TraceNode node = parent.getOrCreateChild(signature.substring(0, methodIndex).trim(), signature.substring(methodIndex + 1), lineNumber);
+        node.addCost(cost, count == null ? 1 : count.longValue(), maxCost == null ? cost : maxCost);
+        return node;
+    }
+
+    private static Double find(Pattern pattern, String text) {
+        Matcher matcher = pattern.matcher(text);
+        if (!matcher.find()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(matcher.group(1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void parseJson(TraceNode root, String json) {
+        JsonObject result;
+        try {
+            JsonElement element = JsonParser.parseString(json);
+            if (!element.isJsonObject()) {
+                return;
+            }
+            result = element.getAsJsonObject();
+        } catch (JsonSyntaxException e) {
+            return;
+        }
+        if (!"trace".equals(getString(result, "type")) || !result.has("root")) {
+            return;
+        }
+        double invocationCost = 0;
+        for (JsonElement child : children(result.getAsJsonObject("root"))) {
+            TraceNode node = parseJsonNode(root, child.getAsJsonObject());
+            if (node != null) {
+                invocationCost += node.getLastCost();
+            }
+        }
+        root.addCost(invocationCost, 1, invocationCost);
+    }
+
+    private static TraceNode parseJsonNode(TraceNode parent, JsonObject methodNode) {
+        if (!"method".equals(getString(methodNode, "type"))) {
+            return null;
+        }
+        int lineNumber = methodNode.has("lineNumber") ? methodNode.get("lineNumber").getAsInt() : -1;
+        TraceNode node = parent.getOrCreateChild(getString(methodNode, "className"), getString(methodNode, "methodName"), lineNumber);
+        double cost = getLong(methodNode, "totalCost") / NANOS_PER_MILLI;
+        long times = Math.max(1, getLong(methodNode, "times"));
+        double maxCost = methodNode.has("maxCost") ? getLong(methodNode, "maxCost") / NANOS_PER_MILLI : cost;
+        node.addCost(cost, times, maxCost);
+        for (JsonElement child : children(methodNode)) {
+            parseJsonNode(node, child.getAsJsonObject());
+        }
+        return node;
+    }
+
+    private static Iterable<JsonElement> children(JsonObject node) {
+        return node.has("children") && node.get("children").isJsonArray() ? node.getAsJsonArray("children") : new ArrayList<>();
+    }
+
+    private static String getString(JsonObject object, String member) {
+        return object.has(member) && !object.get(member).isJsonNull() ? object.get(member).getAsString() : "";
+    }
+
+    private static long getLong(JsonObject object, String member) {
+        return object.has(member) && !object.get(member).isJsonNull() ? object.get(member).getAsLong() : 0;
+    }
+}
@@ -25,6 +25,11 @@ public interface ArthasCommandConstants {
      */
     String DEFAULT_CONDITION_EXPRESS = "'1==1'";
 
+    /**
+     * watch 默认的观察表达式
+     */
+    String DEFAULT_WATCH_EXPRESS = "'{params,returnObj,throwExp}'";
+
     /**
      * 跳过JDK 自带的方法
      */
@@ -34,6 +39,11 @@ public interface ArthasCommandConstants {
      */
     String DEFAULT_SKIP_JDK_TRUE = "--skipJDKMethod true";
 
+    /**
+     * 结果回传的时候 json 格式输出,json-format 是全局的 脚本中 saveJsonFormat/restoreJsonFormat 恢复原来的值
+     */
+    String JSON_FORMAT_TRUE = "options json-format true";
+
     /**
      * ognl 内部类分割符 https://github.com/alibaba/arthas/issues/71
      */
@@ -42,6 +52,14 @@ public interface ArthasCommandConstants {
      * 调用次数
      */
     String INVOKE_COUNT = "5";
+    /**
+     * tt -t 最多记录的次数 记录一直引用入参、返回值
+     */
+    int TIME_TUNNEL_MAX_COUNT = 20;
+    /**
+     * tt -t 记录默认 10 分钟后 tt --delete-all
+     */
+    int TIME_TUNNEL_CLEANUP_SECONDS = 600;
     /**
      * 调用监控的次数
      */
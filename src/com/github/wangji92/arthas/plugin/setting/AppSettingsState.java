@@ -33,10 +33,40 @@ public class AppSettingsState implements PersistentStateComponent<AppSettingsSta
      */
     public String staticSpringContextOgnl = DEFAULT_SPRING_CONTEXT_SETTING;
 
+    /**
+     * 没有手动配置 spring ognl 的时候 后台自动发现 static spring context
+     */
+    public boolean staticSpringContextAutoDiscovery = true;
+
+    /**
+     * 自动发现的 static spring context 例如 @com.xxx.ApplicationContextProvider@context
+     */
+    public String discoveredStaticSpringContextOgnl;
+
     /**
      * 跳过jdk trace
      */
     public boolean traceSkipJdk = false;
+
+    /**
+     * 类展开为 trace/watch -E 的时候跳过 getter setter 等简单方法
+     */
+    public boolean skipTrivialMethod = true;
+
+    /**
+     * 跳过简单方法的时候 一行委托的方法也算简单方法 一行转发可能就是要排查的入口 默认不跳过
+     */
+    public boolean skipTrivialDelegation = false;
+
+    /**
+     * 直接执行 watch/trace/monitor/stack/tt -t 和热更新的时候限时 超时或者退出后 reset 增强的类 0 不限时
+     */
+    public Integer enhanceGuardSeconds = 0;
+
+    /**
+     * tt -t 记录一直引用入参、返回值 到时间后 tt --delete-all 0 不清理
+     */
+    public Integer timeTunnelCleanupSeconds = ArthasCommandConstants.TIME_TUNNEL_CLEANUP_SECONDS;
     /**
      * 调用次数
      */
@@ -64,6 +94,7 @@ public class AppSettingsState implements PersistentStateComponent<AppSettingsSta
     /**
      * {@literal https://arthas.aliyun.com/doc/batch-support.html 批处理支持}
      * {@literal https://arthas.aliyun.com/doc/advanced-use.html --select}
+     * 脚本中通过 /proc 解析进程: 默认主类/jar 子串匹配; re:正则 匹配完整命令行; 多个匹配时后缀 #newest/#oldest 选择
      */
     public String selectProjectName;
 
@@ -130,6 +161,21 @@ public class AppSettingsState implements PersistentStateComponent<AppSettingsSta
 
     public boolean s3GlobalConfig = true;
 
+    /**
+     * 大文件分片上传 分片大小(MB) 超过这个大小才会分片上传
+     */
+    public Integer multipartUploadPartSize = 8;
+
+    /**
+     * 大文件分片上传 并发上传分片数
+     */
+    public Integer multipartUploadConcurrency = 4;
+
+    /**
+     * 大文件分片上传 单个分片失败重试次数
+     */
+    public Integer multipartUploadPartRetry = 3;
+
     /**
      * spring context 全局默认配置
      */
@@ -219,6 +265,11 @@ public class AppSettingsState implements PersistentStateComponent<AppSettingsSta
      */
     public boolean autoToUnicode = true;
 
+    /**
+     * 执行结果 json 格式压缩后上传到存储(oss/s3/redis),idea 获取后在 Arthas Result 窗口展示 剪切板模式不支持
+     */
+    public boolean resultRoundTrip = false;
+
     /**
      * 获取工程的名称
      *
@@ -0,0 +1,137 @@
+package com.github.wangji92.arthas.plugin.setting;
+
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.xmlb.XmlSerializerUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 工程中复制或者执行过的增强命令 watch/trace/monitor/stack/tt -t/retransform,reset 确认成功之前一直保留
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+@State(
+        name = "arthas.idea.plugin.enhance.ledger",
+        storages = {@Storage("arthasEnhanceLedger.xml")}
+)
+public class EnhanceLedgerState implements PersistentStateComponent<EnhanceLedgerState> {
+
+    /**
+     * 一条增强记录 xml 序列化需要 public 字段和无参构造
+     */
+    public static class Entry {
+
+        public String id;
+
+        /**
+         * watch trace monitor stack tt retransform
+         */
+        public String commandType;
+
+        /**
+         * 类名 可能是通配符或者 -E 的正则
+         */
+        public String className;
+
+        public String methodName;
+
+        /**
+         * -E
+         */
+        public boolean regex;
+
+        /**
+         * 目标进程的 --select 为空手动选择 pid
+         */
+        public String target;
+
+        /**
+         * copy execute
+         */
+        public String source;
+
+        public long time;
+
+        /**
+         * 同一个类同一种增强只需要 reset 一次
+         */
+        public boolean sameEnhance(Entry other) {
+            return Objects.equals(commandType, other.commandType) && Objects.equals(className, other.className)
+                    && Objects.equals(methodName, other.methodName) && regex == other.regex && Objects.equals(target, other.target);
+        }
+    }
+
+    public List<Entry> entries = new ArrayList<>();
+
+    /**
+     * 记录变化的监听 不需要持久化
+     */
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    public static EnhanceLedgerState getInstance(@NotNull Project project) {
+        return project.getService(EnhanceLedgerState.class);
+    }
+
+    /**
+     * 相同的增强只保留最新的一条
+     *
+     * @param entry
+     */
+    public void add(Entry entry) {
+        synchronized (this) {
+            entries.removeIf(entry::sameEnhance);
+            entries.add(entry);
+        }
+        fireChanged();
+    }
+
+    /**
+     * 删除 reset 确认成功的记录 之后新增的记录不受影响
+     *
+     * @param ids
+     */
+    public void remove(Collection<String> ids) {
+        boolean removed;
+        synchronized (this) {
+            removed = entries.removeIf(entry -> ids.contains(entry.id));
+        }
+        if (removed) {
+            fireChanged();
+        }
+    }
+
+    public synchronized List<Entry> listEntries() {
+        return new ArrayList<>(entries);
+    }
+
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireChanged() {
+        listeners.forEach(Runnable::run);
+    }
+
+    @Override
+    public EnhanceLedgerState getState() {
+        return this;
+    }
+
+    @Override
+    public synchronized void loadState(@NotNull EnhanceLedgerState state) {
+        XmlSerializerUtil.copyBean(state, this);
+    }
+}
@@ -43,6 +43,14 @@ public class AppSettingsPage implements Configurable {
      * 跳过jdk trace
      */
     private JRadioButton traceSkipJdkRadio;
+    /**
+     * trace/watch 跳过简单方法
+     */
+    private JRadioButton skipTrivialMethodRadio;
+    /**
+     * 一行委托也算简单方法
+     */
+    private JRadioButton skipTrivialDelegationRadio;
     /**
      * 调用次数
      */
@@ -56,6 +64,14 @@ public class AppSettingsPage implements Configurable {
      * 打印属性的深度
      */
     private JSpinner depthPrintPropertyField;
+    /**
+     * 增强命令限时执行的秒数
+     */
+    private JSpinner enhanceGuardSecondsField;
+    /**
+     * tt -t 记录自动清理的秒数
+     */
+    private JSpinner timeTunnelCleanupSecondsField;
     /**
      * 是否展示默认的条件表达式
      */
@@ -305,8 +321,12 @@ public class AppSettingsPage implements Configurable {
                 || !invokeMonitorCountField.getValue().toString().equals(settings.invokeMonitorCount)
                 || !invokeMonitorIntervalField.getValue().toString().equals(settings.invokeMonitorInterval)
                 || !depthPrintPropertyField.getValue().toString().equals(settings.depthPrintProperty)
+                || !enhanceGuardSecondsField.getValue().equals(settings.enhanceGuardSeconds)
+                || !timeTunnelCleanupSecondsField.getValue().equals(settings.timeTunnelCleanupSeconds)
                 || !selectProjectNameTextField.getText().equals(settings.selectProjectName)
                 || traceSkipJdkRadio.isSelected() != settings.traceSkipJdk
+                || skipTrivialMethodRadio.isSelected() != settings.skipTrivialMethod
+                || skipTrivialDelegationRadio.isSelected() != settings.skipTrivialDelegation
                 || conditionExpressDisplayRadio.isSelected() != settings.conditionExpressDisplay
                 || ossGlobalSettingRadioButton.isSelected() != settings.ossGlobalSetting
                 || springContextGlobalSettingRadioButton.isSelected() != settings.springContextGlobalSetting
@@ -389,7 +409,21 @@ public class AppSettingsPage implements Configurable {
         } else {
             settings.depthPrintProperty = depthPrintPropertyField.getValue().toString();
         }
+        int enhanceGuardSeconds = (int) enhanceGuardSecondsField.getValue();
+        if (enhanceGuardSeconds < 0 || enhanceGuardSeconds > EnhanceGuardUtils.MAX_GUARD_SECONDS) {
+            error.append("enhanceGuardSeconds not in [0," + EnhanceGuardUtils.MAX_GUARD_SECONDS + "] ");
+        } else {
+            settings.enhanceGuardSeconds = enhanceGuardSeconds;
+        }
+        int timeTunnelCleanupSeconds = (int) timeTunnelCleanupSecondsField.getValue();
+        if (timeTunnelCleanupSeconds < 0 || timeTunnelCleanupSeconds > TimeTunnelUtils.MAX_CLEANUP_SECONDS) {
+            error.append("timeTunnelCleanupSeconds not in [0," + TimeTunnelUtils.MAX_CLEANUP_SECONDS + "] ");
+        } else {
+            settings.timeTunnelCleanupSeconds = timeTunnelCleanupSeconds;
+        }
         settings.traceSkipJdk = traceSkipJdkRadio.isSelected();
+        settings.skipTrivialMethod = skipTrivialMethodRadio.isSelected();
+        settings.skipTrivialDelegation = skipTrivialDelegationRadio.isSelected();
         settings.conditionExpressDisplay = conditionExpressDisplayRadio.isSelected();
         settings.selectProjectName = selectProjectNameTextField.getText();
         settings.manualSelectPid = manualSelectPidRadioButton.isSelected();
@@ -584,12 +618,17 @@ public class AppSettingsPage implements Configurable {
      * 加载配置
      */
     private void loadSettings() {
+        SpringStaticContextUtils.discoverStaticSpringContext(project);
         springContextStaticOgnlExpressionTextFiled.setText(settings.staticSpringContextOgnl);
         invokeCountField.setValue(Integer.parseInt(settings.invokeCount));
         invokeMonitorCountField.setValue(Integer.parseInt(settings.invokeMonitorCount));
         invokeMonitorIntervalField.setValue(Integer.parseInt(settings.invokeMonitorInterval));
         depthPrintPropertyField.setValue(Integer.parseInt(settings.depthPrintProperty));
+        enhanceGuardSecondsField.setValue(EnhanceGuardUtils.getGuardSeconds(settings));
+        timeTunnelCleanupSecondsField.setValue(TimeTunnelUtils.getCleanupSeconds(settings));
         traceSkipJdkRadio.setSelected(settings.traceSkipJdk);
+        skipTrivialMethodRadio.setSelected(settings.skipTrivialMethod);
+        skipTrivialDelegationRadio.setSelected(settings.skipTrivialDelegation);
         conditionExpressDisplayRadio.setSelected(settings.conditionExpressDisplay);
         hotRedefineDeleteFileRadioButton.setSelected(settings.hotRedefineDelete);
         redefineBeforeCompileRadioButton.setSelected(settings.redefineBeforeCompile);
@@ -3,6 +3,7 @@ package com.github.wangji92.arthas.plugin.ui;
 import com.github.wangji92.arthas.plugin.constants.ArthasCommandConstants;
 import com.github.wangji92.arthas.plugin.utils.ActionLinkUtils;
 import com.github.wangji92.arthas.plugin.utils.ClipboardUtils;
+import com.github.wangji92.arthas.plugin.utils.CommandCopyHookUtils;
 import com.github.wangji92.arthas.plugin.utils.NotifyUtils;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.wm.WindowManager;
@@ -88,11 +89,13 @@ public class ArthasActionWatchSpringContextDialog extends JDialog {
         springPropertyButton.addActionListener((e -> {
             String command = String.format(ArthasCommandConstants.SPRING_ALL_PROPERTY, WATCH_FOR_SPRING_PROPERTY_PRE, WATCH_FOR_SPRING_PROPERTY_CONTEXT, ArthasCommandConstants.SPRING_CONTEXT_PARAM);
             ClipboardUtils.setClipboardString(command);
+            CommandCopyHookUtils.afterCopy(project, command);
             NotifyUtils.notifyMessage(project, "由于使用watch 触发ognl的调用，必须要触发一次Mvc接口的调用，Static Spring Context 调用不同,获取指定项的值可以可以参考Ognl get selected spring property");
         }));
 
         springNonProxyTargetButton.addActionListener(e -> {
             ClipboardUtils.setClipboardString(aopTargetOgnlExpression);
+            CommandCopyHookUtils.afterCopy(project, aopTargetOgnlExpression);
             NotifyUtils.notifyMessage(project, "Bean 名称可能不正确可以手动修改,由于使用watch 触发ognl的调用，必须要触发一次Mvc接口的调用，Static Spring Context 调用不同");
         });
     }
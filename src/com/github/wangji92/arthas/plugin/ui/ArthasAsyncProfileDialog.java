@@ -2,8 +2,10 @@ package com.github.wangji92.arthas.plugin.ui;
 
 import com.github.wangji92.arthas.plugin.utils.ActionLinkUtils;
 import com.github.wangji92.arthas.plugin.utils.ClipboardUtils;
+import com.github.wangji92.arthas.plugin.utils.ContinuousProfilerUtils;
 import com.github.wangji92.arthas.plugin.utils.NotifyUtils;
 import com.github.wangji92.arthas.plugin.utils.StringUtils;
+import com.intellij.notification.NotificationType;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.wm.WindowManager;
 import com.intellij.ui.components.ActionLink;
@@ -57,6 +59,24 @@ public class ArthasAsyncProfileDialog extends JDialog {
      */
     private JButton autoStopCommandButton;
 
+    /**
+     * 持续低频采样 窗口 周期 单位秒
+     */
+    private JTextField continuousWindowTextField;
+
+    private JTextField continuousPeriodTextField;
+
+    private JButton continuousStartButton;
+
+    private JButton continuousStopButton;
+
+    /**
+     * 拉取合并的时间范围
+     */
+    private JTextField continuousRangeTextField;
+
+    private JButton continuousPullButton;
+
     private Project project;
 
     public ArthasAsyncProfileDialog(Project project) {
@@ -114,6 +134,45 @@ public class ArthasAsyncProfileDialog extends JDialog {
             otherCommand();
 
         });
+        continuousRangeTextField.setText(ContinuousProfilerUtils.lastMinutesRange(30));
+        continuousStartButton.addActionListener((event) -> {
+            continuousCommand(() -> ContinuousProfilerUtils.start(project, String.join(" ", getContinuousStartCommandList()),
+                    Integer.parseInt(continuousWindowTextField.getText().trim()), Integer.parseInt(continuousPeriodTextField.getText().trim())));
+        });
+        continuousStopButton.addActionListener((event) -> {
+            continuousCommand(() -> ContinuousProfilerUtils.stop(project));
+        });
+        continuousPullButton.addActionListener((event) -> {
+            continuousCommand(() -> ContinuousProfilerUtils.pull(project, continuousRangeTextField.getText()));
+        });
+    }
+
+    /**
+     * 持续采样 生成脚本执行
+     *
+     * @param runnable
+     */
+    private void continuousCommand(Runnable runnable) {
+        try {
+            runnable.run();
+        } catch (NumberFormatException e) {
+            NotifyUtils.notifyMessage(project, "window/period must be seconds", NotificationType.ERROR);
+        } catch (IllegalArgumentException e) {
+            NotifyUtils.notifyMessage(project, e.getMessage(), NotificationType.ERROR);
+        }
+    }
+
+    /**
+     * 持续采样的启动命令 使用更低的采样频率
+     *
+     * @return
+     */
+    @NotNull
+    private List<String> getContinuousStartCommandList() {
+        List<String> commands = getStartCommandList();
+        int intervalIndex = commands.indexOf("--interval");
+        commands.set(intervalIndex + 1, ContinuousProfilerUtils.LOW_INTERVAL);
+        return commands;
     }
 
     private void getSample() {
@@ -0,0 +1,98 @@
+package com.github.wangji92.arthas.plugin.ui;
+
+import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
+import com.github.wangji92.arthas.plugin.utils.StringUtils;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.ToggleAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.util.Collections;
+
+/**
+ * Arthas Result 窗口 展示服务器回传的执行结果、火焰图 一次结果一个 tab
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class ArthasResultToolWindowFactory implements ToolWindowFactory, DumbAware {
+
+    public static final String TOOL_WINDOW_ID = "Arthas Result";
+
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        toolWindow.setTitleActions(Collections.singletonList(new ToggleAction("Upload Result Back To IDE", "Arthas json result gzip upload to oss/s3/redis then show here", null) {
+            @Override
+            public boolean isSelected(@NotNull AnActionEvent e) {
+                return AppSettingsState.getInstance(project).resultRoundTrip;
+            }
+
+            @Override
+            public void setSelected(@NotNull AnActionEvent e, boolean state) {
+                AppSettingsState.getInstance(project).resultRoundTrip = state;
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.BGT;
+            }
+        }));
+    }
+
+    /**
+     * 新建一个 tab 展示结果 需要在 EDT 调用
+     *
+     * @param project
+     * @param title
+     * @param result
+     */
+    public static void showResult(Project project, String title, String result) {
+        EditorFactory editorFactory = EditorFactory.getInstance();
+        Document document = editorFactory.createDocument(StringUtil.convertLineSeparators(result));
+        document.setReadOnly(true);
+        Editor editor = editorFactory.createViewer(document, project);
+        editor.getSettings().setLineNumbersShown(true);
+        editor.getSettings().setFoldingOutlineShown(false);
+        showComponent(project, title, editor.getComponent(), () -> editorFactory.releaseEditor(editor));
+    }
+
+    /**
+     * 新建一个 tab 展示任意组件 例如火焰图 需要在 EDT 调用
+     *
+     * @param project
+     * @param title
+     * @param component
+     * @param disposer  tab 关闭的时候调用 可以为 null
+     */
+    public static void showComponent(Project project, String title, JComponent component, Disposable disposer) {
+        ToolWindow toolWindow = ToolWindowManager.getInstance(project).getToolWindow(TOOL_WINDOW_ID);
+        if (toolWindow == null) {
+            if (disposer != null) {
+                disposer.dispose();
+            }
+            return;
+        }
+        Content content = ContentFactory.getInstance().createContent(component, StringUtils.abbreviate(title, 40), false);
+        content.setDescription(title);
+        content.setCloseable(true);
+        if (disposer != null) {
+            content.setDisposer(disposer);
+        }
+        toolWindow.getContentManager().addContent(content);
+        toolWindow.getContentManager().setSelectedContent(content);
+        toolWindow.activate(null);
+    }
+}
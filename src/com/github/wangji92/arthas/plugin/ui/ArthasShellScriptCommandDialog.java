@@ -230,6 +230,7 @@ public class ArthasShellScriptCommandDialog extends JDialog {
                 }
             }
             ClipboardUtils.setClipboardString(copyCommand);
+            CommandCopyHookUtils.afterCopy(project, copyCommand);
             NotifyUtils.notifyMessage(project, COMMAND_COPIED + "(Some commands need classloader hash value to be executed directly)");
             this.doCloseDialog();
         });
@@ -376,6 +377,7 @@ public class ArthasShellScriptCommandDialog extends JDialog {
             assert selectedItem != null;
             String selectedItemStr = selectedItem.toString();
             ClipboardUtils.setClipboardString(selectedItemStr);
+            CommandCopyHookUtils.afterCopy(project, selectedItemStr);
             NotifyUtils.notifyMessage(project, COMMAND_COPIED + "(some of the batch scripts cannot be executed need to be modified manually)");
             this.doCloseDialog();
         });
@@ -1,9 +1,12 @@
 package com.github.wangji92.arthas.plugin.ui;
 
 import com.github.wangji92.arthas.plugin.common.enums.TimeTunnelCommandEnum;
+import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
 import com.github.wangji92.arthas.plugin.utils.ActionLinkUtils;
 import com.github.wangji92.arthas.plugin.utils.ClipboardUtils;
+import com.github.wangji92.arthas.plugin.utils.CommandCopyHookUtils;
 import com.github.wangji92.arthas.plugin.utils.NotifyUtils;
+import com.github.wangji92.arthas.plugin.utils.TimeTunnelUtils;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.wm.WindowManager;
 import com.intellij.ui.components.ActionLink;
@@ -90,9 +93,12 @@ public class ArthasTimeTunnelDialog extends JDialog {
     private void init() {
         ttTextField.setText(this.timeTunnelExpression);
         ttButton.addActionListener(e -> {
-            String text = ttTextField.getText();
+            // 手动修改的 tt -t 也要有限的 -n
+            String text = TimeTunnelUtils.boundCommand(ttTextField.getText(), AppSettingsState.getInstance(project).invokeCount);
             if (StringUtils.isNotBlank(text)) {
+                ttTextField.setText(text);
                 ClipboardUtils.setClipboardString(text);
+                CommandCopyHookUtils.afterCopy(project, text);
                 NotifyUtils.notifyMessageDefault(project);
             }
 
@@ -106,6 +112,7 @@ public class ArthasTimeTunnelDialog extends JDialog {
             }
             if (StringUtils.isNotBlank(selectedItemStr)) {
                 ClipboardUtils.setClipboardString(selectedItemStr);
+                CommandCopyHookUtils.afterCopy(project, selectedItemStr);
                 NotifyUtils.notifyMessageDefault(project);
             }
         });
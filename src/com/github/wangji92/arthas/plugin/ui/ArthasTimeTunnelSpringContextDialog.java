@@ -4,6 +4,7 @@ import com.github.wangji92.arthas.plugin.constants.ArthasCommandConstants;
 import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
 import com.github.wangji92.arthas.plugin.utils.ActionLinkUtils;
 import com.github.wangji92.arthas.plugin.utils.ClipboardUtils;
+import com.github.wangji92.arthas.plugin.utils.CommandCopyHookUtils;
 import com.github.wangji92.arthas.plugin.utils.NotifyUtils;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.wm.WindowManager;
@@ -108,6 +109,7 @@ public class ArthasTimeTunnelSpringContextDialog extends JDialog {
         ttBeginButton.addActionListener(e -> {
             String text = ttRequestMappingHandlerAdapterInvokeField.getText();
             ClipboardUtils.setClipboardString(text);
+            CommandCopyHookUtils.afterCopy(project, text);
             NotifyUtils.notifyMessage(project, "通过tt 获取spring context的命令可以多次使用,第一次使用需要触发一下一个接口的调用");
         });
         springPropertyButton.addActionListener((e -> {
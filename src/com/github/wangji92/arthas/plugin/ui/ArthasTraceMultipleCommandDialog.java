@@ -1,9 +1,11 @@
 package com.github.wangji92.arthas.plugin.ui;
 
+import com.github.wangji92.arthas.plugin.common.command.BatchCommandComposer;
 import com.github.wangji92.arthas.plugin.constants.ArthasCommandConstants;
 import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
 import com.github.wangji92.arthas.plugin.utils.ActionLinkUtils;
 import com.github.wangji92.arthas.plugin.utils.ClipboardUtils;
+import com.github.wangji92.arthas.plugin.utils.CommandCopyHookUtils;
 import com.github.wangji92.arthas.plugin.utils.NotifyUtils;
 import com.google.common.collect.Sets;
 import com.intellij.openapi.project.Project;
@@ -13,6 +15,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import javax.swing.*;
 import java.awt.event.*;
+import java.util.Collection;
 import java.util.Set;
 
 /**
@@ -59,6 +62,13 @@ public class ArthasTraceMultipleCommandDialog extends JDialog {
      */
     private static Set<String> METHOD_SET = Sets.newConcurrentHashSet();
 
+    /**
+     * 上一次调用图添加的类 原来没有的才记录,再次生成的时候只替换这些
+     */
+    private static Set<String> CALL_GRAPH_CLASS_SET = Sets.newConcurrentHashSet();
+
+    private static Set<String> CALL_GRAPH_METHOD_SET = Sets.newConcurrentHashSet();
+
 
     public ArthasTraceMultipleCommandDialog(Project project) {
         this.project = project;
@@ -123,6 +133,7 @@ public class ArthasTraceMultipleCommandDialog extends JDialog {
             String printConditionExpress = instance.printConditionExpress ? "-v" : "";
             String command = String.join(" ", traceECommand, printConditionExpress, skpJdkMethodCommand,ArthasCommandConstants.DEFAULT_CONDITION_EXPRESS);
             ClipboardUtils.setClipboardString(command);
+            CommandCopyHookUtils.afterCopy(project, command);
             NotifyUtils.notifyMessage(project, NotifyUtils.COMMAND_COPIED+"<a href=\"https://arthas.aliyun.com/doc/trace.html\">trace -E help</a>");
         }
         // modify by wangji 同事意见 多次trace 可能需要增加其他的 最好是自己手动清除
@@ -168,10 +179,34 @@ public class ArthasTraceMultipleCommandDialog extends JDialog {
      * @param methodName
      */
     public void continueAddTrace(String className, String methodName) {
-        CLASS_SET.add(className);
+        CLASS_SET.add(BatchCommandComposer.toClassPattern(className));
         METHOD_SET.add(methodName);
     }
 
+    /**
+     * 替换上一次调用图添加的方法 手动添加的保留
+     *
+     * @param classNames  原始的类名称
+     * @param methodNames
+     */
+    public void replaceTrace(Collection<String> classNames, Collection<String> methodNames) {
+        CLASS_SET.removeAll(CALL_GRAPH_CLASS_SET);
+        METHOD_SET.removeAll(CALL_GRAPH_METHOD_SET);
+        CALL_GRAPH_CLASS_SET.clear();
+        CALL_GRAPH_METHOD_SET.clear();
+        for (String className : classNames) {
+            String classPattern = BatchCommandComposer.toClassPattern(className);
+            if (CLASS_SET.add(classPattern)) {
+                CALL_GRAPH_CLASS_SET.add(classPattern);
+            }
+        }
+        for (String methodName : methodNames) {
+            if (METHOD_SET.add(methodName)) {
+                CALL_GRAPH_METHOD_SET.add(methodName);
+            }
+        }
+    }
+
     /**
      * 清除数据
      *
@@ -181,6 +216,8 @@ public class ArthasTraceMultipleCommandDialog extends JDialog {
         this.project = project;
         CLASS_SET.clear();
         METHOD_SET.clear();
+        CALL_GRAPH_CLASS_SET.clear();
+        CALL_GRAPH_METHOD_SET.clear();
         this.traceCommandTextField.setText("trace -E ");
     }
 
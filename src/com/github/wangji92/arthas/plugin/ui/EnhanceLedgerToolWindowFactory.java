@@ -0,0 +1,115 @@
+package com.github.wangji92.arthas.plugin.ui;
+
+import com.github.wangji92.arthas.plugin.setting.EnhanceLedgerState;
+import com.github.wangji92.arthas.plugin.utils.EnhanceLedgerUtils;
+import com.github.wangji92.arthas.plugin.utils.NotifyUtils;
+import com.github.wangji92.arthas.plugin.utils.StringUtils;
+import com.intellij.icons.AllIcons;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import com.intellij.ui.table.TableView;
+import com.intellij.util.ui.ColumnInfo;
+import com.intellij.util.ui.ListTableModel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Arthas Enhance Ledger 窗口 列出工程中还没有 reset 的增强 选中或者全部清理 每个目标进程一次 attach
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class EnhanceLedgerToolWindowFactory implements ToolWindowFactory, DumbAware {
+
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        EnhanceLedgerState state = EnhanceLedgerState.getInstance(project);
+        ListTableModel<EnhanceLedgerState.Entry> model = new ListTableModel<>(
+                column("Type", entry -> entry.commandType + (entry.regex ? " -E" : "")),
+                column("Class", entry -> entry.className),
+                column("Method", entry -> StringUtils.defaultString(entry.methodName)),
+                column("Target", entry -> StringUtils.isBlank(entry.target) ? "manual pid" : entry.target),
+                column("Source", entry -> entry.source),
+                column("Time", entry -> new SimpleDateFormat("MM-dd HH:mm:ss").format(new Date(entry.time))));
+        TableView<EnhanceLedgerState.Entry> table = new TableView<>(model);
+        Runnable refresh = () -> model.setItems(state.listEntries());
+        refresh.run();
+        Runnable listener = () -> ApplicationManager.getApplication().invokeLater(refresh, project.getDisposed());
+        state.addListener(listener);
+
+        DefaultActionGroup group = new DefaultActionGroup();
+        group.add(new LedgerAction("Reset Selected", "Reset selected enhancements, one attach per target process", AllIcons.Actions.Rollback) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                reset(project, table.getSelectedObjects());
+            }
+        });
+        group.add(new LedgerAction("Reset All", "Reset all enhancements, one attach per target process", AllIcons.Actions.ForceRefresh) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                reset(project, model.getItems());
+            }
+        });
+        group.add(new LedgerAction("Remove Selected", "Remove selected entries without reset, already reset on the server", AllIcons.General.Remove) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                state.remove(table.getSelectedObjects().stream().map(entry -> entry.id).collect(Collectors.toList()));
+            }
+        });
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("ArthasEnhanceLedger", group, false);
+        JPanel panel = new JPanel(new BorderLayout());
+        toolbar.setTargetComponent(panel);
+        panel.add(toolbar.getComponent(), BorderLayout.WEST);
+        panel.add(new JBScrollPane(table), BorderLayout.CENTER);
+
+        Content content = ContentFactory.getInstance().createContent(panel, "", false);
+        Disposer.register(content, () -> state.removeListener(listener));
+        toolWindow.getContentManager().addContent(content);
+    }
+
+    private static void reset(Project project, List<EnhanceLedgerState.Entry> entries) {
+        if (entries.isEmpty()) {
+            NotifyUtils.notifyMessage(project, "no enhance ledger entry to reset", NotificationType.WARNING);
+            return;
+        }
+        EnhanceLedgerUtils.resetAll(project, entries);
+    }
+
+    private static ColumnInfo<EnhanceLedgerState.Entry, String> column(String name, Function<EnhanceLedgerState.Entry, String> getter) {
+        return new ColumnInfo<EnhanceLedgerState.Entry, String>(name) {
+            @Override
+            public @Nullable String valueOf(EnhanceLedgerState.Entry entry) {
+                return getter.apply(entry);
+            }
+        };
+    }
+
+    private abstract static class LedgerAction extends AnAction implements DumbAware {
+
+        LedgerAction(String text, String description, Icon icon) {
+            super(text, description, icon);
+        }
+
+        @Override
+        public @NotNull ActionUpdateThread getActionUpdateThread() {
+            return ActionUpdateThread.EDT;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.wangji92.arthas.plugin.ui;
+
+import com.github.wangji92.arthas.plugin.common.profile.FlameGraphDiff;
+import com.intellij.openapi.project.Project;
+import com.intellij.ui.JBSplitter;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+
+import javax.swing.table.AbstractTableModel;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+
+/**
+ * 差分火焰图 左侧为 after 窗口的火焰图,右侧为 self 占比变化最大的栈帧排行 双击跳转到源码
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class FlameGraphDiffPanel extends JBSplitter {
+
+    private static final String[] COLUMNS = {"Frame", "Baseline %", "After %", "Delta %"};
+
+    public FlameGraphDiffPanel(Project project, FlameGraphDiff diff) {
+        super(false, 0.7f);
+        List<FlameGraphDiff.FrameDelta> ranking = diff.getRanking();
+        JBTable table = new JBTable(new AbstractTableModel() {
+            @Override
+            public int getRowCount() {
+                return ranking.size();
+            }
+
+            @Override
+            public int getColumnCount() {
+                return COLUMNS.length;
+            }
+
+            @Override
+            public String getColumnName(int column) {
+                return COLUMNS[column];
+            }
+
+            @Override
+            public Object getValueAt(int row, int column) {
+                FlameGraphDiff.FrameDelta delta = ranking.get(row);
+                switch (column) {
+                    case 0:
+                        return delta.getFrameName();
+                    case 1:
+                        return String.format("%.2f", delta.getBaselinePercent());
+                    case 2:
+                        return String.format("%.2f", delta.getAfterPercent());
+                    default:
+                        return String.format("%+.2f", delta.getDeltaPercent());
+                }
+            }
+        });
+        table.getColumnModel().getColumn(0).setPreferredWidth(400);
+        table.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = table.rowAtPoint(e.getPoint());
+                if (e.getClickCount() >= 2 && row >= 0) {
+                    FlameGraphPanel.navigate(project, ranking.get(row).getFrameName());
+                }
+            }
+        });
+        this.setFirstComponent(new JBScrollPane(new FlameGraphPanel(project, diff)));
+        this.setSecondComponent(new JBScrollPane(table));
+    }
+}
@@ -0,0 +1,295 @@
+package com.github.wangji92.arthas.plugin.ui;
+
+import com.github.wangji92.arthas.plugin.common.profile.FlameGraphDiff;
+import com.github.wangji92.arthas.plugin.common.profile.FrameNavigator;
+import com.github.wangji92.arthas.plugin.common.profile.FrameTree;
+import com.github.wangji92.arthas.plugin.utils.NotifyUtils;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.pom.Navigatable;
+import com.intellij.ui.JBColor;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.ui.JBUI;
+import com.intellij.util.ui.UIUtil;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.BitSet;
+
+/**
+ * 火焰图 root 在上方,宽度和样本数成正比
+ * <p>
+ * 单击放大 单击上方的祖先节点缩小 双击跳转到源码;工程中的栈帧绿色展示
+ * 宽度小于 1 像素的节点以及可见区域外的行不绘制,百万级节点也可以流畅绘制
+ * 差分火焰图 after 窗口中的节点红色为增加 蓝色为减少,颜色越深变化越大
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class FlameGraphPanel extends JComponent {
+
+    private static final JBColor PROJECT_COLOR = new JBColor(new Color(0x6C, 0xC6, 0x6C), new Color(0x3E, 0x8E, 0x41));
+
+    private static final JBColor NATIVE_COLOR = new JBColor(new Color(0xE8, 0x6A, 0x5A), new Color(0xA8, 0x45, 0x3A));
+
+    private static final JBColor ZOOM_PATH_COLOR = new JBColor(new Color(0xD0, 0xD0, 0xD0), new Color(0x55, 0x55, 0x55));
+
+    private static final JBColor TEXT_COLOR = new JBColor(Color.BLACK, new Color(0xE0, 0xE0, 0xE0));
+
+    /**
+     * 差分颜色分档 [0,DIFF_LEVELS) 减少 DIFF_LEVELS 不变 (DIFF_LEVELS,2*DIFF_LEVELS] 增加
+     */
+    private static final int DIFF_LEVELS = 10;
+
+    private static final Color[] DIFF_COLORS = new Color[DIFF_LEVELS * 2 + 1];
+
+    static {
+        for (int i = 0; i <= DIFF_LEVELS * 2; i++) {
+            int level = i - DIFF_LEVELS;
+            int fade = 0xE0 - Math.abs(level) * 0xA0 / DIFF_LEVELS;
+            Color light = level > 0 ? new Color(0xFF, fade, fade) : level < 0 ? new Color(fade, fade, 0xFF) : new Color(0xE0, 0xE0, 0xE0);
+            DIFF_COLORS[i] = new JBColor(light, light.darker().darker());
+        }
+    }
+
+    private final Project project;
+
+    private final FrameTree tree;
+
+    /**
+     * 普通火焰图为 null
+     */
+    private final FlameGraphDiff diff;
+
+    private final int rowHeight = JBUI.scale(18);
+
+    /**
+     * 非工程栈帧的颜色 按 frame id 缓存
+     */
+    private final Color[] frameColors;
+
+    private int zoomNode = FrameTree.ROOT;
+
+    /**
+     * 后台解析完成之前为空
+     */
+    private volatile BitSet projectFrames = new BitSet();
+
+    public FlameGraphPanel(Project project, FrameTree tree) {
+        this(project, tree, null);
+    }
+
+    /**
+     * 差分火焰图 默认放大到 after 窗口
+     *
+     * @param project
+     * @param diff
+     */
+    public FlameGraphPanel(Project project, FlameGraphDiff diff) {
+        this(project, diff.getTree(), diff);
+        this.zoomNode = diff.getAfterRoot();
+    }
+
+    private FlameGraphPanel(Project project, FrameTree tree, FlameGraphDiff diff) {
+        this.project = project;
+        this.tree = tree;
+        this.diff = diff;
+        this.frameColors = new Color[tree.getFrameCount()];
+        this.setFont(UIUtil.getLabelFont(UIUtil.FontSize.SMALL));
+        this.setToolTipText("");
+        this.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int node = nodeAt(e.getPoint());
+                if (node < 0) {
+                    return;
+                }
+                if (e.getClickCount() >= 2) {
+                    navigate(project, tree.getNodeName(node));
+                } else {
+                    zoomNode = node;
+                    repaint();
+                }
+            }
+        });
+        ReadAction.nonBlocking(() -> FrameNavigator.findProjectFrames(project, tree))
+                .inSmartMode(project)
+                .expireWith(project)
+                .finishOnUiThread(ModalityState.any(), frames -> {
+                    projectFrames = frames;
+                    repaint();
+                })
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(JBUI.scale(800), (tree.getMaxDepth() + 1) * rowHeight);
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Graphics2D g = (Graphics2D) graphics.create();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(UIUtil.getPanelBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+            Rectangle clip = g.getClipBounds() == null ? new Rectangle(0, 0, getWidth(), getHeight()) : g.getClipBounds();
+            // 放大节点的祖先 占满整行
+            for (int node = tree.getParent(zoomNode); node >= 0; node = tree.getParent(node)) {
+                this.paintFrame(g, node, 0, getWidth(), ZOOM_PATH_COLOR);
+            }
+            this.paintTree(g, clip, zoomNode, 0, getWidth());
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private void paintTree(Graphics2D g, Rectangle clip, int node, double x, double width) {
+        int y = tree.getDepth(node) * rowHeight;
+        if (width < 1 || y > clip.y + clip.height) {
+            return;
+        }
+        if (y + rowHeight >= clip.y) {
+            this.paintFrame(g, node, x, width, this.frameColor(node));
+        }
+        long total = tree.getTotal(node);
+        if (total == 0) {
+            return;
+        }
+        double childX = x;
+        for (int child = tree.getFirstChild(node); child != -1; child = tree.getNextSibling(child)) {
+            double childWidth = width * tree.getTotal(child) / total;
+            this.paintTree(g, clip, child, childX, childWidth);
+            childX += childWidth;
+        }
+    }
+
+    private void paintFrame(Graphics2D g, int node, double x, double width, Color color) {
+        int left = (int) x;
+        int right = (int) (x + width);
+        int y = tree.getDepth(node) * rowHeight;
+        g.setColor(color);
+        g.fillRect(left, y, Math.max(1, right - left - 1), rowHeight - 1);
+        FontMetrics metrics = g.getFontMetrics();
+        int textWidth = right - left - JBUI.scale(6);
+        if (textWidth < metrics.charWidth('m') * 3) {
+            return;
+        }
+        String name = tree.getNodeName(node);
+        if (metrics.stringWidth(name) > textWidth) {
+            int length = name.length();
+            while (length > 0 && metrics.stringWidth(name.substring(0, length)) + metrics.stringWidth("..") > textWidth) {
+                length = length * 3 / 4;
+            }
+            name = name.substring(0, length) + "..";
+        }
+        g.setColor(TEXT_COLOR);
+        g.drawString(name, left + JBUI.scale(3), y + (rowHeight + metrics.getAscent() - metrics.getDescent()) / 2);
+    }
+
+    private Color frameColor(int node) {
+        if (diff != null && diff.isAfterNode(node)) {
+            int level = (int) Math.round(diff.getIntensity(node) * DIFF_LEVELS);
+            return DIFF_COLORS[Math.max(-DIFF_LEVELS, Math.min(DIFF_LEVELS, level)) + DIFF_LEVELS];
+        }
+        int frame = tree.getFrame(node);
+        if (projectFrames.get(frame)) {
+            return PROJECT_COLOR;
+        }
+        Color color = frameColors[frame];
+        if (color != null) {
+            return color;
+        }
+        String name = tree.getFrameName(frame);
+        if (name.endsWith("_[k]") || (name.indexOf('.') < 0 && name.indexOf('/') < 0)) {
+            color = NATIVE_COLOR;
+        } else {
+            // 同一个栈帧颜色固定 暖色系
+            int hash = name.hashCode();
+            int red = 205 + (hash & 0x1F);
+            int green = 120 + ((hash >>> 5) & 0x5F);
+            color = new JBColor(new Color(red, green, 0x40), new Color(red * 3 / 4, green * 3 / 4, 0x30));
+        }
+        frameColors[frame] = color;
+        return color;
+    }
+
+    /**
+     * 坐标对应的节点 没有返回 -1
+     */
+    private int nodeAt(Point point) {
+        int depth = point.y / rowHeight;
+        int zoomDepth = tree.getDepth(zoomNode);
+        if (depth < zoomDepth) {
+            int node = zoomNode;
+            while (tree.getDepth(node) > depth) {
+                node = tree.getParent(node);
+            }
+            return node;
+        }
+        int node = zoomNode;
+        double x = 0;
+        double width = getWidth();
+        while (tree.getDepth(node) < depth) {
+            long total = tree.getTotal(node);
+            int found = -1;
+            double childX = x;
+            for (int child = tree.getFirstChild(node); child != -1 && total > 0; child = tree.getNextSibling(child)) {
+                double childWidth = width * tree.getTotal(child) / total;
+                if (point.x >= childX && point.x < childX + childWidth) {
+                    found = child;
+                    x = childX;
+                    width = childWidth;
+                    break;
+                }
+                childX += childWidth;
+            }
+            if (found < 0) {
+                return -1;
+            }
+            node = found;
+        }
+        return node;
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent event) {
+        int node = nodeAt(event.getPoint());
+        if (node < 0) {
+            return null;
+        }
+        long rootTotal = Math.max(1, tree.getTotal(FrameTree.ROOT));
+        String diffText = "";
+        if (diff != null && diff.isAfterNode(node)) {
+            diffText = String.format("<br/>baseline (normalized): %,.0f delta: %+.2f%%", diff.getNormalizedBaseline(node), diff.getDeltaPercent(node));
+        }
+        return String.format("<html>%s<br/>samples: %,d (%.2f%%) self: %,d%s<br/>click to zoom, double click to navigate</html>",
+                StringUtil.escapeXmlEntities(tree.getNodeName(node)), tree.getTotal(node), tree.getTotal(node) * 100.0 / rootTotal, tree.getSelf(node), diffText);
+    }
+
+    /**
+     * 跳转到栈帧对应的源码
+     *
+     * @param project
+     * @param frameName
+     */
+    static void navigate(Project project, String frameName) {
+        ReadAction.nonBlocking(() -> FrameNavigator.findNavigationElement(project, frameName))
+                .inSmartMode(project)
+                .expireWith(project)
+                .finishOnUiThread(ModalityState.defaultModalityState(), element -> {
+                    if (element instanceof Navigatable && ((Navigatable) element).canNavigate()) {
+                        ((Navigatable) element).navigate(true);
+                    } else {
+                        NotifyUtils.notifyMessage(project, "source not found: " + frameName, NotificationType.WARNING);
+                    }
+                })
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.wangji92.arthas.plugin.ui;
+
+import com.github.wangji92.arthas.plugin.common.command.SamplingCondition;
+import com.github.wangji92.arthas.plugin.utils.PropertiesComponentUtils;
+import com.github.wangji92.arthas.plugin.utils.StringUtils;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogBuilder;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.util.ui.FormBuilder;
+import com.intellij.util.ui.JBUI;
+import com.intellij.util.ui.UIUtil;
+
+import javax.swing.*;
+import javax.swing.event.ChangeListener;
+
+/**
+ * watch/trace 采样设置 输入采样率、预热跳过时间、时间窗口 实时展示开销估算
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class SamplingConditionDialog {
+
+    private static final String SAMPLE_KEY = "sampling.perMille";
+
+    private static final String WARM_UP_KEY = "sampling.warmUpSeconds";
+
+    private static final String WINDOW_KEY = "sampling.windowSeconds";
+
+    private static final String QPS_KEY = "sampling.qps";
+
+    /**
+     * 展示对话框 取消返回 null 输入的值记录在工程配置中
+     *
+     * @param project
+     * @param trace       trace 或者 watch
+     * @param depth       watch -x 的深度
+     * @param invokeCount -n
+     * @return
+     */
+    public static SamplingCondition show(Project project, boolean trace, int depth, int invokeCount) {
+        JSpinner sample = newSpinner(project, SAMPLE_KEY, 10, 1, SamplingCondition.SAMPLE_BASE, 1);
+        JSpinner warmUp = newSpinner(project, WARM_UP_KEY, 0, 0, 3600, 5);
+        JSpinner window = newSpinner(project, WINDOW_KEY, 0, 0, 86400, 10);
+        JSpinner qps = newSpinner(project, QPS_KEY, 1000, 1, 1_000_000, 100);
+        JBLabel estimate = new JBLabel();
+        estimate.setComponentStyle(UIUtil.ComponentStyle.SMALL);
+        ChangeListener refresh = e -> estimate.setText(toCondition(sample, warmUp, window, qps).estimate(trace, depth, invokeCount));
+        for (JSpinner spinner : new JSpinner[]{sample, warmUp, window, qps}) {
+            spinner.addChangeListener(refresh);
+        }
+        refresh.stateChanged(null);
+
+        JPanel panel = FormBuilder.createFormBuilder()
+                .addLabeledComponent("Sample k of " + SamplingCondition.SAMPLE_BASE + " calls", sample)
+                .addLabeledComponent("Skip first seconds (warm-up)", warmUp)
+                .addLabeledComponent("Window seconds (0 unlimited)", window)
+                .addLabeledComponent("Expected method QPS (estimate only)", qps)
+                .addComponent(estimate)
+                .getPanel();
+        panel.setBorder(JBUI.Borders.empty(8));
+
+        DialogBuilder builder = new DialogBuilder(project);
+        builder.setTitle((trace ? "Trace" : "Watch") + " Sampling");
+        builder.setCenterPanel(panel);
+        builder.setPreferredFocusComponent(sample);
+        if (builder.show() != DialogWrapper.OK_EXIT_CODE) {
+            return null;
+        }
+        PropertiesComponentUtils.setValue(project, SAMPLE_KEY, sample.getValue().toString());
+        PropertiesComponentUtils.setValue(project, WARM_UP_KEY, warmUp.getValue().toString());
+        PropertiesComponentUtils.setValue(project, WINDOW_KEY, window.getValue().toString());
+        PropertiesComponentUtils.setValue(project, QPS_KEY, qps.getValue().toString());
+        return toCondition(sample, warmUp, window, qps);
+    }
+
+    private static SamplingCondition toCondition(JSpinner sample, JSpinner warmUp, JSpinner window, JSpinner qps) {
+        return new SamplingCondition((Integer) sample.getValue(), (Integer) warmUp.getValue(), (Integer) window.getValue(), (Integer) qps.getValue());
+    }
+
+    /**
+     * 记录的值超出范围的时候 SpinnerNumberModel 会抛出异常 先限制在范围内
+     */
+    private static JSpinner newSpinner(Project project, String key, int defaultValue, int minimum, int maximum, int stepSize) {
+        int value = Math.max(minimum, Math.min(getInt(project, key, defaultValue), maximum));
+        return new JSpinner(new SpinnerNumberModel(value, minimum, maximum, stepSize));
+    }
+
+    private static int getInt(Project project, String key, int defaultValue) {
+        String value = PropertiesComponentUtils.getValue(project, key);
+        if (!StringUtils.isNumeric(value)) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
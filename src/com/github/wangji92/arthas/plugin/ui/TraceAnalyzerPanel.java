@@ -0,0 +1,73 @@
+package com.github.wangji92.arthas.plugin.ui;
+
+import com.github.wangji92.arthas.plugin.common.trace.TraceLatencyHints;
+import com.github.wangji92.arthas.plugin.common.trace.TraceNode;
+import com.intellij.openapi.project.Project;
+import com.intellij.ui.ColoredTreeCellRenderer;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.treeStructure.Tree;
+import com.intellij.util.ui.tree.TreeUtil;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+/**
+ * 多次 trace 结果合并后的调用树 每个节点展示 p50/p95/p99/max,耗时最多的子节点标记为 dominant 双击跳转到源码
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class TraceAnalyzerPanel extends JPanel {
+
+    public TraceAnalyzerPanel(Project project, TraceNode root) {
+        super(new BorderLayout());
+        DefaultMutableTreeNode rootTreeNode = buildTreeNode(root);
+        Tree tree = new Tree(new DefaultTreeModel(rootTreeNode));
+        int invocations = root.getInvocations();
+        tree.setCellRenderer(new ColoredTreeCellRenderer() {
+            @Override
+            public void customizeCellRenderer(@NotNull JTree tree, Object value, boolean selected, boolean expanded, boolean leaf, int row, boolean hasFocus) {
+                TraceNode node = (TraceNode) ((DefaultMutableTreeNode) value).getUserObject();
+                if (node == root) {
+                    append(String.format("%d trace results", invocations), SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES);
+                    return;
+                }
+                append(node.toString(), node.isDominant() ? SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES : SimpleTextAttributes.REGULAR_ATTRIBUTES);
+                if (node.isDominant()) {
+                    append("  dominant", SimpleTextAttributes.ERROR_ATTRIBUTES);
+                }
+                append("  " + TraceLatencyHints.formatHint(node, invocations), SimpleTextAttributes.GRAYED_ATTRIBUTES);
+            }
+        });
+        tree.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                TreePath path = tree.getPathForLocation(e.getX(), e.getY());
+                if (e.getClickCount() < 2 || path == null) {
+                    return;
+                }
+                TraceNode node = (TraceNode) ((DefaultMutableTreeNode) path.getLastPathComponent()).getUserObject();
+                if (node != root) {
+                    FlameGraphPanel.navigate(project, node.getClassName() + "." + node.getMethodName());
+                }
+            }
+        });
+        TreeUtil.expandAll(tree);
+        this.add(new JBScrollPane(tree), BorderLayout.CENTER);
+    }
+
+    private static DefaultMutableTreeNode buildTreeNode(TraceNode node) {
+        DefaultMutableTreeNode treeNode = new DefaultMutableTreeNode(node);
+        for (TraceNode child : node.getChildren()) {
+            treeNode.add(buildTreeNode(child));
+        }
+        return treeNode;
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.wangji92.arthas.plugin.ui;
+
+import com.github.wangji92.arthas.plugin.common.trace.TraceLatencyHints;
+import com.intellij.openapi.editor.EditorLinePainter;
+import com.intellij.openapi.editor.LineExtensionInfo;
+import com.intellij.openapi.editor.markup.TextAttributes;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.JBColor;
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.*;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 方法声明的行尾展示 trace 分析的耗时 和 debugger 的 inline value 一样
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class TraceLatencyLinePainter extends EditorLinePainter {
+
+    private static final TextAttributes HINT_ATTRIBUTES = new TextAttributes(new JBColor(new Color(0x8C, 0x6D, 0x1F), new Color(0xC9, 0xA2, 0x4D)), null, null, null, Font.ITALIC);
+
+    @Override
+    public Collection<LineExtensionInfo> getLineExtensions(@NotNull Project project, @NotNull VirtualFile file, int lineNumber) {
+        List<String> hints = TraceLatencyHints.getHints(project, file, lineNumber);
+        if (hints.isEmpty()) {
+            return null;
+        }
+        return hints.stream().map(hint -> new LineExtensionInfo("    trace " + hint, HINT_ATTRIBUTES)).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.wangji92.arthas.plugin.ui;
+
+import com.github.wangji92.arthas.plugin.common.command.WatchProjection;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogBuilder;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.CheckboxTree;
+import com.intellij.ui.CheckboxTreeListener;
+import com.intellij.ui.CheckedTreeNode;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.util.ui.JBUI;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 勾选 watch 需要观察的参数、返回值字段 实时展示生成的表达式
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class WatchFieldPickerDialog {
+
+    /**
+     * 展示对话框
+     *
+     * @param project
+     * @param title
+     * @param roots
+     * @return 选中的字段 取消或者没有选中返回空
+     */
+    public static List<WatchProjection.Field> show(Project project, String title, List<WatchProjection.Field> roots) {
+        CheckedTreeNode rootNode = new CheckedTreeNode(null);
+        for (WatchProjection.Field root : roots) {
+            rootNode.add(buildNode(root));
+        }
+        CheckboxTree tree = new CheckboxTree(new CheckboxTree.CheckboxTreeCellRenderer() {
+            @Override
+            public void customizeRenderer(JTree tree, Object value, boolean selected, boolean expanded, boolean leaf, int row, boolean hasFocus) {
+                Object userObject = ((CheckedTreeNode) value).getUserObject();
+                if (userObject instanceof WatchProjection.Field) {
+                    WatchProjection.Field field = (WatchProjection.Field) userObject;
+                    getTextRenderer().append(field.getLabel(), field.isLeaf() ? SimpleTextAttributes.REGULAR_ATTRIBUTES : SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES);
+                }
+            }
+        }, rootNode);
+        tree.setRootVisible(false);
+        for (int i = 0; i < roots.size(); i++) {
+            tree.expandRow(i);
+        }
+        JBTextField preview = new JBTextField();
+        preview.setEditable(false);
+        tree.addCheckboxTreeListener(new CheckboxTreeListener() {
+            @Override
+            public void nodeStateChanged(@NotNull CheckedTreeNode node) {
+                List<WatchProjection.Field> fields = collectChecked(rootNode);
+                preview.setText(fields.isEmpty() ? "" : WatchProjection.toWatchExpress(fields));
+            }
+        });
+
+        JPanel panel = new JPanel(new BorderLayout(0, JBUI.scale(6)));
+        JBScrollPane scrollPane = new JBScrollPane(tree);
+        scrollPane.setPreferredSize(JBUI.size(520, 420));
+        panel.add(scrollPane, BorderLayout.CENTER);
+        panel.add(preview, BorderLayout.SOUTH);
+
+        DialogBuilder builder = new DialogBuilder(project);
+        builder.setTitle(title);
+        builder.setCenterPanel(panel);
+        builder.setPreferredFocusComponent(tree);
+        if (builder.show() != DialogWrapper.OK_EXIT_CODE) {
+            return new ArrayList<>();
+        }
+        return collectChecked(rootNode);
+    }
+
+    private static CheckedTreeNode buildNode(WatchProjection.Field field) {
+        CheckedTreeNode node = new CheckedTreeNode(field);
+        node.setChecked(false);
+        for (WatchProjection.Field child : field.getChildren()) {
+            node.add(buildNode(child));
+        }
+        return node;
+    }
+
+    /**
+     * 父节点选中表示观察整个对象 不再展开子节点
+     */
+    private static List<WatchProjection.Field> collectChecked(CheckedTreeNode parent) {
+        List<WatchProjection.Field> fields = new ArrayList<>();
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            CheckedTreeNode child = (CheckedTreeNode) parent.getChildAt(i);
+            if (child.isChecked()) {
+                fields.add((WatchProjection.Field) child.getUserObject());
+            } else {
+                fields.addAll(collectChecked(child));
+            }
+        }
+        return fields;
+    }
+}
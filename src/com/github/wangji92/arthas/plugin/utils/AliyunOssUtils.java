@@ -1,21 +1,29 @@
 package com.github.wangji92.arthas.plugin.utils;
 
 import com.aliyun.oss.ClientException;
+import com.aliyun.oss.HttpMethod;
 import com.aliyun.oss.OSS;
 import com.aliyun.oss.OSSClientBuilder;
 import com.aliyun.oss.OSSException;
 import com.aliyun.oss.internal.OSSUtils;
-import com.aliyun.oss.model.BucketInfo;
-import com.aliyun.oss.model.OSSObject;
-import com.aliyun.oss.model.PutObjectRequest;
+import com.aliyun.oss.model.*;
 import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.project.Project;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * aliyun oss 操作类
@@ -103,6 +111,69 @@ public class AliyunOssUtils {
         return urlEncodeKeyPath;
     }
 
+    /**
+     * 大文件分片并发上传 支持断点续传
+     *
+     * @param ossClient
+     * @param bucketName
+     * @param directoryPrefix
+     * @param file
+     * @param settings
+     * @param indicator
+     * @return 返回 oss key的信息
+     */
+    public static String multipartUploadFile(OSS ossClient, String bucketName, String directoryPrefix, File file, AppSettingsState settings, ProgressIndicator indicator) {
+        MultipartUploadUtils.PartUploader uploader = new MultipartUploadUtils.PartUploader() {
+            @Override
+            public String initiate(String key) {
+                String urlEncodeKeyPath = OSSUtils.makeResourcePath(key);
+                if (!OSSUtils.validateObjectKey(urlEncodeKeyPath)) {
+                    throw new IllegalArgumentException("配置arthas aliyun oss 上传错误 fileKey 错误");
+                }
+                try {
+                    return ossClient.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucketName, urlEncodeKeyPath)).getUploadId();
+                } catch (OSSException | ClientException e) {
+                    LOG.info("initiateMultipartUpload", e);
+                    throw new IllegalArgumentException("初始化oss分片上传错误 " + e.getMessage());
+                }
+            }
+
+            @Override
+            public String uploadPart(String key, String uploadId, int partNumber, File file, long offset, long size) {
+                try (InputStream inputStream = new FileInputStream(file)) {
+                    if (inputStream.skip(offset) != offset) {
+                        throw new IllegalArgumentException("读取分片错误 partNumber:" + partNumber);
+                    }
+                    UploadPartRequest uploadPartRequest = new UploadPartRequest();
+                    uploadPartRequest.setBucketName(bucketName);
+                    uploadPartRequest.setKey(OSSUtils.makeResourcePath(key));
+                    uploadPartRequest.setUploadId(uploadId);
+                    uploadPartRequest.setPartNumber(partNumber);
+                    uploadPartRequest.setPartSize(size);
+                    uploadPartRequest.setInputStream(new BoundedInputStream(inputStream, size));
+                    return ossClient.uploadPart(uploadPartRequest).getPartETag().getETag();
+                } catch (OSSException | ClientException | IOException e) {
+                    LOG.info("uploadPart", e);
+                    throw new IllegalArgumentException("上传分片到oss 错误 partNumber:" + partNumber + " " + e.getMessage());
+                }
+            }
+
+            @Override
+            public void complete(String key, String uploadId, Map<Integer, String> partETags) {
+                try {
+                    ossClient.completeMultipartUpload(new CompleteMultipartUploadRequest(bucketName, OSSUtils.makeResourcePath(key), uploadId,
+                            partETags.entrySet().stream().map(entry -> new PartETag(entry.getKey(), entry.getValue())).collect(Collectors.toList())));
+                } catch (OSSException | ClientException e) {
+                    LOG.info("completeMultipartUpload", e);
+                    throw new IllegalArgumentException("合并oss分片错误 " + e.getMessage());
+                }
+            }
+        };
+        String key = MultipartUploadUtils.upload(uploader, "oss:" + settings.endpoint + ":" + bucketName, directoryPrefix, file,
+                settings.multipartUploadPartSize, settings.multipartUploadConcurrency, settings.multipartUploadPartRetry, indicator);
+        return OSSUtils.makeResourcePath(key);
+    }
+
     /**
      * 上传字符串到oss
      *
@@ -139,5 +210,75 @@ public class AliyunOssUtils {
         }
     }
 
+    /**
+     * 服务器通过 curl -X PUT 上传文件的签名地址 不指定 Content-Type
+     *
+     * @param ossClient
+     * @param bucketName
+     * @param key
+     * @param expiration
+     * @return
+     */
+    public static String generatePresignedPutUrl(OSS ossClient, String bucketName, String key, Date expiration) {
+        try {
+            return ossClient.generatePresignedUrl(bucketName, key, expiration, HttpMethod.PUT).toString();
+        } catch (Exception e) {
+            LOG.info("generatePresignedPutUrl", e);
+            throw new IllegalArgumentException("获取oss 上传地址错误");
+        }
+    }
 
+    /**
+     * 获取文件内容 不存在返回 null
+     *
+     * @param ossClient
+     * @param bucketName
+     * @param key
+     * @return
+     */
+    public static String getFileContent(OSS ossClient, String bucketName, String key) {
+        try {
+            if (!ossClient.doesObjectExist(bucketName, key)) {
+                return null;
+            }
+            try (InputStream inputStream = ossClient.getObject(bucketName, key).getObjectContent()) {
+                return IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+            }
+        } catch (OSSException | ClientException | IOException e) {
+            LOG.info("getFileContent", e);
+            throw new IllegalArgumentException("获取oss 文件错误 " + e.getMessage());
+        }
+    }
+
+    /**
+     * 删除文件
+     *
+     * @param ossClient
+     * @param bucketName
+     * @param key
+     */
+    public static void deleteFile(OSS ossClient, String bucketName, String key) {
+        try {
+            ossClient.deleteObject(bucketName, key);
+        } catch (OSSException | ClientException e) {
+            LOG.info("deleteFile", e);
+        }
+    }
+
+    /**
+     * 下载文件到本地 例如 async-profiler 的 jfr 文件
+     *
+     * @param ossClient
+     * @param bucketName
+     * @param key
+     * @param file
+     */
+    public static void downloadFile(OSS ossClient, String bucketName, String key, File file) {
+        try {
+            ossClient.getObject(new GetObjectRequest(bucketName, key), file);
+        } catch (OSSException | ClientException e) {
+            LOG.info("downloadFile", e);
+            throw new IllegalArgumentException("下载oss 文件错误 " + e.getMessage());
+        }
+    }
 }
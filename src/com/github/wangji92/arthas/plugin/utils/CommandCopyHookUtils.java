@@ -0,0 +1,30 @@
+package com.github.wangji92.arthas.plugin.utils;
+
+import com.intellij.openapi.project.Project;
+
+/**
+ * 命令生成并复制之后的处理 条件表达式开销检查、增强记录、tt -t 清理提醒
+ * <p>
+ * 只在生成 arthas 命令的 action 和对话框中调用 使用调用方的工程,普通的复制不处理
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class CommandCopyHookUtils {
+
+    /**
+     * 命令复制到剪贴板之后调用
+     *
+     * @param project  生成命令的工程
+     * @param commands 一行一个或者 ; 分割
+     */
+    public static void afterCopy(Project project, String commands) {
+        if (project == null || project.isDisposed() || StringUtils.isBlank(commands)) {
+            return;
+        }
+        // 条件表达式每次调用都会计算 开销大的提示一下
+        OgnlCostLintUtils.lint(project, commands);
+        EnhanceLedgerUtils.record(project, commands, EnhanceLedgerUtils.SOURCE_COPY);
+        TimeTunnelUtils.scheduleCleanupReminder(project, commands);
+    }
+}
@@ -1,12 +1,15 @@
 package com.github.wangji92.arthas.plugin.utils;
 
 import com.github.wangji92.arthas.plugin.common.enums.ShellScriptVariableEnum;
+import com.github.wangji92.arthas.plugin.constants.ArthasCommandConstants;
 import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
 import com.google.common.collect.Maps;
 import com.google.common.io.BaseEncoding;
 import com.intellij.openapi.project.Project;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -34,15 +37,25 @@ public class CommonExecuteScriptUtils {
         if (StringUtils.isNotBlank(scCommand) && !command.contains(ShellScriptVariableEnum.CLASSLOADER_HASH_VALUE.getCode())) {
             command = String.join(" ", command, "-c", ShellScriptVariableEnum.CLASSLOADER_HASH_VALUE.getCode());
         }
+        if (EnhanceGuardUtils.executeIfEnhance(project, scCommand, command, appendTip)) {
+            return;
+        }
+        EnhanceLedgerUtils.record(project, command, EnhanceLedgerUtils.SOURCE_EXECUTE);
         params.put("SC_COMMAND", scCommand);
+        params.put("timeTunnelCleanupSeconds", TimeTunnelUtils.getCleanupSecondsParam(project, command));
+        String title = command;
+        ResultRoundTripUtils.RoundTrip roundTrip = ResultRoundTripUtils.prepare(project, settings);
+        if (roundTrip != null) {
+            params.put("arthasResultUploadCommand", roundTrip.getUploadCommand());
+            // 脚本中执行前保存原来的 json-format 结束后恢复
+            command = String.join(";", ArthasCommandConstants.JSON_FORMAT_TRUE, command);
+        }
 
         // 坑 这里需要对 "" 中的 "进行转义
         command = command.replaceAll("\"", "\\\\\"");
         params.put("arthasCommonScriptCommand", command);
 
-        String commonFunctionSh = StringUtils.stringSubstitutorFromFilePath("/template/plugin-common-function.sh", params);
-        String mybatisMapperReloadSh = StringUtils.stringSubstitutorFromFilePath("/template/common-execution-script.sh", params);
-        mybatisMapperReloadSh = commonFunctionSh + "\n" + mybatisMapperReloadSh;
+        String mybatisMapperReloadSh = DirectScriptUtils.buildScriptWithCommonFunction(project, settings, params, "/template/common-execution-script.sh");
         String base64MybatisMapperReloadSh = BaseEncoding.base64().encode(mybatisMapperReloadSh.getBytes(StandardCharsets.UTF_8));
         DirectScriptUtils.buildDirectScript(project, settings, base64MybatisMapperReloadSh, "arthas-idea-plugin-common-execution-script.sh", directScriptResult -> {
             if (directScriptResult.getResult()) {
@@ -50,6 +63,61 @@ public class CommonExecuteScriptUtils {
                     directScriptResult.getTip().append(appendTip);
                 }
                 NotifyUtils.notifyMessage(project, directScriptResult.getTip().toString());
+                if (roundTrip != null && TraceAnalyzeUtils.isTraceCommand(title)) {
+                    // trace 额外展示多次调用合并后的分析结果
+                    ResultRoundTripUtils.fetchInBackground(project, roundTrip, title, content -> TraceAnalyzeUtils.showResultAndAnalysis(project, title, content));
+                } else if (roundTrip != null) {
+                    ResultRoundTripUtils.fetchInBackground(project, roundTrip, title);
+                }
+            }
+        });
+    }
+
+    /**
+     * 批处理脚本 arthas-boot -f 一次 attach 执行多个命令
+     *
+     * @param project
+     * @param scCommand 获取classloader hash value 命令中使用 ${CLASSLOADER_HASH_VALUE}
+     * @param commands  一行一个命令
+     * @param appendTip
+     */
+    public static void executeBatchScript(Project project, String scCommand, List<String> commands, String appendTip) {
+        if (EnhanceGuardUtils.executeIfEnhance(project, scCommand, String.join("\n", commands), appendTip)) {
+            return;
+        }
+        EnhanceLedgerUtils.record(project, String.join("\n", commands), EnhanceLedgerUtils.SOURCE_EXECUTE);
+        AppSettingsState settings = AppSettingsState.getInstance(project);
+        Map<String, String> params = Maps.newHashMap();
+        if (!settings.manualSelectPid) {
+            params.put("arthasIdeaPluginApplicationName", settings.selectProjectName);
+        }
+        params.put("arthasPackageZipDownloadUrl", settings.arthasPackageZipDownloadUrl);
+        params.put("SC_COMMAND", scCommand);
+        params.put("timeTunnelCleanupSeconds", TimeTunnelUtils.getCleanupSecondsParam(project, String.join("\n", commands)));
+        ResultRoundTripUtils.RoundTrip roundTrip = ResultRoundTripUtils.prepare(project, settings);
+        List<String> batchCommands = new ArrayList<>(commands);
+        if (roundTrip != null) {
+            params.put("arthasResultUploadCommand", roundTrip.getUploadCommand());
+            batchCommands.add(0, ArthasCommandConstants.JSON_FORMAT_TRUE);
+        }
+        // 命令中的引号不需要转义 base64 之后直接写入批处理文件
+        String batchScript = String.join("\n", batchCommands) + "\n";
+        params.put("arthasBatchScriptCommandBase64", BaseEncoding.base64().encode(batchScript.getBytes(StandardCharsets.UTF_8)));
+
+        String batchExecutionSh = DirectScriptUtils.buildScriptWithCommonFunction(project, settings, params, "/template/batch-execution-script.sh");
+        String base64BatchExecutionSh = BaseEncoding.base64().encode(batchExecutionSh.getBytes(StandardCharsets.UTF_8));
+        DirectScriptUtils.buildDirectScript(project, settings, base64BatchExecutionSh, "arthas-idea-plugin-batch-execution-script.sh", directScriptResult -> {
+            if (directScriptResult.getResult()) {
+                if (StringUtils.isNotBlank(appendTip)) {
+                    directScriptResult.getTip().append(appendTip);
+                }
+                NotifyUtils.notifyMessage(project, directScriptResult.getTip().toString());
+                String title = "batch " + commands.get(0);
+                if (roundTrip != null && commands.stream().anyMatch(TraceAnalyzeUtils::isTraceCommand)) {
+                    ResultRoundTripUtils.fetchInBackground(project, roundTrip, title, content -> TraceAnalyzeUtils.showResultAndAnalysis(project, title, content));
+                } else if (roundTrip != null) {
+                    ResultRoundTripUtils.fetchInBackground(project, roundTrip, title);
+                }
             }
         });
     }
@@ -0,0 +1,147 @@
+package com.github.wangji92.arthas.plugin.utils;
+
+import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
+import com.google.common.collect.Maps;
+import com.google.common.io.BaseEncoding;
+import com.intellij.openapi.project.Project;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 持续低频采样 服务器后台循环采集短窗口,collapsed gzip 后写入环形目录;idea 拉取任意时间范围合并后的火焰图
+ * <p>
+ * 循环中通过 arthas http api 执行 profiler 命令,不需要每个窗口都启动 arthas-boot
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class ContinuousProfilerUtils {
+
+    /**
+     * 时间范围的格式 from ~ to
+     */
+    public static final DateTimeFormatter RANGE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    public static final String RANGE_SEPARATOR = " ~ ";
+
+    /**
+     * 20ms 一次 比默认的 10ms 开销更低
+     */
+    public static final String LOW_INTERVAL = "20000000";
+
+    /**
+     * 环形目录最多保留的时间
+     */
+    private static final long RETENTION_SECONDS = TimeUnit.HOURS.toSeconds(24);
+
+    private static final String SCRIPT_TEMPLATE = "/template/profiler-continuous.sh";
+
+    private static final String SCRIPT_NAME = "arthas-idea-plugin-profiler-continuous.sh";
+
+    /**
+     * 最近 minutes 分钟的时间范围
+     *
+     * @param minutes
+     * @return
+     */
+    public static String lastMinutesRange(int minutes) {
+        LocalDateTime now = LocalDateTime.now();
+        return RANGE_FORMATTER.format(now.minusMinutes(minutes)) + RANGE_SEPARATOR + RANGE_FORMATTER.format(now);
+    }
+
+    /**
+     * 开始后台循环采样
+     *
+     * @param project
+     * @param startCommand  profiler start 命令 不带 --duration --file
+     * @param windowSeconds
+     * @param periodSeconds
+     */
+    public static void start(Project project, String startCommand, int windowSeconds, int periodSeconds) {
+        if (windowSeconds <= 0 || periodSeconds <= windowSeconds) {
+            throw new IllegalArgumentException("continuous profiler need 0 < window < period");
+        }
+        Map<String, String> params = Maps.newHashMap();
+        params.put("continuousProfilerMode", "start");
+        params.put("continuousProfilerStartCommand", startCommand);
+        params.put("continuousProfilerWindowSeconds", String.valueOf(windowSeconds));
+        params.put("continuousProfilerPeriodSeconds", String.valueOf(periodSeconds));
+        params.put("continuousProfilerRingSize", String.valueOf(Math.max(1, RETENTION_SECONDS / periodSeconds)));
+        execute(project, params, null, null, String.format("【continuous profiler %ds of every %ds,keep 24 hours】", windowSeconds, periodSeconds));
+    }
+
+    /**
+     * 停止后台循环采样 已经采集的窗口保留
+     *
+     * @param project
+     */
+    public static void stop(Project project) {
+        Map<String, String> params = Maps.newHashMap();
+        params.put("continuousProfilerMode", "stop");
+        execute(project, params, null, null, null);
+    }
+
+    /**
+     * 合并时间范围内开始的窗口 回传到 idea 展示火焰图
+     *
+     * @param project
+     * @param range   yyyy-MM-dd HH:mm ~ yyyy-MM-dd HH:mm
+     */
+    public static void pull(Project project, String range) {
+        String[] fromAndTo = StringUtils.splitByWholeSeparator(StringUtils.defaultString(range), RANGE_SEPARATOR.trim());
+        if (fromAndTo.length != 2) {
+            throw new IllegalArgumentException("time range format: yyyy-MM-dd HH:mm ~ yyyy-MM-dd HH:mm");
+        }
+        long from = toEpochSecond(fromAndTo[0]);
+        long to = toEpochSecond(fromAndTo[1]);
+        if (from > to) {
+            throw new IllegalArgumentException("time range from is after to");
+        }
+        Map<String, String> params = Maps.newHashMap();
+        params.put("continuousProfilerMode", "pull");
+        params.put("continuousProfilerFrom", String.valueOf(from));
+        params.put("continuousProfilerTo", String.valueOf(to));
+        ResultRoundTripUtils.RoundTrip roundTrip = ResultRoundTripUtils.prepare(project, AppSettingsState.getInstance(project));
+        String tip = roundTrip != null ? null : "【没有开启结果回传 服务器 ~/opt/arthas/continuousProfiler/merged.collapsed 使用 Open Flame Graph 打开】";
+        execute(project, params, roundTrip, "continuous profiler " + range.trim(), tip);
+    }
+
+    private static long toEpochSecond(String dateTime) {
+        try {
+            return LocalDateTime.parse(dateTime.trim(), RANGE_FORMATTER).atZone(ZoneId.systemDefault()).toEpochSecond();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("time range format: yyyy-MM-dd HH:mm ~ yyyy-MM-dd HH:mm", e);
+        }
+    }
+
+    private static void execute(Project project, Map<String, String> params, ResultRoundTripUtils.RoundTrip roundTrip, String title, String appendTip) {
+        AppSettingsState settings = AppSettingsState.getInstance(project);
+        if (!settings.manualSelectPid) {
+            params.put("arthasIdeaPluginApplicationName", settings.selectProjectName);
+        }
+        params.put("arthasPackageZipDownloadUrl", settings.arthasPackageZipDownloadUrl);
+        if (roundTrip != null) {
+            params.put("arthasResultUploadCommand", roundTrip.getUploadCommand());
+        }
+        String continuousSh = DirectScriptUtils.buildScriptWithCommonFunction(project, settings, params, SCRIPT_TEMPLATE);
+        String base64ContinuousSh = BaseEncoding.base64().encode(continuousSh.getBytes(StandardCharsets.UTF_8));
+        DirectScriptUtils.buildDirectScript(project, settings, base64ContinuousSh, SCRIPT_NAME, directScriptResult -> {
+            if (directScriptResult.getResult()) {
+                if (StringUtils.isNotBlank(appendTip)) {
+                    directScriptResult.getTip().append(appendTip);
+                }
+                NotifyUtils.notifyMessage(project, directScriptResult.getTip().toString());
+                if (roundTrip != null) {
+                    ResultRoundTripUtils.fetchInBackground(project, roundTrip, title,
+                            collapsed -> FlameGraphUtils.parseCollapsedAndShow(project, collapsed, title));
+                }
+            }
+        });
+    }
+}
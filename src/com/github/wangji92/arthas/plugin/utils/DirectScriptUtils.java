@@ -1,15 +1,19 @@
 package com.github.wangji92.arthas.plugin.utils;
 
 import com.aliyun.oss.OSS;
+import com.aliyun.oss.internal.OSSUtils;
 import com.amazonaws.services.s3.AmazonS3;
 import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
 import com.intellij.notification.NotificationType;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
 
-import java.util.Date;
-import java.util.UUID;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 import java.util.function.Consumer;
 
 /**
@@ -40,6 +44,26 @@ public class DirectScriptUtils {
      */
     private static final String REDIS_HOT_REDEFINE = "echo `redis-cli -h '%s' -p %s  get %s` ";
 
+    /**
+     * redis 大脚本分片 先读取 manifest 中的分片数量,一个 redis-cli 连接流式读取所有分片直接交给 base64 --decode,不经过shell 变量
+     */
+    private static final String REDIS_CHUNK_HOT_REDEFINE = "REDIS_CHUNKS=`redis-cli -h '%1$s' -p %2$s --raw hget %3$s chunks`;for i in `seq 0 $((REDIS_CHUNKS-1))`;do echo \"GET %3$s_$i\";done | redis-cli -h '%1$s' -p %2$s --raw ";
+
+    /**
+     * redis 单个value 大小超过这个值的时候分片存储 避免大 value 阻塞redis 和 shell 参数过长
+     */
+    private static final int REDIS_CHUNK_SIZE = 512 * 1024;
+
+    /**
+     * 公共函数库 服务器只安装一次
+     */
+    private static final String COMMON_FUNCTION_LIB = "/template/plugin-common-function.sh";
+
+    /**
+     * redis 获取公共函数库
+     */
+    private static final String REDIS_COMMON_FUNCTION_LIB = "redis-cli -h '%s' -p %s --raw get %s";
+
 
     /**
      * 信息回传
@@ -71,6 +95,111 @@ public class DirectScriptUtils {
     }
 
 
+    /**
+     * 构建带公共函数的完整脚本: 变量 + 公共函数库 + 具体脚本
+     * 配置了存储的时候 公共函数库 plugin-common-function.sh 只上传一次,脚本里面只携带校验 sha256 的 source,服务器 hash 不一致才重新获取
+     * 剪切板没有存储 只能内联
+     * 进程选择 arthasIdeaPluginApplicationName 可能是 re: 正则包含 | ( 空格等,base64 之后传递到服务器解码,避免 shell 解析
+     *
+     * @param project
+     * @param settings
+     * @param params
+     * @param scriptFilePath
+     * @return
+     */
+    public static String buildScriptWithCommonFunction(Project project, AppSettingsState settings, Map<String, String> params, String scriptFilePath) {
+        Map<String, String> variableParams = new HashMap<>(params);
+        String applicationName = StringUtils.defaultString(params.get("arthasIdeaPluginApplicationName"));
+        variableParams.put("arthasIdeaPluginApplicationNameBase64", BaseEncoding.base64().encode(applicationName.getBytes(StandardCharsets.UTF_8)));
+        String variableSh = StringUtils.stringSubstitutorFromFilePath("/template/plugin-common-variable.sh", variableParams);
+        String scriptSh = StringUtils.stringSubstitutorFromFilePath(scriptFilePath, params);
+        String commonFunctionSh = IoUtils.getResourceFile(COMMON_FUNCTION_LIB);
+        String commonFunctionLibHash = Hashing.sha256().hashString(commonFunctionSh, StandardCharsets.UTF_8).toString();
+        String fetchCommand = null;
+        try {
+            fetchCommand = uploadCommonFunctionLib(project, settings, commonFunctionSh, commonFunctionLibHash);
+        } catch (Exception e) {
+            LOG.info("upload common function lib error,inline it", e);
+        }
+        if (StringUtils.isBlank(fetchCommand)) {
+            return variableSh + "\n" + commonFunctionSh + "\n" + scriptSh;
+        }
+        Map<String, String> loaderParams = new HashMap<>(4);
+        loaderParams.put("commonFunctionLibHash", commonFunctionLibHash);
+        loaderParams.put("commonFunctionLibFetchCommand", fetchCommand);
+        String loaderSh = StringUtils.stringSubstitutorFromFilePath("/template/plugin-common-function-loader.sh", loaderParams);
+        return variableSh + "\n" + loaderSh + "\n" + scriptSh;
+    }
+
+    /**
+     * 上传公共函数库(base64) 返回服务器获取的命令,剪切板返回null
+     *
+     * @param project
+     * @param settings
+     * @param commonFunctionSh
+     * @param commonFunctionLibHash
+     * @return
+     */
+    private static String uploadCommonFunctionLib(Project project, AppSettingsState settings, String commonFunctionSh, String commonFunctionLibHash) {
+        String base64CommonFunctionSh = BaseEncoding.base64().encode(commonFunctionSh.getBytes(StandardCharsets.UTF_8));
+        if (settings.aliYunOss) {
+            OSS oss = null;
+            try {
+                oss = AliyunOssUtils.buildOssClient(project);
+                String filePathKey = settings.directoryPrefix + "lib/" + commonFunctionLibHash;
+                // 存储可能被生命周期规则或者手动清理 每次确认一下是否存在
+                if (!oss.doesObjectExist(settings.bucketName, filePathKey)) {
+                    AliyunOssUtils.putFile(oss, settings.bucketName, filePathKey, base64CommonFunctionSh);
+                }
+                String presignedUrl = AliyunOssUtils.generatePresignedUrl(oss, settings.bucketName, OSSUtils.makeResourcePath(filePathKey), new Date(System.currentTimeMillis() + 3600L * 1000));
+                return String.format(OSS_HOT_REDEFINE, presignedUrl);
+            } finally {
+                if (oss != null) {
+                    oss.shutdown();
+                }
+            }
+        } else if (settings.awsS3) {
+            AmazonS3 s3 = null;
+            try {
+                s3 = OsS3Utils.buildS3Client(project);
+                String filePathKey = settings.s3DirectoryPrefix + "lib/" + commonFunctionLibHash;
+                if (!s3.doesObjectExist(settings.s3BucketName, filePathKey)) {
+                    OsS3Utils.putFile(s3, settings.s3BucketName, filePathKey, base64CommonFunctionSh);
+                }
+                String presignedUrl = OsS3Utils.generatePresignedUrl(s3, settings.s3BucketName, OSSUtils.makeResourcePath(filePathKey), new Date(System.currentTimeMillis() + 3600L * 1000));
+                return String.format(OSS_HOT_REDEFINE, presignedUrl);
+            } finally {
+                if (s3 != null) {
+                    s3.shutdown();
+                }
+            }
+        } else if (settings.hotRedefineRedis) {
+            try (Jedis jedis = JedisUtils.buildJedisClient(settings.redisAddress, settings.redisPort, 5000, settings.redisAuth)) {
+                String cacheKey = settings.redisCacheKey + "_lib_" + commonFunctionLibHash;
+                // 已经存在只续期
+                if (jedis.expire(cacheKey, settings.redisCacheKeyTtl) == 0) {
+                    jedis.setex(cacheKey, settings.redisCacheKeyTtl, base64CommonFunctionSh);
+                }
+                return String.format(REDIS_COMMON_FUNCTION_LIB, settings.redisAddress, redisPortAndAuth(settings), cacheKey);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * redis-cli -p 6379 -a 'auth'
+     *
+     * @param settings
+     * @return
+     */
+    static String redisPortAndAuth(AppSettingsState settings) {
+        StringBuilder portAndAuth = new StringBuilder("" + settings.redisPort);
+        if (!StringUtils.isBlank(settings.redisAuth)) {
+            portAndAuth.append(" -a '").append(settings.redisAuth).append("'");
+        }
+        return portAndAuth.toString();
+    }
+
     /**
      * 构建 脚本
      *
@@ -132,14 +261,17 @@ public class DirectScriptUtils {
         boolean result = true;
         try (Jedis jedis = JedisUtils.buildJedisClient(settings.redisAddress, settings.redisPort, 5000, settings.redisAuth)) {
 
-            StringBuilder portAndAuth = new StringBuilder("" + settings.redisPort);
-            if (!StringUtils.isBlank(settings.redisAuth)) {
-                portAndAuth.append(" -a '").append(settings.redisAuth).append("'");
-            }
+            String portAndAuth = redisPortAndAuth(settings);
 
             String cacheKey = settings.redisCacheKey + "_" + UUID.randomUUID().toString();
-            jedis.setex(cacheKey, settings.redisCacheKeyTtl, base64RedefineSh);
-            String command = String.format(REDIS_HOT_REDEFINE, settings.redisAddress, portAndAuth, cacheKey);
+            String command;
+            if (base64RedefineSh.length() <= REDIS_CHUNK_SIZE) {
+                jedis.setex(cacheKey, settings.redisCacheKeyTtl, base64RedefineSh);
+                command = String.format(REDIS_HOT_REDEFINE, settings.redisAddress, portAndAuth, cacheKey);
+            } else {
+                setexChunks(jedis, cacheKey, settings.redisCacheKeyTtl, base64RedefineSh);
+                command = String.format(REDIS_CHUNK_HOT_REDEFINE, settings.redisAddress, portAndAuth, cacheKey);
+            }
             String finalCommand = String.format(BASE_64_TO_SHELL, command, shellFileName, shellFileName, shellFileName);
 
             ClipboardUtils.setClipboardString(finalCommand);
@@ -157,6 +289,30 @@ public class DirectScriptUtils {
         consumer.accept(directScriptResult);
     }
 
+    /**
+     * 分片写入redis  cacheKey_0...cacheKey_n  manifest: cacheKey -> {chunks,length} 通过 pipeline 一次往返
+     *
+     * @param jedis
+     * @param cacheKey
+     * @param ttl
+     * @param base64RedefineSh
+     */
+    private static void setexChunks(Jedis jedis, String cacheKey, Integer ttl, String base64RedefineSh) {
+        int chunks = (base64RedefineSh.length() + REDIS_CHUNK_SIZE - 1) / REDIS_CHUNK_SIZE;
+        Pipeline pipeline = jedis.pipelined();
+        for (int i = 0; i < chunks; i++) {
+            int begin = i * REDIS_CHUNK_SIZE;
+            pipeline.setex(cacheKey + "_" + i, ttl, base64RedefineSh.substring(begin, Math.min(begin + REDIS_CHUNK_SIZE, base64RedefineSh.length())));
+        }
+        Map<String, String> manifest = new HashMap<>(4);
+        manifest.put("chunks", String.valueOf(chunks));
+        manifest.put("length", String.valueOf(base64RedefineSh.length()));
+        // manifest 最后写入 读取到 manifest 的时候分片一定已经存在
+        pipeline.hset(cacheKey, manifest);
+        pipeline.expire(cacheKey, ttl);
+        pipeline.sync();
+    }
+
     /**
      * 上传热更新 文件到oss
      *
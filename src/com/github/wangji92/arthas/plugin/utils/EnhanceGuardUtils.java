@@ -0,0 +1,193 @@
+package com.github.wangji92.arthas.plugin.utils;
+
+import com.github.wangji92.arthas.plugin.common.command.ArthasCommandLine;
+import com.github.wangji92.arthas.plugin.constants.ArthasCommandConstants;
+import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
+import com.google.common.collect.Maps;
+import com.google.common.io.BaseEncoding;
+import com.intellij.openapi.project.Project;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 增强命令限时执行 watch/trace/monitor/stack/tt -t 结束后增强的字节码还在,一直 reset 之前都有开销
+ * <p>
+ * 脚本后台执行命令 超时、命令结束、Ctrl+C 或者 kill 退出的时候都会 reset 增强的类(热更新 retransform --deleteAll),再执行一次确认已经还原
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class EnhanceGuardUtils {
+
+    /**
+     * 结果回传最多等待 30 分钟
+     */
+    public static final int MAX_GUARD_SECONDS = 30 * 60;
+
+    private static final String SCRIPT_TEMPLATE = "/template/enhance-guard.sh";
+
+    private static final String SCRIPT_NAME = "arthas-idea-plugin-enhance-guard.sh";
+
+    private static final String RESET_MODE = "reset";
+
+    private static final String RETRANSFORM_MODE = "retransform";
+
+    /**
+     * 限时执行的秒数
+     *
+     * @param settings
+     * @return 0 不限时
+     */
+    public static int getGuardSeconds(AppSettingsState settings) {
+        return settings.enhanceGuardSeconds == null ? 0 : Math.max(0, Math.min(settings.enhanceGuardSeconds, MAX_GUARD_SECONDS));
+    }
+
+    /**
+     * 命令中增强的类 生成 reset 命令
+     *
+     * @param commands 一行一个或者 ; 分割
+     * @return 没有增强的命令返回空
+     */
+    public static List<String> getResetCommands(String commands) {
+        return ArthasCommandLine.parse(commands).stream()
+                .filter(ArthasCommandLine::isEnhance)
+                .map(commandLine -> toResetCommand(commandLine.hasFlag("-E"), commandLine.getClassPattern()))
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * reset 增强的类 加引号避免 -E 正则中的 | 当作管道
+     *
+     * @param regex
+     * @param classPattern
+     * @return
+     */
+    public static String toResetCommand(boolean regex, String classPattern) {
+        return (regex ? "reset -E '" : "reset '") + classPattern + "'";
+    }
+
+    /**
+     * 热更新的类 retransform --deleteAll 之后显式触发 retransform 还原
+     *
+     * @param classNames
+     * @return
+     */
+    public static List<String> toRetransformRestoreCommands(Collection<String> classNames) {
+        List<String> commands = new ArrayList<>();
+        commands.add("retransform --deleteAll");
+        classNames.forEach(className -> commands.add("retransform --classPattern " + className));
+        return commands;
+    }
+
+    /**
+     * 热更新的类文件路径转换为类名
+     *
+     * @param classPath $HOME/opt/arthas/hotSwap/classes/com/a/B$1.class
+     * @return com.a.B$1
+     */
+    public static String toHotSwapClassName(String classPath) {
+        return StringUtils.removeEnd(StringUtils.removeStart(classPath, ArthasCommandConstants.HOT_SWAMP_BASH_PACKAGE_PATH + "/"), ".class").replace("/", ".");
+    }
+
+    /**
+     * 开启了限时 并且有增强的命令 使用限时脚本执行
+     *
+     * @param project
+     * @param scCommand 获取classloader hash value 命令中使用 ${CLASSLOADER_HASH_VALUE}
+     * @param commands  一行一个或者 ; 分割
+     * @param appendTip
+     * @return false 没有开启或者没有增强的命令 需要按照原来的方式执行
+     */
+    public static boolean executeIfEnhance(Project project, String scCommand, String commands, String appendTip) {
+        AppSettingsState settings = AppSettingsState.getInstance(project);
+        int guardSeconds = getGuardSeconds(settings);
+        List<String> resetCommands = getResetCommands(commands);
+        if (guardSeconds <= 0 || resetCommands.isEmpty()) {
+            return false;
+        }
+        List<String> batchCommands = ArthasCommandLine.parse(commands).stream().map(ArthasCommandLine::getText).collect(Collectors.toList());
+        String title = batchCommands.get(0);
+        ResultRoundTripUtils.RoundTrip roundTrip = ResultRoundTripUtils.prepare(project, settings);
+        Map<String, String> params = Maps.newHashMap();
+        if (roundTrip != null) {
+            params.put("arthasResultUploadCommand", roundTrip.getUploadCommand());
+            // 原来的 json-format 在脚本退出的时候恢复
+            batchCommands.add(0, ArthasCommandConstants.JSON_FORMAT_TRUE);
+        }
+        params.put("SC_COMMAND", scCommand);
+        params.put("timeTunnelCleanupSeconds", TimeTunnelUtils.getCleanupSecondsParam(project, commands));
+        params.put("enhanceGuardMode", RESET_MODE);
+        params.put("enhanceGuardCommandBase64", toBase64(batchCommands));
+        params.put("enhanceGuardCleanupBase64", toBase64(resetCommands));
+        // 再 reset 一次 影响的类为 0 说明已经还原
+        params.put("enhanceGuardConfirmBase64", toBase64(resetCommands));
+        params.put("enhanceGuardClassNamesBase64", "");
+        params.put("arthasIdeaPluginBase64AndPathCommand", "");
+        params.put("deleteClassFile", "");
+        String tip = StringUtils.defaultString(appendTip) + String.format("【enhance guard %ds,timeout or exit then %s】", guardSeconds, String.join(";", resetCommands));
+        execute(project, settings, params, guardSeconds, roundTrip, title, tip);
+        return true;
+    }
+
+    /**
+     * 热更新限时 到时间或者退出后 retransform --deleteAll 再触发 retransform 还原原来的类
+     *
+     * @param project
+     * @param selectProjectName
+     * @param base64AndPathCommand base64|path,base64|path
+     * @param classPaths           $HOME/opt/arthas/hotSwap/classes/com/a/B.class $ 已经转义为 \$
+     * @param deleteClassFile      不为空删除服务器上的类文件
+     */
+    public static void executeHotSwap(Project project, String selectProjectName, String base64AndPathCommand, List<String> classPaths, String deleteClassFile) {
+        AppSettingsState settings = AppSettingsState.getInstance(project);
+        int guardSeconds = getGuardSeconds(settings);
+        // 批处理文件中不需要转义
+        List<String> paths = classPaths.stream().map(path -> path.replace("\\$", "$")).collect(Collectors.toList());
+        List<String> classNames = paths.stream().map(EnhanceGuardUtils::toHotSwapClassName).collect(Collectors.toList());
+        List<String> cleanupCommands = toRetransformRestoreCommands(classNames);
+
+        Map<String, String> params = Maps.newHashMap();
+        params.put("arthasIdeaPluginApplicationName", selectProjectName);
+        params.put("SC_COMMAND", "");
+        params.put("enhanceGuardMode", RETRANSFORM_MODE);
+        params.put("enhanceGuardCommandBase64", toBase64(Collections.singletonList("retransform " + String.join(" ", paths))));
+        params.put("enhanceGuardCleanupBase64", toBase64(cleanupCommands));
+        params.put("enhanceGuardConfirmBase64", toBase64(Collections.singletonList("retransform -l")));
+        params.put("enhanceGuardClassNamesBase64", toBase64(classNames));
+        params.put("arthasIdeaPluginBase64AndPathCommand", base64AndPathCommand);
+        params.put("deleteClassFile", deleteClassFile);
+        String tip = String.format("【hot swap guard %ds,timeout or exit then retransform --deleteAll and restore %d classes】", guardSeconds, classNames.size());
+        execute(project, settings, params, guardSeconds, null, null, tip);
+    }
+
+    private static String toBase64(List<String> commands) {
+        return BaseEncoding.base64().encode((String.join("\n", commands) + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void execute(Project project, AppSettingsState settings, Map<String, String> params, int guardSeconds,
+                                ResultRoundTripUtils.RoundTrip roundTrip, String title, String appendTip) {
+        if (!settings.manualSelectPid) {
+            params.putIfAbsent("arthasIdeaPluginApplicationName", settings.selectProjectName);
+        }
+        params.put("arthasPackageZipDownloadUrl", settings.arthasPackageZipDownloadUrl);
+        params.put("enhanceGuardSeconds", String.valueOf(guardSeconds));
+        String guardSh = DirectScriptUtils.buildScriptWithCommonFunction(project, settings, params, SCRIPT_TEMPLATE);
+        String base64GuardSh = BaseEncoding.base64().encode(guardSh.getBytes(StandardCharsets.UTF_8));
+        DirectScriptUtils.buildDirectScript(project, settings, base64GuardSh, SCRIPT_NAME, directScriptResult -> {
+            if (directScriptResult.getResult()) {
+                if (StringUtils.isNotBlank(appendTip)) {
+                    directScriptResult.getTip().append(appendTip);
+                }
+                NotifyUtils.notifyMessage(project, directScriptResult.getTip().toString());
+                if (roundTrip != null && TraceAnalyzeUtils.isTraceCommand(title)) {
+                    ResultRoundTripUtils.fetchInBackground(project, roundTrip, title, content -> TraceAnalyzeUtils.showResultAndAnalysis(project, title, content));
+                } else if (roundTrip != null) {
+                    ResultRoundTripUtils.fetchInBackground(project, roundTrip, title);
+                }
+            }
+        });
+    }
+}
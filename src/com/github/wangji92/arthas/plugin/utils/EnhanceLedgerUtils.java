@@ -0,0 +1,207 @@
+package com.github.wangji92.arthas.plugin.utils;
+
+import com.github.wangji92.arthas.plugin.common.command.ArthasCommandLine;
+import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
+import com.github.wangji92.arthas.plugin.setting.EnhanceLedgerState;
+import com.github.wangji92.arthas.plugin.ui.ArthasResultToolWindowFactory;
+import com.google.common.collect.Maps;
+import com.google.common.io.BaseEncoding;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 增强记录 复制或者执行增强命令的时候记录,每个目标进程一次 attach 清理记录的增强 确认成功后删除记录
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class EnhanceLedgerUtils {
+
+    public static final String SOURCE_COPY = "copy";
+
+    public static final String SOURCE_EXECUTE = "execute";
+
+    public static final String RETRANSFORM = "retransform";
+
+    private static final String SCRIPT_TEMPLATE = "/template/enhance-ledger-reset.sh";
+
+    private static final String SCRIPT_NAME = "arthas-idea-plugin-enhance-ledger-reset.sh";
+
+    /**
+     * 批处理中清理和确认的分隔 arthas echo 输出
+     */
+    private static final String CONFIRM_MARKER = "ARTHAS_IDEA_PLUGIN_ENHANCE_LEDGER_CONFIRM";
+
+    /**
+     * 确认成功后脚本追加到结果中
+     */
+    private static final String SUCCESS = "ARTHAS_IDEA_PLUGIN_ENHANCE_LEDGER_SUCCESS";
+
+    /**
+     * 记录命令中的增强 没有增强的命令忽略
+     *
+     * @param project
+     * @param commands 一行一个或者 ; 分割
+     * @param source   copy execute
+     */
+    public static void record(Project project, String commands, String source) {
+        if (project == null || project.isDisposed()) {
+            return;
+        }
+        String target = getTarget(project);
+        for (ArthasCommandLine commandLine : ArthasCommandLine.parse(commands)) {
+            if (commandLine.isEnhance()) {
+                EnhanceLedgerState.getInstance(project).add(newEntry(commandLine.getName(), commandLine.getClassPattern(), commandLine.getPosition(1),
+                        commandLine.hasFlag("-E"), target, source));
+            }
+        }
+    }
+
+    /**
+     * 记录热更新的类
+     *
+     * @param project
+     * @param target     --select 为空手动选择 pid
+     * @param classNames
+     */
+    public static void recordRetransform(Project project, String target, Collection<String> classNames) {
+        for (String className : classNames) {
+            EnhanceLedgerState.getInstance(project).add(newEntry(RETRANSFORM, className, null, false, target, SOURCE_EXECUTE));
+        }
+    }
+
+    /**
+     * 当前配置的目标进程
+     *
+     * @param project
+     * @return 手动选择 pid 返回空
+     */
+    public static String getTarget(Project project) {
+        AppSettingsState settings = AppSettingsState.getInstance(project);
+        return settings.manualSelectPid ? "" : StringUtils.defaultString(settings.selectProjectName);
+    }
+
+    /**
+     * 清理记录的增强 reset 在前 热更新的 retransform --deleteAll 在后;之后再执行一次 reset 和 retransform -l 用于确认
+     *
+     * @param entries
+     * @return 一行一个
+     */
+    public static List<String> buildBatchCommands(List<EnhanceLedgerState.Entry> entries) {
+        List<String> resetCommands = getResetCommands(entries);
+        List<String> classNames = getRetransformClassNames(entries);
+        List<String> commands = new ArrayList<>(resetCommands);
+        if (!classNames.isEmpty()) {
+            commands.addAll(EnhanceGuardUtils.toRetransformRestoreCommands(classNames));
+        }
+        commands.add("echo " + CONFIRM_MARKER);
+        commands.addAll(resetCommands);
+        if (!classNames.isEmpty()) {
+            commands.add("retransform -l");
+        }
+        return commands;
+    }
+
+    /**
+     * 生成清理脚本 按照目标进程分组 每个进程一次 attach 开启结果回传的时候确认成功后删除这些记录
+     *
+     * @param project
+     * @param entries
+     */
+    public static void resetAll(Project project, List<EnhanceLedgerState.Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<List<EnhanceLedgerState.Entry>> groups = new ArrayList<>(entries.stream()
+                .collect(Collectors.groupingBy(entry -> StringUtils.defaultString(entry.target), LinkedHashMap::new, Collectors.toList())).values());
+        List<String> targetLines = new ArrayList<>();
+        for (List<EnhanceLedgerState.Entry> group : groups) {
+            // target|batchBase64|classNamesBase64|resetCount 脚本中按 | 分割
+            targetLines.add(String.join("|", StringUtils.defaultString(group.get(0).target), toBase64(buildBatchCommands(group)),
+                    toBase64(getRetransformClassNames(group)), String.valueOf(getResetCommands(group).size())));
+        }
+        AppSettingsState settings = AppSettingsState.getInstance(project);
+        Map<String, String> params = Maps.newHashMap();
+        params.put("arthasPackageZipDownloadUrl", settings.arthasPackageZipDownloadUrl);
+        params.put("SC_COMMAND", "");
+        params.put("enhanceLedgerTargetsBase64", toBase64(targetLines));
+        params.put("enhanceLedgerConfirmMarker", CONFIRM_MARKER);
+        params.put("enhanceLedgerSuccess", SUCCESS);
+        ResultRoundTripUtils.RoundTrip roundTrip = ResultRoundTripUtils.prepare(project, settings);
+        if (roundTrip != null) {
+            params.put("arthasResultUploadCommand", roundTrip.getUploadCommand());
+        }
+        String resetSh = DirectScriptUtils.buildScriptWithCommonFunction(project, settings, params, SCRIPT_TEMPLATE);
+        String base64ResetSh = BaseEncoding.base64().encode(resetSh.getBytes(StandardCharsets.UTF_8));
+        DirectScriptUtils.buildDirectScript(project, settings, base64ResetSh, SCRIPT_NAME, directScriptResult -> {
+            if (!directScriptResult.getResult()) {
+                return;
+            }
+            if (roundTrip == null) {
+                directScriptResult.getTip().append("【没有开启结果回传 服务器确认 enhancement removed 之后手动删除记录】");
+                NotifyUtils.notifyMessage(project, directScriptResult.getTip().toString());
+                return;
+            }
+            directScriptResult.getTip().append(String.format("【reset %d enhancements of %d targets,confirmed entries will be removed】", entries.size(), groups.size()));
+            NotifyUtils.notifyMessage(project, directScriptResult.getTip().toString());
+            String title = "enhance ledger reset";
+            ResultRoundTripUtils.fetchInBackground(project, roundTrip, title, content -> {
+                Set<String> lines = Arrays.stream(content.split("\\r?\\n")).map(String::trim).collect(Collectors.toSet());
+                List<String> confirmedIds = new ArrayList<>();
+                List<String> unconfirmedTargets = new ArrayList<>();
+                for (int i = 0; i < groups.size(); i++) {
+                    List<EnhanceLedgerState.Entry> group = groups.get(i);
+                    if (lines.contains(SUCCESS + " " + i)) {
+                        group.forEach(entry -> confirmedIds.add(entry.id));
+                    } else {
+                        unconfirmedTargets.add(StringUtils.defaultIfBlank(group.get(0).target, "manual pid"));
+                    }
+                }
+                EnhanceLedgerState.getInstance(project).remove(confirmedIds);
+                if (unconfirmedTargets.isEmpty()) {
+                    NotifyUtils.notifyMessage(project, String.format("reset confirmed, %d enhance ledger entries removed", confirmedIds.size()));
+                } else {
+                    NotifyUtils.notifyMessage(project, String.format("reset confirmed, %d enhance ledger entries removed; not confirmed, entries kept: %s",
+                            confirmedIds.size(), String.join(", ", unconfirmedTargets)), NotificationType.WARNING);
+                }
+                ApplicationManager.getApplication().invokeLater(() -> ArthasResultToolWindowFactory.showResult(project, title, content), project.getDisposed());
+            });
+        });
+    }
+
+    private static List<String> getResetCommands(List<EnhanceLedgerState.Entry> entries) {
+        return entries.stream().filter(entry -> !RETRANSFORM.equals(entry.commandType))
+                .map(entry -> EnhanceGuardUtils.toResetCommand(entry.regex, entry.className))
+                .distinct().collect(Collectors.toList());
+    }
+
+    private static List<String> getRetransformClassNames(List<EnhanceLedgerState.Entry> entries) {
+        return entries.stream().filter(entry -> RETRANSFORM.equals(entry.commandType)).map(entry -> entry.className).distinct().collect(Collectors.toList());
+    }
+
+    private static EnhanceLedgerState.Entry newEntry(String commandType, String className, String methodName, boolean regex, String target, String source) {
+        EnhanceLedgerState.Entry entry = new EnhanceLedgerState.Entry();
+        entry.id = UUID.randomUUID().toString();
+        entry.commandType = commandType;
+        entry.className = className;
+        entry.methodName = methodName;
+        entry.regex = regex;
+        entry.target = target;
+        entry.source = source;
+        entry.time = System.currentTimeMillis();
+        return entry;
+    }
+
+    private static String toBase64(List<String> lines) {
+        if (lines.isEmpty()) {
+            // 空行在 grep -f 中匹配所有内容
+            return "";
+        }
+        return BaseEncoding.base64().encode((String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,181 @@
+package com.github.wangji92.arthas.plugin.utils;
+
+import com.aliyun.oss.OSS;
+import com.amazonaws.services.s3.AmazonS3;
+import com.github.wangji92.arthas.plugin.common.profile.FlameGraphDiff;
+import com.github.wangji92.arthas.plugin.common.profile.FrameTree;
+import com.github.wangji92.arthas.plugin.common.profile.StackParser;
+import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
+import com.github.wangji92.arthas.plugin.ui.ArthasResultToolWindowFactory;
+import com.github.wangji92.arthas.plugin.ui.FlameGraphDiffPanel;
+import com.github.wangji92.arthas.plugin.ui.FlameGraphPanel;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.ui.components.JBScrollPane;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * async-profiler 结果(collapsed/jfr) 在 Arthas Result 窗口中展示为火焰图
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class FlameGraphUtils {
+
+    private static final Logger LOG = Logger.getInstance(FlameGraphUtils.class);
+
+    /**
+     * 是否配置了可以下载文件的存储
+     *
+     * @param settings
+     * @return
+     */
+    public static boolean supportStorage(AppSettingsState settings) {
+        return settings.aliYunOss || settings.awsS3;
+    }
+
+    /**
+     * 后台解析本地文件
+     *
+     * @param project
+     * @param file
+     */
+    public static void openLocalFile(Project project, File file) {
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Parsing profiler file " + file.getName(), true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                parseAndShow(project, file, file.getName());
+            }
+        });
+    }
+
+    /**
+     * 从存储下载后解析 oss/s3 的 object key
+     *
+     * @param project
+     * @param key
+     */
+    public static void openStorageFile(Project project, String key) {
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Downloading profiler file " + key, true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                File file = null;
+                try {
+                    file = File.createTempFile("arthas-profiler", "." + StringUtils.defaultIfBlank(FilenameUtils.getExtension(key), "txt"));
+                    downloadStorageFile(project, key, file);
+                    indicator.setText("Parsing profiler file " + key);
+                    parseAndShow(project, file, FilenameUtils.getName(key));
+                } catch (IOException e) {
+                    NotifyUtils.notifyMessage(project, "create temp file error " + e.getMessage(), NotificationType.ERROR);
+                } catch (IllegalArgumentException e) {
+                    NotifyUtils.notifyMessage(project, e.getMessage(), NotificationType.ERROR);
+                } finally {
+                    FileUtils.deleteQuietly(file);
+                }
+            }
+        });
+    }
+
+    /**
+     * 下载存储中的文件到本地
+     *
+     * @param project
+     * @param key
+     * @param file
+     */
+    public static void downloadStorageFile(Project project, String key, File file) {
+        AppSettingsState settings = AppSettingsState.getInstance(project);
+        if (settings.aliYunOss) {
+            OSS oss = AliyunOssUtils.buildOssClient(project);
+            try {
+                AliyunOssUtils.downloadFile(oss, settings.bucketName, key, file);
+            } finally {
+                oss.shutdown();
+            }
+        } else if (settings.awsS3) {
+            AmazonS3 s3 = OsS3Utils.buildS3Client(project);
+            try {
+                OsS3Utils.downloadFile(s3, settings.s3BucketName, key, file);
+            } finally {
+                s3.shutdown();
+            }
+        } else {
+            throw new IllegalArgumentException("download profiler file need oss or s3 storage");
+        }
+    }
+
+    /**
+     * 解析并展示 需要在后台线程调用
+     *
+     * @param project
+     * @param file
+     * @param title
+     */
+    public static void parseAndShow(Project project, File file, String title) {
+        FrameTree tree;
+        try {
+            tree = StackParser.parse(file, ProgressManager.getInstance().getProgressIndicator());
+        } catch (ProcessCanceledException e) {
+            throw e;
+        } catch (IllegalArgumentException e) {
+            LOG.info("[arthas] parse profiler file error " + file, e);
+            NotifyUtils.notifyMessage(project, e.getMessage(), NotificationType.ERROR);
+            return;
+        }
+        if (tree.getTotal(FrameTree.ROOT) == 0) {
+            NotifyUtils.notifyMessage(project, "no sample found in " + title, NotificationType.WARNING);
+            return;
+        }
+        showTree(project, tree, title);
+    }
+
+    /**
+     * 解析回传的 collapsed 内容并展示 需要在后台线程调用
+     *
+     * @param project
+     * @param collapsed
+     * @param title
+     */
+    public static void parseCollapsedAndShow(Project project, String collapsed, String title) {
+        FrameTree tree;
+        try {
+            tree = StackParser.parseCollapsed(new StringReader(collapsed), collapsed.length(), ProgressManager.getInstance().getProgressIndicator());
+        } catch (IOException e) {
+            NotifyUtils.notifyMessage(project, "parse profiler result error " + e.getMessage(), NotificationType.ERROR);
+            return;
+        }
+        if (tree.getTotal(FrameTree.ROOT) == 0) {
+            NotifyUtils.notifyMessage(project, "no sample found in " + title, NotificationType.WARNING);
+            return;
+        }
+        showTree(project, tree, title);
+    }
+
+    /**
+     * 展示火焰图 [baseline] [after] 两个窗口合并的展示为差分火焰图
+     *
+     * @param project
+     * @param tree
+     * @param title
+     */
+    public static void showTree(Project project, FrameTree tree, String title) {
+        FlameGraphDiff diff = FlameGraphDiff.of(tree);
+        ApplicationManager.getApplication().invokeLater(() -> {
+            JComponent component = diff == null ? new JBScrollPane(new FlameGraphPanel(project, tree)) : new FlameGraphDiffPanel(project, diff);
+            ArthasResultToolWindowFactory.showComponent(project, (diff == null ? "flame " : "flame diff ") + title, component, null);
+        }, project.getDisposed());
+    }
+}
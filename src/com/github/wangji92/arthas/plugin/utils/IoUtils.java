@@ -12,8 +12,8 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.CodeSource;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
@@ -24,7 +24,10 @@ import java.util.jar.JarFile;
 public class IoUtils {
     private static final Logger LOG = Logger.getInstance(IoUtils.class);
 
-    private static Map<String, String> RESOURCE_MAP = new HashMap<>();
+    /**
+     * 插件中的资源文件不会变化 读取一次即可
+     */
+    private static final Map<String, String> RESOURCE_MAP = new ConcurrentHashMap<>();
 
     /**
      * 读取arthas 插件目录下的脚本文件
@@ -35,19 +38,19 @@ public class IoUtils {
     public static String getResourceFile(String filePath) {
         // 沙箱的文件地址在外面 插件中在jar包中有问题
         filePath = filePath.substring(1, filePath.length());
+        String content = RESOURCE_MAP.get(filePath);
+        if (StringUtils.isNotBlank(content)) {
+            return content;
+        }
         try (InputStream resourceAsStream = IoUtils.class.getClassLoader().getResourceAsStream(filePath)) {
-            return IOUtils.toString(resourceAsStream, StandardCharsets.UTF_8);
+            content = IOUtils.toString(resourceAsStream, StandardCharsets.UTF_8);
+            RESOURCE_MAP.put(filePath, content);
+            return content;
         } catch (Exception e) {
             LOG.info("getResourceFile error", e);
-            try {
-                String content = RESOURCE_MAP.get(filePath);
-                if (StringUtils.isNotBlank(content)) {
-                    return content;
-                }
-                // 获取jar包的地址
-                final CodeSource codeSource = IoUtils.class.getProtectionDomain().getCodeSource();
-                final String path = codeSource.getLocation().getPath();
-                JarFile jarFile = new JarFile(path);
+            // 获取jar包的地址
+            final CodeSource codeSource = IoUtils.class.getProtectionDomain().getCodeSource();
+            try (JarFile jarFile = new JarFile(codeSource.getLocation().getPath())) {
                 final Enumeration<JarEntry> entries = jarFile.entries();
 
                 //读取jar包的内容... 补偿一下
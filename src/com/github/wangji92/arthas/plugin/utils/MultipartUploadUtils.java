@@ -0,0 +1,292 @@
+package com.github.wangji92.arthas.plugin.utils;
+
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 大文件分片并发上传 对象存储 (oss/s3 通用) 断点续传 内存占用只和分片大小*并发数有关,和文件大小无关
+ * {@literal https://help.aliyun.com/document_detail/84786.html}
+ * {@literal https://docs.aws.amazon.com/AmazonS3/latest/userguide/mpuoverview.html}
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class MultipartUploadUtils {
+
+    private static final Logger LOG = Logger.getInstance(MultipartUploadUtils.class);
+
+    /**
+     * s3 要求除最后一个分片外 最小5MB
+     */
+    public static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    /**
+     * oss/s3 分片数量上限
+     */
+    private static final int MAX_PART_COUNT = 10000;
+
+    /**
+     * 断点文件过期时间 未完成的分片一般会被存储生命周期清理掉
+     */
+    private static final long CHECKPOINT_EXPIRE_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    private static final Gson GSON = new Gson();
+
+    /**
+     * 不同对象存储分片上传的实现
+     */
+    public interface PartUploader {
+        /**
+         * 初始化分片上传
+         *
+         * @param key
+         * @return uploadId
+         */
+        String initiate(String key);
+
+        /**
+         * 上传单个分片 直接从文件的 offset 读取 size 大小
+         *
+         * @param key
+         * @param uploadId
+         * @param partNumber 从1开始
+         * @param file
+         * @param offset
+         * @param size
+         * @return eTag
+         */
+        String uploadPart(String key, String uploadId, int partNumber, File file, long offset, long size);
+
+        /**
+         * 合并分片
+         *
+         * @param key
+         * @param uploadId
+         * @param partETags partNumber 有序
+         */
+        void complete(String key, String uploadId, Map<Integer, String> partETags);
+    }
+
+    /**
+     * 断点信息
+     */
+    public static class Checkpoint {
+
+        private String key;
+
+        private String uploadId;
+
+        private String filePath;
+
+        private long fileLength;
+
+        private long lastModified;
+
+        private long partSize;
+
+        private long createTime;
+
+        private Map<Integer, String> partETags = new TreeMap<>();
+
+        /**
+         * 文件没有变化且没有过期才能续传
+         *
+         * @param file
+         * @param partSize
+         * @return
+         */
+        boolean isValid(File file, long partSize) {
+            return StringUtils.isNotBlank(key) && StringUtils.isNotBlank(uploadId)
+                    && file.getAbsolutePath().equals(filePath)
+                    && file.length() == fileLength
+                    && file.lastModified() == lastModified
+                    && this.partSize == partSize
+                    && System.currentTimeMillis() - createTime < CHECKPOINT_EXPIRE_MILLIS;
+        }
+    }
+
+    /**
+     * 是否需要分片上传
+     *
+     * @param file
+     * @param partSizeMb
+     * @return
+     */
+    public static boolean needMultipart(File file, Integer partSizeMb) {
+        return file != null && file.isFile() && file.length() > resolvePartSize(file.length(), partSizeMb);
+    }
+
+    /**
+     * 分片上传
+     *
+     * @param uploader        具体存储的实现
+     * @param checkpointScope 区分不同的存储 例如 oss:bucketName
+     * @param keyPrefix       存储目录前缀
+     * @param file            本地文件
+     * @param partSizeMb      分片大小 MB
+     * @param concurrency     并发数
+     * @param partRetry       单个分片失败重试次数
+     * @param indicator       idea 进度
+     * @return 对象存储的 key
+     */
+    public static String upload(PartUploader uploader, String checkpointScope, String keyPrefix, File file, Integer partSizeMb, Integer concurrency, Integer partRetry, ProgressIndicator indicator) {
+        long fileLength = file.length();
+        long partSize = resolvePartSize(fileLength, partSizeMb);
+        int partCount = (int) ((fileLength + partSize - 1) / partSize);
+        int threads = concurrency == null || concurrency <= 0 ? 1 : concurrency;
+        int retry = partRetry == null || partRetry < 0 ? 0 : partRetry;
+
+        File checkpointFile = getCheckpointFile(checkpointScope, file);
+        Checkpoint checkpoint = loadCheckpoint(checkpointFile);
+        if (checkpoint == null || !checkpoint.isValid(file, partSize)) {
+            checkpoint = new Checkpoint();
+            checkpoint.key = StringUtils.defaultString(keyPrefix) + UUID.randomUUID().toString();
+            checkpoint.filePath = file.getAbsolutePath();
+            checkpoint.fileLength = fileLength;
+            checkpoint.lastModified = file.lastModified();
+            checkpoint.partSize = partSize;
+            checkpoint.createTime = System.currentTimeMillis();
+            checkpoint.uploadId = uploader.initiate(checkpoint.key);
+            saveCheckpoint(checkpointFile, checkpoint);
+        } else {
+            LOG.info("resume multipart upload " + checkpoint.key + " finished parts:" + checkpoint.partETags.size());
+        }
+
+        final Checkpoint current = checkpoint;
+        AtomicLong uploadedBytes = new AtomicLong(current.partETags.keySet().stream().mapToLong(partNumber -> partLength(partNumber, partSize, fileLength)).sum());
+        updateProgress(indicator, uploadedBytes.get(), fileLength, current.partETags.size(), partCount);
+
+        List<Integer> pendingParts = IntStream.rangeClosed(1, partCount).filter(partNumber -> !current.partETags.containsKey(partNumber)).boxed().collect(Collectors.toList());
+        ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Arthas Multipart Upload", threads);
+        try {
+            List<Future<?>> futures = pendingParts.stream().map(partNumber -> executor.submit(() -> {
+                if (indicator != null && indicator.isCanceled()) {
+                    return;
+                }
+                long offset = (partNumber - 1) * partSize;
+                long size = partLength(partNumber, partSize, fileLength);
+                String eTag = uploadPartWithRetry(uploader, current, partNumber, file, offset, size, retry);
+                synchronized (current) {
+                    current.partETags.put(partNumber, eTag);
+                    saveCheckpoint(checkpointFile, current);
+                    updateProgress(indicator, uploadedBytes.addAndGet(size), fileLength, current.partETags.size(), partCount);
+                }
+            })).collect(Collectors.toList());
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalArgumentException("分片上传失败,再次上传同一文件会断点续传 " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalArgumentException("分片上传被中断,再次上传同一文件会断点续传", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (current.partETags.size() != partCount) {
+            throw new IllegalArgumentException("分片上传已取消,再次上传同一文件会断点续传");
+        }
+        uploader.complete(current.key, current.uploadId, new TreeMap<>(current.partETags));
+        FileUtils.deleteQuietly(checkpointFile);
+        return current.key;
+    }
+
+    /**
+     * 单个分片重试
+     */
+    private static String uploadPartWithRetry(PartUploader uploader, Checkpoint checkpoint, int partNumber, File file, long offset, long size, int retry) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return uploader.uploadPart(checkpoint.key, checkpoint.uploadId, partNumber, file, offset, size);
+            } catch (RuntimeException e) {
+                if (attempt >= retry) {
+                    throw e;
+                }
+                LOG.info("upload part " + partNumber + " error retry " + (attempt + 1), e);
+                try {
+                    TimeUnit.SECONDS.sleep(attempt + 1L);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * 分片大小 不能小于5MB 分片数不能超过10000
+     */
+    private static long resolvePartSize(long fileLength, Integer partSizeMb) {
+        long partSize = partSizeMb == null ? MIN_PART_SIZE : partSizeMb * 1024L * 1024L;
+        partSize = Math.max(partSize, MIN_PART_SIZE);
+        long minPartSizeByCount = (fileLength + MAX_PART_COUNT - 1) / MAX_PART_COUNT;
+        return Math.max(partSize, minPartSizeByCount);
+    }
+
+    private static long partLength(int partNumber, long partSize, long fileLength) {
+        return Math.min(partSize, fileLength - (partNumber - 1) * partSize);
+    }
+
+    private static void updateProgress(ProgressIndicator indicator, long uploadedBytes, long fileLength, int finishedParts, int partCount) {
+        if (indicator == null) {
+            return;
+        }
+        indicator.setIndeterminate(false);
+        indicator.setFraction(fileLength == 0 ? 1.0 : (double) uploadedBytes / fileLength);
+        indicator.setText(String.format("Uploading part %d/%d (%s/%s)", finishedParts, partCount,
+                FileUtils.byteCountToDisplaySize(uploadedBytes), FileUtils.byteCountToDisplaySize(fileLength)));
+    }
+
+    /**
+     * 断点文件 idea system 目录下面 按照存储+文件路径区分
+     */
+    private static File getCheckpointFile(String checkpointScope, File file) {
+        String name = Hashing.sha256().hashString(checkpointScope + "|" + file.getAbsolutePath(), StandardCharsets.UTF_8).toString();
+        return new File(PathManager.getSystemPath() + File.separator + "arthas-idea-plugin" + File.separator + "upload-checkpoint", name + ".json");
+    }
+
+    private static Checkpoint loadCheckpoint(File checkpointFile) {
+        if (!checkpointFile.isFile()) {
+            return null;
+        }
+        try {
+            Checkpoint checkpoint = GSON.fromJson(FileUtils.readFileToString(checkpointFile, StandardCharsets.UTF_8), Checkpoint.class);
+            if (checkpoint != null) {
+                checkpoint.partETags = new TreeMap<>(checkpoint.partETags == null ? new TreeMap<>() : checkpoint.partETags);
+            }
+            return checkpoint;
+        } catch (Exception e) {
+            LOG.info("load upload checkpoint error", e);
+            FileUtils.deleteQuietly(checkpointFile);
+            return null;
+        }
+    }
+
+    private static void saveCheckpoint(File checkpointFile, Checkpoint checkpoint) {
+        try {
+            FileUtils.writeStringToFile(checkpointFile, GSON.toJson(checkpoint), StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            // 断点保存失败不影响本次上传
+            LOG.info("save upload checkpoint error", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.wangji92.arthas.plugin.utils;
+
+import com.github.wangji92.arthas.plugin.common.ognl.OgnlCostAnalyzer;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.UserDataHolderEx;
+import com.intellij.openapi.util.text.StringUtil;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 复制命令的时候检查条件表达式的开销 同一个问题在工程中只提示一次
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class OgnlCostLintUtils {
+
+    private static final Key<Set<String>> WARNED_KEY = Key.create("arthas.ognl.cost.warned");
+
+    /**
+     * 检查命令 有问题的时候提示
+     *
+     * @param project
+     * @param commands
+     */
+    public static void lint(Project project, String commands) {
+        if (project == null || project.isDisposed()) {
+            return;
+        }
+        List<String> warnings = OgnlCostAnalyzer.lintCommands(commands);
+        if (warnings.isEmpty()) {
+            return;
+        }
+        Set<String> warned = ((UserDataHolderEx) project).putUserDataIfAbsent(WARNED_KEY, ConcurrentHashMap.newKeySet());
+        warnings.removeIf(warning -> !warned.add(warning));
+        if (warnings.isEmpty()) {
+            return;
+        }
+        NotifyUtils.notifyMessage(project, "the condition is evaluated on every invocation of the enhanced method:<br>"
+                + warnings.stream().map(StringUtil::escapeXmlEntities).collect(Collectors.joining("<br>")), NotificationType.WARNING);
+    }
+}
@@ -3,6 +3,7 @@ package com.github.wangji92.arthas.plugin.utils;
 import com.github.idea.json.parser.toolkit.PsiToolkit;
 import com.github.idea.json.parser.typevalue.TypeDefaultValue;
 import com.github.wangji92.arthas.plugin.common.exception.CompilerFileNotFoundException;
+import com.github.wangji92.arthas.plugin.common.index.SpringBeanIndex;
 import com.github.wangji92.arthas.plugin.constants.ArthasCommandConstants;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -16,6 +17,7 @@ import com.intellij.openapi.roots.ModuleRootManager;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.ClassUtil;
 import com.intellij.psi.util.InheritanceUtil;
 import org.apache.commons.io.FilenameUtils;
 import org.jetbrains.annotations.NotNull;
@@ -820,6 +822,11 @@ public class OgnlPsUtils {
         if (psiClass == null) {
             return "errorBeanName";
         }
+        // 优先使用索引 包含 @Bean 方法、xml 中定义的 bean
+        List<String> indexBeanNames = SpringBeanIndex.getBeanNames(psiClass.getProject(), ClassUtil.getJVMClassName(psiClass));
+        if (indexBeanNames != null && !indexBeanNames.isEmpty()) {
+            return indexBeanNames.get(0);
+        }
         PsiModifierList psiModifierList = psiClass.getModifierList();
         if (psiModifierList == null) {
             return "errorBeanName";
@@ -887,7 +894,18 @@ public class OgnlPsUtils {
             }
             psiClass = psiMethod.getContainingClass();
         }
-        psiClass = (PsiClass) psiElement;
+        if (psiElement instanceof PsiClass) {
+            psiClass = (PsiClass) psiElement;
+        } else if (psiElement instanceof PsiJavaFile && ((PsiJavaFile) psiElement).getClasses().length > 0) {
+            psiClass = ((PsiJavaFile) psiElement).getClasses()[0];
+        }
+        if (psiClass == null) {
+            return false;
+        }
+        List<String> indexBeanNames = SpringBeanIndex.getBeanNames(psiClass.getProject(), ClassUtil.getJVMClassName(psiClass));
+        if (indexBeanNames != null && !indexBeanNames.isEmpty()) {
+            return true;
+        }
         HashSet<String> annotationTypes = Sets.newHashSet();
         annotationTypes.add("org.springframework.stereotype.Service");
         annotationTypes.add("org.springframework.stereotype.Controller");
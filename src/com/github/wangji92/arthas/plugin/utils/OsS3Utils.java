@@ -3,22 +3,27 @@ package com.github.wangji92.arthas.plugin.utils;
 
 import com.aliyun.oss.internal.OSSUtils;
 import com.amazonaws.ClientConfiguration;
+import com.amazonaws.HttpMethod;
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
-import com.amazonaws.services.s3.model.ObjectMetadata;
-import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.*;
 import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.project.Project;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.Date;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 
 /**
@@ -136,6 +141,73 @@ public class OsS3Utils {
         return urlEncodeKeyPath;
     }
 
+    /**
+     * 大文件分片并发上传 支持断点续传,分片直接从文件offset 读取
+     *
+     * @param s3
+     * @param bucketName
+     * @param directoryPrefix
+     * @param file
+     * @param settings
+     * @param indicator
+     * @return 返回 s3 key的信息
+     */
+    public static String multipartUploadFile(AmazonS3 s3, String bucketName, String directoryPrefix, File file, AppSettingsState settings, ProgressIndicator indicator) {
+        MultipartUploadUtils.PartUploader uploader = new MultipartUploadUtils.PartUploader() {
+            @Override
+            public String initiate(String key) {
+                String urlEncodeKeyPath = OSSUtils.makeResourcePath(key);
+                if (!OSSUtils.validateObjectKey(urlEncodeKeyPath)) {
+                    throw new IllegalArgumentException("配置arthas 对象存储 上传错误 fileKey 错误");
+                }
+                ObjectMetadata objectMetadata = new ObjectMetadata();
+                objectMetadata.setContentType("application/octet-stream");
+                return withoutContextClassLoader("initiateMultipartUpload",
+                        () -> s3.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucketName, urlEncodeKeyPath, objectMetadata)).getUploadId());
+            }
+
+            @Override
+            public String uploadPart(String key, String uploadId, int partNumber, File file, long offset, long size) {
+                UploadPartRequest uploadPartRequest = new UploadPartRequest()
+                        .withBucketName(bucketName)
+                        .withKey(OSSUtils.makeResourcePath(key))
+                        .withUploadId(uploadId)
+                        .withPartNumber(partNumber)
+                        .withFile(file)
+                        .withFileOffset(offset)
+                        .withPartSize(size);
+                return withoutContextClassLoader("uploadPart", () -> s3.uploadPart(uploadPartRequest).getPartETag().getETag());
+            }
+
+            @Override
+            public void complete(String key, String uploadId, Map<Integer, String> partETags) {
+                CompleteMultipartUploadRequest completeRequest = new CompleteMultipartUploadRequest(bucketName, OSSUtils.makeResourcePath(key), uploadId,
+                        partETags.entrySet().stream().map(entry -> new PartETag(entry.getKey(), entry.getValue())).collect(Collectors.toList()));
+                withoutContextClassLoader("completeMultipartUpload", () -> s3.completeMultipartUpload(completeRequest));
+            }
+        };
+        String key = MultipartUploadUtils.upload(uploader, "s3:" + settings.s3Endpoint + ":" + bucketName, directoryPrefix, file,
+                settings.multipartUploadPartSize, settings.multipartUploadConcurrency, settings.multipartUploadPartRetry, indicator);
+        return OSSUtils.makeResourcePath(key);
+    }
+
+    /**
+     * https://youtrack.jetbrains.com/issue/BDIDE-1894/javalangIllegalArgumentException-awssdkconfigoverridejson-if-there-is-S3-connection-in-BDT-Panel
+     * 分片上传在线程池中执行 每次调用都需要处理
+     */
+    private static <T> T withoutContextClassLoader(String operation, Supplier<T> supplier) {
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            Thread.currentThread().setContextClassLoader(null);
+            return supplier.get();
+        } catch (Exception e) {
+            LOG.info(operation, e);
+            throw new IllegalArgumentException(operation + " error " + e.getMessage(), e);
+        } finally {
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+        }
+    }
+
     /**
      * 上传字符串到oss
      *
@@ -160,6 +232,20 @@ public class OsS3Utils {
      * @return
      */
     public static String generatePresignedUrl(AmazonS3 ossClient, String bucketName, String key, Date expiration) {
+        return generatePresignedUrl(ossClient, bucketName, key, expiration, HttpMethod.GET);
+    }
+
+    /**
+     * Generates a signed url for accessing the {@link AmazonS3} with the given HTTP method.
+     *
+     * @param ossClient
+     * @param bucketName
+     * @param key
+     * @param expiration
+     * @param method     服务器 curl -X PUT 上传使用 PUT
+     * @return
+     */
+    public static String generatePresignedUrl(AmazonS3 ossClient, String bucketName, String key, Date expiration, HttpMethod method) {
         if (expiration == null) {
             expiration = new Date(System.currentTimeMillis() + 3600L * 1000);
         }
@@ -167,7 +253,7 @@ public class OsS3Utils {
         try {
             // https://youtrack.jetbrains.com/issue/BDIDE-1894/javalangIllegalArgumentException-awssdkconfigoverridejson-if-there-is-S3-connection-in-BDT-Panel
             Thread.currentThread().setContextClassLoader(null);
-            URL url = ossClient.generatePresignedUrl(bucketName, key, expiration);
+            URL url = ossClient.generatePresignedUrl(bucketName, key, expiration, method);
             return url.toString();
         } catch (Exception e) {
             LOG.info("generatePresignedUrl", e);
@@ -177,6 +263,70 @@ public class OsS3Utils {
         }
     }
 
+    /**
+     * 获取文件内容 不存在返回 null
+     *
+     * @param s3
+     * @param bucketName
+     * @param key
+     * @return
+     */
+    public static String getFileContent(AmazonS3 s3, String bucketName, String key) {
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            Thread.currentThread().setContextClassLoader(null);
+            if (!s3.doesObjectExist(bucketName, key)) {
+                return null;
+            }
+            return s3.getObjectAsString(bucketName, key);
+        } catch (Exception e) {
+            LOG.info("getFileContent", e);
+            throw new IllegalArgumentException("getFileContent error " + e.getMessage(), e);
+        } finally {
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    /**
+     * 下载文件到本地 例如 async-profiler 的 jfr 文件
+     *
+     * @param s3
+     * @param bucketName
+     * @param key
+     * @param file
+     */
+    public static void downloadFile(AmazonS3 s3, String bucketName, String key, File file) {
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            Thread.currentThread().setContextClassLoader(null);
+            s3.getObject(new GetObjectRequest(bucketName, key), file);
+        } catch (Exception e) {
+            LOG.info("downloadFile", e);
+            throw new IllegalArgumentException("downloadFile error " + e.getMessage(), e);
+        } finally {
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    /**
+     * 删除文件
+     *
+     * @param s3
+     * @param bucketName
+     * @param key
+     */
+    public static void deleteFile(AmazonS3 s3, String bucketName, String key) {
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            Thread.currentThread().setContextClassLoader(null);
+            s3.deleteObject(bucketName, key);
+        } catch (Exception e) {
+            LOG.info("deleteFile", e);
+        } finally {
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+        }
+    }
+
 //    public static void main(String[] args) throws FileNotFoundException {
 //        AmazonS3 amazonS3 = OsS3Utils.buildOssClient("http://localhost:9000",
 //                "Ez0doWOOZpmWM17x", "eSf1TGTPCdn4mtUT2i8aO8m2uvbVYSYj",
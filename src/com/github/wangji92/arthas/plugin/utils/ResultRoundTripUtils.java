@@ -0,0 +1,271 @@
+package com.github.wangji92.arthas.plugin.utils;
+
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.internal.OSSUtils;
+import com.amazonaws.HttpMethod;
+import com.amazonaws.services.s3.AmazonS3;
+import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
+import com.github.wangji92.arthas.plugin.ui.ArthasResultToolWindowFactory;
+import com.google.common.base.CharMatcher;
+import com.google.common.io.BaseEncoding;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import org.apache.commons.io.IOUtils;
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.Jedis;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 执行结果回传到 idea
+ * <p>
+ * 服务器: arthas json-format 输出 -> gzip -> base64 -> 上传到存储 key 中带有 correlation id
+ * idea: 后台轮询存储 获取后解压在 Arthas Result 窗口中展示,然后删除
+ * <p>
+ * oss/s3 使用 PUT 签名地址 curl 上传,redis 使用 redis-cli -x setex;剪切板模式没有存储不支持
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class ResultRoundTripUtils {
+
+    private static final Logger LOG = Logger.getInstance(ResultRoundTripUtils.class);
+
+    /**
+     * 签名地址中不带 Content-Type, curl 默认的 form Content-Type 需要去掉
+     */
+    private static final String CURL_UPLOAD_COMMAND = "curl -s -f -X PUT -H 'Content-Type:' --data-binary @- '%s'";
+
+    /**
+     * -x 标准输入作为最后一个参数 setex key ttl value
+     */
+    private static final String REDIS_UPLOAD_COMMAND = "redis-cli -h '%s' -p %s -x setex %s %d";
+
+    /**
+     * watch/trace -n 次数较多的时候需要等比较久
+     */
+    private static final long MAX_WAIT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private static final long MIN_POLL_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(2);
+
+    private static final long MAX_POLL_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * 终端颜色控制字符
+     */
+    private static final Pattern ANSI_ESCAPE = Pattern.compile("\u001B\\[[;\\d]*[A-Za-z]");
+
+    /**
+     * 一次执行结果的回传信息
+     */
+    public static class RoundTrip {
+
+        private final String correlationId;
+
+        /**
+         * oss s3 redis
+         */
+        private final String storage;
+
+        private final String storageKey;
+
+        private final String uploadCommand;
+
+        private RoundTrip(String correlationId, String storage, String storageKey, String uploadCommand) {
+            this.correlationId = correlationId;
+            this.storage = storage;
+            this.storageKey = storageKey;
+            this.uploadCommand = uploadCommand;
+        }
+
+        public String getCorrelationId() {
+            return correlationId;
+        }
+
+        /**
+         * 服务器执行的上传命令 从标准输入读取结果
+         *
+         * @return
+         */
+        public String getUploadCommand() {
+            return uploadCommand;
+        }
+    }
+
+    /**
+     * 准备回传 没有开启或者没有配置存储返回 null
+     *
+     * @param project
+     * @param settings
+     * @return
+     */
+    public static RoundTrip prepare(Project project, AppSettingsState settings) {
+        if (!settings.resultRoundTrip) {
+            return null;
+        }
+        String correlationId = UUID.randomUUID().toString();
+        Date expiration = new Date(System.currentTimeMillis() + MAX_WAIT_MILLIS + TimeUnit.HOURS.toMillis(1));
+        try {
+            if (settings.aliYunOss) {
+                OSS oss = AliyunOssUtils.buildOssClient(project);
+                try {
+                    String key = settings.directoryPrefix + "result/" + correlationId;
+                    String url = AliyunOssUtils.generatePresignedPutUrl(oss, settings.bucketName, OSSUtils.makeResourcePath(key), expiration);
+                    return new RoundTrip(correlationId, "oss", key, String.format(CURL_UPLOAD_COMMAND, url));
+                } finally {
+                    oss.shutdown();
+                }
+            } else if (settings.awsS3) {
+                AmazonS3 s3 = OsS3Utils.buildS3Client(project);
+                try {
+                    String key = settings.s3DirectoryPrefix + "result/" + correlationId;
+                    String url = OsS3Utils.generatePresignedUrl(s3, settings.s3BucketName, key, expiration, HttpMethod.PUT);
+                    return new RoundTrip(correlationId, "s3", key, String.format(CURL_UPLOAD_COMMAND, url));
+                } finally {
+                    s3.shutdown();
+                }
+            } else if (settings.hotRedefineRedis) {
+                String key = settings.redisCacheKey + "_result_" + correlationId;
+                return new RoundTrip(correlationId, "redis", key, String.format(REDIS_UPLOAD_COMMAND, settings.redisAddress, DirectScriptUtils.redisPortAndAuth(settings), key, settings.redisCacheKeyTtl));
+            }
+        } catch (Exception e) {
+            LOG.info("[arthas] prepare result round trip error", e);
+            NotifyUtils.notifyMessage(project, "result round trip disabled this time: " + e.getMessage(), NotificationType.WARNING);
+            return null;
+        }
+        NotifyUtils.notifyMessage(project, "result round trip need oss/s3/redis storage, clipboard mode not support", NotificationType.WARNING);
+        return null;
+    }
+
+    /**
+     * 后台轮询获取执行结果 获取到之后在 Arthas Result 窗口展示
+     *
+     * @param project
+     * @param roundTrip
+     * @param title
+     */
+    public static void fetchInBackground(Project project, RoundTrip roundTrip, String title) {
+        fetchInBackground(project, roundTrip, title, content -> show(project, title, content));
+    }
+
+    /**
+     * 后台轮询获取执行结果 获取到之后在后台线程中处理
+     *
+     * @param project
+     * @param roundTrip
+     * @param title
+     * @param consumer  解码之后的结果
+     */
+    public static void fetchInBackground(Project project, RoundTrip roundTrip, String title, Consumer<String> consumer) {
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Waiting arthas result " + StringUtils.abbreviate(title, 40), true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                AppSettingsState settings = AppSettingsState.getInstance(project);
+                long deadline = System.currentTimeMillis() + MAX_WAIT_MILLIS;
+                long interval = MIN_POLL_INTERVAL_MILLIS;
+                while (System.currentTimeMillis() < deadline) {
+                    indicator.checkCanceled();
+                    String base64Result = null;
+                    try {
+                        base64Result = fetchAndDelete(project, settings, roundTrip);
+                    } catch (Exception e) {
+                        // 网络抖动 继续轮询
+                        LOG.info("[arthas] fetch result " + roundTrip.correlationId + " error", e);
+                    }
+                    if (base64Result != null) {
+                        consumer.accept(decode(base64Result));
+                        return;
+                    }
+                    sleep(indicator, interval);
+                    interval = Math.min(interval * 2, MAX_POLL_INTERVAL_MILLIS);
+                }
+                NotifyUtils.notifyMessage(project, "wait arthas result timeout " + roundTrip.correlationId, NotificationType.WARNING);
+            }
+        });
+    }
+
+    /**
+     * 获取结果 没有上传返回 null 获取到之后删除
+     */
+    private static String fetchAndDelete(Project project, AppSettingsState settings, RoundTrip roundTrip) {
+        switch (roundTrip.storage) {
+            case "oss": {
+                OSS oss = AliyunOssUtils.buildOssClient(project);
+                try {
+                    String content = AliyunOssUtils.getFileContent(oss, settings.bucketName, roundTrip.storageKey);
+                    if (content != null) {
+                        AliyunOssUtils.deleteFile(oss, settings.bucketName, roundTrip.storageKey);
+                    }
+                    return content;
+                } finally {
+                    oss.shutdown();
+                }
+            }
+            case "s3": {
+                AmazonS3 s3 = OsS3Utils.buildS3Client(project);
+                try {
+                    String content = OsS3Utils.getFileContent(s3, settings.s3BucketName, roundTrip.storageKey);
+                    if (content != null) {
+                        OsS3Utils.deleteFile(s3, settings.s3BucketName, roundTrip.storageKey);
+                    }
+                    return content;
+                } finally {
+                    s3.shutdown();
+                }
+            }
+            default:
+                try (Jedis jedis = JedisUtils.buildJedisClient(settings.redisAddress, settings.redisPort, 5000, settings.redisAuth)) {
+                    String content = jedis.get(roundTrip.storageKey);
+                    if (content != null) {
+                        jedis.del(roundTrip.storageKey);
+                    }
+                    return content;
+                }
+        }
+    }
+
+    /**
+     * base64 -> gunzip -> 去掉终端颜色
+     *
+     * @param base64Result
+     * @return
+     */
+    static String decode(String base64Result) {
+        byte[] gzip = BaseEncoding.base64().decode(CharMatcher.whitespace().removeFrom(base64Result));
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return ANSI_ESCAPE.matcher(IOUtils.toString(inputStream, StandardCharsets.UTF_8)).replaceAll("");
+        } catch (IOException e) {
+            throw new IllegalArgumentException("decode arthas result error " + e.getMessage(), e);
+        }
+    }
+
+    private static void show(Project project, String title, String content) {
+        ApplicationManager.getApplication().invokeLater(() -> ArthasResultToolWindowFactory.showResult(project, title, content), project.getDisposed());
+    }
+
+    private static void sleep(ProgressIndicator indicator, long millis) {
+        long end = System.currentTimeMillis() + millis;
+        while (System.currentTimeMillis() < end) {
+            indicator.checkCanceled();
+            try {
+                TimeUnit.MILLISECONDS.sleep(Math.min(200, end - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.wangji92.arthas.plugin.utils;
 
+import com.github.wangji92.arthas.plugin.common.index.SpringStaticContextDiscoveryService;
 import com.github.wangji92.arthas.plugin.constants.ArthasCommandConstants;
 import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
 import com.google.common.base.Splitter;
@@ -57,12 +58,14 @@ public class SpringStaticContextUtils {
      * @return
      */
     public static String getStaticSpringContextPrefix(Project project) {
+        discoverStaticSpringContext(project);
         String springStaticContextConfig = getSpringStaticContextConfig(project);
         //#springContext=填充
         return "" + ArthasCommandConstants.SPRING_CONTEXT_PARAM + "=" + springStaticContextConfig;
     }
 
     public static String getStaticSpringContextClassName(Project project) {
+        discoverStaticSpringContext(project);
         String springStaticContextConfig = getSpringStaticContextConfig(project);
         //#springContext=填充,#springContext.getBean("%s")
         // 获取class的classloader
@@ -75,15 +78,14 @@ public class SpringStaticContextUtils {
     }
 
     /**
-     * 是否配置 static spring context 上下文
+     * 是否配置 static spring context 上下文 只读取上一次自动发现的结果 action update 中可以调用
      *
      * @param project
      * @return
      */
     public static boolean booleanConfigStaticSpringContext(Project project) {
         try {
-            getStaticSpringContextClassName(project);
-            return true;
+            return !Splitter.on('@').omitEmptyStrings().splitToList(getSpringStaticContextConfig(project)).isEmpty();
         } catch (Exception e) {
             return false;
         }
@@ -96,6 +98,7 @@ public class SpringStaticContextUtils {
      * @return
      */
     public static boolean booleanConfigStaticSpringContextFalseOpenConfig(Project project) {
+        awaitStaticSpringContext(project);
         boolean staticSpringContextConfig = SpringStaticContextUtils.booleanConfigStaticSpringContext(project);
         if (!staticSpringContextConfig) {
             NotifyUtils.notifyMessage(project, "Static Spring context requires manual configuration <a href=\"https://www.yuque.com/arthas-idea-plugin/help/ugrc8n\">arthas idea setting</a>", NotificationType.ERROR);
@@ -104,13 +107,52 @@ public class SpringStaticContextUtils {
     }
 
 
+    /**
+     * 没有手动配置的时候按需自动发现 static spring context 生成命令、打开配置的时候调用
+     *
+     * @param project
+     */
+    public static void discoverStaticSpringContext(Project project) {
+        AppSettingsState instance = AppSettingsState.getInstance(project);
+        if (StringUtils.isBlank(instance.staticSpringContextOgnl) || ArthasCommandConstants.DEFAULT_SPRING_CONTEXT_SETTING.equals(instance.staticSpringContextOgnl)) {
+            SpringStaticContextDiscoveryService.getInstance(project).requestDiscovery();
+        }
+    }
+
+    /**
+     * 没有手动配置的时候按需自动发现 并等待正在进行的发现结束 使用 spring context 的命令执行前调用,不要在 action update 中调用
+     *
+     * @param project
+     */
+    public static void awaitStaticSpringContext(Project project) {
+        discoverStaticSpringContext(project);
+        SpringStaticContextDiscoveryService.getInstance(project).awaitDiscovery();
+    }
+
+    /**
+     * 当前生效的 static spring context 手动配置优先 其次上一次自动发现的 都没有返回原始配置
+     *
+     * @param project
+     * @return
+     */
+    public static String getEffectiveStaticSpringContextOgnl(Project project) {
+        AppSettingsState instance = AppSettingsState.getInstance(project);
+        String springContextValue = instance.staticSpringContextOgnl;
+        if (StringUtils.isBlank(springContextValue) || ArthasCommandConstants.DEFAULT_SPRING_CONTEXT_SETTING.equals(springContextValue)) {
+            String discovered = SpringStaticContextDiscoveryService.getInstance(project).getDiscoveredStaticSpringContext();
+            if (StringUtils.isNotBlank(discovered)) {
+                return discovered;
+            }
+        }
+        return springContextValue;
+    }
+
     /**
      * 获取spring static context的配置
      */
     private static String getSpringStaticContextConfig(Project project) {
         // 这里换个获取配置的方式
-        AppSettingsState instance = AppSettingsState.getInstance(project);
-        String springContextValue = instance.staticSpringContextOgnl;
+        String springContextValue = getEffectiveStaticSpringContextOgnl(project);
         if (StringUtils.isBlank(springContextValue) || ArthasCommandConstants.DEFAULT_SPRING_CONTEXT_SETTING.equals(springContextValue)) {
             throw new IllegalArgumentException("Static Spring context requires manual configuration");
         }
@@ -1,6 +1,6 @@
 package com.github.wangji92.arthas.plugin.utils;
 
-import org.apache.commons.text.StringSubstitutor;
+import org.apache.commons.text.lookup.StringLookup;
 
 import java.util.Map;
 
@@ -36,11 +36,8 @@ public class StringUtils extends org.apache.commons.lang3.StringUtils {
      * @return
      */
     public static String stringSubstitutorFromFilePath(String filePath, Map<String, String> param) {
-        String templateString = IoUtils.getResourceFile(filePath);
         //禁止循环的进行遍历替换  Infinite loop in property interpolation
-        StringSubstitutor stringSubstitutor = new StringSubstitutor(param);
-        //key value 字符串替换
-        return stringSubstitutor.replace(templateString);
+        return TemplateUtils.renderFile(filePath, param::get);
     }
 
     /**
@@ -51,10 +48,20 @@ public class StringUtils extends org.apache.commons.lang3.StringUtils {
      * @return
      */
     public static String stringSubstitutorFromText(String templateString, Map<String, String> param) {
-        StringSubstitutor stringSubstitutor = new StringSubstitutor(param);
-        stringSubstitutor.setDisableSubstitutionInValues(true);
         //key value 字符串替换
-        return stringSubstitutor.replace(templateString);
+        return TemplateUtils.renderText(templateString, param::get);
+    }
+
+    /**
+     * 模板处理 变量按需获取 只有模板中出现的变量才会计算
+     *
+     * @param templateString
+     * @param lookup         返回 null 保留原始占位符
+     * @return
+     */
+    public static String stringSubstitutorFromText(String templateString, StringLookup lookup) {
+        //key value 字符串替换
+        return TemplateUtils.renderText(templateString, lookup::lookup);
     }
 
 
@@ -0,0 +1,199 @@
+package com.github.wangji92.arthas.plugin.utils;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 预编译的 ${xxx} 模板 和 common-text StringSubstitutor 默认规则保持一致
+ * <p>
+ * 1. ${name} 找不到值的时候保留原样
+ * 2. ${name:-default} 找不到值使用默认值
+ * 3. $${name} 转义为 ${name}
+ * <p>
+ * 模板只解析一次缓存为不可变的 token 数组,渲染的时候一次性分配 StringBuilder
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class TemplateUtils {
+
+    private static final String VARIABLE_PREFIX = "${";
+
+    private static final char VARIABLE_SUFFIX = '}';
+
+    private static final char ESCAPE = '$';
+
+    private static final String DEFAULT_VALUE_DELIMITER = ":-";
+
+    /**
+     * 命令模板 用户自定义的命令也会走这里,限制一下数量
+     */
+    private static final LoadingCache<String, Template> TEXT_TEMPLATE_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(512)
+            .build(CacheLoader.from(TemplateUtils::compile));
+
+    /**
+     * 插件中的 /template/*.sh 文件模板
+     */
+    private static final Map<String, Template> FILE_TEMPLATE_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 编译后的模板 literal 和 variable 交替出现
+     */
+    public static final class Template {
+        /**
+         * 字面量 variableNames[i] 之前的文本为 literals[i], 最后一个字面量为 literals[variableNames.length]
+         */
+        private final String[] literals;
+
+        private final String[] variableNames;
+
+        /**
+         * 没有默认值为 null
+         */
+        private final String[] defaultValues;
+
+        /**
+         * 原始的占位符文本 找不到值的时候原样输出
+         */
+        private final String[] rawVariables;
+
+        private final int literalLength;
+
+        private Template(List<String> literals, List<String> variableNames, List<String> defaultValues, List<String> rawVariables) {
+            this.literals = literals.toArray(new String[0]);
+            this.variableNames = variableNames.toArray(new String[0]);
+            this.defaultValues = defaultValues.toArray(new String[0]);
+            this.rawVariables = rawVariables.toArray(new String[0]);
+            this.literalLength = literals.stream().mapToInt(String::length).sum();
+        }
+
+        /**
+         * 渲染
+         *
+         * @param resolver              返回 null 表示没有这个变量
+         * @param substitutionInValues 变量值中的 ${xxx} 是否继续替换
+         * @return
+         */
+        public String render(Function<String, String> resolver, boolean substitutionInValues) {
+            return this.render(resolver, substitutionInValues, null);
+        }
+
+        private String render(Function<String, String> resolver, boolean substitutionInValues, Set<String> priorVariables) {
+            if (variableNames.length == 0) {
+                return literals[0];
+            }
+            String[] values = new String[variableNames.length];
+            int length = literalLength;
+            for (int i = 0; i < variableNames.length; i++) {
+                String value = resolver.apply(variableNames[i]);
+                if (value == null) {
+                    value = defaultValues[i];
+                }
+                if (value == null) {
+                    value = rawVariables[i];
+                } else if (substitutionInValues && value.contains(VARIABLE_PREFIX)) {
+                    Set<String> variables = priorVariables == null ? new LinkedHashSet<>() : new LinkedHashSet<>(priorVariables);
+                    if (!variables.add(variableNames[i])) {
+                        throw new IllegalStateException("Infinite loop in property interpolation of " + rawVariables[i] + ": " + String.join("->", variables));
+                    }
+                    value = compile(value).render(resolver, true, variables);
+                }
+                values[i] = value;
+                length += value.length();
+            }
+            StringBuilder builder = new StringBuilder(length);
+            for (int i = 0; i < values.length; i++) {
+                builder.append(literals[i]).append(values[i]);
+            }
+            return builder.append(literals[values.length]).toString();
+        }
+    }
+
+    /**
+     * 文本模板替换 变量值不再替换
+     *
+     * @param templateString
+     * @param resolver
+     * @return
+     */
+    public static String renderText(String templateString, Function<String, String> resolver) {
+        if (templateString == null) {
+            return null;
+        }
+        return TEXT_TEMPLATE_CACHE.getUnchecked(templateString).render(resolver, false);
+    }
+
+    /**
+     * 插件资源文件模板替换 变量值中的 ${xxx} 会继续替换
+     *
+     * @param filePath
+     * @param resolver
+     * @return
+     */
+    public static String renderFile(String filePath, Function<String, String> resolver) {
+        Template template = FILE_TEMPLATE_CACHE.get(filePath);
+        if (template == null) {
+            String templateString = IoUtils.getResourceFile(filePath);
+            template = compile(templateString);
+            if (StringUtils.isNotEmpty(templateString)) {
+                FILE_TEMPLATE_CACHE.putIfAbsent(filePath, template);
+            }
+        }
+        return template.render(resolver, true);
+    }
+
+    /**
+     * 解析模板
+     *
+     * @param templateString
+     * @return
+     */
+    public static Template compile(String templateString) {
+        List<String> literals = new ArrayList<>();
+        List<String> variableNames = new ArrayList<>();
+        List<String> defaultValues = new ArrayList<>();
+        List<String> rawVariables = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int length = templateString.length();
+        int pos = 0;
+        while (pos < length) {
+            int start = templateString.indexOf(VARIABLE_PREFIX, pos);
+            if (start < 0) {
+                literal.append(templateString, pos, length);
+                break;
+            }
+            if (start > pos && templateString.charAt(start - 1) == ESCAPE) {
+                // $${xxx} 转义 去掉转义字符
+                literal.append(templateString, pos, start - 1).append(VARIABLE_PREFIX);
+                pos = start + VARIABLE_PREFIX.length();
+                continue;
+            }
+            int end = templateString.indexOf(VARIABLE_SUFFIX, start + VARIABLE_PREFIX.length());
+            if (end < 0) {
+                literal.append(templateString, pos, length);
+                break;
+            }
+            literal.append(templateString, pos, start);
+            String variable = templateString.substring(start + VARIABLE_PREFIX.length(), end);
+            int delimiter = variable.indexOf(DEFAULT_VALUE_DELIMITER);
+            literals.add(literal.toString());
+            literal.setLength(0);
+            variableNames.add(delimiter < 0 ? variable : variable.substring(0, delimiter));
+            defaultValues.add(delimiter < 0 ? null : variable.substring(delimiter + DEFAULT_VALUE_DELIMITER.length()));
+            rawVariables.add(templateString.substring(start, end + 1));
+            pos = end + 1;
+        }
+        literals.add(literal.toString());
+        return new Template(literals, variableNames, defaultValues, rawVariables);
+    }
+}
@@ -0,0 +1,304 @@
+package com.github.wangji92.arthas.plugin.utils;
+
+import com.github.wangji92.arthas.plugin.common.command.ArthasCommandLine;
+import com.github.wangji92.arthas.plugin.common.enums.TimeTunnelCommandEnum;
+import com.github.wangji92.arthas.plugin.constants.ArthasCommandConstants;
+import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationAction;
+import com.intellij.notification.NotificationGroupManager;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.*;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.TypeConversionUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * tt -t 每条记录都强引用 target、入参、返回值 直到 tt --delete-all,大对象的服务容易 OOM
+ * <p>
+ * 限制记录次数 -n、按照 psi 参数类型估算每条记录的内存、到时间后 tt --delete-all
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class TimeTunnelUtils {
+
+    /**
+     * 清理最多延迟一天
+     */
+    public static final int MAX_CLEANUP_SECONDS = 24 * 60 * 60;
+
+    private static final String DELETE_ALL = TimeTunnelCommandEnum.DELETE_ALL.getCode();
+
+    private static final Pattern COUNT_OPTION = Pattern.compile("(\\s-n\\s+)\\S+");
+
+    /**
+     * 估算的总大小超过 10MB 提示
+     */
+    private static final long WARN_BYTES = 10 * 1024 * 1024;
+
+    /**
+     * TimeFragment、Advice 和参数数组本身
+     */
+    private static final int RECORD_BYTES = 96;
+
+    private static final int OBJECT_HEADER_BYTES = 16;
+
+    private static final int REFERENCE_BYTES = 4;
+
+    /**
+     * 装箱的基本类型
+     */
+    private static final int BOXED_BYTES = 16;
+
+    /**
+     * 按照 16 个字符估算
+     */
+    private static final int STRING_BYTES = 56;
+
+    /**
+     * 数组、集合、流的大小取决于运行时的数据 按照 1KB 估算并提示
+     */
+    private static final int UNBOUNDED_BYTES = 1024;
+
+    private static final int MAX_DEPTH = 3;
+
+    private static final String[] UNBOUNDED_CLASSES = {CommonClassNames.JAVA_UTIL_COLLECTION, CommonClassNames.JAVA_UTIL_MAP,
+            "java.io.InputStream", "java.io.Reader", "java.nio.Buffer", "java.lang.CharSequence"};
+
+    /**
+     * 一条记录估算的内存
+     */
+    public static class RecordEstimate {
+
+        private final long bytes;
+
+        /**
+         * 大小取决于运行时数据的类型
+         */
+        private final List<String> unboundedTypes;
+
+        RecordEstimate(long bytes, List<String> unboundedTypes) {
+            this.bytes = bytes;
+            this.unboundedTypes = unboundedTypes;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public List<String> getUnboundedTypes() {
+            return unboundedTypes;
+        }
+
+        /**
+         * 需要在开启前提示
+         *
+         * @param count -n
+         * @return
+         */
+        public boolean isRisky(int count) {
+            return !unboundedTypes.isEmpty() || bytes * count > WARN_BYTES;
+        }
+
+        public String format(int count) {
+            return String.format("≈%s/record × %d ≈%s", formatBytes(bytes), count, formatBytes(bytes * count));
+        }
+    }
+
+    /**
+     * 自动清理的秒数
+     *
+     * @param settings
+     * @return 0 不清理
+     */
+    public static int getCleanupSeconds(AppSettingsState settings) {
+        return settings.timeTunnelCleanupSeconds == null ? 0 : Math.max(0, Math.min(settings.timeTunnelCleanupSeconds, MAX_CLEANUP_SECONDS));
+    }
+
+    /**
+     * tt -t 记录的次数 不超过 {@link ArthasCommandConstants#TIME_TUNNEL_MAX_COUNT}
+     *
+     * @param invokeCount 配置的调用次数
+     * @return
+     */
+    public static int getRecordCount(String invokeCount) {
+        int count = StringUtils.isNumeric(invokeCount) ? Integer.parseInt(invokeCount) : Integer.parseInt(ArthasCommandConstants.INVOKE_COUNT);
+        return Math.max(1, Math.min(count, ArthasCommandConstants.TIME_TUNNEL_MAX_COUNT));
+    }
+
+    /**
+     * tt -t 没有 -n 或者超过上限的时候改为有限的次数 其他命令不变
+     *
+     * @param command     一个命令
+     * @param invokeCount 配置的调用次数
+     * @return
+     */
+    public static String boundCommand(String command, String invokeCount) {
+        List<ArthasCommandLine> commandLines = ArthasCommandLine.parse(command);
+        if (commandLines.size() != 1 || !isRecordCommand(commandLines.get(0))) {
+            return command;
+        }
+        String count = commandLines.get(0).getOption("-n");
+        if (count == null) {
+            return command.trim() + " -n " + getRecordCount(invokeCount);
+        }
+        if (StringUtils.isNumeric(count) && Integer.parseInt(count) <= ArthasCommandConstants.TIME_TUNNEL_MAX_COUNT) {
+            return command;
+        }
+        Matcher matcher = COUNT_OPTION.matcher(command);
+        return matcher.find() ? matcher.replaceFirst("$1" + getRecordCount(count)) : command;
+    }
+
+    /**
+     * 是否有 tt -t 记录的命令
+     *
+     * @param commands 一行一个或者 ; 分割
+     * @return
+     */
+    public static boolean hasRecordCommand(String commands) {
+        return ArthasCommandLine.parse(commands).stream().anyMatch(TimeTunnelUtils::isRecordCommand);
+    }
+
+    /**
+     * 直接执行脚本的时候 脚本后台到时间后 tt --delete-all
+     *
+     * @param project
+     * @param commands
+     * @return 没有 tt -t 或者不清理返回空
+     */
+    public static String getCleanupSecondsParam(Project project, String commands) {
+        int seconds = getCleanupSeconds(AppSettingsState.getInstance(project));
+        return seconds > 0 && hasRecordCommand(commands) ? String.valueOf(seconds) : "";
+    }
+
+    /**
+     * 复制的 tt -t 命令 IDE 不能在服务器上执行 到时间后提示复制或者直接执行 tt --delete-all
+     *
+     * @param project
+     * @param commands
+     */
+    public static void scheduleCleanupReminder(Project project, String commands) {
+        if (project == null || project.isDisposed() || !hasRecordCommand(commands)) {
+            return;
+        }
+        int seconds = getCleanupSeconds(AppSettingsState.getInstance(project));
+        if (seconds <= 0) {
+            return;
+        }
+        AppExecutorUtil.getAppScheduledExecutorService().schedule(() -> {
+            if (project.isDisposed()) {
+                return;
+            }
+            Notification notification = NotificationGroupManager.getInstance().getNotificationGroup("arthas")
+                    .createNotification(String.format("tt -t records copied %ds ago still hold params and return objects, run %s to release them", seconds, DELETE_ALL), NotificationType.WARNING);
+            notification.setTitle("Arthas idea plugin");
+            notification.addAction(NotificationAction.createSimpleExpiring("Copy " + DELETE_ALL, () -> {
+                ClipboardUtils.setClipboardString(DELETE_ALL);
+                NotifyUtils.notifyMessageDefault(project);
+            }));
+            notification.addAction(NotificationAction.createSimpleExpiring("Execute " + DELETE_ALL,
+                    () -> CommonExecuteScriptUtils.executeCommonScript(project, "", DELETE_ALL, "")));
+            notification.notify(project);
+        }, seconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 按照参数和返回值的类型估算一条记录的内存 target 一般是单例不计算
+     *
+     * @param psiMethod 需要在 read action 中调用
+     * @return
+     */
+    public static RecordEstimate estimate(@NotNull PsiMethod psiMethod) {
+        List<String> unboundedTypes = new ArrayList<>();
+        Set<String> visiting = new HashSet<>();
+        PsiParameter[] parameters = psiMethod.getParameterList().getParameters();
+        long bytes = RECORD_BYTES + (long) REFERENCE_BYTES * parameters.length;
+        for (PsiParameter parameter : parameters) {
+            bytes += estimateType(parameter.getType(), 0, visiting, unboundedTypes);
+        }
+        bytes += estimateType(psiMethod.getReturnType(), 0, visiting, unboundedTypes);
+        return new RecordEstimate(bytes, unboundedTypes);
+    }
+
+    private static boolean isRecordCommand(ArthasCommandLine commandLine) {
+        return "tt".equals(commandLine.getName()) && commandLine.hasFlag("-t");
+    }
+
+    private static long estimateType(PsiType type, int depth, Set<String> visiting, List<String> unboundedTypes) {
+        if (type == null || PsiType.VOID.equals(type)) {
+            return 0;
+        }
+        if (type instanceof PsiPrimitiveType || TypeConversionUtil.isPrimitiveWrapper(type)) {
+            return BOXED_BYTES;
+        }
+        if (type instanceof PsiArrayType) {
+            addUnboundedType(type, unboundedTypes);
+            return UNBOUNDED_BYTES;
+        }
+        if (!(type instanceof PsiClassType)) {
+            return OBJECT_HEADER_BYTES;
+        }
+        PsiClass psiClass = ((PsiClassType) type).resolve();
+        if (psiClass == null || psiClass instanceof PsiTypeParameter) {
+            return OBJECT_HEADER_BYTES;
+        }
+        if (CommonClassNames.JAVA_LANG_STRING.equals(psiClass.getQualifiedName())) {
+            return STRING_BYTES;
+        }
+        if (psiClass.isEnum()) {
+            // 枚举的实例是共享的
+            return 0;
+        }
+        for (String unboundedClass : UNBOUNDED_CLASSES) {
+            if (InheritanceUtil.isInheritor(psiClass, unboundedClass)) {
+                addUnboundedType(type, unboundedTypes);
+                return UNBOUNDED_BYTES;
+            }
+        }
+        String qualifiedName = psiClass.getQualifiedName();
+        // 接口、抽象类不知道实现 jdk 的类不展开
+        if (depth >= MAX_DEPTH || psiClass.isInterface() || psiClass.hasModifierProperty(PsiModifier.ABSTRACT)
+                || qualifiedName == null || qualifiedName.startsWith("java.") || !visiting.add(qualifiedName)) {
+            return OBJECT_HEADER_BYTES;
+        }
+        long bytes = OBJECT_HEADER_BYTES;
+        for (PsiField field : psiClass.getAllFields()) {
+            if (field.hasModifierProperty(PsiModifier.STATIC)) {
+                continue;
+            }
+            PsiType fieldType = field.getType();
+            if (fieldType instanceof PsiPrimitiveType) {
+                bytes += PsiType.LONG.equals(fieldType) || PsiType.DOUBLE.equals(fieldType) ? 8 : 4;
+            } else {
+                bytes += REFERENCE_BYTES + estimateType(fieldType, depth + 1, visiting, unboundedTypes);
+            }
+        }
+        visiting.remove(qualifiedName);
+        return bytes;
+    }
+
+    private static void addUnboundedType(PsiType type, List<String> unboundedTypes) {
+        String typeName = type.getPresentableText();
+        if (!unboundedTypes.contains(typeName)) {
+            unboundedTypes.add(typeName);
+        }
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + "B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1fKB", bytes / 1024.0);
+        }
+        return String.format("%.1fMB", bytes / 1024.0 / 1024.0);
+    }
+}
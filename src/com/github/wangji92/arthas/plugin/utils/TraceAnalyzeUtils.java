@@ -0,0 +1,84 @@
+package com.github.wangji92.arthas.plugin.utils;
+
+import com.github.wangji92.arthas.plugin.common.trace.TraceLatencyHints;
+import com.github.wangji92.arthas.plugin.common.trace.TraceNode;
+import com.github.wangji92.arthas.plugin.common.trace.TraceParser;
+import com.github.wangji92.arthas.plugin.ui.ArthasResultToolWindowFactory;
+import com.github.wangji92.arthas.plugin.ui.TraceAnalyzerPanel;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+/**
+ * trace 输出分析: 合并多次调用,展示分位数调用树,方法声明行尾展示耗时
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class TraceAnalyzeUtils {
+
+    /**
+     * 回传的结果 trace 命令额外展示分析结果
+     *
+     * @param command
+     * @return
+     */
+    public static boolean isTraceCommand(String command) {
+        return StringUtils.startsWith(StringUtils.trim(command), "trace ");
+    }
+
+    /**
+     * 展示原始结果和分析结果 可以在后台线程调用
+     *
+     * @param project
+     * @param title
+     * @param output
+     */
+    public static void showResultAndAnalysis(Project project, String title, String output) {
+        ApplicationManager.getApplication().invokeLater(() -> ArthasResultToolWindowFactory.showResult(project, title, output), project.getDisposed());
+        analyze(project, title, output, false);
+    }
+
+    /**
+     * 解析 trace 输出 没有 trace 结果的时候提示
+     *
+     * @param project
+     * @param title
+     * @param output
+     * @param notifyEmpty
+     */
+    public static void analyze(Project project, String title, String output, boolean notifyEmpty) {
+        TraceNode root = TraceParser.parse(output);
+        if (root.getInvocations() == 0) {
+            if (notifyEmpty) {
+                NotifyUtils.notifyMessage(project, "no trace result found, trace output start with `---ts=", NotificationType.WARNING);
+            }
+            return;
+        }
+        ReadAction.nonBlocking(() -> TraceLatencyHints.build(project, root))
+                .inSmartMode(project)
+                .expireWith(project)
+                .finishOnUiThread(ModalityState.defaultModalityState(), hints -> {
+                    TraceLatencyHints.install(project, hints);
+                    repaintEditors(project);
+                    ArthasResultToolWindowFactory.showComponent(project, "analyze " + title, new TraceAnalyzerPanel(project, root), () -> {
+                        TraceLatencyHints.uninstall(project, root);
+                        repaintEditors(project);
+                    });
+                })
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    private static void repaintEditors(Project project) {
+        for (Editor editor : EditorFactory.getInstance().getAllEditors()) {
+            if (project.equals(editor.getProject())) {
+                editor.getContentComponent().repaint();
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.github.wangji92.arthas.plugin.utils;
+
+import com.github.wangji92.arthas.plugin.setting.AppSettingsState;
+import com.intellij.psi.*;
+import com.intellij.psi.util.PsiUtil;
+
+/**
+ * 简单方法识别: getter、setter、equals/hashCode/toString,开启配置之后包含一行委托
+ * <p>
+ * 这些方法 trace/watch 增强之后几乎没有信息 只增加热点路径上的开销
+ * 一行转发的方法可能就是要排查的入口 默认不算简单方法
+ *
+ * @author 汪小哥
+ * @date 19-10-2026
+ */
+public class TrivialMethodUtils {
+
+    /**
+     * 是否为简单方法 一行委托是否算简单方法看配置 {@link AppSettingsState#skipTrivialDelegation}
+     *
+     * @param psiMethod
+     * @return
+     */
+    public static boolean isTrivial(PsiMethod psiMethod) {
+        if (psiMethod == null) {
+            return false;
+        }
+        return isTrivial(psiMethod, AppSettingsState.getInstance(psiMethod.getProject()).skipTrivialDelegation);
+    }
+
+    /**
+     * 是否为简单方法
+     *
+     * @param psiMethod
+     * @param delegation 一行委托是否算简单方法
+     * @return
+     */
+    public static boolean isTrivial(PsiMethod psiMethod, boolean delegation) {
+        if (psiMethod == null || psiMethod.isConstructor()) {
+            return false;
+        }
+        if (isObjectMethod(psiMethod)) {
+            return true;
+        }
+        PsiCodeBlock body = psiMethod.getBody();
+        if (body == null) {
+            return false;
+        }
+        PsiStatement[] statements = body.getStatements();
+        if (statements.length == 2 && isReturnThis(statements[1])) {
+            // 链式 setter
+            return isSetter(psiMethod, statements[0]);
+        }
+        if (statements.length != 1) {
+            return false;
+        }
+        return isGetter(psiMethod, statements[0]) || isSetter(psiMethod, statements[0]) || (delegation && isDelegation(statements[0]));
+    }
+
+    private static boolean isObjectMethod(PsiMethod psiMethod) {
+        int parameterCount = psiMethod.getParameterList().getParametersCount();
+        switch (psiMethod.getName()) {
+            case "equals":
+                return parameterCount == 1;
+            case "hashCode":
+            case "toString":
+                return parameterCount == 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * return this.field;
+     */
+    private static boolean isGetter(PsiMethod psiMethod, PsiStatement statement) {
+        String name = psiMethod.getName();
+        if (psiMethod.getParameterList().getParametersCount() != 0 || !(name.startsWith("get") || name.startsWith("is"))) {
+            return false;
+        }
+        if (!(statement instanceof PsiReturnStatement)) {
+            return false;
+        }
+        return isFieldReference(((PsiReturnStatement) statement).getReturnValue());
+    }
+
+    /**
+     * this.field = param;
+     */
+    private static boolean isSetter(PsiMethod psiMethod, PsiStatement statement) {
+        if (psiMethod.getParameterList().getParametersCount() != 1 || !psiMethod.getName().startsWith("set")) {
+            return false;
+        }
+        if (!(statement instanceof PsiExpressionStatement)
+                || !(((PsiExpressionStatement) statement).getExpression() instanceof PsiAssignmentExpression)) {
+            return false;
+        }
+        PsiAssignmentExpression assignment = (PsiAssignmentExpression) ((PsiExpressionStatement) statement).getExpression();
+        return isFieldReference(assignment.getLExpression()) && isSimpleArgument(assignment.getRExpression());
+    }
+
+    /**
+     * return target.method(param); 或者 target.method(param); 参数只有参数、字段、常量
+     */
+    private static boolean isDelegation(PsiStatement statement) {
+        PsiExpression expression = null;
+        if (statement instanceof PsiReturnStatement) {
+            expression = ((PsiReturnStatement) statement).getReturnValue();
+        } else if (statement instanceof PsiExpressionStatement) {
+            expression = ((PsiExpressionStatement) statement).getExpression();
+        }
+        expression = PsiUtil.skipParenthesizedExprDown(expression);
+        if (!(expression instanceof PsiMethodCallExpression)) {
+            return false;
+        }
+        PsiMethodCallExpression call = (PsiMethodCallExpression) expression;
+        PsiExpression qualifier = call.getMethodExpression().getQualifierExpression();
+        if (qualifier != null && !(qualifier instanceof PsiThisExpression) && !(qualifier instanceof PsiSuperExpression) && !isFieldReference(qualifier)) {
+            return false;
+        }
+        for (PsiExpression argument : call.getArgumentList().getExpressions()) {
+            if (!isSimpleArgument(argument)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isReturnThis(PsiStatement statement) {
+        return statement instanceof PsiReturnStatement
+                && PsiUtil.skipParenthesizedExprDown(((PsiReturnStatement) statement).getReturnValue()) instanceof PsiThisExpression;
+    }
+
+    private static boolean isFieldReference(PsiExpression expression) {
+        expression = PsiUtil.skipParenthesizedExprDown(expression);
+        if (!(expression instanceof PsiReferenceExpression)) {
+            return false;
+        }
+        PsiReferenceExpression reference = (PsiReferenceExpression) expression;
+        PsiExpression qualifier = reference.getQualifierExpression();
+        return (qualifier == null || qualifier instanceof PsiThisExpression) && reference.resolve() instanceof PsiField;
+    }
+
+    private static boolean isSimpleArgument(PsiExpression expression) {
+        expression = PsiUtil.skipParenthesizedExprDown(expression);
+        if (expression instanceof PsiLiteralExpression || expression instanceof PsiThisExpression) {
+            return true;
+        }
+        if (!(expression instanceof PsiReferenceExpression)) {
+            return false;
+        }
+        PsiElement resolved = ((PsiReferenceExpression) expression).resolve();
+        return resolved instanceof PsiParameter || resolved instanceof PsiField;
+    }
+}